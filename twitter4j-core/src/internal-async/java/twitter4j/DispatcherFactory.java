@@ -58,6 +58,10 @@ final class DispatcherFactory {
         } catch (NoSuchMethodException e) {
             throw new AssertionError(e);
         } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IllegalArgumentException) {
+                // invalid configuration
+                throw (IllegalArgumentException) e.getCause();
+            }
             throw new AssertionError(e);
         }
     }
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Dispatcher backed by a pre-allocated, lock-free ring buffer.<br>
+ * Producers claim slots with a single CAS and never take a monitor, which makes this implementation suitable for
+ * high volume streams where {@link DispatcherImpl} contends on its queue locks.<br>
+ * Enable it with <code>async.dispatcherImpl=twitter4j.RingBufferDispatcher</code>. The buffer size is rounded up to
+ * a power of two (<code>async.ringBufferSize</code>) and idle workers wait according to <code>async.waitStrategy</code>,
+ * one of <code>busySpin</code>, <code>yield</code> or <code>park</code>.<br>
+ * When the buffer is full, {@link #invokeLater(Runnable)} waits for a free slot instead of growing without bound.
+ *
+ * @since Twitter4J 4.0.12
+ */
+final class RingBufferDispatcher implements Dispatcher {
+    private static final Logger logger = Logger.getLogger(RingBufferDispatcher.class);
+    private static final long SHUTDOWN_TIME = 5000;
+    static final int MAX_CAPACITY = 1 << 30;
+
+    private final WaitStrategy waitStrategy;
+    private final int mask;
+    private final AtomicReferenceArray<Runnable> buffer;
+    // sequences[i] == slot position   : slot i is free for the producer claiming that position
+    // sequences[i] == slot position + 1: slot i holds a task published for that position
+    private final AtomicLongArray sequences;
+    private final AtomicLong producerPosition = new AtomicLong();
+    private final AtomicLong consumerPosition = new AtomicLong();
+    private final Thread[] workers;
+    private volatile boolean active = true;
+
+    public RingBufferDispatcher(final Configuration conf) {
+        this.waitStrategy = WaitStrategy.of(conf.getAsyncWaitStrategy());
+        int capacity = ceilingPowerOfTwo(conf.getAsyncRingBufferSize());
+        this.mask = capacity - 1;
+        this.buffer = new AtomicReferenceArray<Runnable>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        workers = new Thread[Math.max(1, conf.getAsyncNumThreads())];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Thread(new Worker());
+            workers[i].setName(String.format("Twitter4J Async Dispatcher[%d]", i));
+            workers[i].setDaemon(conf.isDaemonEnabled());
+            workers[i].start();
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                active = false;
+            }
+        });
+    }
+
+    /**
+     * @param size requested buffer size
+     * @return the smallest power of two, at least 2, not less than size
+     * @throws IllegalArgumentException when size is less than 1 or greater than {@value #MAX_CAPACITY}
+     */
+    static int ceilingPowerOfTwo(int size) {
+        if (size < 1 || size > MAX_CAPACITY) {
+            throw new IllegalArgumentException("async.ringBufferSize must be between 1 and " + MAX_CAPACITY + ": " + size);
+        }
+        if (size <= 2) {
+            return 2;
+        }
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+
+    @Override
+    public void invokeLater(Runnable task) {
+        int idle = 0;
+        while (!offer(task)) {
+            if (!active) {
+                throw new RejectedExecutionException("Dispatcher already shut down.");
+            }
+            idle = waitStrategy.idle(idle);
+        }
+    }
+
+    private boolean offer(Runnable task) {
+        if (!active) {
+            throw new RejectedExecutionException("Dispatcher already shut down.");
+        }
+        long position = producerPosition.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (producerPosition.compareAndSet(position, position + 1)) {
+                    buffer.lazySet(index, task);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = producerPosition.get();
+            } else if (difference < 0) {
+                // the consumers haven't released this slot yet. the buffer is full
+                return false;
+            } else {
+                position = producerPosition.get();
+            }
+        }
+    }
+
+    private Runnable poll() {
+        long position = consumerPosition.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (consumerPosition.compareAndSet(position, position + 1)) {
+                    Runnable task = buffer.get(index);
+                    buffer.lazySet(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return task;
+                }
+                position = consumerPosition.get();
+            } else if (difference < 0) {
+                // nothing published yet
+                return null;
+            } else {
+                position = consumerPosition.get();
+            }
+        }
+    }
+
+    /**
+     * @return number of tasks waiting to be executed
+     */
+    int size() {
+        return (int) Math.max(0, producerPosition.get() - consumerPosition.get());
+    }
+
+    @Override
+    public void shutdown() {
+        active = false;
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIME;
+        for (Thread worker : workers) {
+            try {
+                long wait = deadline - System.currentTimeMillis();
+                if (wait > 0) {
+                    worker.join(wait);
+                }
+            } catch (InterruptedException e) {
+                logger.warn(e.getMessage());
+            }
+            if (worker.isAlive()) {
+                worker.interrupt();
+            }
+        }
+    }
+
+    private final class Worker implements Runnable {
+        @Override
+        public void run() {
+            int idle = 0;
+            while (true) {
+                if (!active && Thread.currentThread().isInterrupted()) {
+                    // shutdown timed out. abandon the remaining tasks
+                    break;
+                }
+                Runnable task = poll();
+                if (task == null) {
+                    // tasks published before shutdown() are drained before exiting
+                    if (!active) {
+                        break;
+                    }
+                    idle = waitStrategy.idle(idle);
+                    continue;
+                }
+                idle = 0;
+                try {
+                    task.run();
+                } catch (Throwable th) {
+                    logger.warn("Exception thrown by dispatched task: ", String.valueOf(th));
+                }
+            }
+        }
+    }
+
+    /**
+     * How threads wait for the ring buffer to become non-empty (consumers) or non-full (producers).
+     */
+    enum WaitStrategy {
+        /**
+         * Spins on the sequence. Lowest latency, burns a core per waiting thread.
+         */
+        BUSY_SPIN {
+            @Override
+            int idle(int counter) {
+                return counter;
+            }
+        },
+        /**
+         * Spins briefly, then yields the CPU to other runnable threads.
+         */
+        YIELD {
+            @Override
+            int idle(int counter) {
+                if (counter < SPIN_TRIES) {
+                    return counter + 1;
+                }
+                Thread.yield();
+                return counter;
+            }
+        },
+        /**
+         * Spins, yields, then parks with an exponentially growing timeout capped at {@link #MAX_PARK_NANOS}.<br>
+         * Producers never have to unpark anyone, so publishing stays free of system calls at the cost of up to
+         * {@link #MAX_PARK_NANOS} of wake-up latency after an idle period.
+         */
+        PARK {
+            @Override
+            int idle(int counter) {
+                if (counter < SPIN_TRIES) {
+                    return counter + 1;
+                }
+                if (counter < SPIN_TRIES * 2) {
+                    Thread.yield();
+                    return counter + 1;
+                }
+                int shift = counter - SPIN_TRIES * 2;
+                long nanos = 1L << shift;
+                if (nanos >= MAX_PARK_NANOS) {
+                    LockSupport.parkNanos(MAX_PARK_NANOS);
+                    return counter;
+                }
+                LockSupport.parkNanos(nanos);
+                return counter + 1;
+            }
+        };
+
+        private static final int SPIN_TRIES = 100;
+        static final long MAX_PARK_NANOS = 1000 * 1000;
+
+        abstract int idle(int counter);
+
+        static WaitStrategy of(String name) {
+            if (name == null) {
+                return PARK;
+            }
+            String normalized = name.replace("_", "").replace("-", "").toLowerCase();
+            if ("busyspin".equals(normalized)) {
+                return BUSY_SPIN;
+            } else if ("yield".equals(normalized)) {
+                return YIELD;
+            } else if ("park".equals(normalized)) {
+                return PARK;
+            }
+            throw new IllegalArgumentException("Unknown wait strategy: " + name);
+        }
+    }
+}
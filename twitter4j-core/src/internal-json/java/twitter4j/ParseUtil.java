@@ -99,6 +99,12 @@ final class ParseUtil {
             LinkedBlockingQueue<SimpleDateFormat>>();
 
     public static Date getDate(String dateString, String format) throws TwitterException {
+        if ("EEE MMM d HH:mm:ss z yyyy".equals(format) || "EEE MMM dd HH:mm:ss z yyyy".equals(format)) {
+            long time = parseCreatedAt(dateString);
+            if (time != Long.MIN_VALUE) {
+                return new Date(time);
+            }
+        }
         LinkedBlockingQueue<SimpleDateFormat> simpleDateFormats = formatMapQueue.get(format);
         if (simpleDateFormats == null) {
             simpleDateFormats = new LinkedBlockingQueue<SimpleDateFormat>();
@@ -123,6 +129,74 @@ final class ParseUtil {
         }
     }
 
+    private static final String[] DAYS = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
+    private static final String[] MONTHS = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+
+    /**
+     * Parses dates in the form of "Sat Dec 19 16:01:35 +0000 2009" without going through SimpleDateFormat, which
+     * allocates several kilobytes per call resolving the time zone.
+     *
+     * @param str date
+     * @return milliseconds since the epoch, or Long.MIN_VALUE if the date isn't exactly in that form
+     */
+    static long parseCreatedAt(String str) {
+        if (str == null || str.length() != 30 || str.charAt(3) != ' ' || str.charAt(7) != ' ' || str.charAt(10) != ' '
+                || str.charAt(13) != ':' || str.charAt(16) != ':' || str.charAt(19) != ' ' || str.charAt(25) != ' '
+                || indexOf(DAYS, str, 0) == -1) {
+            return Long.MIN_VALUE;
+        }
+        int month = indexOf(MONTHS, str, 4) + 1;
+        int day = digits(str, 8, 2);
+        int hour = digits(str, 11, 2);
+        int minute = digits(str, 14, 2);
+        int second = digits(str, 17, 2);
+        int offset = digits(str, 21, 4);
+        int year = digits(str, 26, 4);
+        char sign = str.charAt(20);
+        if (month == 0 || day < 1 || day > daysInMonth(year, month) || hour < 0 || hour > 23 || minute < 0
+                || minute > 59 || second < 0 || second > 59 || offset < 0 || offset % 100 > 59 || year < 1
+                || (sign != '+' && sign != '-')) {
+            return Long.MIN_VALUE;
+        }
+        // days from 1970-01-01 in the proleptic Gregorian calendar
+        int y = month <= 2 ? year - 1 : year;
+        int era = y / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long days = era * 146097L + yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear - 719468;
+        long offsetSeconds = (offset / 100 * 60 + offset % 100) * 60L;
+        long seconds = days * 86400 + hour * 3600 + minute * 60 + second - (sign == '+' ? offsetSeconds : -offsetSeconds);
+        return seconds * 1000;
+    }
+
+    private static int indexOf(String[] names, String str, int offset) {
+        for (int i = 0; i < names.length; i++) {
+            if (str.regionMatches(offset, names[i], 0, 3)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int digits(String str, int offset, int length) {
+        int value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char c = str.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2) {
+            return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
     public static int getInt(String name, JSONObject json) {
         return getInt(getRawString(name, json));
     }
@@ -97,7 +97,45 @@ import twitter4j.conf.Configuration;
 
     }
 
+    /**
+     * Re-initializes this instance with the given status, reusing the instance of the user when there is one.<br>
+     * Used by streams in flyweight mode, where a status is handed to listeners which must not keep it.
+     *
+     * @param json status
+     * @return this instance
+     * @throws TwitterException when the status couldn't be parsed
+     */
+    /*package*/ StatusJSONImpl reset(JSONObject json) throws TwitterException {
+        UserJSONImpl reusableUser = user instanceof UserJSONImpl ? (UserJSONImpl) user : null;
+        displayTextRangeStart = -1;
+        displayTextRangeEnd = -1;
+        geoLocation = null;
+        place = null;
+        lang = null;
+        contributorsIDs = null;
+        retweetedStatus = null;
+        userMentionEntities = null;
+        urlEntities = null;
+        hashtagEntities = null;
+        mediaEntities = null;
+        symbolEntities = null;
+        text = null;
+        currentUserRetweetId = -1L;
+        scopes = null;
+        user = null;
+        withheldInCountries = null;
+        quotedStatus = null;
+        quotedStatusId = -1L;
+        quotedStatusPermalink = null;
+        init(json, reusableUser);
+        return this;
+    }
+
     private void init(JSONObject json) throws TwitterException {
+        init(json, null);
+    }
+
+    private void init(JSONObject json, UserJSONImpl reusableUser) throws TwitterException {
         id = ParseUtil.getLong("id", json);
         source = ParseUtil.getUnescapedString("source", json);
         createdAt = getDate("created_at", json);
@@ -112,7 +150,8 @@ import twitter4j.conf.Configuration;
         isPossiblySensitive = ParseUtil.getBoolean("possibly_sensitive", json);
         try {
             if (!json.isNull("user")) {
-                user = new UserJSONImpl(json.getJSONObject("user"));
+                user = reusableUser != null ? reusableUser.reset(json.getJSONObject("user"))
+                        : new UserJSONImpl(json.getJSONObject("user"));
             }
             geoLocation = JSONImplFactory.createGeoLocation(json);
             if (!json.isNull("place")) {
@@ -96,6 +96,22 @@ import twitter4j.conf.Configuration;
 
     }
 
+    /**
+     * Re-initializes this instance with the given user.<br>
+     * Used by streams in flyweight mode, where a user is handed to listeners which must not keep it.
+     *
+     * @param json user
+     * @return this instance
+     * @throws TwitterException when the user couldn't be parsed
+     */
+    /*package*/ UserJSONImpl reset(JSONObject json) throws TwitterException {
+        urlEntity = null;
+        status = null;
+        withheldInCountries = null;
+        init(json);
+        return this;
+    }
+
     private void init(JSONObject json) throws TwitterException {
         try {
             id = ParseUtil.getLong("id", json);
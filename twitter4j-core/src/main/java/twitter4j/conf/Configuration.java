@@ -124,4 +124,86 @@ public interface Configuration extends AuthorizationConfiguration, java.io.Seria
     boolean isIncludeEmailEnabled();
 
     String getStreamThreadName();
+
+    int getAsyncRingBufferSize();
+
+    String getAsyncWaitStrategy();
+
+    int getStreamQueueCapacity();
+
+    String getStreamQueueOverflowPolicy();
+
+    String getStreamQueueDroppableEvents();
+
+    int getStreamPartitionLanes();
+
+    int getStreamPartitionLaneCapacity();
+
+    int getStreamPipelineWindow();
+
+    int getStreamBatchSize();
+
+    int getStreamBatchMaxLatency();
+
+    int getStreamReaderBufferSize();
+
+    boolean isStreamLengthDelimited();
+
+    boolean isStreamFlyweight();
+
+    int getStreamIteratorBufferSize();
+
+    boolean isStreamShardingEnabled();
+
+    int getStreamShardMaxFollow();
+
+    int getStreamShardMaxTrack();
+
+    int getStreamShardMaxLocations();
+
+    boolean isStreamDedupEnabled();
+
+    int getStreamDedupWindow();
+
+    int getStreamDedupMemory();
+
+    double getStreamDedupFalsePositiveRate();
+
+    boolean isStreamFilterHotSwap();
+
+    int getStreamFilterUpdateWindow();
+
+    int getStreamFilterMinReconnectInterval();
+
+    String getStreamReconnectPolicyImpl();
+
+    int getStreamReconnectMaxAttempts();
+
+    int getStreamReconnectAttemptWindow();
+
+    int getStreamStallTimeout();
+
+    int getStreamStallMessageTimeout();
+
+    int getStreamStallPercentFull();
+
+    int getStreamMultiplexerSelectorThreads();
+
+    String getStreamDispatcherGroup();
+
+    int getStreamDispatcherThreads();
+
+    boolean isStreamSiteFairScheduling();
+
+    int getStreamControlBatchSize();
+
+    int getStreamControlMaxConcurrentRequests();
+
+    String getStreamJournalDir();
+
+    int getStreamJournalSegmentSize();
+
+    long getStreamJournalSyncInterval();
+
+    int getStreamJournalIndexInterval();
 }
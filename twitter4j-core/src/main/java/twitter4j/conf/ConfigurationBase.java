@@ -92,6 +92,47 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
     private boolean daemonEnabled = true;
 
     private String streamThreadName = "";
+    private int asyncRingBufferSize = 1024;
+    private String asyncWaitStrategy = "park";
+    private int streamQueueCapacity = 0;
+    private String streamQueueOverflowPolicy = "block";
+    private String streamQueueDroppableEvents = "limit,scrub_geo";
+    private int streamPartitionLanes = 0;
+    private int streamPartitionLaneCapacity = 0;
+    private int streamPipelineWindow = 0;
+    private int streamBatchSize = 100;
+    private int streamBatchMaxLatency = 1000;
+    private int streamReaderBufferSize = 8192;
+    private boolean streamLengthDelimited = false;
+    private boolean streamFlyweight = false;
+    private int streamIteratorBufferSize = 100;
+    private boolean streamShardingEnabled = false;
+    private int streamShardMaxFollow = 5000;
+    private int streamShardMaxTrack = 400;
+    private int streamShardMaxLocations = 25;
+    private boolean streamDedupEnabled = false;
+    private int streamDedupWindow = 600000;
+    private int streamDedupMemory = 1048576;
+    private double streamDedupFalsePositiveRate = 0.0001;
+    private boolean streamFilterHotSwap = false;
+    private int streamFilterUpdateWindow = 1000;
+    private int streamFilterMinReconnectInterval = 5000;
+    private String streamReconnectPolicyImpl = "twitter4j.DecorrelatedJitterReconnectPolicy";
+    private int streamReconnectMaxAttempts = 0;
+    private int streamReconnectAttemptWindow = 900000;
+    private int streamStallTimeout = 0;
+    private int streamStallMessageTimeout = 0;
+    private int streamStallPercentFull = 0;
+    private int streamMultiplexerSelectorThreads = 1;
+    private String streamDispatcherGroup = null;
+    private int streamDispatcherThreads = 0;
+    private boolean streamSiteFairScheduling = false;
+    private int streamControlBatchSize = 100;
+    private int streamControlMaxConcurrentRequests = 2;
+    private String streamJournalDir = null;
+    private int streamJournalSegmentSize = 67108864;
+    private long streamJournalSyncInterval = 0;
+    private int streamJournalIndexInterval = 1000;
 
     protected ConfigurationBase() {
         httpConf = new MyHttpClientConfiguration(null // proxy host
@@ -746,6 +787,375 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
         this.streamThreadName = streamThreadName;
     }
 
+    @Override
+    public int getAsyncRingBufferSize() {
+        return asyncRingBufferSize;
+    }
+
+    protected final void setAsyncRingBufferSize(int asyncRingBufferSize) {
+        this.asyncRingBufferSize = asyncRingBufferSize;
+    }
+
+    @Override
+    public String getAsyncWaitStrategy() {
+        return asyncWaitStrategy;
+    }
+
+    protected final void setAsyncWaitStrategy(String asyncWaitStrategy) {
+        this.asyncWaitStrategy = asyncWaitStrategy;
+    }
+
+    @Override
+    public int getStreamQueueCapacity() {
+        return streamQueueCapacity;
+    }
+
+    protected final void setStreamQueueCapacity(int streamQueueCapacity) {
+        this.streamQueueCapacity = streamQueueCapacity;
+    }
+
+    @Override
+    public String getStreamQueueOverflowPolicy() {
+        return streamQueueOverflowPolicy;
+    }
+
+    protected final void setStreamQueueOverflowPolicy(String streamQueueOverflowPolicy) {
+        this.streamQueueOverflowPolicy = streamQueueOverflowPolicy;
+    }
+
+    @Override
+    public String getStreamQueueDroppableEvents() {
+        return streamQueueDroppableEvents;
+    }
+
+    protected final void setStreamQueueDroppableEvents(String streamQueueDroppableEvents) {
+        this.streamQueueDroppableEvents = streamQueueDroppableEvents;
+    }
+
+    @Override
+    public int getStreamPartitionLanes() {
+        return streamPartitionLanes;
+    }
+
+    protected final void setStreamPartitionLanes(int streamPartitionLanes) {
+        this.streamPartitionLanes = streamPartitionLanes;
+    }
+
+    @Override
+    public int getStreamPartitionLaneCapacity() {
+        return streamPartitionLaneCapacity;
+    }
+
+    protected final void setStreamPartitionLaneCapacity(int streamPartitionLaneCapacity) {
+        this.streamPartitionLaneCapacity = streamPartitionLaneCapacity;
+    }
+
+    @Override
+    public int getStreamPipelineWindow() {
+        return streamPipelineWindow;
+    }
+
+    protected final void setStreamPipelineWindow(int streamPipelineWindow) {
+        this.streamPipelineWindow = streamPipelineWindow;
+    }
+
+    @Override
+    public int getStreamBatchSize() {
+        return streamBatchSize;
+    }
+
+    protected final void setStreamBatchSize(int streamBatchSize) {
+        this.streamBatchSize = streamBatchSize;
+    }
+
+    @Override
+    public int getStreamBatchMaxLatency() {
+        return streamBatchMaxLatency;
+    }
+
+    protected final void setStreamBatchMaxLatency(int streamBatchMaxLatency) {
+        this.streamBatchMaxLatency = streamBatchMaxLatency;
+    }
+
+    @Override
+    public int getStreamReaderBufferSize() {
+        return streamReaderBufferSize;
+    }
+
+    protected final void setStreamReaderBufferSize(int streamReaderBufferSize) {
+        this.streamReaderBufferSize = streamReaderBufferSize;
+    }
+
+    @Override
+    public boolean isStreamLengthDelimited() {
+        return streamLengthDelimited;
+    }
+
+    protected final void setStreamLengthDelimited(boolean streamLengthDelimited) {
+        this.streamLengthDelimited = streamLengthDelimited;
+    }
+
+    @Override
+    public boolean isStreamFlyweight() {
+        return streamFlyweight;
+    }
+
+    protected final void setStreamFlyweight(boolean streamFlyweight) {
+        this.streamFlyweight = streamFlyweight;
+    }
+
+    @Override
+    public int getStreamIteratorBufferSize() {
+        return streamIteratorBufferSize;
+    }
+
+    protected final void setStreamIteratorBufferSize(int streamIteratorBufferSize) {
+        this.streamIteratorBufferSize = streamIteratorBufferSize;
+    }
+
+    @Override
+    public boolean isStreamShardingEnabled() {
+        return streamShardingEnabled;
+    }
+
+    protected final void setStreamShardingEnabled(boolean streamShardingEnabled) {
+        this.streamShardingEnabled = streamShardingEnabled;
+    }
+
+    @Override
+    public int getStreamShardMaxFollow() {
+        return streamShardMaxFollow;
+    }
+
+    protected final void setStreamShardMaxFollow(int streamShardMaxFollow) {
+        this.streamShardMaxFollow = streamShardMaxFollow;
+    }
+
+    @Override
+    public int getStreamShardMaxTrack() {
+        return streamShardMaxTrack;
+    }
+
+    protected final void setStreamShardMaxTrack(int streamShardMaxTrack) {
+        this.streamShardMaxTrack = streamShardMaxTrack;
+    }
+
+    @Override
+    public int getStreamShardMaxLocations() {
+        return streamShardMaxLocations;
+    }
+
+    protected final void setStreamShardMaxLocations(int streamShardMaxLocations) {
+        this.streamShardMaxLocations = streamShardMaxLocations;
+    }
+
+    @Override
+    public boolean isStreamDedupEnabled() {
+        return streamDedupEnabled;
+    }
+
+    protected final void setStreamDedupEnabled(boolean streamDedupEnabled) {
+        this.streamDedupEnabled = streamDedupEnabled;
+    }
+
+    @Override
+    public int getStreamDedupWindow() {
+        return streamDedupWindow;
+    }
+
+    protected final void setStreamDedupWindow(int streamDedupWindow) {
+        this.streamDedupWindow = streamDedupWindow;
+    }
+
+    @Override
+    public int getStreamDedupMemory() {
+        return streamDedupMemory;
+    }
+
+    protected final void setStreamDedupMemory(int streamDedupMemory) {
+        this.streamDedupMemory = streamDedupMemory;
+    }
+
+    @Override
+    public double getStreamDedupFalsePositiveRate() {
+        return streamDedupFalsePositiveRate;
+    }
+
+    protected final void setStreamDedupFalsePositiveRate(double streamDedupFalsePositiveRate) {
+        this.streamDedupFalsePositiveRate = streamDedupFalsePositiveRate;
+    }
+
+    @Override
+    public boolean isStreamFilterHotSwap() {
+        return streamFilterHotSwap;
+    }
+
+    protected final void setStreamFilterHotSwap(boolean streamFilterHotSwap) {
+        this.streamFilterHotSwap = streamFilterHotSwap;
+    }
+
+    @Override
+    public int getStreamFilterUpdateWindow() {
+        return streamFilterUpdateWindow;
+    }
+
+    protected final void setStreamFilterUpdateWindow(int streamFilterUpdateWindow) {
+        this.streamFilterUpdateWindow = streamFilterUpdateWindow;
+    }
+
+    @Override
+    public int getStreamFilterMinReconnectInterval() {
+        return streamFilterMinReconnectInterval;
+    }
+
+    protected final void setStreamFilterMinReconnectInterval(int streamFilterMinReconnectInterval) {
+        this.streamFilterMinReconnectInterval = streamFilterMinReconnectInterval;
+    }
+
+    @Override
+    public String getStreamReconnectPolicyImpl() {
+        return streamReconnectPolicyImpl;
+    }
+
+    protected final void setStreamReconnectPolicyImpl(String streamReconnectPolicyImpl) {
+        this.streamReconnectPolicyImpl = streamReconnectPolicyImpl;
+    }
+
+    @Override
+    public int getStreamReconnectMaxAttempts() {
+        return streamReconnectMaxAttempts;
+    }
+
+    protected final void setStreamReconnectMaxAttempts(int streamReconnectMaxAttempts) {
+        this.streamReconnectMaxAttempts = streamReconnectMaxAttempts;
+    }
+
+    @Override
+    public int getStreamReconnectAttemptWindow() {
+        return streamReconnectAttemptWindow;
+    }
+
+    protected final void setStreamReconnectAttemptWindow(int streamReconnectAttemptWindow) {
+        this.streamReconnectAttemptWindow = streamReconnectAttemptWindow;
+    }
+
+    @Override
+    public int getStreamStallTimeout() {
+        return streamStallTimeout;
+    }
+
+    protected final void setStreamStallTimeout(int streamStallTimeout) {
+        this.streamStallTimeout = streamStallTimeout;
+    }
+
+    @Override
+    public int getStreamStallMessageTimeout() {
+        return streamStallMessageTimeout;
+    }
+
+    protected final void setStreamStallMessageTimeout(int streamStallMessageTimeout) {
+        this.streamStallMessageTimeout = streamStallMessageTimeout;
+    }
+
+    @Override
+    public int getStreamStallPercentFull() {
+        return streamStallPercentFull;
+    }
+
+    protected final void setStreamStallPercentFull(int streamStallPercentFull) {
+        this.streamStallPercentFull = streamStallPercentFull;
+    }
+
+    @Override
+    public int getStreamMultiplexerSelectorThreads() {
+        return streamMultiplexerSelectorThreads;
+    }
+
+    protected final void setStreamMultiplexerSelectorThreads(int streamMultiplexerSelectorThreads) {
+        this.streamMultiplexerSelectorThreads = streamMultiplexerSelectorThreads;
+    }
+
+    @Override
+    public String getStreamDispatcherGroup() {
+        return streamDispatcherGroup;
+    }
+
+    protected final void setStreamDispatcherGroup(String streamDispatcherGroup) {
+        this.streamDispatcherGroup = streamDispatcherGroup;
+    }
+
+    @Override
+    public int getStreamDispatcherThreads() {
+        return streamDispatcherThreads;
+    }
+
+    protected final void setStreamDispatcherThreads(int streamDispatcherThreads) {
+        this.streamDispatcherThreads = streamDispatcherThreads;
+    }
+
+    @Override
+    public boolean isStreamSiteFairScheduling() {
+        return streamSiteFairScheduling;
+    }
+
+    protected final void setStreamSiteFairScheduling(boolean streamSiteFairScheduling) {
+        this.streamSiteFairScheduling = streamSiteFairScheduling;
+    }
+
+    @Override
+    public int getStreamControlBatchSize() {
+        return streamControlBatchSize;
+    }
+
+    protected final void setStreamControlBatchSize(int streamControlBatchSize) {
+        this.streamControlBatchSize = streamControlBatchSize;
+    }
+
+    @Override
+    public int getStreamControlMaxConcurrentRequests() {
+        return streamControlMaxConcurrentRequests;
+    }
+
+    protected final void setStreamControlMaxConcurrentRequests(int streamControlMaxConcurrentRequests) {
+        this.streamControlMaxConcurrentRequests = streamControlMaxConcurrentRequests;
+    }
+
+    @Override
+    public String getStreamJournalDir() {
+        return streamJournalDir;
+    }
+
+    protected final void setStreamJournalDir(String streamJournalDir) {
+        this.streamJournalDir = streamJournalDir;
+    }
+
+    @Override
+    public int getStreamJournalSegmentSize() {
+        return streamJournalSegmentSize;
+    }
+
+    protected final void setStreamJournalSegmentSize(int streamJournalSegmentSize) {
+        this.streamJournalSegmentSize = streamJournalSegmentSize;
+    }
+
+    @Override
+    public long getStreamJournalSyncInterval() {
+        return streamJournalSyncInterval;
+    }
+
+    protected final void setStreamJournalSyncInterval(long streamJournalSyncInterval) {
+        this.streamJournalSyncInterval = streamJournalSyncInterval;
+    }
+
+    @Override
+    public int getStreamJournalIndexInterval() {
+        return streamJournalIndexInterval;
+    }
+
+    protected final void setStreamJournalIndexInterval(int streamJournalIndexInterval) {
+        this.streamJournalIndexInterval = streamJournalIndexInterval;
+    }
+
     static String fixURL(boolean useSSL, String url) {
         if (null == url) {
             return null;
@@ -788,6 +1198,41 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
         if (stallWarningsEnabled != that.stallWarningsEnabled) return false;
         if (applicationOnlyAuthEnabled != that.applicationOnlyAuthEnabled) return false;
         if (daemonEnabled != that.daemonEnabled) return false;
+        if (asyncRingBufferSize != that.asyncRingBufferSize) return false;
+        if (streamQueueCapacity != that.streamQueueCapacity) return false;
+        if (streamPartitionLanes != that.streamPartitionLanes) return false;
+        if (streamPartitionLaneCapacity != that.streamPartitionLaneCapacity) return false;
+        if (streamPipelineWindow != that.streamPipelineWindow) return false;
+        if (streamBatchSize != that.streamBatchSize) return false;
+        if (streamBatchMaxLatency != that.streamBatchMaxLatency) return false;
+        if (streamReaderBufferSize != that.streamReaderBufferSize) return false;
+        if (streamLengthDelimited != that.streamLengthDelimited) return false;
+        if (streamFlyweight != that.streamFlyweight) return false;
+        if (streamIteratorBufferSize != that.streamIteratorBufferSize) return false;
+        if (streamShardingEnabled != that.streamShardingEnabled) return false;
+        if (streamShardMaxFollow != that.streamShardMaxFollow) return false;
+        if (streamShardMaxTrack != that.streamShardMaxTrack) return false;
+        if (streamShardMaxLocations != that.streamShardMaxLocations) return false;
+        if (streamDedupEnabled != that.streamDedupEnabled) return false;
+        if (streamDedupWindow != that.streamDedupWindow) return false;
+        if (streamDedupMemory != that.streamDedupMemory) return false;
+        if (Double.compare(streamDedupFalsePositiveRate, that.streamDedupFalsePositiveRate) != 0) return false;
+        if (streamFilterHotSwap != that.streamFilterHotSwap) return false;
+        if (streamFilterUpdateWindow != that.streamFilterUpdateWindow) return false;
+        if (streamFilterMinReconnectInterval != that.streamFilterMinReconnectInterval) return false;
+        if (streamReconnectMaxAttempts != that.streamReconnectMaxAttempts) return false;
+        if (streamReconnectAttemptWindow != that.streamReconnectAttemptWindow) return false;
+        if (streamStallTimeout != that.streamStallTimeout) return false;
+        if (streamStallMessageTimeout != that.streamStallMessageTimeout) return false;
+        if (streamStallPercentFull != that.streamStallPercentFull) return false;
+        if (streamMultiplexerSelectorThreads != that.streamMultiplexerSelectorThreads) return false;
+        if (streamDispatcherThreads != that.streamDispatcherThreads) return false;
+        if (streamSiteFairScheduling != that.streamSiteFairScheduling) return false;
+        if (streamControlBatchSize != that.streamControlBatchSize) return false;
+        if (streamControlMaxConcurrentRequests != that.streamControlMaxConcurrentRequests) return false;
+        if (streamJournalSegmentSize != that.streamJournalSegmentSize) return false;
+        if (streamJournalSyncInterval != that.streamJournalSyncInterval) return false;
+        if (streamJournalIndexInterval != that.streamJournalIndexInterval) return false;
         if (user != null ? !user.equals(that.user) : that.user != null) return false;
         if (password != null ? !password.equals(that.password) : that.password != null) return false;
         if (httpConf != null ? !httpConf.equals(that.httpConf) : that.httpConf != null) return false;
@@ -835,6 +1280,18 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
             return false;
         if (mediaProviderParameters != null ? !mediaProviderParameters.equals(that.mediaProviderParameters) : that.mediaProviderParameters != null)
             return false;
+        if (asyncWaitStrategy != null ? !asyncWaitStrategy.equals(that.asyncWaitStrategy) : that.asyncWaitStrategy != null)
+            return false;
+        if (streamQueueOverflowPolicy != null ? !streamQueueOverflowPolicy.equals(that.streamQueueOverflowPolicy) : that.streamQueueOverflowPolicy != null)
+            return false;
+        if (streamQueueDroppableEvents != null ? !streamQueueDroppableEvents.equals(that.streamQueueDroppableEvents) : that.streamQueueDroppableEvents != null)
+            return false;
+        if (streamReconnectPolicyImpl != null ? !streamReconnectPolicyImpl.equals(that.streamReconnectPolicyImpl) : that.streamReconnectPolicyImpl != null)
+            return false;
+        if (streamDispatcherGroup != null ? !streamDispatcherGroup.equals(that.streamDispatcherGroup) : that.streamDispatcherGroup != null)
+            return false;
+        if (streamJournalDir != null ? !streamJournalDir.equals(that.streamJournalDir) : that.streamJournalDir != null)
+            return false;
         return streamThreadName != null ? streamThreadName.equals(that.streamThreadName) : that.streamThreadName == null;
 
     }
@@ -887,6 +1344,47 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
         result = 31 * result + (mediaProviderParameters != null ? mediaProviderParameters.hashCode() : 0);
         result = 31 * result + (daemonEnabled ? 1 : 0);
         result = 31 * result + (streamThreadName != null ? streamThreadName.hashCode() : 0);
+        result = 31 * result + asyncRingBufferSize;
+        result = 31 * result + (asyncWaitStrategy != null ? asyncWaitStrategy.hashCode() : 0);
+        result = 31 * result + streamQueueCapacity;
+        result = 31 * result + (streamQueueOverflowPolicy != null ? streamQueueOverflowPolicy.hashCode() : 0);
+        result = 31 * result + (streamQueueDroppableEvents != null ? streamQueueDroppableEvents.hashCode() : 0);
+        result = 31 * result + streamPartitionLanes;
+        result = 31 * result + streamPartitionLaneCapacity;
+        result = 31 * result + streamPipelineWindow;
+        result = 31 * result + streamBatchSize;
+        result = 31 * result + streamBatchMaxLatency;
+        result = 31 * result + streamReaderBufferSize;
+        result = 31 * result + (streamLengthDelimited ? 1 : 0);
+        result = 31 * result + (streamFlyweight ? 1 : 0);
+        result = 31 * result + streamIteratorBufferSize;
+        result = 31 * result + (streamShardingEnabled ? 1 : 0);
+        result = 31 * result + streamShardMaxFollow;
+        result = 31 * result + streamShardMaxTrack;
+        result = 31 * result + streamShardMaxLocations;
+        result = 31 * result + (streamDedupEnabled ? 1 : 0);
+        result = 31 * result + streamDedupWindow;
+        result = 31 * result + streamDedupMemory;
+        result = 31 * result + (int) (Double.doubleToLongBits(streamDedupFalsePositiveRate) ^ (Double.doubleToLongBits(streamDedupFalsePositiveRate) >>> 32));
+        result = 31 * result + (streamFilterHotSwap ? 1 : 0);
+        result = 31 * result + streamFilterUpdateWindow;
+        result = 31 * result + streamFilterMinReconnectInterval;
+        result = 31 * result + (streamReconnectPolicyImpl != null ? streamReconnectPolicyImpl.hashCode() : 0);
+        result = 31 * result + streamReconnectMaxAttempts;
+        result = 31 * result + streamReconnectAttemptWindow;
+        result = 31 * result + streamStallTimeout;
+        result = 31 * result + streamStallMessageTimeout;
+        result = 31 * result + streamStallPercentFull;
+        result = 31 * result + streamMultiplexerSelectorThreads;
+        result = 31 * result + (streamDispatcherGroup != null ? streamDispatcherGroup.hashCode() : 0);
+        result = 31 * result + streamDispatcherThreads;
+        result = 31 * result + (streamSiteFairScheduling ? 1 : 0);
+        result = 31 * result + streamControlBatchSize;
+        result = 31 * result + streamControlMaxConcurrentRequests;
+        result = 31 * result + (streamJournalDir != null ? streamJournalDir.hashCode() : 0);
+        result = 31 * result + streamJournalSegmentSize;
+        result = 31 * result + (int) (streamJournalSyncInterval ^ (streamJournalSyncInterval >>> 32));
+        result = 31 * result + streamJournalIndexInterval;
         return result;
     }
 
@@ -939,6 +1437,47 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
                 ", mediaProviderParameters=" + mediaProviderParameters +
                 ", daemonEnabled=" + daemonEnabled +
                 ", streamThreadName='" + streamThreadName + '\'' +
+                ", asyncRingBufferSize=" + asyncRingBufferSize +
+                ", asyncWaitStrategy='" + asyncWaitStrategy + '\'' +
+                ", streamQueueCapacity=" + streamQueueCapacity +
+                ", streamQueueOverflowPolicy='" + streamQueueOverflowPolicy + '\'' +
+                ", streamQueueDroppableEvents='" + streamQueueDroppableEvents + '\'' +
+                ", streamPartitionLanes=" + streamPartitionLanes +
+                ", streamPartitionLaneCapacity=" + streamPartitionLaneCapacity +
+                ", streamPipelineWindow=" + streamPipelineWindow +
+                ", streamBatchSize=" + streamBatchSize +
+                ", streamBatchMaxLatency=" + streamBatchMaxLatency +
+                ", streamReaderBufferSize=" + streamReaderBufferSize +
+                ", streamLengthDelimited=" + streamLengthDelimited +
+                ", streamFlyweight=" + streamFlyweight +
+                ", streamIteratorBufferSize=" + streamIteratorBufferSize +
+                ", streamShardingEnabled=" + streamShardingEnabled +
+                ", streamShardMaxFollow=" + streamShardMaxFollow +
+                ", streamShardMaxTrack=" + streamShardMaxTrack +
+                ", streamShardMaxLocations=" + streamShardMaxLocations +
+                ", streamDedupEnabled=" + streamDedupEnabled +
+                ", streamDedupWindow=" + streamDedupWindow +
+                ", streamDedupMemory=" + streamDedupMemory +
+                ", streamDedupFalsePositiveRate=" + streamDedupFalsePositiveRate +
+                ", streamFilterHotSwap=" + streamFilterHotSwap +
+                ", streamFilterUpdateWindow=" + streamFilterUpdateWindow +
+                ", streamFilterMinReconnectInterval=" + streamFilterMinReconnectInterval +
+                ", streamReconnectPolicyImpl='" + streamReconnectPolicyImpl + '\'' +
+                ", streamReconnectMaxAttempts=" + streamReconnectMaxAttempts +
+                ", streamReconnectAttemptWindow=" + streamReconnectAttemptWindow +
+                ", streamStallTimeout=" + streamStallTimeout +
+                ", streamStallMessageTimeout=" + streamStallMessageTimeout +
+                ", streamStallPercentFull=" + streamStallPercentFull +
+                ", streamMultiplexerSelectorThreads=" + streamMultiplexerSelectorThreads +
+                ", streamDispatcherGroup='" + streamDispatcherGroup + '\'' +
+                ", streamDispatcherThreads=" + streamDispatcherThreads +
+                ", streamSiteFairScheduling=" + streamSiteFairScheduling +
+                ", streamControlBatchSize=" + streamControlBatchSize +
+                ", streamControlMaxConcurrentRequests=" + streamControlMaxConcurrentRequests +
+                ", streamJournalDir='" + streamJournalDir + '\'' +
+                ", streamJournalSegmentSize=" + streamJournalSegmentSize +
+                ", streamJournalSyncInterval=" + streamJournalSyncInterval +
+                ", streamJournalIndexInterval=" + streamJournalIndexInterval +
                 '}';
     }
 
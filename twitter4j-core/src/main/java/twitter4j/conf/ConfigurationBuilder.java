@@ -324,6 +324,252 @@ public final class ConfigurationBuilder {
         return this;
     }
 
+    public ConfigurationBuilder setAsyncRingBufferSize(int asyncRingBufferSize) {
+        checkNotBuilt();
+        configurationBean.setAsyncRingBufferSize(asyncRingBufferSize);
+        return this;
+    }
+
+    public ConfigurationBuilder setAsyncWaitStrategy(String asyncWaitStrategy) {
+        checkNotBuilt();
+        configurationBean.setAsyncWaitStrategy(asyncWaitStrategy);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamQueueCapacity(int streamQueueCapacity) {
+        checkNotBuilt();
+        configurationBean.setStreamQueueCapacity(streamQueueCapacity);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamQueueOverflowPolicy(String streamQueueOverflowPolicy) {
+        checkNotBuilt();
+        configurationBean.setStreamQueueOverflowPolicy(streamQueueOverflowPolicy);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamQueueDroppableEvents(String streamQueueDroppableEvents) {
+        checkNotBuilt();
+        configurationBean.setStreamQueueDroppableEvents(streamQueueDroppableEvents);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamPartitionLanes(int streamPartitionLanes) {
+        checkNotBuilt();
+        configurationBean.setStreamPartitionLanes(streamPartitionLanes);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamPartitionLaneCapacity(int streamPartitionLaneCapacity) {
+        checkNotBuilt();
+        configurationBean.setStreamPartitionLaneCapacity(streamPartitionLaneCapacity);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamPipelineWindow(int streamPipelineWindow) {
+        checkNotBuilt();
+        configurationBean.setStreamPipelineWindow(streamPipelineWindow);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamBatchSize(int streamBatchSize) {
+        checkNotBuilt();
+        configurationBean.setStreamBatchSize(streamBatchSize);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamBatchMaxLatency(int streamBatchMaxLatency) {
+        checkNotBuilt();
+        configurationBean.setStreamBatchMaxLatency(streamBatchMaxLatency);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamReaderBufferSize(int streamReaderBufferSize) {
+        checkNotBuilt();
+        configurationBean.setStreamReaderBufferSize(streamReaderBufferSize);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamLengthDelimited(boolean streamLengthDelimited) {
+        checkNotBuilt();
+        configurationBean.setStreamLengthDelimited(streamLengthDelimited);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamFlyweight(boolean streamFlyweight) {
+        checkNotBuilt();
+        configurationBean.setStreamFlyweight(streamFlyweight);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamIteratorBufferSize(int streamIteratorBufferSize) {
+        checkNotBuilt();
+        configurationBean.setStreamIteratorBufferSize(streamIteratorBufferSize);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamShardingEnabled(boolean streamShardingEnabled) {
+        checkNotBuilt();
+        configurationBean.setStreamShardingEnabled(streamShardingEnabled);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamShardMaxFollow(int streamShardMaxFollow) {
+        checkNotBuilt();
+        configurationBean.setStreamShardMaxFollow(streamShardMaxFollow);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamShardMaxTrack(int streamShardMaxTrack) {
+        checkNotBuilt();
+        configurationBean.setStreamShardMaxTrack(streamShardMaxTrack);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamShardMaxLocations(int streamShardMaxLocations) {
+        checkNotBuilt();
+        configurationBean.setStreamShardMaxLocations(streamShardMaxLocations);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamDedupEnabled(boolean streamDedupEnabled) {
+        checkNotBuilt();
+        configurationBean.setStreamDedupEnabled(streamDedupEnabled);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamDedupWindow(int streamDedupWindow) {
+        checkNotBuilt();
+        configurationBean.setStreamDedupWindow(streamDedupWindow);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamDedupMemory(int streamDedupMemory) {
+        checkNotBuilt();
+        configurationBean.setStreamDedupMemory(streamDedupMemory);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamDedupFalsePositiveRate(double streamDedupFalsePositiveRate) {
+        checkNotBuilt();
+        configurationBean.setStreamDedupFalsePositiveRate(streamDedupFalsePositiveRate);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamFilterHotSwap(boolean streamFilterHotSwap) {
+        checkNotBuilt();
+        configurationBean.setStreamFilterHotSwap(streamFilterHotSwap);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamFilterUpdateWindow(int streamFilterUpdateWindow) {
+        checkNotBuilt();
+        configurationBean.setStreamFilterUpdateWindow(streamFilterUpdateWindow);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamFilterMinReconnectInterval(int streamFilterMinReconnectInterval) {
+        checkNotBuilt();
+        configurationBean.setStreamFilterMinReconnectInterval(streamFilterMinReconnectInterval);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamReconnectPolicyImpl(String streamReconnectPolicyImpl) {
+        checkNotBuilt();
+        configurationBean.setStreamReconnectPolicyImpl(streamReconnectPolicyImpl);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamReconnectMaxAttempts(int streamReconnectMaxAttempts) {
+        checkNotBuilt();
+        configurationBean.setStreamReconnectMaxAttempts(streamReconnectMaxAttempts);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamReconnectAttemptWindow(int streamReconnectAttemptWindow) {
+        checkNotBuilt();
+        configurationBean.setStreamReconnectAttemptWindow(streamReconnectAttemptWindow);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamStallTimeout(int streamStallTimeout) {
+        checkNotBuilt();
+        configurationBean.setStreamStallTimeout(streamStallTimeout);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamStallMessageTimeout(int streamStallMessageTimeout) {
+        checkNotBuilt();
+        configurationBean.setStreamStallMessageTimeout(streamStallMessageTimeout);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamStallPercentFull(int streamStallPercentFull) {
+        checkNotBuilt();
+        configurationBean.setStreamStallPercentFull(streamStallPercentFull);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamMultiplexerSelectorThreads(int streamMultiplexerSelectorThreads) {
+        checkNotBuilt();
+        configurationBean.setStreamMultiplexerSelectorThreads(streamMultiplexerSelectorThreads);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamDispatcherGroup(String streamDispatcherGroup) {
+        checkNotBuilt();
+        configurationBean.setStreamDispatcherGroup(streamDispatcherGroup);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamDispatcherThreads(int streamDispatcherThreads) {
+        checkNotBuilt();
+        configurationBean.setStreamDispatcherThreads(streamDispatcherThreads);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamSiteFairScheduling(boolean streamSiteFairScheduling) {
+        checkNotBuilt();
+        configurationBean.setStreamSiteFairScheduling(streamSiteFairScheduling);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamControlBatchSize(int streamControlBatchSize) {
+        checkNotBuilt();
+        configurationBean.setStreamControlBatchSize(streamControlBatchSize);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamControlMaxConcurrentRequests(int streamControlMaxConcurrentRequests) {
+        checkNotBuilt();
+        configurationBean.setStreamControlMaxConcurrentRequests(streamControlMaxConcurrentRequests);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamJournalDir(String streamJournalDir) {
+        checkNotBuilt();
+        configurationBean.setStreamJournalDir(streamJournalDir);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamJournalSegmentSize(int streamJournalSegmentSize) {
+        checkNotBuilt();
+        configurationBean.setStreamJournalSegmentSize(streamJournalSegmentSize);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamJournalSyncInterval(long streamJournalSyncInterval) {
+        checkNotBuilt();
+        configurationBean.setStreamJournalSyncInterval(streamJournalSyncInterval);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamJournalIndexInterval(int streamJournalIndexInterval) {
+        checkNotBuilt();
+        configurationBean.setStreamJournalIndexInterval(streamJournalIndexInterval);
+        return this;
+    }
+
     public Configuration build() {
         checkNotBuilt();
         configurationBean.cacheInstance();
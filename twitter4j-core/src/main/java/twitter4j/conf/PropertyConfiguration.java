@@ -88,6 +88,47 @@ public final class PropertyConfiguration extends ConfigurationBase implements ja
     private static final String MEDIA_PROVIDER = "media.provider";
     private static final String MEDIA_PROVIDER_API_KEY = "media.providerAPIKey";
     private static final String MEDIA_PROVIDER_PARAMETERS = "media.providerParameters";
+    private static final String ASYNC_RING_BUFFER_SIZE = "async.ringBufferSize";
+    private static final String ASYNC_WAIT_STRATEGY = "async.waitStrategy";
+    private static final String STREAM_QUEUE_CAPACITY = "stream.queue.capacity";
+    private static final String STREAM_QUEUE_OVERFLOW_POLICY = "stream.queue.overflowPolicy";
+    private static final String STREAM_QUEUE_DROPPABLE_EVENTS = "stream.queue.droppableEvents";
+    private static final String STREAM_PARTITION_LANES = "stream.partition.lanes";
+    private static final String STREAM_PARTITION_LANE_CAPACITY = "stream.partition.laneCapacity";
+    private static final String STREAM_PIPELINE_WINDOW = "stream.pipeline.window";
+    private static final String STREAM_BATCH_SIZE = "stream.batch.size";
+    private static final String STREAM_BATCH_MAX_LATENCY = "stream.batch.maxLatency";
+    private static final String STREAM_READER_BUFFER_SIZE = "stream.readerBufferSize";
+    private static final String STREAM_LENGTH_DELIMITED = "stream.lengthDelimited";
+    private static final String STREAM_FLYWEIGHT = "stream.flyweight";
+    private static final String STREAM_ITERATOR_BUFFER_SIZE = "stream.iterator.bufferSize";
+    private static final String STREAM_SHARDING_ENABLED = "stream.sharding.enabled";
+    private static final String STREAM_SHARD_MAX_FOLLOW = "stream.shard.maxFollow";
+    private static final String STREAM_SHARD_MAX_TRACK = "stream.shard.maxTrack";
+    private static final String STREAM_SHARD_MAX_LOCATIONS = "stream.shard.maxLocations";
+    private static final String STREAM_DEDUP_ENABLED = "stream.dedup.enabled";
+    private static final String STREAM_DEDUP_WINDOW = "stream.dedup.window";
+    private static final String STREAM_DEDUP_MEMORY = "stream.dedup.memory";
+    private static final String STREAM_DEDUP_FALSE_POSITIVE_RATE = "stream.dedup.falsePositiveRate";
+    private static final String STREAM_FILTER_HOT_SWAP = "stream.filter.hotSwap";
+    private static final String STREAM_FILTER_UPDATE_WINDOW = "stream.filter.updateWindow";
+    private static final String STREAM_FILTER_MIN_RECONNECT_INTERVAL = "stream.filter.minReconnectInterval";
+    private static final String STREAM_RECONNECT_POLICY_IMPL = "stream.reconnect.policyImpl";
+    private static final String STREAM_RECONNECT_MAX_ATTEMPTS = "stream.reconnect.maxAttempts";
+    private static final String STREAM_RECONNECT_ATTEMPT_WINDOW = "stream.reconnect.attemptWindow";
+    private static final String STREAM_STALL_TIMEOUT = "stream.stall.timeout";
+    private static final String STREAM_STALL_MESSAGE_TIMEOUT = "stream.stall.messageTimeout";
+    private static final String STREAM_STALL_PERCENT_FULL = "stream.stall.percentFull";
+    private static final String STREAM_MULTIPLEXER_SELECTOR_THREADS = "stream.multiplexer.selectorThreads";
+    private static final String STREAM_DISPATCHER_GROUP = "stream.dispatcher.group";
+    private static final String STREAM_DISPATCHER_THREADS = "stream.dispatcher.threads";
+    private static final String STREAM_SITE_FAIR_SCHEDULING = "stream.site.fairScheduling";
+    private static final String STREAM_CONTROL_BATCH_SIZE = "stream.control.batchSize";
+    private static final String STREAM_CONTROL_MAX_CONCURRENT_REQUESTS = "stream.control.maxConcurrentRequests";
+    private static final String STREAM_JOURNAL_DIR = "stream.journal.dir";
+    private static final String STREAM_JOURNAL_SEGMENT_SIZE = "stream.journal.segmentSize";
+    private static final String STREAM_JOURNAL_SYNC_INTERVAL = "stream.journal.syncInterval";
+    private static final String STREAM_JOURNAL_INDEX_INTERVAL = "stream.journal.indexInterval";
     private static final long serialVersionUID = -7262615247923693252L;
 
 
@@ -401,6 +442,129 @@ public final class PropertyConfiguration extends ConfigurationBase implements ja
             }
             setMediaProviderParameters(p);
         }
+        if (notNull(props, prefix, ASYNC_RING_BUFFER_SIZE)) {
+            setAsyncRingBufferSize(getIntProperty(props, prefix, ASYNC_RING_BUFFER_SIZE));
+        }
+        if (notNull(props, prefix, ASYNC_WAIT_STRATEGY)) {
+            setAsyncWaitStrategy(getString(props, prefix, ASYNC_WAIT_STRATEGY));
+        }
+        if (notNull(props, prefix, STREAM_QUEUE_CAPACITY)) {
+            setStreamQueueCapacity(getIntProperty(props, prefix, STREAM_QUEUE_CAPACITY));
+        }
+        if (notNull(props, prefix, STREAM_QUEUE_OVERFLOW_POLICY)) {
+            setStreamQueueOverflowPolicy(getString(props, prefix, STREAM_QUEUE_OVERFLOW_POLICY));
+        }
+        if (notNull(props, prefix, STREAM_QUEUE_DROPPABLE_EVENTS)) {
+            setStreamQueueDroppableEvents(getString(props, prefix, STREAM_QUEUE_DROPPABLE_EVENTS));
+        }
+        if (notNull(props, prefix, STREAM_PARTITION_LANES)) {
+            setStreamPartitionLanes(getIntProperty(props, prefix, STREAM_PARTITION_LANES));
+        }
+        if (notNull(props, prefix, STREAM_PARTITION_LANE_CAPACITY)) {
+            setStreamPartitionLaneCapacity(getIntProperty(props, prefix, STREAM_PARTITION_LANE_CAPACITY));
+        }
+        if (notNull(props, prefix, STREAM_PIPELINE_WINDOW)) {
+            setStreamPipelineWindow(getIntProperty(props, prefix, STREAM_PIPELINE_WINDOW));
+        }
+        if (notNull(props, prefix, STREAM_BATCH_SIZE)) {
+            setStreamBatchSize(getIntProperty(props, prefix, STREAM_BATCH_SIZE));
+        }
+        if (notNull(props, prefix, STREAM_BATCH_MAX_LATENCY)) {
+            setStreamBatchMaxLatency(getIntProperty(props, prefix, STREAM_BATCH_MAX_LATENCY));
+        }
+        if (notNull(props, prefix, STREAM_READER_BUFFER_SIZE)) {
+            setStreamReaderBufferSize(getIntProperty(props, prefix, STREAM_READER_BUFFER_SIZE));
+        }
+        if (notNull(props, prefix, STREAM_LENGTH_DELIMITED)) {
+            setStreamLengthDelimited(getBoolean(props, prefix, STREAM_LENGTH_DELIMITED));
+        }
+        if (notNull(props, prefix, STREAM_FLYWEIGHT)) {
+            setStreamFlyweight(getBoolean(props, prefix, STREAM_FLYWEIGHT));
+        }
+        if (notNull(props, prefix, STREAM_ITERATOR_BUFFER_SIZE)) {
+            setStreamIteratorBufferSize(getIntProperty(props, prefix, STREAM_ITERATOR_BUFFER_SIZE));
+        }
+        if (notNull(props, prefix, STREAM_SHARDING_ENABLED)) {
+            setStreamShardingEnabled(getBoolean(props, prefix, STREAM_SHARDING_ENABLED));
+        }
+        if (notNull(props, prefix, STREAM_SHARD_MAX_FOLLOW)) {
+            setStreamShardMaxFollow(getIntProperty(props, prefix, STREAM_SHARD_MAX_FOLLOW));
+        }
+        if (notNull(props, prefix, STREAM_SHARD_MAX_TRACK)) {
+            setStreamShardMaxTrack(getIntProperty(props, prefix, STREAM_SHARD_MAX_TRACK));
+        }
+        if (notNull(props, prefix, STREAM_SHARD_MAX_LOCATIONS)) {
+            setStreamShardMaxLocations(getIntProperty(props, prefix, STREAM_SHARD_MAX_LOCATIONS));
+        }
+        if (notNull(props, prefix, STREAM_DEDUP_ENABLED)) {
+            setStreamDedupEnabled(getBoolean(props, prefix, STREAM_DEDUP_ENABLED));
+        }
+        if (notNull(props, prefix, STREAM_DEDUP_WINDOW)) {
+            setStreamDedupWindow(getIntProperty(props, prefix, STREAM_DEDUP_WINDOW));
+        }
+        if (notNull(props, prefix, STREAM_DEDUP_MEMORY)) {
+            setStreamDedupMemory(getIntProperty(props, prefix, STREAM_DEDUP_MEMORY));
+        }
+        if (notNull(props, prefix, STREAM_DEDUP_FALSE_POSITIVE_RATE)) {
+            setStreamDedupFalsePositiveRate(getDoubleProperty(props, prefix, STREAM_DEDUP_FALSE_POSITIVE_RATE));
+        }
+        if (notNull(props, prefix, STREAM_FILTER_HOT_SWAP)) {
+            setStreamFilterHotSwap(getBoolean(props, prefix, STREAM_FILTER_HOT_SWAP));
+        }
+        if (notNull(props, prefix, STREAM_FILTER_UPDATE_WINDOW)) {
+            setStreamFilterUpdateWindow(getIntProperty(props, prefix, STREAM_FILTER_UPDATE_WINDOW));
+        }
+        if (notNull(props, prefix, STREAM_FILTER_MIN_RECONNECT_INTERVAL)) {
+            setStreamFilterMinReconnectInterval(getIntProperty(props, prefix, STREAM_FILTER_MIN_RECONNECT_INTERVAL));
+        }
+        if (notNull(props, prefix, STREAM_RECONNECT_POLICY_IMPL)) {
+            setStreamReconnectPolicyImpl(getString(props, prefix, STREAM_RECONNECT_POLICY_IMPL));
+        }
+        if (notNull(props, prefix, STREAM_RECONNECT_MAX_ATTEMPTS)) {
+            setStreamReconnectMaxAttempts(getIntProperty(props, prefix, STREAM_RECONNECT_MAX_ATTEMPTS));
+        }
+        if (notNull(props, prefix, STREAM_RECONNECT_ATTEMPT_WINDOW)) {
+            setStreamReconnectAttemptWindow(getIntProperty(props, prefix, STREAM_RECONNECT_ATTEMPT_WINDOW));
+        }
+        if (notNull(props, prefix, STREAM_STALL_TIMEOUT)) {
+            setStreamStallTimeout(getIntProperty(props, prefix, STREAM_STALL_TIMEOUT));
+        }
+        if (notNull(props, prefix, STREAM_STALL_MESSAGE_TIMEOUT)) {
+            setStreamStallMessageTimeout(getIntProperty(props, prefix, STREAM_STALL_MESSAGE_TIMEOUT));
+        }
+        if (notNull(props, prefix, STREAM_STALL_PERCENT_FULL)) {
+            setStreamStallPercentFull(getIntProperty(props, prefix, STREAM_STALL_PERCENT_FULL));
+        }
+        if (notNull(props, prefix, STREAM_MULTIPLEXER_SELECTOR_THREADS)) {
+            setStreamMultiplexerSelectorThreads(getIntProperty(props, prefix, STREAM_MULTIPLEXER_SELECTOR_THREADS));
+        }
+        if (notNull(props, prefix, STREAM_DISPATCHER_GROUP)) {
+            setStreamDispatcherGroup(getString(props, prefix, STREAM_DISPATCHER_GROUP));
+        }
+        if (notNull(props, prefix, STREAM_DISPATCHER_THREADS)) {
+            setStreamDispatcherThreads(getIntProperty(props, prefix, STREAM_DISPATCHER_THREADS));
+        }
+        if (notNull(props, prefix, STREAM_SITE_FAIR_SCHEDULING)) {
+            setStreamSiteFairScheduling(getBoolean(props, prefix, STREAM_SITE_FAIR_SCHEDULING));
+        }
+        if (notNull(props, prefix, STREAM_CONTROL_BATCH_SIZE)) {
+            setStreamControlBatchSize(getIntProperty(props, prefix, STREAM_CONTROL_BATCH_SIZE));
+        }
+        if (notNull(props, prefix, STREAM_CONTROL_MAX_CONCURRENT_REQUESTS)) {
+            setStreamControlMaxConcurrentRequests(getIntProperty(props, prefix, STREAM_CONTROL_MAX_CONCURRENT_REQUESTS));
+        }
+        if (notNull(props, prefix, STREAM_JOURNAL_DIR)) {
+            setStreamJournalDir(getString(props, prefix, STREAM_JOURNAL_DIR));
+        }
+        if (notNull(props, prefix, STREAM_JOURNAL_SEGMENT_SIZE)) {
+            setStreamJournalSegmentSize(getIntProperty(props, prefix, STREAM_JOURNAL_SEGMENT_SIZE));
+        }
+        if (notNull(props, prefix, STREAM_JOURNAL_SYNC_INTERVAL)) {
+            setStreamJournalSyncInterval(getLongProperty(props, prefix, STREAM_JOURNAL_SYNC_INTERVAL));
+        }
+        if (notNull(props, prefix, STREAM_JOURNAL_INDEX_INTERVAL)) {
+            setStreamJournalIndexInterval(getIntProperty(props, prefix, STREAM_JOURNAL_INDEX_INTERVAL));
+        }
         cacheInstance();
     }
 
@@ -427,6 +591,15 @@ public final class PropertyConfiguration extends ConfigurationBase implements ja
         }
     }
 
+    private double getDoubleProperty(Properties props, String prefix, String name) {
+        String value = props.getProperty(prefix + name);
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException nfe) {
+            return -1d;
+        }
+    }
+
     private String getString(Properties props, String prefix, String name) {
         return props.getProperty(prefix + name);
     }
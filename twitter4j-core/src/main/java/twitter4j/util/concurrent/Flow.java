@@ -0,0 +1,69 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package twitter4j.util.concurrent;
+
+/**
+ * Interfaces of reactive streams, mirroring java.util.concurrent.Flow which is not available on Java 8.<br>
+ * Adapting them to Java 9 Flow or Reactive Streams is a matter of forwarding the calls, see the contracts of
+ * the Reactive Streams specification.
+ *
+ * @since Twitter4J 4.0.12
+ */
+public final class Flow {
+    private Flow() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Producer of items received by subscribers.
+     *
+     * @param <T> type of the items
+     */
+    public interface Publisher<T> {
+        /**
+         * @param subscriber subscriber to receive onSubscribe, then onNext up to the requested number of items
+         *                   and finally onError or onComplete
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * Receiver of items. Calls are never concurrent.
+     *
+     * @param <T> type of the items
+     */
+    public interface Subscriber<T> {
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+    /**
+     * Link between a publisher and a subscriber.
+     */
+    public interface Subscription {
+        /**
+         * @param n number of additional items the subscriber is ready to receive
+         */
+        void request(long n);
+
+        void cancel();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Compares throughput and hand-off latency of the Dispatcher implementations.<br>
+ * usage: java twitter4j.DispatcherBenchmark [tasks per producer] [producers] [worker threads]
+ */
+public class DispatcherBenchmark {
+    private static final String[] IMPLEMENTATIONS = {
+            "twitter4j.DispatcherImpl", "twitter4j.RingBufferDispatcher"};
+    private static final String[] WAIT_STRATEGIES = {"park", "yield", "busySpin"};
+
+    public static void main(String[] args) throws Exception {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int producers = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        System.out.println("tasks/producer=" + tasks + " producers=" + producers + " workers=" + workers);
+        for (int round = 0; round < 2; round++) {
+            // first round warms up the JIT
+            boolean print = round == 1;
+            run(IMPLEMENTATIONS[0], "park", tasks, producers, workers, print);
+            for (String waitStrategy : WAIT_STRATEGIES) {
+                run(IMPLEMENTATIONS[1], waitStrategy, tasks, producers, workers, print);
+            }
+        }
+    }
+
+    private static void run(String impl, String waitStrategy, final int tasks, int producers, int workers
+            , boolean print) throws InterruptedException {
+        Configuration conf = new ConfigurationBuilder()
+                .setDispatcherImpl(impl)
+                .setAsyncNumThreads(workers)
+                .setAsyncRingBufferSize(8192)
+                .setAsyncWaitStrategy(waitStrategy)
+                .setDaemonEnabled(true)
+                .build();
+        final Dispatcher dispatcher = new DispatcherFactory(conf).getInstance();
+        final int total = tasks * producers;
+        final long[] latencies = new long[total];
+        final CountDownLatch done = new CountDownLatch(total);
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int offset = p * tasks;
+            threads[p] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ignore) {
+                    }
+                    for (int i = 0; i < tasks; i++) {
+                        dispatcher.invokeLater(new LatencyTask(offset + i, latencies, done));
+                    }
+                }
+            };
+            threads[p].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        dispatcher.shutdown();
+        if (print) {
+            Arrays.sort(latencies);
+            System.out.println(String.format("%-32s %-9s %,12d tasks/sec  p50=%,8dns p99=%,10dns p99.9=%,10dns"
+                    , impl, "[" + waitStrategy + "]", (long) (total / (elapsed / 1000000000d))
+                    , latencies[total / 2], latencies[(int) (total * 0.99)], latencies[(int) (total * 0.999)]));
+        }
+    }
+
+    private static final class LatencyTask implements Runnable {
+        private final int index;
+        private final long[] latencies;
+        private final CountDownLatch done;
+        private final long submitted = System.nanoTime();
+
+        LatencyTask(int index, long[] latencies, CountDownLatch done) {
+            this.index = index;
+            this.latencies = latencies;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            latencies[index] = System.nanoTime() - submitted;
+            done.countDown();
+        }
+    }
+}
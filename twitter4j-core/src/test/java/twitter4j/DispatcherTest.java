@@ -17,9 +17,13 @@
 package twitter4j;
 
 import junit.framework.TestCase;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
 import twitter4j.conf.ConfigurationContext;
 
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Yusuke Yamamoto - yusuke at mac.com
@@ -54,6 +58,62 @@ public class DispatcherTest extends TestCase {
         assertEquals(0, countThread(name));
     }
 
+    public void testRingBufferDispatcher() throws Exception {
+        String name = "Twitter4J Async Dispatcher";
+        Configuration conf = new ConfigurationBuilder()
+                .setDispatcherImpl("twitter4j.RingBufferDispatcher")
+                .setAsyncNumThreads(2)
+                .setAsyncRingBufferSize(5)
+                .setAsyncWaitStrategy("yield")
+                .build();
+        dispatcher = new DispatcherFactory(conf).getInstance();
+        assertTrue(dispatcher instanceof RingBufferDispatcher);
+        final AtomicInteger executed = new AtomicInteger();
+        // far more tasks than slots: producers have to wait for the workers to free slots
+        for (int i = 0; i < 10000; i++) {
+            dispatcher.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    executed.incrementAndGet();
+                }
+            });
+        }
+        dispatcher.shutdown();
+        assertEquals(10000, executed.get());
+        Thread.sleep(300);
+        assertEquals(0, countThread(name));
+        try {
+            dispatcher.invokeLater(new IncrementTask());
+            fail("expecting RejectedExecutionException");
+        } catch (RejectedExecutionException ignored) {
+        }
+    }
+
+    public void testRingBufferCapacity() throws Exception {
+        assertEquals(2, RingBufferDispatcher.ceilingPowerOfTwo(1));
+        assertEquals(8, RingBufferDispatcher.ceilingPowerOfTwo(5));
+        assertEquals(1024, RingBufferDispatcher.ceilingPowerOfTwo(1024));
+        assertEquals(1 << 30, RingBufferDispatcher.ceilingPowerOfTwo((1 << 29) + 1));
+        assertEquals(1 << 30, RingBufferDispatcher.ceilingPowerOfTwo(1 << 30));
+        for (int size : new int[]{0, -1, (1 << 30) + 1, Integer.MAX_VALUE}) {
+            try {
+                RingBufferDispatcher.ceilingPowerOfTwo(size);
+                fail("accepted " + size);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+        try {
+            new DispatcherFactory(new ConfigurationBuilder()
+                    .setDispatcherImpl("twitter4j.RingBufferDispatcher")
+                    .setAsyncRingBufferSize(Integer.MAX_VALUE).build()).getInstance();
+            fail("accepted an oversized ring buffer");
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(RingBufferDispatcher.WaitStrategy.BUSY_SPIN, RingBufferDispatcher.WaitStrategy.of("busySpin"));
+        assertEquals(RingBufferDispatcher.WaitStrategy.YIELD, RingBufferDispatcher.WaitStrategy.of("YIELD"));
+        assertEquals(RingBufferDispatcher.WaitStrategy.PARK, RingBufferDispatcher.WaitStrategy.of("park"));
+    }
+
     private int countThread(String name) {
         int count = 0;
         Map<Thread, StackTraceElement[]> allThreads = Thread.getAllStackTraces();
@@ -20,6 +20,7 @@ import junit.framework.Assert;
 import junit.framework.TestCase;
 
 import java.text.SimpleDateFormat;
+import java.util.Locale;
 import java.util.TimeZone;
 
 /**
@@ -46,4 +47,22 @@ public class ParseUtilTest extends TestCase {
                 , sdf.format(ParseUtil.parseTrendsDate("2011-07-11T05:31:52Z")));
     }
 
+    public void testParseCreatedAt() throws Exception {
+        SimpleDateFormat sdf = new SimpleDateFormat("EEE MMM d HH:mm:ss z yyyy", Locale.US);
+        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+        String[] dates = {"Sat Dec 19 16:01:35 +0000 2009", "Thu Jan 01 00:00:00 +0000 1970"
+                , "Wed Dec 31 23:59:59 +0000 1969", "Tue Feb 29 12:00:00 +0000 2000", "Sun Mar 01 00:00:00 +0000 2100"
+                , "Mon Jul 11 05:31:52 +0930 2011", "Fri Nov 05 23:15:00 -0800 2021"};
+        for (String date : dates) {
+            Assert.assertEquals(date, sdf.parse(date).getTime(), ParseUtil.parseCreatedAt(date));
+            Assert.assertEquals(date, sdf.parse(date), ParseUtil.getDate(date, "EEE MMM d HH:mm:ss z yyyy"));
+        }
+        // anything else is left to SimpleDateFormat
+        Assert.assertEquals(Long.MIN_VALUE, ParseUtil.parseCreatedAt("Sat Dec 19 16:01:35 UTC 2009"));
+        Assert.assertEquals(Long.MIN_VALUE, ParseUtil.parseCreatedAt("Sat Feb 29 16:01:35 +0000 2009"));
+        Assert.assertEquals(Long.MIN_VALUE, ParseUtil.parseCreatedAt("Sat Dec 9 16:01:35 +0000 2009"));
+        Assert.assertEquals(sdf.parse("Sat Dec 19 16:01:35 UTC 2009")
+                , ParseUtil.getDate("Sat Dec 19 16:01:35 UTC 2009", "EEE MMM d HH:mm:ss z yyyy"));
+    }
+
 }
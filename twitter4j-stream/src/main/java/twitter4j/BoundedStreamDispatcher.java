@@ -0,0 +1,278 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the number of stream events waiting for dispatch.<br>
+ * Events are parked in a fixed size queue and the underlying dispatcher only receives a shared drain task per event,
+ * so a slow listener can't make the heap grow without bound. What happens when the queue is full is decided by
+ * stream.queue.overflowPolicy:
+ * <ul>
+ * <li>block - the stream reader waits, which pushes back to the server through TCP flow control</li>
+ * <li>dropOldest - the oldest queued event is discarded</li>
+ * <li>dropNewest - the incoming event is discarded</li>
+ * <li>dropByType - events listed in stream.queue.droppableEvents are discarded, incoming first, then queued ones.
+ * Other events block the reader</li>
+ * </ul>
+ *
+ * @since Twitter4J 4.0.12
+ */
+final class BoundedStreamDispatcher implements Dispatcher, DispatchQueueStatistics {
+    private static final Logger logger = Logger.getLogger(BoundedStreamDispatcher.class);
+
+    enum OverflowPolicy {
+        BLOCK("block"), DROP_OLDEST("dropOldest"), DROP_NEWEST("dropNewest"), DROP_BY_TYPE("dropByType");
+
+        private final String name;
+
+        OverflowPolicy(String name) {
+            this.name = name;
+        }
+
+        static OverflowPolicy of(String name) {
+            for (OverflowPolicy policy : values()) {
+                if (policy.name.equalsIgnoreCase(name)) {
+                    return policy;
+                }
+            }
+            throw new IllegalArgumentException("Unknown overflow policy: " + name);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private volatile Dispatcher delegate;
+    private final ArrayBlockingQueue<Runnable> queue;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final Set<String> droppableEvents;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+    private final AtomicLong droppedOldest = new AtomicLong();
+    private final AtomicLong droppedNewest = new AtomicLong();
+    private final AtomicLong droppedByType = new AtomicLong();
+
+    // the delegate receives exactly one drain per accepted event. replacing a queued event doesn't add a drain
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            Runnable task = queue.poll();
+            if (task != null) {
+                task.run();
+            }
+        }
+    };
+
+    BoundedStreamDispatcher(Dispatcher delegate, Configuration conf) {
+        this.delegate = delegate;
+        this.capacity = conf.getStreamQueueCapacity();
+        this.queue = new ArrayBlockingQueue<Runnable>(capacity);
+        this.policy = OverflowPolicy.of(conf.getStreamQueueOverflowPolicy());
+        this.droppableEvents = new HashSet<String>();
+        if (conf.getStreamQueueDroppableEvents() != null) {
+            for (String event : conf.getStreamQueueDroppableEvents().split(",")) {
+                if (event.trim().length() > 0) {
+                    droppableEvents.add(event.trim());
+                }
+            }
+        }
+    }
+
+    void setDelegate(Dispatcher delegate) {
+        this.delegate = delegate;
+    }
+
+    Dispatcher getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void invokeLater(Runnable task) {
+        if (queue.offer(task)) {
+            accepted();
+            return;
+        }
+        switch (policy) {
+            case DROP_NEWEST:
+                droppedNewest.incrementAndGet();
+                return;
+            case DROP_OLDEST:
+                boolean dropped = false;
+                while (!queue.offer(task)) {
+                    if (queue.poll() != null) {
+                        droppedOldest.incrementAndGet();
+                        dropped = true;
+                    }
+                }
+                if (dropped) {
+                    // took over the drain of the discarded event
+                    enqueued.incrementAndGet();
+                } else {
+                    // the queue was drained concurrently, which consumed the pending drains
+                    accepted();
+                }
+                return;
+            case DROP_BY_TYPE:
+                if (isDroppable(task)) {
+                    droppedByType.incrementAndGet();
+                    return;
+                }
+                if (removeDroppable() && queue.offer(task)) {
+                    enqueued.incrementAndGet();
+                    return;
+                }
+                put(task);
+                return;
+            case BLOCK:
+            default:
+                put(task);
+        }
+    }
+
+    private void put(Runnable task) {
+        blocked.incrementAndGet();
+        try {
+            queue.put(task);
+        } catch (InterruptedException e) {
+            logger.warn("Interrupted while waiting for room in the dispatch queue");
+            Thread.currentThread().interrupt();
+            return;
+        }
+        accepted();
+    }
+
+    private void accepted() {
+        enqueued.incrementAndGet();
+        delegate.invokeLater(drain);
+    }
+
+    private boolean removeDroppable() {
+        Iterator<Runnable> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            if (isDroppable(iterator.next())) {
+                iterator.remove();
+                droppedByType.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isDroppable(Runnable task) {
+        return task instanceof StatusStreamBase.StreamEvent
+                && droppableEvents.contains(eventName(((StatusStreamBase.StreamEvent) task).line));
+    }
+
+    /**
+     * @param line raw message
+     * @return the name of the first top level element, or the value of "event" for user stream events
+     */
+    static String eventName(String line) {
+        if (line == null) {
+            return null;
+        }
+        int keyStart = line.indexOf('"');
+        if (keyStart == -1) {
+            return null;
+        }
+        int keyEnd = line.indexOf('"', keyStart + 1);
+        if (keyEnd == -1) {
+            return null;
+        }
+        String key = line.substring(keyStart + 1, keyEnd);
+        if ("event".equals(key)) {
+            int valueStart = line.indexOf('"', line.indexOf(':', keyEnd) + 1);
+            int valueEnd = valueStart == -1 ? -1 : line.indexOf('"', valueStart + 1);
+            if (valueEnd != -1) {
+                return line.substring(valueStart + 1, valueEnd);
+            }
+        }
+        return key;
+    }
+
+    @Override
+    public void shutdown() {
+        queue.clear();
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public int getSize() {
+        return queue.size();
+    }
+
+    @Override
+    public String getOverflowPolicy() {
+        return policy.toString();
+    }
+
+    @Override
+    public long getEnqueuedCount() {
+        return enqueued.get();
+    }
+
+    @Override
+    public long getBlockedCount() {
+        return blocked.get();
+    }
+
+    @Override
+    public long getDroppedOldestCount() {
+        return droppedOldest.get();
+    }
+
+    @Override
+    public long getDroppedNewestCount() {
+        return droppedNewest.get();
+    }
+
+    @Override
+    public long getDroppedByTypeCount() {
+        return droppedByType.get();
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedStreamDispatcher{" +
+                "capacity=" + capacity +
+                ", size=" + queue.size() +
+                ", policy=" + policy +
+                ", droppableEvents=" + droppableEvents +
+                ", enqueued=" + enqueued +
+                ", blocked=" + blocked +
+                ", droppedOldest=" + droppedOldest +
+                ", droppedNewest=" + droppedNewest +
+                ", droppedByType=" + droppedByType +
+                '}';
+    }
+}
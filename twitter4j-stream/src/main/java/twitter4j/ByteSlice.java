@@ -0,0 +1,107 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * A view of a range of bytes, usually a framed message in the stream reader's buffer.<br>
+ * As a CharSequence each byte reads as one char. That is good enough to look for JSON structure and ASCII keys
+ * with RawJSONScanner, since bytes of multi-byte UTF-8 sequences never match an ASCII character. Use toString() to
+ * decode the bytes.<br>
+ * A slice returned by the framer is only valid until the next message is read.
+ *
+ * @since Twitter4J 4.0.12
+ */
+final class ByteSlice implements CharSequence {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private byte[] array;
+    private int offset;
+    private int length;
+
+    ByteSlice() {
+    }
+
+    ByteSlice(byte[] array, int offset, int length) {
+        set(array, offset, length);
+    }
+
+    ByteSlice set(byte[] array, int offset, int length) {
+        this.array = array;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    byte[] array() {
+        return array;
+    }
+
+    int offset() {
+        return offset;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    byte byteAt(int index) {
+        return array[offset + index];
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        return (char) (array[offset + index] & 0xff);
+    }
+
+    @Override
+    public ByteSlice subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+        }
+        return new ByteSlice(array, offset + start, end - start);
+    }
+
+    /**
+     * @return read-only buffer sharing the bytes of this slice, positioned at its first byte
+     */
+    ByteBuffer asReadOnlyByteBuffer() {
+        return ByteBuffer.wrap(array, offset, length).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * @return copy of the bytes of this slice
+     */
+    byte[] toByteArray() {
+        byte[] copy = new byte[length];
+        System.arraycopy(array, offset, copy, 0, length);
+        return copy;
+    }
+
+    /**
+     * @return the bytes of this slice decoded as UTF-8
+     */
+    @Override
+    public String toString() {
+        return new String(array, offset, length, UTF_8);
+    }
+}
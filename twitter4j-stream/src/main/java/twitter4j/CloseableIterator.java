@@ -0,0 +1,34 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * An iterator holding resources which are released by {@link #close()}.
+ *
+ * @param <T> type of the elements
+ * @since Twitter4J 4.0.12
+ */
+public interface CloseableIterator<T> extends Iterator<T>, Closeable {
+    /**
+     * Releases the resources. hasNext() returns false afterwards.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Random;
+
+import static twitter4j.HttpResponseCode.ENHANCE_YOUR_CALM;
+import static twitter4j.HttpResponseCode.TOO_MANY_REQUESTS;
+
+/**
+ * Exponential backoff with decorrelated jitter: each wait is picked at random between the initial wait and three
+ * times the previous one, up to a cap. Connections failing together spread their reconnects instead of retrying in
+ * lockstep.<br>
+ * Waits start at 250 milliseconds up to 16 seconds for network errors, at 10 seconds up to 240 seconds for HTTP
+ * errors, and at 1 minute up to 16 minutes when rate limited with 420 or 429.<br>
+ * When stream.reconnect.maxAttempts is set, reconnects are further delayed so that no more than that many happen
+ * within stream.reconnect.attemptWindow milliseconds across the connections of the stream.
+ *
+ * @since Twitter4J 4.0.12
+ */
+final class DecorrelatedJitterReconnectPolicy implements ReconnectPolicy {
+    private static final long TCP_ERROR_INITIAL_WAIT = 250;
+    private static final long TCP_ERROR_WAIT_CAP = 16 * 1000;
+
+    private static final long HTTP_ERROR_INITIAL_WAIT = 10 * 1000;
+    private static final long HTTP_ERROR_WAIT_CAP = 240 * 1000;
+
+    private static final long RATE_LIMITED_INITIAL_WAIT = 60 * 1000;
+    private static final long RATE_LIMITED_WAIT_CAP = 960 * 1000;
+
+    private final Random random;
+    private final int maxAttempts;
+    private final long attemptWindow;
+    // times of the scheduled reconnects within the window, guarded by itself
+    private final Queue<Long> attempts = new PriorityQueue<Long>();
+
+    public DecorrelatedJitterReconnectPolicy(Configuration conf) {
+        this(conf, new Random());
+    }
+
+    DecorrelatedJitterReconnectPolicy(Configuration conf, Random random) {
+        this.random = random;
+        this.maxAttempts = conf.getStreamReconnectMaxAttempts();
+        this.attemptWindow = conf.getStreamReconnectAttemptWindow();
+    }
+
+    @Override
+    public long nextWait(int statusCode, int attempt, long previousWait) {
+        return nextWait(statusCode, attempt, previousWait, System.currentTimeMillis());
+    }
+
+    long nextWait(int statusCode, int attempt, long previousWait, long now) {
+        long initialWait;
+        long cap;
+        if (statusCode == ENHANCE_YOUR_CALM || statusCode == TOO_MANY_REQUESTS) {
+            initialWait = RATE_LIMITED_INITIAL_WAIT;
+            cap = RATE_LIMITED_WAIT_CAP;
+        } else if (statusCode > 200) {
+            initialWait = HTTP_ERROR_INITIAL_WAIT;
+            cap = HTTP_ERROR_WAIT_CAP;
+        } else {
+            initialWait = TCP_ERROR_INITIAL_WAIT;
+            cap = TCP_ERROR_WAIT_CAP;
+        }
+        long upper = Math.max(initialWait, Math.min(cap, previousWait) * 3);
+        long wait = Math.min(cap, initialWait + (long) (random.nextDouble() * (upper - initialWait)));
+        return throttle(wait, now);
+    }
+
+    /**
+     * @return the wait, extended until the oldest reconnect within the window leaves it when the window is full
+     */
+    private long throttle(long wait, long now) {
+        if (maxAttempts <= 0) {
+            return wait;
+        }
+        synchronized (attempts) {
+            long at = now + wait;
+            while (!attempts.isEmpty() && attempts.peek() <= at - attemptWindow) {
+                attempts.poll();
+            }
+            if (attempts.size() >= maxAttempts) {
+                at = Math.max(at, attempts.poll() + attemptWindow);
+            }
+            attempts.add(at);
+            return at - now;
+        }
+    }
+}
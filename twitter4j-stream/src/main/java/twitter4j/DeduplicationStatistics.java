@@ -0,0 +1,50 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * Counters of the status deduplication enabled with stream.dedup.enabled, or by stream.sharding.enabled.
+ *
+ * @see TwitterStream#getDeduplicationStatistics()
+ * @since Twitter4J 4.0.12
+ */
+public interface DeduplicationStatistics {
+    /**
+     * @return number of statuses checked
+     */
+    long getCheckedCount();
+
+    /**
+     * @return number of statuses dropped as already received, false positives included
+     */
+    long getDuplicateCount();
+
+    /**
+     * @return number of times the oldest generation of ids has been forgotten
+     */
+    long getRotationCount();
+
+    /**
+     * @return number of ids a generation holds before it is rotated early to keep the false positive rate
+     */
+    int getCapacity();
+
+    /**
+     * @return false positive rate the filter is sized for
+     */
+    double getFalsePositiveRate();
+}
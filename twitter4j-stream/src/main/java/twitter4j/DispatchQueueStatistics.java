@@ -0,0 +1,65 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * Counters of the bounded queue sitting between a stream reader and the dispatcher.
+ *
+ * @see TwitterStream#getDispatchQueueStatistics()
+ * @since Twitter4J 4.0.12
+ */
+public interface DispatchQueueStatistics {
+    /**
+     * @return maximum number of events waiting for dispatch
+     */
+    int getCapacity();
+
+    /**
+     * @return number of events currently waiting for dispatch
+     */
+    int getSize();
+
+    /**
+     * @return overflow policy in effect: block, dropOldest, dropNewest or dropByType
+     */
+    String getOverflowPolicy();
+
+    /**
+     * @return number of events accepted into the queue
+     */
+    long getEnqueuedCount();
+
+    /**
+     * @return number of times the stream reader had to wait for room in the queue
+     */
+    long getBlockedCount();
+
+    /**
+     * @return number of queued events discarded to make room for newer ones
+     */
+    long getDroppedOldestCount();
+
+    /**
+     * @return number of incoming events discarded because the queue was full
+     */
+    long getDroppedNewestCount();
+
+    /**
+     * @return number of events discarded because their type is listed in stream.queue.droppableEvents
+     */
+    long getDroppedByTypeCount();
+}
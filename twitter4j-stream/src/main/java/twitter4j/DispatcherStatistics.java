@@ -0,0 +1,60 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * Counters of a dispatcher group set with stream.dispatcher.group, to compare how quickly the groups deliver events.
+ *
+ * @see TwitterStream#getDispatcherStatistics()
+ * @since Twitter4J 4.0.12
+ */
+public interface DispatcherStatistics {
+    /**
+     * @return name of the group
+     */
+    String getGroup();
+
+    /**
+     * @return number of TwitterStreams sharing the group
+     */
+    int getMemberCount();
+
+    /**
+     * @return number of threads delivering the events of the group
+     */
+    int getThreadCount();
+
+    /**
+     * @return number of events waiting for a thread
+     */
+    int getQueueSize();
+
+    /**
+     * @return number of events delivered
+     */
+    long getDispatchedCount();
+
+    /**
+     * @return average time events waited for a thread, in nanoseconds
+     */
+    long getAverageWaitNanos();
+
+    /**
+     * @return longest time an event waited for a thread, in nanoseconds
+     */
+    long getMaxWaitNanos();
+}
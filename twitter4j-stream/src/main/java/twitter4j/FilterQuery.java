@@ -193,6 +193,47 @@ public final class FilterQuery implements java.io.Serializable {
     }
 
 
+    /*package*/ int getCount() {
+        return count;
+    }
+
+    /*package*/ long[] getFollow() {
+        return follow;
+    }
+
+    /*package*/ String[] getTrack() {
+        return track;
+    }
+
+    /*package*/ double[][] getLocations() {
+        return locations;
+    }
+
+    /*package*/ String[] getLanguage() {
+        return language;
+    }
+
+    /*package*/ String getFilterLevel() {
+        return filterLevel;
+    }
+
+    /**
+     * @return a copy of this query sharing no arrays with it
+     */
+    /*package*/ FilterQuery copy() {
+        FilterQuery copy = new FilterQuery().count(count).filterLevel(filterLevel);
+        copy.follow = follow == null ? null : follow.clone();
+        copy.track = track == null ? null : track.clone();
+        copy.language = language == null ? null : language.clone();
+        if (locations != null) {
+            copy.locations = new double[locations.length][];
+            for (int i = 0; i < locations.length; i++) {
+                copy.locations[i] = locations[i] == null ? null : locations[i].clone();
+            }
+        }
+        return copy;
+    }
+
     /*package*/ HttpParameter[] asHttpParameterArray(HttpParameter stallWarningsParam) {
         ArrayList<HttpParameter> params = new ArrayList<HttpParameter>();
 
@@ -240,6 +281,7 @@ public final class FilterQuery implements java.io.Serializable {
         if (count != that.count) return false;
         if (!Arrays.equals(follow, that.follow)) return false;
         if (!Arrays.equals(track, that.track)) return false;
+        if (!Arrays.deepEquals(locations, that.locations)) return false;
         if (!Arrays.equals(language, that.language)) return false;
         if (!(filterLevel == null ? that.filterLevel == null :
             filterLevel.equals(that.filterLevel))) return false;
@@ -252,6 +294,7 @@ public final class FilterQuery implements java.io.Serializable {
         int result = count;
         result = 31 * result + (follow != null ? Arrays.hashCode(follow) : 0);
         result = 31 * result + (track != null ? Arrays.hashCode(track) : 0);
+        result = 31 * result + (locations != null ? Arrays.deepHashCode(locations) : 0);
         result = 31 * result + (language != null ? Arrays.hashCode(language) : 0);
         result = 31 * result + (filterLevel != null ? filterLevel.hashCode() : 0);
         return result;
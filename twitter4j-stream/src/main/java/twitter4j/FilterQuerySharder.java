@@ -0,0 +1,195 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits a FilterQuery into queries within the per connection limits of follow ids, track keywords and location
+ * boxes.<br>
+ * The assignment is sticky: when the query changes, ids, keywords and boxes which remain stay on their shard, so that
+ * only the shards which actually changed need to reconnect. Shards are assigned from scratch when the query shrank
+ * enough to fit on fewer connections.
+ *
+ * @since Twitter4J 4.0.12
+ */
+final class FilterQuerySharder {
+    private final int maxFollow;
+    private final int maxTrack;
+    private final int maxLocations;
+    private final List<Shard> shards = new ArrayList<Shard>();
+
+    FilterQuerySharder(int maxFollow, int maxTrack, int maxLocations) {
+        if (maxFollow <= 0 || maxTrack <= 0 || maxLocations <= 0) {
+            throw new IllegalArgumentException("shard limits must be positive");
+        }
+        this.maxFollow = maxFollow;
+        this.maxTrack = maxTrack;
+        this.maxLocations = maxLocations;
+    }
+
+    /**
+     * @param query query to split
+     * @return one query per connection. Queries of shards which didn't change are equal to the previous ones
+     */
+    synchronized List<FilterQuery> shard(FilterQuery query) {
+        Set<Long> follow = new LinkedHashSet<Long>();
+        if (query.getFollow() != null) {
+            for (long id : query.getFollow()) {
+                follow.add(id);
+            }
+        }
+        Set<String> track = new LinkedHashSet<String>();
+        if (query.getTrack() != null) {
+            track.addAll(Arrays.asList(query.getTrack()));
+        }
+        // a box is a pair of south west and north east points
+        Map<String, double[][]> boxes = new LinkedHashMap<String, double[][]>();
+        double[][] locations = query.getLocations();
+        if (locations != null) {
+            for (int i = 0; i + 1 < locations.length; i += 2) {
+                double[][] box = {locations[i], locations[i + 1]};
+                boxes.put(Arrays.deepToString(box), box);
+            }
+        }
+
+        int needed = Math.max(1, Math.max(shardsFor(follow.size(), maxFollow)
+                , Math.max(shardsFor(track.size(), maxTrack), shardsFor(boxes.size(), maxLocations))));
+        Iterator<Shard> iterator = shards.iterator();
+        while (iterator.hasNext()) {
+            Shard shard = iterator.next();
+            shard.follow.retainAll(follow);
+            shard.track.retainAll(track);
+            shard.boxes.keySet().retainAll(boxes.keySet());
+            if (shard.isEmpty()) {
+                iterator.remove();
+            }
+        }
+        if (shards.size() > needed) {
+            // compact onto fewer connections
+            shards.clear();
+        }
+        for (Shard shard : shards) {
+            follow.removeAll(shard.follow);
+            track.removeAll(shard.track);
+            boxes.keySet().removeAll(shard.boxes.keySet());
+        }
+        for (Long id : follow) {
+            shardWithRoom(Kind.FOLLOW).follow.add(id);
+        }
+        for (String keyword : track) {
+            shardWithRoom(Kind.TRACK).track.add(keyword);
+        }
+        for (Map.Entry<String, double[][]> box : boxes.entrySet()) {
+            shardWithRoom(Kind.LOCATIONS).boxes.put(box.getKey(), box.getValue());
+        }
+
+        List<FilterQuery> queries = new ArrayList<FilterQuery>(Math.max(1, shards.size()));
+        if (shards.isEmpty()) {
+            // no predicate. let the API tell what's wrong with the query
+            queries.add(query);
+            return queries;
+        }
+        for (Shard shard : shards) {
+            queries.add(shard.asQuery(query));
+        }
+        return queries;
+    }
+
+    /**
+     * Forgets the current assignment.
+     */
+    synchronized void reset() {
+        shards.clear();
+    }
+
+    private static int shardsFor(int items, int max) {
+        return (items + max - 1) / max;
+    }
+
+    private Shard shardWithRoom(Kind kind) {
+        for (Shard shard : shards) {
+            if (shard.hasRoomFor(kind)) {
+                return shard;
+            }
+        }
+        Shard shard = new Shard();
+        shards.add(shard);
+        return shard;
+    }
+
+    private enum Kind {
+        FOLLOW, TRACK, LOCATIONS
+    }
+
+    private final class Shard {
+        private final Set<Long> follow = new LinkedHashSet<Long>();
+        private final Set<String> track = new LinkedHashSet<String>();
+        private final Map<String, double[][]> boxes = new LinkedHashMap<String, double[][]>();
+
+        boolean hasRoomFor(Kind kind) {
+            switch (kind) {
+                case FOLLOW:
+                    return follow.size() < maxFollow;
+                case TRACK:
+                    return track.size() < maxTrack;
+                default:
+                    return boxes.size() < maxLocations;
+            }
+        }
+
+        boolean isEmpty() {
+            return follow.isEmpty() && track.isEmpty() && boxes.isEmpty();
+        }
+
+        FilterQuery asQuery(FilterQuery original) {
+            FilterQuery query = new FilterQuery().count(original.getCount())
+                    .filterLevel(original.getFilterLevel());
+            if (original.getLanguage() != null) {
+                query.language(original.getLanguage());
+            }
+            if (!follow.isEmpty()) {
+                long[] ids = new long[follow.size()];
+                int i = 0;
+                for (Long id : follow) {
+                    ids[i++] = id;
+                }
+                query.follow(ids);
+            }
+            if (!track.isEmpty()) {
+                query.track(track.toArray(new String[track.size()]));
+            }
+            if (!boxes.isEmpty()) {
+                double[][] locations = new double[boxes.size() * 2][];
+                int i = 0;
+                for (double[][] box : boxes.values()) {
+                    locations[i++] = box[0];
+                    locations[i++] = box[1];
+                }
+                query.locations(locations);
+            }
+            return query;
+        }
+    }
+}
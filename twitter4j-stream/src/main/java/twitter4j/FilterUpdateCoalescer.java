@@ -0,0 +1,182 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces filter updates requested in quick succession so that only the latest query is applied.<br>
+ * The first update of a burst is applied stream.filter.updateWindow milliseconds later with the latest query requested
+ * meanwhile, and no sooner than stream.filter.minReconnectInterval milliseconds after the previous reconnect.
+ *
+ * @since Twitter4J 4.0.12
+ */
+final class FilterUpdateCoalescer implements FilterUpdateStatistics {
+    private static final Logger logger = Logger.getLogger(FilterUpdateCoalescer.class);
+    private static final long NEVER = Long.MIN_VALUE;
+
+    interface Target {
+        /**
+         * Reconnects with the given query, calling {@link FilterUpdateCoalescer#applied(FilterQuery)}.
+         *
+         * @param query query to apply
+         */
+        void filter(FilterQuery query);
+    }
+
+    private final Configuration conf;
+    private final Target target;
+    private final long window;
+    private final long minInterval;
+
+    // guarded by this
+    private FilterQuery pending;
+    private FilterQuery running;
+    private long lastApplied = NEVER;
+    private boolean scheduled;
+    private ScheduledExecutorService timer;
+
+    private final AtomicLong requestedCount = new AtomicLong();
+    private final AtomicLong mergedCount = new AtomicLong();
+    private final AtomicLong appliedCount = new AtomicLong();
+    private final AtomicLong unchangedCount = new AtomicLong();
+
+    FilterUpdateCoalescer(Configuration conf, Target target) {
+        this.conf = conf;
+        this.target = target;
+        this.window = Math.max(0, conf.getStreamFilterUpdateWindow());
+        this.minInterval = Math.max(0, conf.getStreamFilterMinReconnectInterval());
+    }
+
+    /**
+     * Requests the filter to be updated to the given query.
+     *
+     * @param query query replacing any update not applied yet. copied, as the caller may go on modifying it
+     */
+    synchronized void update(FilterQuery query) {
+        requestedCount.incrementAndGet();
+        if (pending != null) {
+            mergedCount.incrementAndGet();
+        }
+        pending = query.copy();
+        if (!scheduled) {
+            scheduled = true;
+            schedule(delay(System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Records the query the filter stream has been connected with, whether the update was coalesced or not.
+     *
+     * @param query query running
+     */
+    synchronized void applied(FilterQuery query) {
+        running = query.copy();
+        lastApplied = System.currentTimeMillis();
+    }
+
+    /**
+     * Discards the update not applied yet.
+     */
+    synchronized void cancel() {
+        pending = null;
+    }
+
+    synchronized void shutdown() {
+        pending = null;
+        scheduled = false;
+        if (timer != null) {
+            timer.shutdownNow();
+            timer = null;
+        }
+    }
+
+    private long delay(long now) {
+        if (lastApplied == NEVER) {
+            return window;
+        }
+        return Math.max(window, lastApplied + minInterval - now);
+    }
+
+    private void schedule(long delay) {
+        if (timer == null) {
+            timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Twitter4J Filter Update Timer");
+                    thread.setDaemon(conf.isDaemonEnabled());
+                    return thread;
+                }
+            });
+        }
+        timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                applyPending();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void applyPending() {
+        FilterQuery query;
+        synchronized (this) {
+            scheduled = false;
+            query = pending;
+            pending = null;
+            if (query == null) {
+                return;
+            }
+            if (query.equals(running)) {
+                unchangedCount.incrementAndGet();
+                return;
+            }
+        }
+        appliedCount.incrementAndGet();
+        try {
+            // outside the lock as reconnecting waits for the stream
+            target.filter(query);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to apply the filter update: ", String.valueOf(e));
+        }
+    }
+
+    @Override
+    public long getRequestedCount() {
+        return requestedCount.get();
+    }
+
+    @Override
+    public long getMergedCount() {
+        return mergedCount.get();
+    }
+
+    @Override
+    public long getAppliedCount() {
+        return appliedCount.get();
+    }
+
+    @Override
+    public long getUnchangedCount() {
+        return unchangedCount.get();
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * Counters of the filter updates coalesced by {@link TwitterStream#updateFilter(FilterQuery)}.
+ *
+ * @see TwitterStream#getFilterUpdateStatistics()
+ * @since Twitter4J 4.0.12
+ */
+public interface FilterUpdateStatistics {
+    /**
+     * @return number of updates requested
+     */
+    long getRequestedCount();
+
+    /**
+     * @return number of updates replaced by a later one before being applied
+     */
+    long getMergedCount();
+
+    /**
+     * @return number of updates applied, each reconnecting the filter stream
+     */
+    long getAppliedCount();
+
+    /**
+     * @return number of updates skipped as the resulting query was the one already running
+     */
+    long getUnchangedCount();
+}
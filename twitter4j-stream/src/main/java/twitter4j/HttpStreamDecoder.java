@@ -0,0 +1,188 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Incrementally decodes a streaming API HTTP/1.1 response read by non-blocking reads: the status line, the headers
+ * and the body, plain or with chunked transfer encoding.<br>
+ * Body bytes are handed over as they arrive, without waiting for the end of a chunk.
+ *
+ * @since Twitter4J 4.0.12
+ */
+final class HttpStreamDecoder {
+    private static final int MAX_LINE_LENGTH = 8192;
+
+    interface Body {
+        /**
+         * @param bytes part of the body. all of it must be consumed
+         */
+        void onBody(ByteBuffer bytes) throws IOException;
+    }
+
+    private enum State {
+        STATUS_LINE, HEADERS, BODY, CHUNK_SIZE, CHUNK_DATA, CHUNK_END, DONE
+    }
+
+    private State state = State.STATUS_LINE;
+    private final StringBuilder line = new StringBuilder();
+    private int statusCode = -1;
+    private boolean chunked;
+    private long chunkRemaining;
+
+    /**
+     * @param in   bytes read. all of them are consumed
+     * @param body receives the body
+     * @return false once the last chunk has been received
+     * @throws TwitterException when the response status is not 200
+     * @throws IOException      when the response is malformed
+     */
+    boolean decode(ByteBuffer in, Body body) throws TwitterException, IOException {
+        while (in.hasRemaining()) {
+            switch (state) {
+                case STATUS_LINE:
+                    if (readLine(in)) {
+                        statusCode = parseStatusCode(line);
+                        state = State.HEADERS;
+                        if (statusCode != 200) {
+                            throw new TwitterException(line.toString(), null, statusCode);
+                        }
+                        line.setLength(0);
+                    }
+                    break;
+                case HEADERS:
+                    if (readLine(in)) {
+                        if (line.length() == 0) {
+                            state = chunked ? State.CHUNK_SIZE : State.BODY;
+                        } else {
+                            onHeader(line);
+                        }
+                        line.setLength(0);
+                    }
+                    break;
+                case BODY:
+                    body.onBody(in);
+                    break;
+                case CHUNK_SIZE:
+                    if (readLine(in)) {
+                        chunkRemaining = parseChunkSize(line);
+                        line.setLength(0);
+                        state = chunkRemaining == 0 ? State.DONE : State.CHUNK_DATA;
+                    }
+                    break;
+                case CHUNK_DATA:
+                    int length = (int) Math.min(chunkRemaining, in.remaining());
+                    int limit = in.limit();
+                    in.limit(in.position() + length);
+                    body.onBody(in);
+                    in.limit(limit);
+                    chunkRemaining -= length;
+                    if (chunkRemaining == 0) {
+                        state = State.CHUNK_END;
+                    }
+                    break;
+                case CHUNK_END:
+                    if (readLine(in)) {
+                        if (line.length() != 0) {
+                            throw new IOException("Malformed chunk: missing CRLF");
+                        }
+                        state = State.CHUNK_SIZE;
+                    }
+                    break;
+                case DONE:
+                default:
+                    // trailers are ignored
+                    in.position(in.limit());
+            }
+        }
+        return state != State.DONE;
+    }
+
+    /**
+     * @return HTTP status code of the response, or -1 if the status line hasn't been received yet
+     */
+    int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Reads up to the end of the line. The line is accumulated without its terminator.
+     *
+     * @return true if the line is complete
+     */
+    private boolean readLine(ByteBuffer in) throws IOException {
+        while (in.hasRemaining()) {
+            char c = (char) (in.get() & 0xff);
+            if (c == '\n') {
+                int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                return true;
+            }
+            if (line.length() >= MAX_LINE_LENGTH) {
+                throw new IOException("Line too long in the response header");
+            }
+            line.append(c);
+        }
+        return false;
+    }
+
+    private void onHeader(CharSequence header) {
+        String value = header.toString();
+        int colon = value.indexOf(':');
+        if (colon != -1 && "transfer-encoding".equalsIgnoreCase(value.substring(0, colon).trim())) {
+            chunked = value.substring(colon + 1).toLowerCase().contains("chunked");
+        }
+    }
+
+    private static int parseStatusCode(CharSequence statusLine) throws IOException {
+        // HTTP/1.1 200 OK
+        String value = statusLine.toString();
+        int start = value.indexOf(' ');
+        if (!value.startsWith("HTTP/") || start == -1 || value.length() < start + 4) {
+            throw new IOException("Malformed status line: " + value);
+        }
+        try {
+            return Integer.parseInt(value.substring(start + 1, start + 4));
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed status line: " + value);
+        }
+    }
+
+    private static long parseChunkSize(CharSequence sizeLine) throws IOException {
+        long size = 0;
+        int digits = 0;
+        for (int i = 0; i < sizeLine.length(); i++) {
+            int digit = Character.digit(sizeLine.charAt(i), 16);
+            if (digit == -1) {
+                // chunk extensions are ignored
+                break;
+            }
+            if (++digits > 15) {
+                throw new IOException("Malformed chunk size: " + sizeLine);
+            }
+            size = size * 16 + digit;
+        }
+        if (digits == 0) {
+            throw new IOException("Malformed chunk size: " + sizeLine);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * Progress of the membership operations queued with {@link StreamController#queueAddUsers(long...)} and
+ * {@link StreamController#queueRemoveUsers(long...)}.
+ *
+ * @see StreamController#getMembershipStatistics()
+ * @since Twitter4J 4.0.12
+ */
+public interface MembershipStatistics {
+    /**
+     * @return number of operations queued, one per user
+     */
+    long getQueuedCount();
+
+    /**
+     * @return number of operations dropped as the same operation was pending already for the user
+     */
+    long getMergedCount();
+
+    /**
+     * @return number of operations dropped as the opposite operation was pending for the user. an add followed by a remove cancels both
+     */
+    long getCancelledCount();
+
+    /**
+     * @return number of operations sent successfully
+     */
+    long getSentCount();
+
+    /**
+     * @return number of operations which were sent but failed
+     */
+    long getFailedCount();
+
+    /**
+     * @return number of requests made to the control stream
+     */
+    long getRequestCount();
+
+    /**
+     * @return number of operations waiting to be sent
+     */
+    int getPendingCount();
+
+    /**
+     * @return number of operations being sent
+     */
+    int getInFlightCount();
+
+    /**
+     * @return milliseconds the oldest pending operation has been waiting for, 0 if there is none
+     */
+    long getLag();
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * A connection read by a {@link StreamMultiplexer}.
+ *
+ * @since Twitter4J 4.0.12
+ */
+public interface MultiplexedStream {
+    /**
+     * Closes the connection. Listeners are not told about it.
+     */
+    void close();
+
+    /**
+     * @return true once closed, or ended by an error
+     */
+    boolean isClosed();
+
+    /**
+     * @return seconds since a message other than a keep-alive was last received
+     */
+    long getSecondsSinceLastMessage();
+}
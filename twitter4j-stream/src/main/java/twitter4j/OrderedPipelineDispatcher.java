@@ -0,0 +1,171 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Parses stream events concurrently and delivers them in the order they were read.<br>
+ * Every event gets a sequence number and is prepared (parsed) on the underlying dispatcher's threads. Prepared events
+ * are parked in a reorder window indexed by sequence number, and whichever thread completes the event the window is
+ * waiting for delivers it along with the consecutive events already prepared. Listeners are never called
+ * concurrently and see the events in wire order.<br>
+ * The window holds stream.pipeline.window events. When it is full the stream reader waits.
+ *
+ * @since Twitter4J 4.0.12
+ */
+final class OrderedPipelineDispatcher implements Dispatcher {
+    private static final Logger logger = Logger.getLogger(OrderedPipelineDispatcher.class);
+
+    private volatile Dispatcher delegate;
+    private final int windowSize;
+    private volatile Window window;
+
+    OrderedPipelineDispatcher(Dispatcher delegate, Configuration conf) {
+        this.delegate = delegate;
+        this.windowSize = conf.getStreamPipelineWindow();
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("stream.pipeline.window must be positive: " + windowSize);
+        }
+    }
+
+    void setDelegate(Dispatcher delegate) {
+        this.delegate = delegate;
+    }
+
+    Dispatcher getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void invokeLater(Runnable task) {
+        Window window = this.window;
+        if (window == null) {
+            window = open();
+        }
+        window.submit(task);
+    }
+
+    private synchronized Window open() {
+        if (window == null) {
+            window = new Window(windowSize);
+        }
+        return window;
+    }
+
+    /**
+     * @return number of events read but not delivered yet
+     */
+    int getInFlight() {
+        Window window = this.window;
+        return window == null ? 0 : windowSize - window.permits.availablePermits();
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        Window window = this.window;
+        this.window = null;
+        if (window != null) {
+            window.close();
+        }
+    }
+
+    /**
+     * Reorder buffer of a pipeline run. Replaced on shutdown so that late events of the previous run can't mix with the next one.
+     */
+    private final class Window {
+        private final AtomicReferenceArray<Runnable> slots;
+        private final Semaphore permits;
+        private final AtomicLong nextSequence = new AtomicLong();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // written by the draining thread only
+        private volatile long nextToDeliver;
+        private volatile boolean closed;
+
+        Window(int size) {
+            slots = new AtomicReferenceArray<Runnable>(size);
+            permits = new Semaphore(size);
+        }
+
+        void submit(final Runnable task) {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                logger.warn("Interrupted while waiting for room in the pipeline");
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (closed) {
+                return;
+            }
+            final int slot = (int) (nextSequence.getAndIncrement() % slots.length());
+            delegate.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    if (task instanceof StatusStreamBase.StreamEvent) {
+                        try {
+                            ((StatusStreamBase.StreamEvent) task).prepare();
+                        } catch (Throwable th) {
+                            logger.warn("Exception thrown while preparing an event: ", String.valueOf(th));
+                        }
+                    }
+                    slots.set(slot, task);
+                    drain();
+                }
+            });
+        }
+
+        private void drain() {
+            while (slots.get(slotOf(nextToDeliver)) != null && draining.compareAndSet(false, true)) {
+                try {
+                    int slot;
+                    Runnable next;
+                    while ((next = slots.get(slot = slotOf(nextToDeliver))) != null) {
+                        slots.set(slot, null);
+                        nextToDeliver++;
+                        permits.release();
+                        if (!closed) {
+                            try {
+                                next.run();
+                            } catch (Throwable th) {
+                                logger.warn("Exception thrown by dispatched task: ", String.valueOf(th));
+                            }
+                        }
+                    }
+                } finally {
+                    draining.set(false);
+                }
+                // an event may have been completed after the loop above checked its slot. loop again if so
+            }
+        }
+
+        private int slotOf(long sequence) {
+            return (int) (sequence % slots.length());
+        }
+
+        void close() {
+            closed = true;
+            // wake the reader up if it is waiting for room
+            permits.release(slots.length());
+        }
+    }
+}
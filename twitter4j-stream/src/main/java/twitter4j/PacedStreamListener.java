@@ -0,0 +1,40 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * A listener which paces the reads of the stream it is registered to.<br>
+ * The consumer thread asks for demand before reading each message, and delivers the message on the same thread.
+ *
+ * @since Twitter4J 4.0.12
+ */
+interface PacedStreamListener extends StreamListener {
+    /**
+     * Blocks until the listener can take another message.
+     *
+     * @return false if the stream is to be closed
+     * @throws InterruptedException when interrupted while waiting
+     */
+    boolean awaitDemand() throws InterruptedException;
+
+    /**
+     * Called once the consumer thread is done with the stream.
+     *
+     * @param cause the exception which closed the stream, or null if it was closed by the application
+     */
+    void onTerminate(Exception cause);
+}
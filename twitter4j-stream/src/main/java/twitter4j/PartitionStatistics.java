@@ -0,0 +1,53 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * Per lane counters of the partitioned dispatcher enabled with stream.partition.lanes.
+ *
+ * @see TwitterStream#getPartitionStatistics()
+ * @since Twitter4J 4.0.12
+ */
+public interface PartitionStatistics {
+    /**
+     * @return number of lanes
+     */
+    int getLaneCount();
+
+    /**
+     * @param lane lane index, from 0 to getLaneCount() - 1
+     * @return number of events currently waiting in the lane
+     */
+    int getQueueDepth(int lane);
+
+    /**
+     * @param lane lane index, from 0 to getLaneCount() - 1
+     * @return highest number of events observed waiting in the lane
+     */
+    int getMaxQueueDepth(int lane);
+
+    /**
+     * @param lane lane index, from 0 to getLaneCount() - 1
+     * @return number of events delivered by the lane
+     */
+    long getDispatchedCount(int lane);
+
+    /**
+     * @return maximum number of events a lane can hold before the stream reader waits, or 0 if lanes are unbounded
+     */
+    int getLaneCapacity();
+}
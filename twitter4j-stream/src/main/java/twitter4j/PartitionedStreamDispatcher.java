@@ -0,0 +1,261 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static twitter4j.RawJSONScanner.*;
+
+/**
+ * Delivers stream events on a fixed number of single threaded lanes.<br>
+ * Each event is routed by the id of the user it belongs to, so events of a user are delivered in the order they
+ * were received (a deletion notice never overtakes the status it deletes) while different users are processed in
+ * parallel. Events not tied to a user, such as limit notices, go to the first lane.
+ *
+ * @since Twitter4J 4.0.12
+ */
+final class PartitionedStreamDispatcher implements Dispatcher, PartitionStatistics {
+    private static final Logger logger = Logger.getLogger(PartitionedStreamDispatcher.class);
+    private static final long SHUTDOWN_TIME = 5000;
+    private static final Runnable STOP = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    private final int laneCount;
+    private final int laneCapacity;
+    private final boolean daemon;
+    private final AtomicIntegerArray maxDepths;
+    private final AtomicLongArray dispatched;
+    private volatile Lane[] lanes;
+
+    PartitionedStreamDispatcher(Configuration conf) {
+        this.laneCount = conf.getStreamPartitionLanes();
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("stream.partition.lanes must be positive: " + laneCount);
+        }
+        this.laneCapacity = Math.max(0, conf.getStreamPartitionLaneCapacity());
+        this.daemon = conf.isDaemonEnabled();
+        this.maxDepths = new AtomicIntegerArray(laneCount);
+        this.dispatched = new AtomicLongArray(laneCount);
+    }
+
+    @Override
+    public void invokeLater(Runnable task) {
+        Lane[] lanes = this.lanes;
+        if (lanes == null) {
+            lanes = start();
+        }
+        long key = task instanceof StatusStreamBase.StreamEvent
+                ? partitionKey(((StatusStreamBase.StreamEvent) task).line) : -1;
+        lanes[laneOf(key, laneCount)].enqueue(task);
+    }
+
+    private synchronized Lane[] start() {
+        if (lanes == null) {
+            Lane[] newLanes = new Lane[laneCount];
+            for (int i = 0; i < laneCount; i++) {
+                newLanes[i] = new Lane(i);
+                newLanes[i].start();
+            }
+            lanes = newLanes;
+        }
+        return lanes;
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        Lane[] lanes = this.lanes;
+        this.lanes = null;
+        if (lanes == null) {
+            return;
+        }
+        for (Lane lane : lanes) {
+            if (!lane.queue.offer(STOP)) {
+                // the lane is full and nobody will read the rest of the stream. skip the backlog
+                lane.queue.clear();
+                lane.queue.offer(STOP);
+            }
+        }
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIME;
+        for (Lane lane : lanes) {
+            try {
+                lane.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                logger.warn(e.getMessage());
+            }
+            if (lane.isAlive()) {
+                lane.interrupt();
+            }
+        }
+    }
+
+    /**
+     * @param key  partition key, negative if the event isn't tied to a user
+     * @param lanes number of lanes
+     * @return index of the lane the key is assigned to
+     */
+    static int laneOf(long key, int lanes) {
+        if (key < 0) {
+            return 0;
+        }
+        // user ids are far from uniformly distributed. spread the bits before taking the modulo
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) ((key & Long.MAX_VALUE) % lanes);
+    }
+
+    /**
+     * Looks up the id of the user a raw message belongs to, without parsing the message.
+     *
+     * @param line raw message
+     * @return user id, or -1 if the message isn't tied to a user
+     */
+    static long partitionKey(CharSequence line) {
+        int root = skipWhitespace(line, 0);
+        // in a status, "source" is the client as a string and usually precedes "user"
+        int source = -1;
+        boolean event = false;
+        for (int key = firstKey(line, root); key != -1; key = nextKey(line, key)) {
+            if (keyEquals(line, key, "user")) {
+                // status
+                return parseLong(line, find(line, valueOf(line, key), "id"));
+            } else if (keyEquals(line, key, "source")) {
+                int value = valueOf(line, key);
+                if (value != -1 && line.charAt(value) == '{') {
+                    source = value;
+                }
+            } else if (keyEquals(line, key, "event")) {
+                event = true;
+            } else if (keyEquals(line, key, "for_user")) {
+                // site streams envelope
+                return parseLong(line, valueOf(line, key));
+            } else if (keyEquals(line, key, "delete")) {
+                // {"delete":{"status":{"id":1234,"user_id":3}}}
+                int deleted = firstKey(line, valueOf(line, key));
+                return deleted == -1 ? -1 : parseLong(line, find(line, valueOf(line, deleted), "user_id"));
+            } else if (keyEquals(line, key, "scrub_geo") || keyEquals(line, key, "status_withheld")) {
+                return parseLong(line, find(line, valueOf(line, key), "user_id"));
+            } else if (keyEquals(line, key, "direct_message")) {
+                return parseLong(line, find(line, valueOf(line, key), "sender_id"));
+            }
+        }
+        if (event && source != -1) {
+            // user stream event
+            return parseLong(line, find(line, source, "id"));
+        }
+        return -1;
+    }
+
+    @Override
+    public int getLaneCount() {
+        return laneCount;
+    }
+
+    @Override
+    public int getQueueDepth(int lane) {
+        Lane[] lanes = this.lanes;
+        return lanes == null ? 0 : lanes[lane].queue.size();
+    }
+
+    @Override
+    public int getMaxQueueDepth(int lane) {
+        return maxDepths.get(lane);
+    }
+
+    @Override
+    public long getDispatchedCount(int lane) {
+        return dispatched.get(lane);
+    }
+
+    @Override
+    public int getLaneCapacity() {
+        return laneCapacity;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder depths = new StringBuilder();
+        for (int i = 0; i < laneCount; i++) {
+            depths.append(i == 0 ? "" : ",").append(getQueueDepth(i));
+        }
+        return "PartitionedStreamDispatcher{" +
+                "laneCount=" + laneCount +
+                ", laneCapacity=" + laneCapacity +
+                ", queueDepths=[" + depths +
+                "], maxQueueDepths=" + maxDepths +
+                ", dispatched=" + dispatched +
+                '}';
+    }
+
+    private final class Lane extends Thread {
+        private final int index;
+        private final BlockingQueue<Runnable> queue;
+
+        Lane(int index) {
+            this.index = index;
+            this.queue = new LinkedBlockingQueue<Runnable>(laneCapacity > 0 ? laneCapacity : Integer.MAX_VALUE);
+            setName(String.format("Twitter4J Stream Dispatcher Lane[%d]", index));
+            setDaemon(daemon);
+        }
+
+        void enqueue(Runnable task) {
+            try {
+                queue.put(task);
+            } catch (InterruptedException e) {
+                logger.warn("Interrupted while waiting for room in the dispatch lane");
+                Thread.currentThread().interrupt();
+                return;
+            }
+            int depth = queue.size();
+            int max;
+            while (depth > (max = maxDepths.get(index))) {
+                if (maxDepths.compareAndSet(index, max, depth)) {
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Runnable task;
+                try {
+                    task = queue.take();
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (task == STOP) {
+                    break;
+                }
+                try {
+                    task.run();
+                } catch (Throwable th) {
+                    logger.warn("Exception thrown by dispatched task: ", String.valueOf(th));
+                }
+                dispatched.incrementAndGet(index);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receives each message as undecoded bytes.<br>
+ * This listener is called on the stream reader thread as soon as a message is framed, before it is decoded or
+ * handed to the dispatcher. When only RawBytesStreamListeners are registered, messages are neither decoded nor
+ * dispatched, and nothing is allocated per message.
+ *
+ * @since Twitter4J 4.0.12
+ */
+public interface RawBytesStreamListener extends StreamListener {
+    /**
+     * Called for each message, including empty keep-alive messages.<br>
+     * The message is the bytes between the position and the limit of the buffer, without the line terminator. The buffer
+     * is read-only, shared across messages and only valid during the callback: copy the bytes to keep them. Blocking
+     * in this method blocks the stream.
+     *
+     * @param message read-only view of the message
+     */
+    void onMessage(ByteBuffer message);
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * Allocation free helpers to peek into a raw streaming API message without building a JSONObject.<br>
+ * Positions are indexes into the given CharSequence. Methods return -1 when the message is not shaped as expected,
+ * callers are expected to fall back to a regular parse in that case.
+ *
+ * @since Twitter4J 4.0.12
+ */
+final class RawJSONScanner {
+    private RawJSONScanner() {
+        throw new AssertionError();
+    }
+
+    static int skipWhitespace(CharSequence json, int index) {
+        int length = json.length();
+        while (index < length) {
+            char c = json.charAt(index);
+            if (c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    /**
+     * @param json  message
+     * @param index position of the opening quote
+     * @return position right after the closing quote
+     */
+    static int skipString(CharSequence json, int index) {
+        int length = json.length();
+        for (int i = index + 1; i < length; i++) {
+            char c = json.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param json  message
+     * @param index position of the first character of the value
+     * @return position right after the value
+     */
+    static int skipValue(CharSequence json, int index) {
+        if (index < 0 || index >= json.length()) {
+            return -1;
+        }
+        char c = json.charAt(index);
+        if (c == '"') {
+            return skipString(json, index);
+        }
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            int length = json.length();
+            for (int i = index; i < length; i++) {
+                c = json.charAt(i);
+                if (c == '"') {
+                    i = skipString(json, i);
+                    if (i == -1) {
+                        return -1;
+                    }
+                    i--;
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    if (--depth == 0) {
+                        return i + 1;
+                    }
+                }
+            }
+            return -1;
+        }
+        // number, true, false, null
+        int length = json.length();
+        int i = index;
+        while (i < length) {
+            c = json.charAt(i);
+            if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\r' || c == '\n' || c == '\t') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Moves to the first member of the object starting at the given position.
+     *
+     * @param json        message
+     * @param objectStart position of '{'
+     * @return position of the opening quote of the first key, or -1 if the object is empty or malformed
+     */
+    static int firstKey(CharSequence json, int objectStart) {
+        if (objectStart < 0 || objectStart >= json.length() || json.charAt(objectStart) != '{') {
+            return -1;
+        }
+        int i = skipWhitespace(json, objectStart + 1);
+        return i != -1 && json.charAt(i) == '"' ? i : -1;
+    }
+
+    /**
+     * @param json     message
+     * @param keyStart position of the opening quote of a key
+     * @return position of the value of that key
+     */
+    static int valueOf(CharSequence json, int keyStart) {
+        int i = skipString(json, keyStart);
+        if (i == -1) {
+            return -1;
+        }
+        i = skipWhitespace(json, i);
+        if (i == -1 || json.charAt(i) != ':') {
+            return -1;
+        }
+        return skipWhitespace(json, i + 1);
+    }
+
+    /**
+     * @param json     message
+     * @param keyStart position of the opening quote of a key
+     * @return position of the opening quote of the next key in the same object, or -1 if there is none
+     */
+    static int nextKey(CharSequence json, int keyStart) {
+        int i = skipValue(json, valueOf(json, keyStart));
+        if (i == -1) {
+            return -1;
+        }
+        i = skipWhitespace(json, i);
+        if (i == -1 || json.charAt(i) != ',') {
+            return -1;
+        }
+        i = skipWhitespace(json, i + 1);
+        return i != -1 && json.charAt(i) == '"' ? i : -1;
+    }
+
+    /**
+     * @param json     message
+     * @param keyStart position of the opening quote of a key
+     * @param key      expected key. must not contain escaped characters
+     * @return true if the key at the given position equals to the expected key
+     */
+    static boolean keyEquals(CharSequence json, int keyStart, String key) {
+        int length = key.length();
+        if (keyStart + length + 1 >= json.length() || json.charAt(keyStart + length + 1) != '"') {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (json.charAt(keyStart + 1 + i) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param json        message
+     * @param objectStart position of '{'
+     * @param key         key to look for among the direct members of the object
+     * @return position of the value, or -1 if not found
+     */
+    static int find(CharSequence json, int objectStart, String key) {
+        for (int i = firstKey(json, objectStart); i != -1; i = nextKey(json, i)) {
+            if (keyEquals(json, i, key)) {
+                return valueOf(json, i);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param json  message
+     * @param index position of a number, or of a quoted number
+     * @return the number, or -1 if the value isn't a non-negative integer
+     */
+    static long parseLong(CharSequence json, int index) {
+        if (index < 0 || index >= json.length()) {
+            return -1;
+        }
+        if (json.charAt(index) == '"') {
+            index++;
+        }
+        long value = 0;
+        int digits = 0;
+        int length = json.length();
+        while (index < length) {
+            char c = json.charAt(index++);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            value = value * 10 + (c - '0');
+            digits++;
+        }
+        return digits == 0 ? -1 : value;
+    }
+
+    /**
+     * @param json  message
+     * @param index position of a string value
+     * @return the string value, or null if it contains escaped characters or is not a string
+     */
+    static String plainString(CharSequence json, int index) {
+        if (index < 0 || index >= json.length() || json.charAt(index) != '"') {
+            return null;
+        }
+        int end = skipString(json, index);
+        if (end == -1) {
+            return null;
+        }
+        for (int i = index + 1; i < end - 1; i++) {
+            if (json.charAt(i) == '\\') {
+                return null;
+            }
+        }
+        return json.subSequence(index + 1, end - 1).toString();
+    }
+}
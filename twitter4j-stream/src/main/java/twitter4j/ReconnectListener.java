@@ -0,0 +1,43 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * Notified of the decisions of the {@link ReconnectPolicy}.<br>
+ * A {@link ConnectionLifeCycleListener} also implementing this interface is notified once added with
+ * {@link TwitterStream#addConnectionLifeCycleListener(ConnectionLifeCycleListener)}.
+ *
+ * @since Twitter4J 4.0.12
+ */
+public interface ReconnectListener {
+    /**
+     * called before waiting to reconnect
+     *
+     * @param statusCode HTTP status code the connection failed with, or -1 if it failed without a response
+     * @param attempt    number of consecutive failures
+     * @param wait       milliseconds to wait before reconnecting
+     */
+    void onReconnectScheduled(int statusCode, int attempt, long wait);
+
+    /**
+     * called when the policy gave up reconnecting, before the stream gets closed
+     *
+     * @param statusCode HTTP status code of the last failure, or -1 if it failed without a response
+     * @param attempt    number of consecutive failures
+     */
+    void onGiveUp(int statusCode, int attempt);
+}
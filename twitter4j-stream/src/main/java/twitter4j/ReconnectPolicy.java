@@ -0,0 +1,40 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * Decides how long a stream waits before reconnecting after a failure.<br>
+ * The implementation named by stream.reconnect.policyImpl is instantiated with a public constructor taking a
+ * {@link twitter4j.conf.Configuration}, and is shared by all the connections of a TwitterStream.
+ *
+ * @see ReconnectListener
+ * @since Twitter4J 4.0.12
+ */
+public interface ReconnectPolicy {
+    /**
+     * Returned by {@link #nextWait(int, int, long)} to stop reconnecting and close the stream.
+     */
+    long GIVE_UP = -1;
+
+    /**
+     * @param statusCode   HTTP status code the connection failed with, or -1 if it failed without a response
+     * @param attempt      number of consecutive failures, starting at 1 for the first failure after a healthy connection
+     * @param previousWait milliseconds waited before the attempt which failed, 0 for the first failure
+     * @return milliseconds to wait before reconnecting, or {@link #GIVE_UP}
+     */
+    long nextWait(int statusCode, int attempt, long previousWait);
+}
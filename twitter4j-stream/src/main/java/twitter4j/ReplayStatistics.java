@@ -0,0 +1,55 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * Progress of a {@link StreamReplay}.
+ *
+ * @see StreamReplay#getStatistics()
+ * @since Twitter4J 4.0.12
+ */
+public interface ReplayStatistics {
+    /**
+     * @return number of messages read from the capture
+     */
+    long getMessageCount();
+
+    /**
+     * @return number of bytes of the messages read from the capture
+     */
+    long getByteCount();
+
+    /**
+     * @return number of messages the listeners are done with
+     */
+    long getDeliveredCount();
+
+    /**
+     * @return milliseconds elapsed since the replay started, or the duration of the replay once it's done
+     */
+    long getElapsedTime();
+
+    /**
+     * @return messages delivered per second
+     */
+    double getMessagesPerSecond();
+
+    /**
+     * @return megabytes read per second
+     */
+    double getMegabytesPerSecond();
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A status stream reading a capture instead of a connection: newline delimited JSON, or a {@link StreamJournal}.<br>
+ * Messages go through the same framing, parsing and dispatching as the ones of a live stream, paced after the time
+ * they were received: timestamp_ms for newline delimited JSON, the receipt time for a journal.
+ *
+ * @since Twitter4J 4.0.12
+ */
+class ReplayStatusStream extends StatusStreamImpl implements ReplayStatistics {
+    private static final Logger logger = Logger.getLogger(ReplayStatusStream.class);
+    private static final long REPORT_INTERVAL = 10000;
+
+    private final StreamJournalReader journal;
+    private final double speed;
+
+    private long firstTimestamp = -1;
+    private long lastTimestamp;
+    private volatile long startedAt = -1;
+    private volatile long finishedAt = -1;
+    private long lastReport;
+    private boolean ended;
+
+    private final AtomicLong messageCount = new AtomicLong();
+    private final AtomicLong byteCount = new AtomicLong();
+    private final AtomicLong deliveredCount = new AtomicLong();
+
+    /**
+     * @param dispatcher dispatcher
+     * @param capture    newline delimited JSON
+     * @param conf       configuration
+     * @param speed      1 to replay at the pace the messages were received, 2 twice as fast, 0 as fast as possible
+     */
+    ReplayStatusStream(Dispatcher dispatcher, InputStream capture, Configuration conf, double speed) throws IOException {
+        super(dispatcher, capture, conf);
+        this.journal = null;
+        this.speed = speed;
+    }
+
+    /**
+     * @param dispatcher dispatcher
+     * @param journal    journal
+     * @param conf       configuration
+     * @param speed      1 to replay at the pace the messages were received, 2 twice as fast, 0 as fast as possible
+     */
+    ReplayStatusStream(Dispatcher dispatcher, StreamJournalReader journal, Configuration conf, double speed) throws IOException {
+        super(dispatcher, new ByteArrayInputStream(new byte[0]), conf);
+        this.journal = journal;
+        this.speed = speed;
+    }
+
+    @Override
+    ByteSlice nextMessage() throws IOException {
+        long now = System.currentTimeMillis();
+        if (startedAt == -1) {
+            startedAt = now;
+            lastReport = now;
+        }
+        ByteSlice message;
+        do {
+            message = journal != null ? journal.next() : super.nextMessage();
+        } while (message != null && message.length() == 0);
+        if (message == null) {
+            ended = true;
+            return null;
+        }
+        messageCount.incrementAndGet();
+        byteCount.addAndGet(message.length());
+        if (speed > 0) {
+            pace(journal != null ? journal.getReceivedAt()
+                    : RawJSONScanner.parseLong(message, RawJSONScanner.find(message
+                    , RawJSONScanner.skipWhitespace(message, 0), "timestamp_ms")));
+        }
+        if (now - lastReport >= REPORT_INTERVAL) {
+            lastReport = now;
+            logger.info("Replaying: ", toString());
+        }
+        return message;
+    }
+
+    /**
+     * Waits until the message is due.
+     *
+     * @param timestamp time the message was received, or -1 if unknown
+     */
+    private void pace(long timestamp) throws IOException {
+        if (timestamp == -1) {
+            return;
+        }
+        if (firstTimestamp == -1) {
+            firstTimestamp = timestamp;
+        }
+        // messages out of order are delivered right away
+        lastTimestamp = Math.max(lastTimestamp, timestamp);
+        long wait = startedAt + (long) ((lastTimestamp - firstTimestamp) / speed) - System.currentTimeMillis();
+        if (wait > 0) {
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Replay interrupted.");
+            }
+        }
+    }
+
+    /**
+     * @return true once the end of the capture has been reached
+     */
+    boolean isEnded() {
+        return ended;
+    }
+
+    void delivered() {
+        deliveredCount.incrementAndGet();
+    }
+
+    /**
+     * Stops the clock, once the listeners are done with the messages.
+     */
+    void finish() {
+        finishedAt = System.currentTimeMillis();
+        logger.info("Replay complete: ", toString());
+    }
+
+    @Override
+    public long getMessageCount() {
+        return messageCount.get();
+    }
+
+    @Override
+    public long getByteCount() {
+        return byteCount.get();
+    }
+
+    @Override
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    @Override
+    public long getElapsedTime() {
+        long started = startedAt;
+        if (started == -1) {
+            return 0;
+        }
+        long finished = finishedAt;
+        return (finished != -1 ? finished : System.currentTimeMillis()) - started;
+    }
+
+    @Override
+    public double getMessagesPerSecond() {
+        long elapsed = getElapsedTime();
+        return elapsed == 0 ? 0 : getDeliveredCount() * 1000d / elapsed;
+    }
+
+    @Override
+    public double getMegabytesPerSecond() {
+        long elapsed = getElapsedTime();
+        return elapsed == 0 ? 0 : getByteCount() / 1048.576d / elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return "ReplayStatusStream{" +
+                "messageCount=" + getMessageCount() +
+                ", deliveredCount=" + getDeliveredCount() +
+                ", elapsedTime=" + getElapsedTime() +
+                ", messagesPerSecond=" + String.format("%.1f", getMessagesPerSecond()) +
+                ", megabytesPerSecond=" + String.format("%.2f", getMegabytesPerSecond()) +
+                '}';
+    }
+}
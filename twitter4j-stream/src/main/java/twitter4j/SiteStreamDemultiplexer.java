@@ -0,0 +1,120 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Schedules the events of a site stream per user.<br>
+ * Each user has a queue of its own and the users having events are served round robin, one event at a time, so that a
+ * very active user doesn't hold up the events of the others. Events of a user are delivered in order and never
+ * concurrently, whatever the number of dispatcher threads.<br>
+ * The dispatcher receives drain tasks which pick the event to deliver when they run, so event aware dispatcher modes
+ * (stream.partition.lanes, stream.pipeline.window and the dropping stream.queue.overflowPolicy values) are rejected by
+ * TwitterStreamImpl when stream.site.fairScheduling is enabled.
+ *
+ * @since Twitter4J 4.0.12
+ */
+final class SiteStreamDemultiplexer {
+    private final Dispatcher dispatcher;
+    // guarded by this
+    private final Map<Long, UserQueue> users = new HashMap<Long, UserQueue>();
+    // users having events and waiting for their turn. one drain task is queued in the dispatcher per entry
+    private final ArrayDeque<UserQueue> ready = new ArrayDeque<UserQueue>();
+
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            drainOne();
+        }
+    };
+
+    SiteStreamDemultiplexer(Dispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    private static final class UserQueue {
+        final long forUser;
+        final ArrayDeque<Runnable> events = new ArrayDeque<Runnable>();
+        // true while waiting in the ready queue, or while one of its events is being delivered
+        boolean scheduled;
+
+        UserQueue(long forUser) {
+            this.forUser = forUser;
+        }
+    }
+
+    /**
+     * @param forUser user the event is for, 0 for the events of the stream itself
+     * @param event   event
+     */
+    void submit(long forUser, Runnable event) {
+        synchronized (this) {
+            UserQueue queue = users.get(forUser);
+            if (queue == null) {
+                queue = new UserQueue(forUser);
+                users.put(forUser, queue);
+            }
+            queue.events.add(event);
+            if (queue.scheduled) {
+                // the user gets its turn again once the event being delivered is done
+                return;
+            }
+            queue.scheduled = true;
+            ready.add(queue);
+        }
+        dispatcher.invokeLater(drain);
+    }
+
+    private void drainOne() {
+        UserQueue queue;
+        Runnable event;
+        synchronized (this) {
+            queue = ready.poll();
+            if (queue == null) {
+                return;
+            }
+            event = queue.events.poll();
+        }
+        try {
+            event.run();
+        } finally {
+            synchronized (this) {
+                if (queue.events.isEmpty()) {
+                    queue.scheduled = false;
+                    users.remove(queue.forUser);
+                    queue = null;
+                } else {
+                    // back to the end of the line
+                    ready.add(queue);
+                }
+            }
+            if (queue != null) {
+                dispatcher.invokeLater(drain);
+            }
+        }
+    }
+
+    /**
+     * @return number of users having events waiting for delivery
+     */
+    synchronized int getPendingUsers() {
+        return users.size();
+    }
+}
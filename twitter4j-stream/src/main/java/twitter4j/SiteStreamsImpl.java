@@ -28,52 +28,116 @@ import twitter4j.conf.Configuration;
 final class SiteStreamsImpl extends StatusStreamBase {
 
     private final StreamController cs;
+    private final SiteStreamDemultiplexer demultiplexer;
+    // for_user of the message decoded last. only touched by the thread reading the stream, between decode() and dispatch()
+    private long nextForUser;
 
     /*package*/ SiteStreamsImpl(Dispatcher dispatcher, InputStream stream, Configuration conf, StreamController cs) throws IOException {
         super(dispatcher, stream, conf);
         this.cs = cs;
+        this.demultiplexer = conf.isStreamSiteFairScheduling() ? new SiteStreamDemultiplexer(dispatcher) : null;
     }
 
     /*package*/ SiteStreamsImpl(Dispatcher dispatcher, HttpResponse response, Configuration conf, StreamController cs) throws IOException {
         super(dispatcher, response, conf);
         this.cs = cs;
+        this.demultiplexer = conf.isStreamSiteFairScheduling() ? new SiteStreamDemultiplexer(dispatcher) : null;
     }
 
+    /**
+     * Unwraps the envelope within the received bytes, so that only the inner message gets decoded.
+     */
     @Override
-    protected String parseLine(String line) {
-        if ("".equals(line) || null == line) {
-            return line;
-        }
-        int userIdEnd = line.indexOf(',', 12);
-        // in the documentation for_user is not quoted, but actually it is quoted
-        if (cs.getControlURI() == null &&
-                line.charAt(2) == 'c' &&
-                line.charAt(3) == 'o' &&
-                line.charAt(4) == 'n') {
+    String decode(ByteSlice message, boolean raw) {
+        int objectStart = RawJSONScanner.skipWhitespace(message, 0);
+        int firstKey = RawJSONScanner.firstKey(message, objectStart);
+        if (firstKey != -1 && RawJSONScanner.keyEquals(message, firstKey, "control")) {
             // control endpoint uri
             // https://dev.twitter.com/docs/streaming-api/control-streams
-            JSONObject control = null;
-            try {
-                control = new JSONObject(line);
-                cs.setControlURI(CONF.getSiteStreamBaseURL() + control.getJSONObject("control").getString("control_uri"));
-                logger.info("control_uri: " + cs.getControlURI());
-            } catch (JSONException e) {
-                logger.warn("received unexpected event:" + line);
-            }
+            setControlURI(message.toString());
             return null;
         }
-
-        if (line.charAt(2) == 'd') {
+        int inner = messageOf(message, objectStart);
+        if (inner == -1) {
             // disconnection notice
             // {"disconnect":{"code":3,"stream_name":"yusuke-sitestream6139-yusuke","reason":"control request for yusuke-sitestream6139 106.171.17.29 /1.1/site.json sitestream"}}
-            return line;
+            nextForUser = 0;
+            return message.toString();
         }
-        if (line.charAt(12) == '"') {
-            forUser.set(Long.parseLong(line.substring(13, userIdEnd - 1)));
+        // in the documentation for_user is not quoted, but actually it is quoted
+        nextForUser = RawJSONScanner.parseLong(message, RawJSONScanner.valueOf(message, firstKey));
+        if (raw) {
+            // raw stream listeners receive the envelope as is. parseLine() unwraps it
+            return message.toString();
+        }
+        return message.subSequence(inner, RawJSONScanner.skipValue(message, inner)).toString();
+    }
+
+    /**
+     * @param json        message
+     * @param objectStart position of '{'
+     * @return position of the wrapped message if the given message is an envelope like {"for_user":..,"message":{..}}, -1 otherwise
+     */
+    private static int messageOf(CharSequence json, int objectStart) {
+        // for_user always comes first, which keeps telling an unwrapped message apart cheap
+        int key = RawJSONScanner.firstKey(json, objectStart);
+        if (key == -1 || !RawJSONScanner.keyEquals(json, key, "for_user")) {
+            return -1;
+        }
+        int inner = RawJSONScanner.find(json, objectStart, "message");
+        return RawJSONScanner.skipValue(json, inner) == -1 ? -1 : inner;
+    }
+
+    private void setControlURI(String line) {
+        try {
+            JSONObject control = new JSONObject(line);
+            cs.setControlURI(CONF.getSiteStreamBaseURL() + control.getJSONObject("control").getString("control_uri"));
+            logger.info("control_uri: " + cs.getControlURI());
+        } catch (JSONException e) {
+            logger.warn("received unexpected event:" + line);
+        }
+    }
+
+    @Override
+    boolean isDecodingOptional() {
+        // decode() picks up control_uri, which StreamController needs even when only the bytes are listened to
+        return false;
+    }
+
+    @Override
+    void dispatch(final StreamEvent event) {
+        final long user = nextForUser;
+        StreamEvent forUserEvent = new StreamEvent(event.line) {
+            @Override
+            void prepare() {
+                event.prepare();
+            }
+
+            @Override
+            public void run() {
+                forUser.set(user);
+                event.run();
+            }
+        };
+        if (demultiplexer != null) {
+            demultiplexer.submit(user, forUserEvent);
         } else {
-            forUser.set(Long.parseLong(line.substring(12, userIdEnd)));
+            super.dispatch(forUserEvent);
+        }
+    }
+
+    @Override
+    protected String parseLine(String line) {
+        if ("".equals(line) || null == line) {
+            return line;
+        }
+        int objectStart = RawJSONScanner.skipWhitespace(line, 0);
+        int inner = messageOf(line, objectStart);
+        if (inner == -1) {
+            // unwrapped by decode() already, or a disconnection notice
+            return line;
         }
-        return line.substring(userIdEnd + 11, line.length() - 1);
+        return line.substring(inner, RawJSONScanner.skipValue(line, inner));
     }
 
     @Override
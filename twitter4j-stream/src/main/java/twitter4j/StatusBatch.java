@@ -0,0 +1,96 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Statuses, deletion notices and track limitation notices received within a batch window.<br>
+ * Each list keeps the order the events were received in. The relative order of events of different kinds is not kept,
+ * note that a deletion notice may refer to a status in the same batch.
+ *
+ * @see StatusBatchListener
+ * @since Twitter4J 4.0.12
+ */
+public final class StatusBatch implements Serializable {
+    private static final long serialVersionUID = 3871407722407584215L;
+    private final List<Status> statuses;
+    private final List<StatusDeletionNotice> deletionNotices;
+    private final List<Integer> trackLimitationNotices;
+
+    StatusBatch(List<Status> statuses, List<StatusDeletionNotice> deletionNotices, List<Integer> trackLimitationNotices) {
+        this.statuses = Collections.unmodifiableList(statuses);
+        this.deletionNotices = Collections.unmodifiableList(deletionNotices);
+        this.trackLimitationNotices = Collections.unmodifiableList(trackLimitationNotices);
+    }
+
+    public List<Status> getStatuses() {
+        return statuses;
+    }
+
+    public List<StatusDeletionNotice> getDeletionNotices() {
+        return deletionNotices;
+    }
+
+    /**
+     * @return numberOfLimitedStatuses of each track limitation notice
+     * @see StatusListener#onTrackLimitationNotice(int)
+     */
+    public List<Integer> getTrackLimitationNotices() {
+        return trackLimitationNotices;
+    }
+
+    /**
+     * @return total number of events in this batch
+     */
+    public int size() {
+        return statuses.size() + deletionNotices.size() + trackLimitationNotices.size();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        StatusBatch that = (StatusBatch) o;
+
+        if (!statuses.equals(that.statuses)) return false;
+        if (!deletionNotices.equals(that.deletionNotices)) return false;
+        if (!trackLimitationNotices.equals(that.trackLimitationNotices)) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = statuses.hashCode();
+        result = 31 * result + deletionNotices.hashCode();
+        result = 31 * result + trackLimitationNotices.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "StatusBatch{" +
+                "statuses=" + statuses +
+                ", deletionNotices=" + deletionNotices +
+                ", trackLimitationNotices=" + trackLimitationNotices +
+                '}';
+    }
+}
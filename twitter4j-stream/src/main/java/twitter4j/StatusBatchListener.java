@@ -0,0 +1,33 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * Receives statuses, deletion notices and track limitation notices in batches instead of one callback per event.<br>
+ * A batch is delivered when stream.batch.size events are collected, or stream.batch.maxLatency milliseconds after its
+ * first event was received, whichever comes first. Batches are delivered one at a time, in order. Other event types
+ * are not delivered to this listener. Batching is not available with site streams.
+ *
+ * @see TwitterStream#onStatusBatch(twitter4j.util.function.Consumer)
+ * @since Twitter4J 4.0.12
+ */
+public interface StatusBatchListener extends StreamListener {
+    /**
+     * @param batch events received since the previous batch. never empty
+     */
+    void onStatusBatch(StatusBatch batch);
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects raw lines for StatusBatchListeners on the stream reader thread and dispatches one task per batch.<br>
+ * Lines are parsed on the dispatcher when the batch is delivered, so that no task is created per line.
+ *
+ * @since Twitter4J 4.0.12
+ */
+final class StatusBatcher {
+    private static final Logger logger = Logger.getLogger(StatusBatcher.class);
+    private static final StatusBatchListener[] EMPTY = new StatusBatchListener[0];
+
+    private final Configuration conf;
+    private final int batchSize;
+    private final int maxLatency;
+    private volatile StatusBatchListener[] listeners = EMPTY;
+    private volatile Dispatcher dispatcher;
+
+    // guarded by this
+    private List<String> pending;
+    private long generation;
+    private ScheduledExecutorService timer;
+
+    private final ConcurrentLinkedQueue<List<String>> ready = new ConcurrentLinkedQueue<List<String>>();
+    private final Object deliveryLock = new Object();
+    // one per batch handed to the dispatcher. polling under the lock keeps batches in order with multi-threaded dispatchers
+    private final Runnable deliver = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (deliveryLock) {
+                List<String> lines = ready.poll();
+                if (lines != null) {
+                    deliver(lines);
+                }
+            }
+        }
+    };
+
+    StatusBatcher(Configuration conf) {
+        this.conf = conf;
+        this.batchSize = Math.max(1, conf.getStreamBatchSize());
+        this.maxLatency = conf.getStreamBatchMaxLatency();
+    }
+
+    void setListeners(StatusBatchListener[] listeners) {
+        this.listeners = listeners;
+    }
+
+    boolean hasListeners() {
+        return listeners.length > 0;
+    }
+
+    void setDispatcher(Dispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    void add(String line) {
+        if (listeners.length == 0 || line.length() == 0 || !isBatched(line)) {
+            return;
+        }
+        synchronized (this) {
+            if (pending == null) {
+                pending = new ArrayList<String>(Math.min(batchSize, 1024));
+                scheduleFlush(++generation);
+            }
+            pending.add(line);
+            if (pending.size() >= batchSize) {
+                flushPending();
+            }
+        }
+    }
+
+    /**
+     * @param line raw message
+     * @return false for messages deliver() discards, so that they don't count toward the batch size.
+     * Messages which can't be classified without parsing are kept to report the parse error.
+     */
+    private static boolean isBatched(String line) {
+        JSONObjectType.Type type = StreamEventClassifier.classify(line);
+        return type == null || type == JSONObjectType.Type.STATUS || type == JSONObjectType.Type.DELETE
+                || type == JSONObjectType.Type.LIMIT;
+    }
+
+    /**
+     * Hands the lines collected so far to the dispatcher.
+     */
+    synchronized void flush() {
+        flushPending();
+    }
+
+    private void flushPending() {
+        if (pending != null) {
+            ready.add(pending);
+            pending = null;
+            dispatcher.invokeLater(deliver);
+        }
+    }
+
+    private void scheduleFlush(final long batch) {
+        if (maxLatency <= 0) {
+            return;
+        }
+        if (timer == null) {
+            timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Twitter4J Stream Batch Timer");
+                    thread.setDaemon(conf.isDaemonEnabled());
+                    return thread;
+                }
+            });
+        }
+        timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (StatusBatcher.this) {
+                    if (generation == batch) {
+                        flushPending();
+                    }
+                }
+            }
+        }, maxLatency, TimeUnit.MILLISECONDS);
+    }
+
+    void onException(Exception e) {
+        for (StatusBatchListener listener : listeners) {
+            listener.onException(e);
+        }
+    }
+
+    private void deliver(List<String> lines) {
+        List<Status> statuses = new ArrayList<Status>(lines.size());
+        List<StatusDeletionNotice> deletionNotices = new ArrayList<StatusDeletionNotice>(0);
+        List<Integer> trackLimitationNotices = new ArrayList<Integer>(0);
+        if (conf.isJSONStoreEnabled()) {
+            TwitterObjectFactory.clearThreadLocalMap();
+        }
+        for (String line : lines) {
+            try {
+                JSONObject json = new JSONObject(line);
+                switch (JSONObjectType.determine(json)) {
+                    case STATUS:
+                        Status status = new StatusJSONImpl(json);
+                        if (conf.isJSONStoreEnabled()) {
+                            TwitterObjectFactory.registerJSONObject(status, json);
+                        }
+                        statuses.add(status);
+                        break;
+                    case DELETE:
+                        JSONObject deletionNotice = json.getJSONObject("delete");
+                        if (deletionNotice.has("status")) {
+                            deletionNotices.add(new StatusDeletionNoticeImpl(deletionNotice.getJSONObject("status")));
+                        }
+                        break;
+                    case LIMIT:
+                        trackLimitationNotices.add(ParseUtil.getInt("track", json.getJSONObject("limit")));
+                        break;
+                    default:
+                }
+            } catch (Exception e) {
+                onException(e);
+            }
+        }
+        StatusBatch batch = new StatusBatch(statuses, deletionNotices, trackLimitationNotices);
+        if (batch.size() == 0) {
+            return;
+        }
+        for (StatusBatchListener listener : listeners) {
+            try {
+                listener.onStatusBatch(batch);
+            } catch (Exception e) {
+                logger.warn("Exception thrown by StatusBatchListener: ", String.valueOf(e));
+                listener.onException(e);
+            }
+        }
+    }
+
+    /**
+     * Flushes the lines collected so far and stops the timer.
+     */
+    synchronized void shutdown() {
+        if (dispatcher != null) {
+            flushPending();
+        }
+        pending = null;
+        if (timer != null) {
+            timer.shutdownNow();
+            timer = null;
+        }
+    }
+}
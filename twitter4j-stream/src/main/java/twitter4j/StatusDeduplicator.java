@@ -0,0 +1,160 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+
+import java.util.Arrays;
+
+/**
+ * Remembers the ids of the latest statuses to drop the ones received more than once: statuses received again after a
+ * reconnection or a backfill with count, or matched by two shards of a filter query.<br>
+ * Ids are kept in two Bloom filters within stream.dedup.memory bytes. New ids go to the current generation, which
+ * replaces the previous one every half stream.dedup.window milliseconds, or earlier once it holds as many ids as it can
+ * without exceeding stream.dedup.falsePositiveRate. An id is therefore remembered for at least half the window, and a
+ * status is wrongly dropped with a probability of at most twice the false positive rate.
+ *
+ * @since Twitter4J 4.0.12
+ */
+final class StatusDeduplicator implements DeduplicationStatistics {
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+    private final int bitsPerGeneration;
+    private final int hashes;
+    private final int capacity;
+    private final long rotationInterval;
+    private final double falsePositiveRate;
+    private long[] current;
+    private long[] previous;
+    private int currentCount = 0;
+    private long generationStart;
+    private long checked = 0;
+    private long duplicates = 0;
+    private long rotations = 0;
+
+    StatusDeduplicator(Configuration conf) {
+        this(conf.getStreamDedupMemory(), conf.getStreamDedupFalsePositiveRate(), conf.getStreamDedupWindow());
+    }
+
+    /**
+     * @param memory            bytes used by the two generations
+     * @param falsePositiveRate false positive rate of a generation
+     * @param window            milliseconds ids are remembered for, at most
+     */
+    StatusDeduplicator(int memory, double falsePositiveRate, long window) {
+        if (memory < 16 || falsePositiveRate <= 0 || falsePositiveRate >= 1 || window <= 0) {
+            throw new IllegalArgumentException("invalid stream.dedup settings: memory=" + memory
+                    + " falsePositiveRate=" + falsePositiveRate + " window=" + window);
+        }
+        int words = Math.max(1, memory / 2 / 8);
+        this.bitsPerGeneration = words * 64;
+        // optimal number of hash functions and of ids for the false positive rate
+        this.hashes = Math.max(1, (int) Math.round(-Math.log(falsePositiveRate) / Math.log(2)));
+        this.capacity = Math.max(1, (int) (bitsPerGeneration * Math.log(2) * Math.log(2) / -Math.log(falsePositiveRate)));
+        this.falsePositiveRate = falsePositiveRate;
+        this.rotationInterval = Math.max(1, window / 2);
+        this.current = new long[words];
+        this.previous = new long[words];
+        this.generationStart = NOT_STARTED;
+    }
+
+    /**
+     * @param statusId id of a received status
+     * @return true if the status has (probably) already been received
+     */
+    boolean isDuplicate(long statusId) {
+        return isDuplicate(statusId, System.currentTimeMillis());
+    }
+
+    synchronized boolean isDuplicate(long statusId, long now) {
+        checked++;
+        if (generationStart == NOT_STARTED) {
+            generationStart = now;
+        } else if (now - generationStart >= rotationInterval || currentCount >= capacity) {
+            rotate(now);
+        }
+        long h1 = mix(statusId);
+        long h2 = mix(h1) | 1;
+        boolean inCurrent = true;
+        boolean inPrevious = true;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (int) (((h1 + i * h2) >>> 1) % bitsPerGeneration);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            if ((current[word] & mask) == 0) {
+                inCurrent = false;
+                current[word] |= mask;
+            }
+            if ((previous[word] & mask) == 0) {
+                inPrevious = false;
+            }
+        }
+        if (!inCurrent) {
+            // ids of the previous generation are copied to the current one, and fill it as well
+            currentCount++;
+        }
+        if (inCurrent || inPrevious) {
+            duplicates++;
+            return true;
+        }
+        return false;
+    }
+
+    private void rotate(long now) {
+        long[] forgotten = previous;
+        previous = current;
+        Arrays.fill(forgotten, 0L);
+        current = forgotten;
+        currentCount = 0;
+        generationStart = now;
+        rotations++;
+    }
+
+    private static long mix(long value) {
+        // finalizer of MurmurHash3
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    @Override
+    public synchronized long getCheckedCount() {
+        return checked;
+    }
+
+    @Override
+    public synchronized long getDuplicateCount() {
+        return duplicates;
+    }
+
+    @Override
+    public synchronized long getRotationCount() {
+        return rotations;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+}
@@ -21,6 +21,13 @@ package twitter4j;
  * @since Twitter4J 2.0.4
  */
 public interface StatusListener extends StreamListener {
+    /**
+     * Called upon statuses.<br>
+     * When stream.flyweight is enabled, the status and its user are reused for the next status delivered on the same
+     * thread: copy what you need to keep before returning, and don't hand the instance over to other threads.
+     *
+     * @param status the status
+     */
     void onStatus(Status status);
 
     /**
@@ -18,10 +18,12 @@ package twitter4j;
 
 import twitter4j.conf.Configuration;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author Yusuke Yamamoto - yusuke at mac.com
@@ -29,20 +31,39 @@ import java.io.InputStreamReader;
  */
 abstract class StatusStreamBase implements StatusStream {
     static final Logger logger = Logger.getLogger(StatusStreamImpl.class);
+    /**
+     * Status reused by each delivering thread in flyweight mode
+     */
+    private static final ThreadLocal<StatusJSONImpl> flyweightStatus = new ThreadLocal<StatusJSONImpl>() {
+        @Override
+        protected StatusJSONImpl initialValue() {
+            return new StatusJSONImpl();
+        }
+    };
 
     private boolean streamAlive = true;
-    private BufferedReader br;
+    private final StreamFramer framer;
     private InputStream is;
     private HttpResponse response;
     private final Dispatcher dispatcher;
     final Configuration CONF;
     private ObjectFactory factory;
+    private StatusBatcher batcher;
+    private StatusDeduplicator deduplicator;
+    private StreamJournal journal;
+    private AtomicReference<TrackMatcher> trackMatcher;
+    private volatile RawBytesStreamListener[] rawBytesStreamListeners = new RawBytesStreamListener[0];
+    private volatile ListenersByType listenersByType;
+    private volatile long lastMessageTime = System.currentTimeMillis();
+    private volatile int lastStallWarningPercentFull = -1;
+    // reason given to abort(), reported when the read fails
+    private volatile String abortReason;
 
     /*package*/
 
     StatusStreamBase(Dispatcher dispatcher, InputStream stream, Configuration conf) throws IOException {
         this.is = stream;
-        this.br = new BufferedReader(new InputStreamReader(stream, "UTF-8"));
+        this.framer = new StreamFramer(stream, conf.getStreamReaderBufferSize(), conf.isStreamLengthDelimited());
         this.dispatcher = dispatcher;
         this.CONF = conf;
         this.factory = new JSONImplFactory(conf);
@@ -58,12 +79,180 @@ abstract class StatusStreamBase implements StatusStream {
         return line;
     }
 
+    /**
+     * Lets the stream skip parsing events no listener would receive.
+     *
+     * @param type      type of the event
+     * @param listeners listeners of the stream
+     * @return true if the event needs to be parsed
+     */
+    boolean isInterested(JSONObjectType.Type type, StreamListener[] listeners) {
+        // unknown events are parsed to be logged
+        return type == JSONObjectType.Type.UNKNOWN || listenersFor(type, listeners).length > 0;
+    }
+
+    /**
+     * @param type     type of the event
+     * @param listener listener
+     * @return true if the listener has a callback for the type of events on this stream
+     */
+    boolean accepts(JSONObjectType.Type type, StreamListener listener) {
+        return true;
+    }
+
+    /**
+     * @param type      type of the event
+     * @param listeners listeners of the stream
+     * @return listeners which receive the type of events, honoring StreamEventInterest
+     */
+    StreamListener[] listenersFor(JSONObjectType.Type type, StreamListener[] listeners) {
+        ListenersByType byType = listenersByType;
+        if (byType == null || !byType.isFor(listeners)) {
+            byType = new ListenersByType(listeners);
+            listenersByType = byType;
+        }
+        return byType.listeners[type.ordinal()];
+    }
+
+    /**
+     * Listeners receiving each type of events, computed once per listener set.
+     */
+    private final class ListenersByType {
+        private final StreamListener[] all;
+        private final StreamListener[][] listeners;
+
+        ListenersByType(StreamListener[] all) {
+            this.all = all;
+            JSONObjectType.Type[] types = JSONObjectType.Type.values();
+            listeners = new StreamListener[types.length][];
+            List<StreamListener> selected = new ArrayList<StreamListener>(all.length);
+            for (JSONObjectType.Type type : types) {
+                selected.clear();
+                for (StreamListener listener : all) {
+                    if (accepts(type, listener) && (!(listener instanceof StreamEventInterest)
+                            || ((StreamEventInterest) listener).interestedIn().contains(type))) {
+                        selected.add(listener);
+                    }
+                }
+                listeners[type.ordinal()] = selected.size() == all.length ? all
+                        : selected.toArray(new StreamListener[selected.size()]);
+            }
+        }
+
+        boolean isFor(StreamListener[] listeners) {
+            if (all == listeners) {
+                return true;
+            }
+            // next(StatusListener) wraps the listener in a new array every time
+            if (all.length != listeners.length) {
+                return false;
+            }
+            for (int i = 0; i < all.length; i++) {
+                if (all[i] != listeners[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private boolean isDuplicateStatus(CharSequence message) {
+        if (StreamEventClassifier.classify(message) != JSONObjectType.Type.STATUS) {
+            return false;
+        }
+        long id = RawJSONScanner.parseLong(message, RawJSONScanner.find(message
+                , RawJSONScanner.skipWhitespace(message, 0), "id"));
+        if (id != -1 && deduplicator.isDuplicate(id)) {
+            logger.debug("Skipped duplicate status: ", String.valueOf(id));
+            return true;
+        }
+        return false;
+    }
+
+    void setBatcher(StatusBatcher batcher) {
+        this.batcher = batcher;
+    }
+
+    /**
+     * @param deduplicator drops statuses received more than once, or null
+     */
+    void setDeduplicator(StatusDeduplicator deduplicator) {
+        this.deduplicator = deduplicator;
+    }
+
+    /**
+     * @param journal records every message received, or null
+     */
+    void setJournal(StreamJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * @param trackMatcher matcher of the statuses delivered to TrackMatchListeners, replaced as the track terms change
+     */
+    void setTrackMatcher(AtomicReference<TrackMatcher> trackMatcher) {
+        this.trackMatcher = trackMatcher;
+    }
+
+    /**
+     * @return matcher of the statuses delivered to TrackMatchListeners, or null
+     */
+    TrackMatcher getTrackMatcher() {
+        AtomicReference<TrackMatcher> trackMatcher = this.trackMatcher;
+        return trackMatcher != null ? trackMatcher.get() : null;
+    }
+
+    void setRawBytesStreamListeners(RawBytesStreamListener[] rawBytesStreamListeners) {
+        this.rawBytesStreamListeners = rawBytesStreamListeners;
+    }
+
+    /**
+     * @return true if parseLine() has no side effect the listeners rely on, so that it can be called ahead of delivery on another thread
+     */
+    boolean isParseLineDetached() {
+        return true;
+    }
+
+    /**
+     * Decodes a framed message into the line handed over to the dispatcher. Called on the thread reading the stream.
+     *
+     * @param message message, valid until this method returns
+     * @param raw     true if raw stream listeners expect the message as received
+     * @return the line, or null if the message has been consumed already
+     */
+    String decode(ByteSlice message, boolean raw) {
+        return message.toString();
+    }
+
+    /**
+     * Hands an event over to the dispatcher. Called on the thread reading the stream, right after decode().
+     *
+     * @param event event
+     */
+    void dispatch(StreamEvent event) {
+        dispatcher.invokeLater(event);
+    }
+
+    /**
+     * @return true if decode() and parseLine() have no side effect, so that decoding can be skipped when only the bytes are wanted
+     */
+    boolean isDecodingOptional() {
+        return isParseLineDetached();
+    }
+
     abstract class StreamEvent implements Runnable {
         String line;
 
         StreamEvent(String line) {
             this.line = line;
         }
+
+        /**
+         * Does the part of the work that doesn't depend on the delivery order, such as parsing.<br>
+         * Dispatchers which preserve the order may call this concurrently for several events before calling run() one by one.
+         */
+        void prepare() {
+        }
     }
 
     void handleNextElement(final StreamListener[] listeners,
@@ -72,128 +261,12 @@ abstract class StatusStreamBase implements StatusStream {
             throw new IllegalStateException("Stream already closed.");
         }
         try {
-            String line = br.readLine();
-            if (null == line) {
+            ByteSlice message = nextMessage();
+            if (null == message) {
                 //invalidate this status stream
                 throw new IOException("the end of the stream has been reached");
             }
-            dispatcher.invokeLater(new StreamEvent(line) {
-                @Override
-                public void run() {
-                    try {
-                        if (rawStreamListeners.length > 0) {
-                            onMessage(line, rawStreamListeners);
-                        }
-                        // SiteStreamsImpl will parse "forUser" attribute
-                        line = parseLine(line);
-                        if (line != null && line.length() > 0) {
-                            // parsing JSON is an expensive process and can be avoided when all listeners are instanceof RawStreamListener
-                            if (listeners.length > 0) {
-                                if (CONF.isJSONStoreEnabled()) {
-                                    TwitterObjectFactory.clearThreadLocalMap();
-                                }
-                                JSONObject json = new JSONObject(line);
-                                JSONObjectType.Type event = JSONObjectType.determine(json);
-                                if (logger.isDebugEnabled()) {
-                                    logger.debug("Received:", CONF.getHttpClientConfiguration().isPrettyDebugEnabled() ? json.toString(1) : json.toString());
-                                }
-                                switch (event) {
-                                    case SENDER:
-                                        onSender(json, listeners);
-                                        break;
-                                    case STATUS:
-                                        onStatus(json, listeners);
-                                        break;
-                                    case DIRECT_MESSAGE:
-                                        onDirectMessage(json, listeners);
-                                        break;
-                                    case DELETE:
-                                        onDelete(json, listeners);
-                                        break;
-                                    case LIMIT:
-                                        onLimit(json, listeners);
-                                        break;
-                                    case STALL_WARNING:
-                                        onStallWarning(json, listeners);
-                                        break;
-                                    case SCRUB_GEO:
-                                        onScrubGeo(json, listeners);
-                                        break;
-                                    case FRIENDS:
-                                        onFriends(json, listeners);
-                                        break;
-                                    case FAVORITE:
-                                        onFavorite(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"), listeners);
-                                        break;
-                                    case UNFAVORITE:
-                                        onUnfavorite(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"), listeners);
-                                        break;
-                                    case FOLLOW:
-                                        onFollow(json.getJSONObject("source"), json.getJSONObject("target"), listeners);
-                                        break;
-                                    case UNFOLLOW:
-                                        onUnfollow(json.getJSONObject("source"), json.getJSONObject("target"), listeners);
-                                        break;
-                                    case USER_LIST_MEMBER_ADDED:
-                                        onUserListMemberAddition(json.getJSONObject("target"), json.getJSONObject("source"), json.getJSONObject("target_object"), listeners);
-                                        break;
-                                    case USER_LIST_MEMBER_DELETED:
-                                        onUserListMemberDeletion(json.getJSONObject("target"), json.getJSONObject("source"), json.getJSONObject("target_object"), listeners);
-                                        break;
-                                    case USER_LIST_SUBSCRIBED:
-                                        onUserListSubscription(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"), listeners);
-                                        break;
-                                    case USER_LIST_UNSUBSCRIBED:
-                                        onUserListUnsubscription(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"), listeners);
-                                        break;
-                                    case USER_LIST_CREATED:
-                                        onUserListCreation(json.getJSONObject("source"), json.getJSONObject("target_object"), listeners);
-                                        break;
-                                    case USER_LIST_UPDATED:
-                                        onUserListUpdated(json.getJSONObject("source"), json.getJSONObject("target_object"), listeners);
-                                        break;
-                                    case USER_LIST_DESTROYED:
-                                        onUserListDestroyed(json.getJSONObject("source"), json.getJSONObject("target_object"), listeners);
-                                        break;
-                                    case USER_UPDATE:
-                                        onUserUpdate(json.getJSONObject("source"), json.getJSONObject("target"), listeners);
-                                        break;
-                                    case USER_DELETE:
-                                        onUserDeletion(json.getLong("target"), listeners);
-                                        break;
-                                    case USER_SUSPEND:
-                                        onUserSuspension(json.getLong("target"), listeners);
-                                        break;
-                                    case BLOCK:
-                                        onBlock(json.getJSONObject("source"), json.getJSONObject("target"), listeners);
-                                        break;
-                                    case UNBLOCK:
-                                        onUnblock(json.getJSONObject("source"), json.getJSONObject("target"), listeners);
-                                        break;
-                                    case RETWEETED_RETWEET:
-                                        onRetweetedRetweet(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"), listeners);
-                                        break;
-                                    case FAVORITED_RETWEET:
-                                        onFavoritedRetweet(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"), listeners);
-                                        break;
-                                    case QUOTED_TWEET:
-                                        onQuotedTweet(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"), listeners);
-                                        break;
-                                    case DISCONNECTION:
-                                        onDisconnectionNotice(line, listeners);
-                                        break;
-                                    case UNKNOWN:
-                                    default:
-                                        logger.warn("Received unknown event:", CONF.getHttpClientConfiguration().isPrettyDebugEnabled() ? json.toString(1) : json.toString());
-                                }
-                            }
-                        }
-                    } catch (Exception ex) {
-                        onException(ex, listeners);
-                    }
-                }
-            });
-
+            handleMessage(message, listeners, rawStreamListeners);
         } catch (IOException ioe) {
             try {
                 is.close();
@@ -203,7 +276,290 @@ abstract class StatusStreamBase implements StatusStream {
             streamAlive = false;
             onClose();
             if (isUnexpectedException) {
-                throw new TwitterException("Stream closed.", ioe);
+                String reason = abortReason;
+                throw new TwitterException(reason != null ? reason : "Stream closed.", ioe);
+            }
+        }
+    }
+
+    /**
+     * @return the next framed message, valid until the next call, or null at the end of the stream
+     * @throws IOException when failed to read the stream
+     */
+    ByteSlice nextMessage() throws IOException {
+        return framer.next();
+    }
+
+    /**
+     * Frames the bytes received by a non-blocking read and delivers the complete messages, instead of reading the
+     * stream given to the constructor.
+     *
+     * @param bytes              bytes received. all of them are consumed
+     * @param listeners          listeners
+     * @param rawStreamListeners raw stream listeners
+     * @throws IOException when the stream is malformed
+     * @see StreamMultiplexer
+     */
+    void onBytes(ByteBuffer bytes, StreamListener[] listeners, RawStreamListener[] rawStreamListeners) throws IOException {
+        framer.append(bytes);
+        ByteSlice message;
+        while ((message = framer.nextBuffered()) != null) {
+            handleMessage(message, listeners, rawStreamListeners);
+        }
+    }
+
+    /**
+     * Delivers a framed message to the listeners, through the dispatcher.
+     *
+     * @param message            message, valid until this method returns
+     * @param listeners          listeners
+     * @param rawStreamListeners raw stream listeners
+     */
+    void handleMessage(ByteSlice message, final StreamListener[] listeners, final RawStreamListener[] rawStreamListeners) {
+        if (message.length() > 0) {
+            lastMessageTime = System.currentTimeMillis();
+            trackStallWarning(message);
+            if (journal != null) {
+                journal.append(message, lastMessageTime);
+            }
+        }
+        RawBytesStreamListener[] rawBytesStreamListeners = this.rawBytesStreamListeners;
+        if (rawBytesStreamListeners.length > 0) {
+            onMessage(message, rawBytesStreamListeners);
+        }
+        if (deduplicator != null && isDuplicateStatus(message)) {
+            return;
+        }
+        boolean batching = batcher != null && batcher.hasListeners();
+        if (listeners.length == 0 && rawStreamListeners.length == 0 && !batching && isDecodingOptional()) {
+            // the bytes were all the listeners wanted. skip decoding
+            return;
+        }
+        String line = decode(message, rawStreamListeners.length > 0);
+        if (line == null) {
+            return;
+        }
+        if (batching) {
+            batcher.add(line);
+            if (listeners.length == 0 && rawStreamListeners.length == 0) {
+                // batches are the only thing to deliver. no need for a task per line
+                return;
+            }
+        }
+        dispatch(new StreamEvent(line) {
+            private boolean prepared;
+            private String parsedLine;
+            private JSONObject preparedJSON;
+            private JSONObjectType.Type preparedType;
+
+            @Override
+            void prepare() {
+                if (listeners.length > 0 && isParseLineDetached()) {
+                    try {
+                        parsedLine = parseLine(line);
+                        if (parsedLine != null && parsedLine.length() > 0) {
+                            preparedType = StreamEventClassifier.classify(parsedLine);
+                            if (preparedType == null || isInterested(preparedType, listeners)) {
+                                preparedJSON = new JSONObject(parsedLine);
+                                if (preparedType == null) {
+                                    preparedType = JSONObjectType.determine(preparedJSON);
+                                }
+                            }
+                        }
+                        prepared = true;
+                    } catch (Exception ignore) {
+                        // parsed again in run() so that the exception is reported in order
+                        prepared = false;
+                        preparedJSON = null;
+                        preparedType = null;
+                    }
+                }
+            }
+
+            @Override
+            public void run() {
+                try {
+                    if (rawStreamListeners.length > 0) {
+                        onMessage(line, rawStreamListeners);
+                    }
+                    // SiteStreamsImpl will parse "forUser" attribute
+                    line = prepared ? parsedLine : parseLine(line);
+                    if (line != null && line.length() > 0) {
+                        // parsing JSON is an expensive process and can be avoided when all listeners are instanceof RawStreamListener,
+                        // or when no listener is interested in the event
+                        JSONObjectType.Type classified = listeners.length == 0 ? null
+                                : prepared ? preparedType : StreamEventClassifier.classify(line);
+                        if (listeners.length > 0 && (classified == null || isInterested(classified, listeners))) {
+                            if (CONF.isJSONStoreEnabled()) {
+                                TwitterObjectFactory.clearThreadLocalMap();
+                            }
+                            JSONObject json = preparedJSON != null ? preparedJSON : new JSONObject(line);
+                            JSONObjectType.Type event = classified != null ? classified : JSONObjectType.determine(json);
+                            StreamListener[] targets = listenersFor(event, listeners);
+                            if (logger.isDebugEnabled()) {
+                                logger.debug("Received:", CONF.getHttpClientConfiguration().isPrettyDebugEnabled() ? json.toString(1) : json.toString());
+                            }
+                            switch (event) {
+                                case SENDER:
+                                    onSender(json, targets);
+                                    break;
+                                case STATUS:
+                                    onStatus(json, targets);
+                                    break;
+                                case DIRECT_MESSAGE:
+                                    onDirectMessage(json, targets);
+                                    break;
+                                case DELETE:
+                                    onDelete(json, targets);
+                                    break;
+                                case LIMIT:
+                                    onLimit(json, targets);
+                                    break;
+                                case STALL_WARNING:
+                                    onStallWarning(json, targets);
+                                    break;
+                                case SCRUB_GEO:
+                                    onScrubGeo(json, targets);
+                                    break;
+                                case FRIENDS:
+                                    onFriends(json, targets);
+                                    break;
+                                case FAVORITE:
+                                    onFavorite(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"), targets);
+                                    break;
+                                case UNFAVORITE:
+                                    onUnfavorite(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"), targets);
+                                    break;
+                                case FOLLOW:
+                                    onFollow(json.getJSONObject("source"), json.getJSONObject("target"), targets);
+                                    break;
+                                case UNFOLLOW:
+                                    onUnfollow(json.getJSONObject("source"), json.getJSONObject("target"), targets);
+                                    break;
+                                case USER_LIST_MEMBER_ADDED:
+                                    onUserListMemberAddition(json.getJSONObject("target"), json.getJSONObject("source"), json.getJSONObject("target_object"), targets);
+                                    break;
+                                case USER_LIST_MEMBER_DELETED:
+                                    onUserListMemberDeletion(json.getJSONObject("target"), json.getJSONObject("source"), json.getJSONObject("target_object"), targets);
+                                    break;
+                                case USER_LIST_SUBSCRIBED:
+                                    onUserListSubscription(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"), targets);
+                                    break;
+                                case USER_LIST_UNSUBSCRIBED:
+                                    onUserListUnsubscription(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"), targets);
+                                    break;
+                                case USER_LIST_CREATED:
+                                    onUserListCreation(json.getJSONObject("source"), json.getJSONObject("target_object"), targets);
+                                    break;
+                                case USER_LIST_UPDATED:
+                                    onUserListUpdated(json.getJSONObject("source"), json.getJSONObject("target_object"), targets);
+                                    break;
+                                case USER_LIST_DESTROYED:
+                                    onUserListDestroyed(json.getJSONObject("source"), json.getJSONObject("target_object"), targets);
+                                    break;
+                                case USER_UPDATE:
+                                    onUserUpdate(json.getJSONObject("source"), json.getJSONObject("target"), targets);
+                                    break;
+                                case USER_DELETE:
+                                    onUserDeletion(json.getLong("target"), targets);
+                                    break;
+                                case USER_SUSPEND:
+                                    onUserSuspension(json.getLong("target"), targets);
+                                    break;
+                                case BLOCK:
+                                    onBlock(json.getJSONObject("source"), json.getJSONObject("target"), targets);
+                                    break;
+                                case UNBLOCK:
+                                    onUnblock(json.getJSONObject("source"), json.getJSONObject("target"), targets);
+                                    break;
+                                case RETWEETED_RETWEET:
+                                    onRetweetedRetweet(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"), targets);
+                                    break;
+                                case FAVORITED_RETWEET:
+                                    onFavoritedRetweet(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"), targets);
+                                    break;
+                                case QUOTED_TWEET:
+                                    onQuotedTweet(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"), targets);
+                                    break;
+                                case DISCONNECTION:
+                                    onDisconnectionNotice(line, targets);
+                                    break;
+                                case UNKNOWN:
+                                default:
+                                    logger.warn("Received unknown event:", CONF.getHttpClientConfiguration().isPrettyDebugEnabled() ? json.toString(1) : json.toString());
+                            }
+                        } else if (classified != null && logger.isDebugEnabled()) {
+                            logger.debug("Skipped " + classified + " event:", line);
+                        }
+                    }
+                } catch (Exception ex) {
+                    onException(ex, listeners);
+                }
+            }
+        });
+    }
+
+    /**
+     * Remembers the queue fill reported by a stall warning, read from the raw message whatever the listeners are.
+     */
+    private void trackStallWarning(ByteSlice message) {
+        int key = RawJSONScanner.firstKey(message, RawJSONScanner.skipWhitespace(message, 0));
+        if (key != -1 && RawJSONScanner.keyEquals(message, key, "warning")) {
+            long percentFull = RawJSONScanner.parseLong(message
+                    , RawJSONScanner.find(message, RawJSONScanner.valueOf(message, key), "percent_full"));
+            if (percentFull != -1) {
+                lastStallWarningPercentFull = (int) Math.min(percentFull, 100);
+            }
+        }
+    }
+
+    /**
+     * @return time the last bytes were received, keep-alives included
+     */
+    long getLastReadTime() {
+        return framer.getLastReadTime();
+    }
+
+    /**
+     * @return time the last message other than a keep-alive was received
+     */
+    long getLastMessageTime() {
+        return lastMessageTime;
+    }
+
+    /**
+     * @return percent_full of the last stall warning, or -1 if none was received
+     */
+    int getLastStallWarningPercentFull() {
+        return lastStallWarningPercentFull;
+    }
+
+    /**
+     * Disconnects so that the thread reading the stream fails with the given reason, and reconnects.
+     *
+     * @param reason reason of the disconnection
+     */
+    void abort(String reason) {
+        abortReason = reason;
+        try {
+            is.close();
+            if (response != null) {
+                response.disconnect();
+            }
+        } catch (IOException ignore) {
+        }
+    }
+
+    boolean isAborted() {
+        return abortReason != null;
+    }
+
+    private void onMessage(ByteSlice message, RawBytesStreamListener[] listeners) {
+        for (RawBytesStreamListener listener : listeners) {
+            try {
+                listener.onMessage(framer.view(message));
+            } catch (Exception e) {
+                listener.onException(e);
             }
         }
     }
@@ -333,7 +689,6 @@ abstract class StatusStreamBase implements StatusStream {
     public void close() throws IOException {
         streamAlive = false;
         is.close();
-        br.close();
         if (response != null) {
             response.disconnect();
         }
@@ -341,7 +696,7 @@ abstract class StatusStreamBase implements StatusStream {
     }
 
     Status asStatus(JSONObject json) throws TwitterException {
-        Status status = new StatusJSONImpl(json);
+        Status status = CONF.isStreamFlyweight() ? flyweightStatus.get().reset(json) : new StatusJSONImpl(json);
 
         if (CONF.isJSONStoreEnabled()) {
             TwitterObjectFactory.registerJSONObject(status, json);
@@ -401,6 +756,12 @@ abstract class StatusStreamBase implements StatusStream {
         for (StreamListener listener : listeners) {
             listener.onException(e);
         }
+        if (batcher != null) {
+            batcher.onException(e);
+        }
+        for (RawBytesStreamListener listener : rawBytesStreamListeners) {
+            listener.onException(e);
+        }
         for (RawStreamListener listener : rawStreamListeners) {
             listener.onException(e);
         }
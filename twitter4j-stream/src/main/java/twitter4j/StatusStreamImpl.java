@@ -46,6 +46,27 @@ class StatusStreamImpl extends StatusStreamBase {
     @Override
     protected void onClose(){}
 
+    @Override
+    boolean accepts(JSONObjectType.Type type, StreamListener listener) {
+        if (!(listener instanceof StatusListener)) {
+            // TrackMatchListener
+            return type == JSONObjectType.Type.STATUS;
+        }
+        switch (type) {
+            case STATUS:
+            case DELETE:
+            case LIMIT:
+            case STALL_WARNING:
+            case SCRUB_GEO:
+            case DISCONNECTION:
+            case UNKNOWN:
+                return true;
+            default:
+                // user stream events. StatusListener has no callback for them
+                return false;
+        }
+    }
+
     @Override
     public void next(StatusListener listener) throws TwitterException {
         handleNextElement(new StatusListener[]{listener}, EMPTY);
@@ -71,8 +92,24 @@ class StatusStreamImpl extends StatusStreamBase {
 
     @Override
     protected void onStatus(JSONObject json, StreamListener[] listeners) throws TwitterException {
+        String[] ruleIds = null;
         for (StreamListener listener : listeners) {
-            ((StatusListener) listener).onStatus(asStatus(json));
+            if (listener instanceof TrackMatchListener) {
+                TrackMatcher matcher = getTrackMatcher();
+                if (matcher != null) {
+                    Status status = asStatus(json);
+                    if (ruleIds == null) {
+                        // matched once for all the listeners
+                        ruleIds = matcher.match(status);
+                    }
+                    if (ruleIds.length > 0) {
+                        ((TrackMatchListener) listener).onTrackMatch(status, ruleIds);
+                    }
+                }
+            }
+            if (listener instanceof StatusListener) {
+                ((StatusListener) listener).onStatus(asStatus(json));
+            }
         }
     }
 
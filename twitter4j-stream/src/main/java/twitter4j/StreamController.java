@@ -33,16 +33,20 @@ public class StreamController {
     private String controlURI = null;
     private final HttpClient http;
     private final Authorization AUTH;
+    private final Configuration conf;
+    private StreamMembershipManager membership;
     private static final Logger logger = Logger.getLogger(StreamController.class);
 
-    /*package*/ StreamController(HttpClient http, Authorization auth) {
+    /*package*/ StreamController(HttpClient http, Authorization auth, Configuration conf) {
         this.http = http;
         AUTH = auth;
+        this.conf = conf;
     }
 
     /*package*/ StreamController(Configuration conf) {
         this.http = HttpClientFactory.getInstance(conf.getHttpClientConfiguration());
         AUTH = AuthorizationFactory.getInstance(conf);
+        this.conf = conf;
     }
 
     void setControlURI(String controlURI) {
@@ -97,6 +101,66 @@ public class StreamController {
         return res.asString();
     }
 
+    /**
+     * Queues users to be added to the stream. Unlike {@link #addUsers(long...)}, returns immediately: the users are
+     * sent in batches of up to stream.control.batchSize, with up to stream.control.maxConcurrentRequests requests at a time.<br>
+     * Adding a user whose removal is still queued cancels both.
+     *
+     * @param userIds users to add
+     * @since Twitter4J 4.0.12
+     */
+    public void queueAddUsers(long... userIds) {
+        getMembership().add(userIds);
+    }
+
+    /**
+     * Queues users to be removed from the stream.<br>
+     * Removing a user whose addition is still queued cancels both.
+     *
+     * @param userIds users to remove
+     * @see #queueAddUsers(long...)
+     * @since Twitter4J 4.0.12
+     */
+    public void queueRemoveUsers(long... userIds) {
+        getMembership().remove(userIds);
+    }
+
+    /**
+     * Waits for the queued users to be added or removed.
+     *
+     * @param timeout milliseconds to wait at most
+     * @return true if all the queued operations have been sent
+     * @throws InterruptedException when interrupted
+     * @since Twitter4J 4.0.12
+     */
+    public boolean awaitQueuedUsers(long timeout) throws InterruptedException {
+        return getMembership().await(timeout);
+    }
+
+    /**
+     * @return progress of the users queued with {@link #queueAddUsers(long...)} and {@link #queueRemoveUsers(long...)}
+     * @since Twitter4J 4.0.12
+     */
+    public MembershipStatistics getMembershipStatistics() {
+        return getMembership();
+    }
+
+    synchronized StreamMembershipManager getMembership() {
+        if (membership == null) {
+            membership = new StreamMembershipManager(conf, new StreamMembershipManager.Control() {
+                @Override
+                public void addUsers(long[] userIds) throws TwitterException {
+                    StreamController.this.addUsers(userIds);
+                }
+
+                @Override
+                public void removeUsers(long[] userIds) throws TwitterException {
+                    StreamController.this.removeUsers(userIds);
+                }
+            });
+        }
+        return membership;
+    }
 
     public FriendsIDs getFriendsIDs(long userId, long cursor) throws TwitterException {
         ensureControlURISet();
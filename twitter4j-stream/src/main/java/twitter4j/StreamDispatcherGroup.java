@@ -0,0 +1,166 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dispatcher shared by the TwitterStreams of a stream.dispatcher.group, with its own threads, so that a busy stream
+ * doesn't delay the events of streams in other groups.<br>
+ * The group is created by its first member with stream.dispatcher.threads threads, or async.numThreads if not set,
+ * and shut down when its last member leaves.
+ *
+ * @since Twitter4J 4.0.12
+ */
+final class StreamDispatcherGroup implements Dispatcher, DispatcherStatistics {
+    private static final Logger logger = Logger.getLogger(StreamDispatcherGroup.class);
+    private static final long SHUTDOWN_TIME = 5000;
+    // guarded by StreamDispatcherGroup.class
+    private static final Map<String, StreamDispatcherGroup> groups = new HashMap<String, StreamDispatcherGroup>();
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    // guarded by StreamDispatcherGroup.class
+    private int members;
+
+    private final AtomicLong dispatchedCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private StreamDispatcherGroup(final String name, final Configuration conf) {
+        this.name = name;
+        int threads = conf.getStreamDispatcherThreads() > 0 ? conf.getStreamDispatcherThreads() : conf.getAsyncNumThreads();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>()
+                , new ThreadFactory() {
+            int count = 0;
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, String.format("Twitter4J Stream Dispatcher %s[%d]", name, count++));
+                thread.setDaemon(conf.isDaemonEnabled());
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * @param conf configuration naming the group with stream.dispatcher.group
+     * @return the group, created if it has no member
+     */
+    static synchronized StreamDispatcherGroup join(Configuration conf) {
+        String name = conf.getStreamDispatcherGroup();
+        StreamDispatcherGroup group = groups.get(name);
+        if (group == null) {
+            group = new StreamDispatcherGroup(name, conf);
+            groups.put(name, group);
+        }
+        group.members++;
+        return group;
+    }
+
+    /**
+     * Shuts the group down if this was its last member.
+     */
+    void leave() {
+        synchronized (StreamDispatcherGroup.class) {
+            if (--members > 0) {
+                return;
+            }
+            groups.remove(name);
+        }
+        shutdown();
+    }
+
+    @Override
+    public void invokeLater(final Runnable task) {
+        final long enqueued = System.nanoTime();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                recordWait(System.nanoTime() - enqueued);
+                task.run();
+            }
+        });
+    }
+
+    private void recordWait(long wait) {
+        dispatchedCount.incrementAndGet();
+        totalWaitNanos.addAndGet(wait);
+        long max;
+        while (wait > (max = maxWaitNanos.get()) && !maxWaitNanos.compareAndSet(max, wait)) {
+            // retry
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIME, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            logger.warn(e.getMessage());
+        }
+    }
+
+    @Override
+    public String getGroup() {
+        return name;
+    }
+
+    @Override
+    public int getMemberCount() {
+        synchronized (StreamDispatcherGroup.class) {
+            return members;
+        }
+    }
+
+    @Override
+    public int getThreadCount() {
+        return executor.getCorePoolSize();
+    }
+
+    @Override
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public long getDispatchedCount() {
+        return dispatchedCount.get();
+    }
+
+    @Override
+    public long getAverageWaitNanos() {
+        long count = dispatchedCount.get();
+        return count == 0 ? 0 : totalWaitNanos.get() / count;
+    }
+
+    @Override
+    public long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import static twitter4j.RawJSONScanner.*;
+
+/**
+ * Determines the type of a raw streaming API message from its top level keys, without parsing it.<br>
+ * The result is the same as JSONObjectType.determine(new JSONObject(line)), which lets the stream skip parsing
+ * messages nobody listens to.
+ *
+ * @since Twitter4J 4.0.12
+ */
+final class StreamEventClassifier {
+    // in the order JSONObjectType.determine() checks them
+    private static final String[] KEYS = {"sender", "text", "direct_message", "delete", "limit", "warning"
+            , "scrub_geo", "friends", "event", "disconnect"};
+    private static final JSONObjectType.Type[] TYPES = {JSONObjectType.Type.SENDER, JSONObjectType.Type.STATUS
+            , JSONObjectType.Type.DIRECT_MESSAGE, JSONObjectType.Type.DELETE, JSONObjectType.Type.LIMIT
+            , JSONObjectType.Type.STALL_WARNING, JSONObjectType.Type.SCRUB_GEO, JSONObjectType.Type.FRIENDS
+            , null, JSONObjectType.Type.DISCONNECTION};
+    private static final int EVENT = 8;
+
+    private StreamEventClassifier() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @param line raw message
+     * @return type of the message, or null if the message couldn't be classified without parsing it
+     */
+    static JSONObjectType.Type classify(CharSequence line) {
+        int root = skipWhitespace(line, 0);
+        if (root == -1 || line.charAt(root) != '{') {
+            return null;
+        }
+        int found = KEYS.length;
+        int eventValue = -1;
+        int index = skipWhitespace(line, root + 1);
+        if (index != -1 && line.charAt(index) == '}') {
+            return JSONObjectType.Type.UNKNOWN;
+        }
+        while (index != -1 && line.charAt(index) == '"') {
+            int value = valueOf(line, index);
+            if (value == -1) {
+                return null;
+            }
+            if (!isNull(line, value)) {
+                // only keys taking precedence over the one already found matter
+                for (int i = 0; i < found; i++) {
+                    if (keyEquals(line, index, KEYS[i])) {
+                        if (i == 0) {
+                            return TYPES[0];
+                        }
+                        found = i;
+                        eventValue = value;
+                        break;
+                    }
+                }
+            }
+            index = skipValue(line, value);
+            if (index == -1) {
+                return null;
+            }
+            index = skipWhitespace(line, index);
+            if (index == -1) {
+                return null;
+            }
+            if (line.charAt(index) == '}') {
+                break;
+            }
+            if (line.charAt(index) != ',') {
+                return null;
+            }
+            index = skipWhitespace(line, index + 1);
+        }
+        if (index == -1 || line.charAt(index) != '}') {
+            return null;
+        }
+        if (found == KEYS.length) {
+            return JSONObjectType.Type.UNKNOWN;
+        }
+        if (found == EVENT) {
+            return event(plainString(line, eventValue));
+        }
+        return TYPES[found];
+    }
+
+    private static boolean isNull(CharSequence line, int value) {
+        return line.charAt(value) == 'n' && value + 4 <= line.length() && line.charAt(value + 1) == 'u'
+                && line.charAt(value + 2) == 'l' && line.charAt(value + 3) == 'l';
+    }
+
+    private static JSONObjectType.Type event(String event) {
+        if (event == null) {
+            return null;
+        }
+        if ("favorite".equals(event)) {
+            return JSONObjectType.Type.FAVORITE;
+        } else if ("unfavorite".equals(event)) {
+            return JSONObjectType.Type.UNFAVORITE;
+        } else if ("follow".equals(event)) {
+            return JSONObjectType.Type.FOLLOW;
+        } else if ("unfollow".equals(event)) {
+            return JSONObjectType.Type.UNFOLLOW;
+        } else if ("list_member_added".equals(event)) {
+            return JSONObjectType.Type.USER_LIST_MEMBER_ADDED;
+        } else if ("list_member_removed".equals(event)) {
+            return JSONObjectType.Type.USER_LIST_MEMBER_DELETED;
+        } else if ("list_user_subscribed".equals(event)) {
+            return JSONObjectType.Type.USER_LIST_SUBSCRIBED;
+        } else if ("list_user_unsubscribed".equals(event)) {
+            return JSONObjectType.Type.USER_LIST_UNSUBSCRIBED;
+        } else if ("list_created".equals(event)) {
+            return JSONObjectType.Type.USER_LIST_CREATED;
+        } else if ("list_updated".equals(event)) {
+            return JSONObjectType.Type.USER_LIST_UPDATED;
+        } else if ("list_destroyed".equals(event)) {
+            return JSONObjectType.Type.USER_LIST_DESTROYED;
+        } else if ("user_update".equals(event)) {
+            return JSONObjectType.Type.USER_UPDATE;
+        } else if ("user_delete".equals(event)) {
+            return JSONObjectType.Type.USER_DELETE;
+        } else if ("user_suspend".equals(event)) {
+            return JSONObjectType.Type.USER_SUSPEND;
+        } else if ("block".equals(event)) {
+            return JSONObjectType.Type.BLOCK;
+        } else if ("unblock".equals(event)) {
+            return JSONObjectType.Type.UNBLOCK;
+        } else if ("retweeted_retweet".equals(event)) {
+            return JSONObjectType.Type.RETWEETED_RETWEET;
+        } else if ("favorited_retweet".equals(event)) {
+            return JSONObjectType.Type.FAVORITED_RETWEET;
+        } else if ("quoted_tweet".equals(event)) {
+            return JSONObjectType.Type.QUOTED_TWEET;
+        }
+        return JSONObjectType.Type.UNKNOWN;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.util.Set;
+
+/**
+ * Implemented by a StreamListener to declare the types of events it handles.<br>
+ * The stream only builds objects for, and only calls the listener on, the declared types. An event no listener is
+ * interested in isn't parsed at all. Exceptions are always delivered. Listeners not implementing this interface
+ * receive every event their listener interface has a callback for.
+ * <pre>
+ * class FavoriteNotifier extends UserStreamAdapter implements StreamEventInterest {
+ *     public Set&lt;JSONObjectType.Type&gt; interestedIn() {
+ *         return EnumSet.of(JSONObjectType.Type.FAVORITE);
+ *     }
+ *     public void onFavorite(User source, User target, Status favoritedStatus) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ *
+ * @since Twitter4J 4.0.12
+ */
+public interface StreamEventInterest {
+    /**
+     * Called when the set of listeners of a stream changes. The returned set is expected to stay the same.
+     *
+     * @return types of events the listener handles
+     */
+    Set<JSONObjectType.Type> interestedIn();
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Splits a streaming API response into messages without decoding it.<br>
+ * Bytes are read straight into the array of a heap ByteBuffer and messages are returned as slices of it, so a
+ * message boundary is found with a single pass over the bytes. Two framings are supported:
+ * <ul>
+ * <li>newline - messages are terminated by \n or \r\n. Blank lines are keep-alives and are returned as empty slices</li>
+ * <li>delimited=length - each message is preceded by a line holding its length in bytes. The message is read in one
+ * go without scanning it</li>
+ * </ul>
+ * The buffer starts at stream.readerBufferSize bytes and grows when a message doesn't fit.
+ *
+ * @since Twitter4J 4.0.12
+ */
+final class StreamFramer {
+    static final int MAX_MESSAGE_SIZE = 16 * 1024 * 1024;
+    private static final int MIN_BUFFER_SIZE = 64;
+
+    private final InputStream in;
+    private final boolean lengthDelimited;
+    // unread bytes are between position and limit
+    private ByteBuffer buffer;
+    private final ByteSlice slice = new ByteSlice();
+    private ByteBuffer readOnlyView;
+    // non-blocking framing: bytes already scanned for a newline, and the length of the message being received
+    private int scanned;
+    private int pendingLength = -1;
+    private volatile long lastReadTime = System.currentTimeMillis();
+
+    StreamFramer(InputStream in, int bufferSize, boolean lengthDelimited) {
+        this.in = in;
+        this.lengthDelimited = lengthDelimited;
+        this.buffer = ByteBuffer.allocate(Math.max(MIN_BUFFER_SIZE, bufferSize));
+        this.buffer.flip();
+    }
+
+    /**
+     * @return the next message, valid until the next call. null at the end of the stream
+     * @throws IOException when failed to read the stream, or the stream is malformed
+     */
+    ByteSlice next() throws IOException {
+        return lengthDelimited ? nextLengthDelimited() : nextLine();
+    }
+
+    /**
+     * @return time the last bytes were received, keep-alives included
+     */
+    long getLastReadTime() {
+        return lastReadTime;
+    }
+
+    /**
+     * @param message slice returned by the last call to next()
+     * @return read-only view of the buffer with the position and limit set to the message. the same instance is returned
+     * until the buffer grows
+     */
+    ByteBuffer view(ByteSlice message) {
+        if (readOnlyView == null || readOnlyView.capacity() != buffer.capacity()) {
+            readOnlyView = ByteBuffer.wrap(buffer.array()).asReadOnlyBuffer();
+        }
+        readOnlyView.clear();
+        readOnlyView.position(message.offset());
+        readOnlyView.limit(message.offset() + message.length());
+        return readOnlyView;
+    }
+
+    private ByteSlice nextLine() throws IOException {
+        int scanned = 0;
+        while (true) {
+            byte[] array = buffer.array();
+            int start = buffer.position();
+            int limit = buffer.limit();
+            for (int i = start + scanned; i < limit; i++) {
+                if (array[i] == '\n') {
+                    buffer.position(i + 1);
+                    int end = i > start && array[i - 1] == '\r' ? i - 1 : i;
+                    return slice.set(array, start, end - start);
+                }
+            }
+            scanned = limit - start;
+            if (!fill()) {
+                if (!buffer.hasRemaining()) {
+                    return null;
+                }
+                // the last line without a terminator
+                start = buffer.position();
+                limit = buffer.limit();
+                buffer.position(limit);
+                return slice.set(buffer.array(), start, limit - start);
+            }
+        }
+    }
+
+    private ByteSlice nextLengthDelimited() throws IOException {
+        ByteSlice lengthLine = nextLine();
+        if (lengthLine == null || lengthLine.length() == 0) {
+            return lengthLine;
+        }
+        int length = parseLength(lengthLine);
+        while (buffer.remaining() < length) {
+            if (!fill()) {
+                throw new IOException("the end of the stream has been reached in the middle of a message");
+            }
+        }
+        return sliceMessage(length);
+    }
+
+    private static int parseLength(ByteSlice lengthLine) throws IOException {
+        int length = 0;
+        for (int i = 0; i < lengthLine.length(); i++) {
+            char c = lengthLine.charAt(i);
+            if (c < '0' || c > '9' || length > MAX_MESSAGE_SIZE) {
+                throw new IOException("Malformed length delimiter: " + lengthLine);
+            }
+            length = length * 10 + (c - '0');
+        }
+        if (length > MAX_MESSAGE_SIZE) {
+            throw new IOException("Message too large: " + length + " bytes");
+        }
+        return length;
+    }
+
+    private ByteSlice sliceMessage(int length) {
+        byte[] array = buffer.array();
+        int start = buffer.position();
+        int end = start + length;
+        buffer.position(end);
+        // the length covers the trailing \r\n of the message
+        while (end > start && (array[end - 1] == '\n' || array[end - 1] == '\r')) {
+            end--;
+        }
+        return slice.set(array, start, end - start);
+    }
+
+    /**
+     * Adds bytes received by a non-blocking read, to be framed with {@link #nextBuffered()}.<br>
+     * The stream given to the constructor is not read in that case.
+     *
+     * @param src bytes received. all of them are consumed
+     * @throws IOException when the bytes not framed yet exceed the maximum message size
+     */
+    void append(ByteBuffer src) throws IOException {
+        int length = src.remaining();
+        if (length == 0) {
+            return;
+        }
+        buffer.compact();
+        if (buffer.remaining() < length) {
+            int required = buffer.position() + length;
+            if (required > MAX_MESSAGE_SIZE + MIN_BUFFER_SIZE) {
+                throw new IOException("Message too large: exceeds " + MAX_MESSAGE_SIZE + " bytes");
+            }
+            int capacity = buffer.capacity();
+            while (capacity < required) {
+                capacity *= 2;
+            }
+            buffer.flip();
+            ByteBuffer larger = ByteBuffer.allocate(capacity);
+            larger.put(buffer);
+            buffer = larger;
+        }
+        buffer.put(src);
+        buffer.flip();
+        lastReadTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Frames the next message among the bytes added with {@link #append(ByteBuffer)}, without blocking.
+     *
+     * @return the next message, valid until the next call. null if no complete message has been received yet
+     * @throws IOException when the stream is malformed
+     */
+    ByteSlice nextBuffered() throws IOException {
+        if (!lengthDelimited) {
+            return nextBufferedLine();
+        }
+        if (pendingLength == -1) {
+            ByteSlice lengthLine = nextBufferedLine();
+            if (lengthLine == null || lengthLine.length() == 0) {
+                return lengthLine;
+            }
+            pendingLength = parseLength(lengthLine);
+        }
+        if (buffer.remaining() < pendingLength) {
+            return null;
+        }
+        ByteSlice message = sliceMessage(pendingLength);
+        pendingLength = -1;
+        return message;
+    }
+
+    private ByteSlice nextBufferedLine() {
+        byte[] array = buffer.array();
+        int start = buffer.position();
+        int limit = buffer.limit();
+        for (int i = start + scanned; i < limit; i++) {
+            if (array[i] == '\n') {
+                scanned = 0;
+                buffer.position(i + 1);
+                int end = i > start && array[i - 1] == '\r' ? i - 1 : i;
+                return slice.set(array, start, end - start);
+            }
+        }
+        // not scanned again when more bytes arrive
+        scanned = limit - start;
+        return null;
+    }
+
+    /**
+     * Reads more bytes, moving unread bytes to the head of the buffer first and growing it if it's full.
+     *
+     * @return false at the end of the stream
+     */
+    private boolean fill() throws IOException {
+        buffer.compact();
+        if (!buffer.hasRemaining()) {
+            if (buffer.capacity() >= MAX_MESSAGE_SIZE) {
+                throw new IOException("Message too large: exceeds " + MAX_MESSAGE_SIZE + " bytes");
+            }
+            buffer.flip();
+            ByteBuffer larger = ByteBuffer.allocate(Math.min(buffer.capacity() * 2, MAX_MESSAGE_SIZE));
+            larger.put(buffer);
+            buffer = larger;
+        }
+        int read = in.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        if (read > 0) {
+            buffer.position(buffer.position() + read);
+            lastReadTime = System.currentTimeMillis();
+        }
+        buffer.flip();
+        return read != -1;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * Liveness of a streaming connection.<br>
+ * The stream API sends a blank keep-alive line every 30 seconds, so a connection receiving no bytes for longer is
+ * likely half-dead. When stream.stall.timeout, stream.stall.messageTimeout or stream.stall.percentFull is set, stalled
+ * connections are closed and reconnected without waiting for the read timeout.
+ *
+ * @see TwitterStream#getStreamHealth()
+ * @since Twitter4J 4.0.12
+ */
+public interface StreamHealth {
+    /**
+     * @return seconds since bytes were last received, keep-alives included, or -1 if not connected
+     */
+    long getSecondsSinceLastByte();
+
+    /**
+     * @return seconds since a message other than a keep-alive was last received, or -1 if not connected
+     */
+    long getSecondsSinceLastMessage();
+
+    /**
+     * @return percent_full of the last stall warning received on the current connection, or -1 if none
+     */
+    int getLastStallWarningPercentFull();
+
+    /**
+     * @return number of times the connection has been closed as stalled
+     */
+    long getStallCount();
+}
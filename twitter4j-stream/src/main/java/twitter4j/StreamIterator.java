@@ -0,0 +1,136 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.util.concurrent.Flow;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Blocking iterator over the items of a publisher.<br>
+ * At most bufferSize items are requested ahead of the consumer, and one more is requested for each item taken: the
+ * buffer never fills up, and the publisher stops reading while the consumer is behind.
+ *
+ * @param <T> type of the items
+ * @since Twitter4J 4.0.12
+ */
+final class StreamIterator<T> implements CloseableIterator<T>, Flow.Subscriber<T> {
+    private static final Object END = new Object();
+    private final int bufferSize;
+    private final BlockingQueue<Object> buffer;
+    private volatile Flow.Subscription subscription;
+    private volatile Throwable error;
+    private Object next;
+    private volatile boolean done;
+
+    StreamIterator(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        // one more slot for END
+        this.buffer = new ArrayBlockingQueue<Object>(bufferSize + 1);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(bufferSize);
+    }
+
+    @Override
+    public void onNext(T item) {
+        buffer.offer(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        buffer.offer(END);
+    }
+
+    @Override
+    public void onComplete() {
+        buffer.offer(END);
+    }
+
+    /**
+     * Blocks until the next item arrives or the stream is closed.
+     *
+     * @return true if there is a next item
+     * @throws IllegalStateException when the stream has been closed by an error, or the thread is interrupted
+     */
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (!done) {
+            Object item;
+            try {
+                item = buffer.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new IllegalStateException("Interrupted while waiting for the stream", e);
+            }
+            if (item != END) {
+                next = item;
+                subscription.request(1);
+                return true;
+            }
+            done = true;
+        }
+        Throwable error = this.error;
+        if (error != null) {
+            throw new IllegalStateException("Stream closed by an error", error);
+        }
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T item = (T) next;
+        next = null;
+        return item;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+        Flow.Subscription subscription = this.subscription;
+        if (!done && subscription != null) {
+            subscription.cancel();
+        }
+        done = true;
+        next = null;
+        error = null;
+        buffer.clear();
+        // wakes up a thread blocked in hasNext()
+        buffer.offer(END);
+    }
+}
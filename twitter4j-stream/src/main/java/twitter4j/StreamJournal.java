@@ -0,0 +1,230 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Appends the raw messages received to rolling memory-mapped segment files, for replay and crash recovery.<br>
+ * Messages are copied into the mapped segment on the thread reading the stream: no thread hop, and no system call
+ * per message. Segments are stream.journal.segmentSize bytes long and named after their sequence number.<br>
+ * A segment starts with {@link #MAGIC}, followed by records made of the message length (int), the time the message
+ * was received (long) and the message bytes. A zero length marks the end of the records.<br>
+ * Every stream.journal.indexInterval messages, the status id, receipt time and position of the message are added to
+ * a sparse index, written next to the segment once it is complete.<br>
+ * stream.journal.syncInterval controls when the segment is forced to the storage device: 0 when a segment is
+ * complete, a positive value at most every that many milliseconds as well, and a negative value never.
+ *
+ * @see StreamJournalReader
+ * @since Twitter4J 4.0.12
+ */
+final class StreamJournal {
+    private static final Logger logger = Logger.getLogger(StreamJournal.class);
+    static final int MAGIC = 0x544a4e4c;
+    static final int SEGMENT_HEADER_SIZE = 4;
+    static final int RECORD_HEADER_SIZE = 12;
+    static final int INDEX_ENTRY_SIZE = 20;
+    static final String SEGMENT_SUFFIX = ".journal";
+    static final String INDEX_SUFFIX = ".index";
+
+    private final File dir;
+    private final int segmentSize;
+    private final long syncInterval;
+    private final int indexInterval;
+
+    // guarded by this
+    private long sequence = -1;
+    private File segmentFile;
+    private MappedByteBuffer segment;
+    private ByteBuffer index = ByteBuffer.allocate(INDEX_ENTRY_SIZE * 64);
+    private int sinceIndexed;
+    private long lastSync;
+    private boolean closed;
+    private long appendedCount;
+
+    StreamJournal(Configuration conf) {
+        this.dir = new File(conf.getStreamJournalDir());
+        this.segmentSize = Math.max(SEGMENT_HEADER_SIZE + RECORD_HEADER_SIZE, conf.getStreamJournalSegmentSize());
+        this.syncInterval = conf.getStreamJournalSyncInterval();
+        this.indexInterval = Math.max(1, conf.getStreamJournalIndexInterval());
+    }
+
+    /**
+     * @param message    message, valid until this method returns
+     * @param receivedAt time the message was received
+     */
+    synchronized void append(ByteSlice message, long receivedAt) {
+        if (closed) {
+            return;
+        }
+        try {
+            int length = message.length();
+            if (segment == null || segment.remaining() < RECORD_HEADER_SIZE + length) {
+                roll(RECORD_HEADER_SIZE + length);
+            }
+            int position = segment.position();
+            segment.putInt(length);
+            segment.putLong(receivedAt);
+            segment.put(message.array(), message.offset(), length);
+            appendedCount++;
+            if (position == SEGMENT_HEADER_SIZE || ++sinceIndexed >= indexInterval) {
+                index(statusId(message), receivedAt, position);
+            }
+            if (syncInterval > 0 && receivedAt - lastSync >= syncInterval) {
+                segment.force();
+                lastSync = receivedAt;
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to write the journal. journaling stopped: ", String.valueOf(e));
+            closed = true;
+            segment = null;
+        }
+    }
+
+    /**
+     * @param message message
+     * @return id of the status, or -1 if the message isn't a status
+     */
+    static long statusId(CharSequence message) {
+        if (StreamEventClassifier.classify(message) != JSONObjectType.Type.STATUS) {
+            return -1;
+        }
+        return RawJSONScanner.parseLong(message, RawJSONScanner.find(message
+                , RawJSONScanner.skipWhitespace(message, 0), "id"));
+    }
+
+    private void index(long statusId, long receivedAt, int position) {
+        if (index.remaining() < INDEX_ENTRY_SIZE) {
+            ByteBuffer grown = ByteBuffer.allocate(index.capacity() * 2);
+            index.flip();
+            grown.put(index);
+            index = grown;
+        }
+        index.putLong(statusId);
+        index.putLong(receivedAt);
+        index.putInt(position);
+        sinceIndexed = 0;
+    }
+
+    private void roll(int recordSize) throws IOException {
+        completeSegment();
+        if (sequence == -1) {
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Failed to create " + dir);
+            }
+            File[] existing = segments(dir);
+            // never appends to the segments of a previous run
+            sequence = existing.length == 0 ? 0 : sequenceOf(existing[existing.length - 1]) + 1;
+        } else {
+            sequence++;
+        }
+        segmentFile = new File(dir, String.format("%020d", sequence) + SEGMENT_SUFFIX);
+        RandomAccessFile file = new RandomAccessFile(segmentFile, "rw");
+        try {
+            // a message larger than the segment size gets a segment of its own
+            segment = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0
+                    , Math.max(segmentSize, SEGMENT_HEADER_SIZE + recordSize));
+        } finally {
+            // the mapping remains valid
+            file.close();
+        }
+        segment.putInt(MAGIC);
+    }
+
+    private void completeSegment() throws IOException {
+        if (segment == null) {
+            return;
+        }
+        if (syncInterval >= 0) {
+            segment.force();
+        }
+        FileOutputStream out = new FileOutputStream(indexFileOf(segmentFile));
+        try {
+            out.write(index.array(), 0, index.position());
+            if (syncInterval >= 0) {
+                out.getFD().sync();
+            }
+        } finally {
+            out.close();
+        }
+        index.clear();
+        sinceIndexed = 0;
+        segment = null;
+    }
+
+    /**
+     * Completes the current segment. Nothing is appended afterwards.
+     */
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            completeSegment();
+        } catch (IOException e) {
+            logger.warn("Failed to complete the journal segment: ", String.valueOf(e));
+        }
+    }
+
+    synchronized long getAppendedCount() {
+        return appendedCount;
+    }
+
+    /**
+     * @param dir directory
+     * @return segment files in the directory, oldest first
+     */
+    static File[] segments(File dir) {
+        File[] segments = dir.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(SEGMENT_SUFFIX);
+            }
+        });
+        if (segments == null) {
+            return new File[0];
+        }
+        // zero padded sequence numbers sort by name
+        Arrays.sort(segments);
+        return segments;
+    }
+
+    static File indexFileOf(File segment) {
+        String name = segment.getName();
+        return new File(segment.getParentFile(), name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    private static long sequenceOf(File segment) {
+        String name = segment.getName();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads the messages written by {@link StreamJournal}, oldest first.
+ *
+ * @since Twitter4J 4.0.12
+ */
+final class StreamJournalReader {
+    private final File[] segments;
+    private int current = -1;
+    private MappedByteBuffer segment;
+    private byte[] buffer = new byte[8192];
+    private final ByteSlice slice = new ByteSlice();
+    private long receivedAt;
+
+    /**
+     * @param dir directory the journal has been written to
+     */
+    StreamJournalReader(File dir) {
+        this.segments = StreamJournal.segments(dir);
+    }
+
+    /**
+     * @return the next message, valid until the next call, or null at the end of the journal
+     * @throws IOException when failed to read a segment
+     */
+    ByteSlice next() throws IOException {
+        while (true) {
+            if (segment != null) {
+                int position = segment.position();
+                if (segment.remaining() >= StreamJournal.RECORD_HEADER_SIZE) {
+                    int length = segment.getInt();
+                    if (length > 0 && segment.remaining() >= 8 + length) {
+                        receivedAt = segment.getLong();
+                        if (buffer.length < length) {
+                            buffer = new byte[Math.max(length, buffer.length * 2)];
+                        }
+                        segment.get(buffer, 0, length);
+                        return slice.set(buffer, 0, length);
+                    }
+                }
+                // end of the records, or a record cut short by a crash
+                segment.position(position);
+            }
+            if (current + 1 >= segments.length) {
+                return null;
+            }
+            open(current + 1);
+        }
+    }
+
+    /**
+     * @return time the message returned last by next() was received
+     */
+    long getReceivedAt() {
+        return receivedAt;
+    }
+
+    /**
+     * Moves to the first message received at or after the given time.
+     *
+     * @param time time in milliseconds
+     * @throws IOException when failed to read a segment
+     */
+    void seekTime(long time) throws IOException {
+        seek(false, time);
+    }
+
+    /**
+     * Moves to the first status whose id is equal to or greater than the given id.<br>
+     * Status ids only roughly follow the order statuses are received in, so statuses with a smaller id may follow.
+     *
+     * @param statusId status id
+     * @throws IOException when failed to read a segment
+     */
+    void seekStatusId(long statusId) throws IOException {
+        seek(true, statusId);
+    }
+
+    private void seek(boolean byStatusId, long target) throws IOException {
+        // the last segment starting before the target
+        int start = 0;
+        for (int i = 0; i < segments.length; i++) {
+            ByteBuffer index = readIndex(i);
+            long first = -1;
+            while (first == -1 && index.remaining() >= StreamJournal.INDEX_ENTRY_SIZE) {
+                long statusId = index.getLong();
+                long time = index.getLong();
+                index.getInt();
+                first = byStatusId ? statusId : time;
+            }
+            if (first != -1 && first <= target) {
+                start = i;
+            } else if (first != -1) {
+                break;
+            }
+        }
+        if (segments.length == 0) {
+            return;
+        }
+        open(start);
+        // the last indexed message before the target
+        ByteBuffer index = readIndex(start);
+        int position = StreamJournal.SEGMENT_HEADER_SIZE;
+        while (index.remaining() >= StreamJournal.INDEX_ENTRY_SIZE) {
+            long statusId = index.getLong();
+            long time = index.getLong();
+            int indexed = index.getInt();
+            long key = byStatusId ? statusId : time;
+            if (key != -1 && key <= target) {
+                position = indexed;
+            }
+        }
+        segment.position(position);
+        // then message by message
+        while (true) {
+            int segmentIndex = current;
+            int recordPosition = segment.position();
+            ByteSlice message = next();
+            if (message == null) {
+                return;
+            }
+            long key = byStatusId ? StreamJournal.statusId(message) : receivedAt;
+            if (key >= target) {
+                if (segmentIndex != current) {
+                    // moved to the next segment while reading the message
+                    recordPosition = StreamJournal.SEGMENT_HEADER_SIZE;
+                }
+                segment.position(recordPosition);
+                return;
+            }
+        }
+    }
+
+    private void open(int index) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(segments[index], "r");
+        try {
+            segment = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+        } finally {
+            file.close();
+        }
+        current = index;
+        if (segment.remaining() < StreamJournal.SEGMENT_HEADER_SIZE || segment.getInt() != StreamJournal.MAGIC) {
+            throw new IOException("Not a journal segment: " + segments[index]);
+        }
+    }
+
+    private ByteBuffer readIndex(int segment) throws IOException {
+        File file = StreamJournal.indexFileOf(segments[segment]);
+        if (!file.exists()) {
+            // the segment was being written when the process stopped
+            return ByteBuffer.allocate(0);
+        }
+        RandomAccessFile index = new RandomAccessFile(file, "r");
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate((int) index.length());
+            index.getChannel().read(buffer, 0);
+            buffer.flip();
+            return buffer;
+        } finally {
+            index.close();
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queues site stream membership operations and sends them to the control stream in batches.<br>
+ * Pending operations for the same user are merged or cancel each other, or the latest replaces the pending one while
+ * an operation for the user is in flight. Up to stream.control.batchSize users are sent per request, and up to
+ * stream.control.maxConcurrentRequests requests are made at a time. Operations for a user are never sent while a
+ * previous operation for the same user is in flight, so that they take effect in order.
+ *
+ * @since Twitter4J 4.0.12
+ */
+final class StreamMembershipManager implements MembershipStatistics {
+    private static final Logger logger = Logger.getLogger(StreamMembershipManager.class);
+
+    interface Control {
+        void addUsers(long[] userIds) throws TwitterException;
+
+        void removeUsers(long[] userIds) throws TwitterException;
+    }
+
+    private static final class Operation {
+        final boolean add;
+        final long queuedAt;
+
+        Operation(boolean add, long queuedAt) {
+            this.add = add;
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    private final Configuration conf;
+    private final Control control;
+    private final int batchSize;
+    private final int maxConcurrentRequests;
+
+    // guarded by this
+    private final Map<Long, Operation> pending = new LinkedHashMap<Long, Operation>();
+    private final Set<Long> inFlight = new HashSet<Long>();
+    private int workers;
+    // workers sending a batch, the others are about to take one
+    private int sending;
+    // kind of the operations taken last by nextBatch()
+    private boolean batchIsAdd;
+    private ThreadPoolExecutor executor;
+
+    private final AtomicLong queuedCount = new AtomicLong();
+    private final AtomicLong mergedCount = new AtomicLong();
+    private final AtomicLong cancelledCount = new AtomicLong();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private final Runnable worker = new Runnable() {
+        @Override
+        public void run() {
+            work();
+        }
+    };
+
+    StreamMembershipManager(Configuration conf, Control control) {
+        this.conf = conf;
+        this.control = control;
+        this.batchSize = Math.max(1, conf.getStreamControlBatchSize());
+        this.maxConcurrentRequests = Math.max(1, conf.getStreamControlMaxConcurrentRequests());
+    }
+
+    void add(long... userIds) {
+        queue(userIds, true);
+    }
+
+    void remove(long... userIds) {
+        queue(userIds, false);
+    }
+
+    private synchronized void queue(long[] userIds, boolean add) {
+        long now = System.currentTimeMillis();
+        for (long userId : userIds) {
+            queuedCount.incrementAndGet();
+            Operation operation = pending.get(userId);
+            if (operation == null) {
+                pending.put(userId, new Operation(add, now));
+            } else if (operation.add == add) {
+                mergedCount.incrementAndGet();
+            } else if (inFlight.contains(userId)) {
+                // the operation in flight may be undone by the latest one only
+                pending.put(userId, new Operation(add, now));
+                cancelledCount.incrementAndGet();
+            } else {
+                pending.remove(userId);
+                cancelledCount.addAndGet(2);
+            }
+        }
+        // workers busy with a request don't take the new operations
+        while (workers < maxConcurrentRequests && (workers - sending) * batchSize < pending.size()) {
+            workers++;
+            executor().execute(worker);
+        }
+    }
+
+    private ThreadPoolExecutor executor() {
+        if (executor == null) {
+            executor = new ThreadPoolExecutor(maxConcurrentRequests, maxConcurrentRequests, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Twitter4J Stream Control[" + count.incrementAndGet() + "]");
+                    thread.setDaemon(conf.isDaemonEnabled());
+                    return thread;
+                }
+            });
+            // nothing to shut down once the queue has been drained
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    private void work() {
+        while (true) {
+            boolean add;
+            long[] userIds;
+            synchronized (this) {
+                userIds = nextBatch();
+                if (userIds == null) {
+                    workers--;
+                    notifyAll();
+                    return;
+                }
+                add = batchIsAdd;
+                sending++;
+            }
+            send(add, userIds);
+        }
+    }
+
+    /**
+     * Takes the oldest operations of the same kind, skipping the users having an operation in flight.
+     *
+     * @return user ids, or null if there is nothing to send for now
+     */
+    private long[] nextBatch() {
+        long[] userIds = new long[Math.min(batchSize, pending.size())];
+        int size = 0;
+        Boolean add = null;
+        Iterator<Map.Entry<Long, Operation>> iterator = pending.entrySet().iterator();
+        while (size < userIds.length && iterator.hasNext()) {
+            Map.Entry<Long, Operation> entry = iterator.next();
+            if (inFlight.contains(entry.getKey())) {
+                // waits for the previous operation of the user to complete
+                continue;
+            }
+            if (add == null) {
+                add = entry.getValue().add;
+            } else if (add != entry.getValue().add) {
+                continue;
+            }
+            userIds[size++] = entry.getKey();
+            inFlight.add(entry.getKey());
+            iterator.remove();
+        }
+        if (size == 0) {
+            return null;
+        }
+        batchIsAdd = add;
+        return size == userIds.length ? userIds : Arrays.copyOf(userIds, size);
+    }
+
+    private void send(boolean add, long[] userIds) {
+        requestCount.incrementAndGet();
+        try {
+            if (add) {
+                control.addUsers(userIds);
+            } else {
+                control.removeUsers(userIds);
+            }
+            sentCount.addAndGet(userIds.length);
+        } catch (Exception e) {
+            failedCount.addAndGet(userIds.length);
+            logger.warn("Failed to " + (add ? "add " : "remove ") + userIds.length + " users: ", String.valueOf(e));
+        } finally {
+            synchronized (this) {
+                sending--;
+                for (long userId : userIds) {
+                    inFlight.remove(userId);
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits for the queued operations to be sent.
+     *
+     * @param timeout milliseconds to wait at most
+     * @return true if there is no operation pending nor in flight
+     * @throws InterruptedException when interrupted
+     */
+    synchronized boolean await(long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        while (!pending.isEmpty() || !inFlight.isEmpty()) {
+            long wait = deadline - System.currentTimeMillis();
+            if (wait <= 0) {
+                return false;
+            }
+            wait(wait);
+        }
+        return true;
+    }
+
+    @Override
+    public long getQueuedCount() {
+        return queuedCount.get();
+    }
+
+    @Override
+    public long getMergedCount() {
+        return mergedCount.get();
+    }
+
+    @Override
+    public long getCancelledCount() {
+        return cancelledCount.get();
+    }
+
+    @Override
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    @Override
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    @Override
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public synchronized int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    @Override
+    public synchronized long getLag() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        return System.currentTimeMillis() - pending.values().iterator().next().queuedAt;
+    }
+}
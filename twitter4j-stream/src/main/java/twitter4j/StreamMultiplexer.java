@@ -0,0 +1,273 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads many streaming connections with a few selector threads, instead of a thread blocked on each connection.<br>
+ * Bytes are read without blocking, framed into messages on the selector threads and handed to the dispatcher as
+ * TwitterStream does. stream.multiplexer.selectorThreads threads are started, connections are spread over them.<br>
+ * Channels are registered connected, with the request already sent: the multiplexer decodes the HTTP/1.1 response,
+ * chunked or not. As the connections of TwitterStream are made with HttpURLConnection, which doesn't expose its socket,
+ * the hosted streaming API is reached through a local TLS terminating proxy. Connections are not reconnected, the
+ * listeners are told with onException when a connection ends.<br>
+ * A connection registered with a UserStreamListener is read as a user stream, delivering the user stream events as
+ * TwitterStream.user() does.
+ *
+ * @since Twitter4J 4.0.12
+ */
+public final class StreamMultiplexer {
+    private static final Logger logger = Logger.getLogger(StreamMultiplexer.class);
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final Configuration conf;
+    private final Dispatcher dispatcher;
+    private final SelectorLoop[] loops;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+
+    /**
+     * @param conf configuration
+     * @throws IOException when failed to open the selectors
+     */
+    public StreamMultiplexer(Configuration conf) throws IOException {
+        this.conf = conf;
+        this.dispatcher = new DispatcherFactory(conf).getInstance();
+        this.loops = new SelectorLoop[Math.max(1, conf.getStreamMultiplexerSelectorThreads())];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new SelectorLoop(i);
+        }
+        for (SelectorLoop loop : loops) {
+            loop.start();
+        }
+    }
+
+    /**
+     * Starts reading a connection.
+     *
+     * @param channel   connected channel, with the request sent
+     * @param listeners StatusListeners, UserStreamListeners and RawStreamListeners receiving the messages
+     * @param <C>       type of the channel
+     * @return the connection
+     * @throws IOException when failed to make the channel non-blocking
+     */
+    public <C extends SelectableChannel & ReadableByteChannel> MultiplexedStream register(C channel, StreamListener... listeners)
+            throws IOException {
+        List<StreamListener> statusListeners = new ArrayList<StreamListener>(listeners.length);
+        List<RawStreamListener> rawStreamListeners = new ArrayList<RawStreamListener>(0);
+        boolean userStream = false;
+        for (StreamListener listener : listeners) {
+            if (listener instanceof RawStreamListener) {
+                rawStreamListeners.add((RawStreamListener) listener);
+            } else if (listener instanceof StatusListener) {
+                statusListeners.add(listener);
+                userStream |= listener instanceof UserStreamListener;
+            } else {
+                throw new IllegalArgumentException("Only StatusListener, UserStreamListener and RawStreamListener are supported: " + listener);
+            }
+        }
+        channel.configureBlocking(false);
+        Connection connection = new Connection(channel, userStream
+                , statusListeners.toArray(new StreamListener[statusListeners.size()])
+                , rawStreamListeners.toArray(new RawStreamListener[rawStreamListeners.size()]));
+        loops[(nextLoop.getAndIncrement() & Integer.MAX_VALUE) % loops.length].register(connection);
+        return connection;
+    }
+
+    /**
+     * Closes all the connections and stops the threads.
+     */
+    public void shutdown() {
+        for (SelectorLoop loop : loops) {
+            loop.shutdown();
+        }
+        dispatcher.shutdown();
+    }
+
+    private final class Connection implements MultiplexedStream, HttpStreamDecoder.Body {
+        private final SelectableChannel channel;
+        private final StatusStreamBase stream;
+        private final HttpStreamDecoder decoder = new HttpStreamDecoder();
+        private final StreamListener[] listeners;
+        private final RawStreamListener[] rawStreamListeners;
+        private volatile SelectorLoop loop;
+        private volatile boolean closed;
+
+        Connection(SelectableChannel channel, boolean userStream, StreamListener[] listeners
+                , RawStreamListener[] rawStreamListeners) throws IOException {
+            this.channel = channel;
+            // bytes are pushed with onBytes() instead of being read from the stream
+            ByteArrayInputStream empty = new ByteArrayInputStream(new byte[0]);
+            this.stream = userStream ? new UserStreamImpl(dispatcher, empty, conf) : new StatusStreamImpl(dispatcher, empty, conf);
+            this.listeners = listeners;
+            this.rawStreamListeners = rawStreamListeners;
+        }
+
+        /**
+         * Called on the selector thread when the channel is readable.
+         */
+        void onReadable(ByteBuffer readBuffer) {
+            try {
+                readBuffer.clear();
+                int read = ((ReadableByteChannel) channel).read(readBuffer);
+                if (read == -1) {
+                    throw new IOException("the end of the stream has been reached");
+                }
+                readBuffer.flip();
+                if (!decoder.decode(readBuffer, this)) {
+                    throw new IOException("the response has ended");
+                }
+            } catch (TwitterException e) {
+                end(e);
+            } catch (IOException e) {
+                end(new TwitterException("Stream closed.", e));
+            }
+        }
+
+        @Override
+        public void onBody(ByteBuffer bytes) throws IOException {
+            stream.onBytes(bytes, listeners, rawStreamListeners);
+        }
+
+        private void end(final TwitterException cause) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            closeChannel();
+            logger.info(cause.getMessage());
+            dispatcher.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    for (StreamListener listener : listeners) {
+                        listener.onException(cause);
+                    }
+                    for (RawStreamListener listener : rawStreamListeners) {
+                        listener.onException(cause);
+                    }
+                }
+            });
+        }
+
+        private void closeChannel() {
+            try {
+                channel.close();
+            } catch (IOException ignore) {
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            closeChannel();
+            SelectorLoop loop = this.loop;
+            if (loop != null) {
+                // lets the selector forget the channel
+                loop.selector.wakeup();
+            }
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public long getSecondsSinceLastMessage() {
+            return (System.currentTimeMillis() - stream.getLastMessageTime()) / 1000;
+        }
+    }
+
+    private final class SelectorLoop extends Thread {
+        private final Selector selector;
+        private final Queue<Connection> registrations = new ConcurrentLinkedQueue<Connection>();
+        // shared by the connections of this thread. body bytes are copied to the buffer of each connection's framer
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        private volatile boolean running = true;
+
+        SelectorLoop(int index) throws IOException {
+            super("Twitter4J Stream Multiplexer [" + index + "]");
+            setDaemon(conf.isDaemonEnabled());
+            this.selector = Selector.open();
+        }
+
+        void register(Connection connection) {
+            connection.loop = this;
+            registrations.add(connection);
+            selector.wakeup();
+        }
+
+        void shutdown() {
+            running = false;
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    Connection connection;
+                    while ((connection = registrations.poll()) != null) {
+                        try {
+                            connection.channel.register(selector, SelectionKey.OP_READ, connection);
+                        } catch (ClosedChannelException ignore) {
+                            // closed before being registered
+                        }
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (key.isValid() && key.isReadable()) {
+                            ((Connection) key.attachment()).onReadable(readBuffer);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Selector failed: ", e.getMessage());
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    ((Connection) key.attachment()).close();
+                }
+                Connection connection;
+                while ((connection = registrations.poll()) != null) {
+                    connection.close();
+                }
+                try {
+                    selector.close();
+                } catch (IOException ignore) {
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.util.concurrent.Flow;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Publishes the messages of a stream with reads paced by the demand of the subscriber.<br>
+ * Each subscription opens its own connection, alongside the other connections of the TwitterStream instance, and
+ * delivers messages on the consumer thread. The consumer thread doesn't read the next message until the subscriber
+ * requested one, so a slow subscriber slows down the reads of the socket instead of filling a queue.
+ *
+ * @param <T> type of the published items
+ * @since Twitter4J 4.0.12
+ */
+abstract class StreamPublisher<T> implements Flow.Publisher<T> {
+    private static final Logger logger = Logger.getLogger(StreamPublisher.class);
+
+    /**
+     * Delivers events on the consumer thread, right after they are read
+     */
+    static final Dispatcher CONSUMER_THREAD = new Dispatcher() {
+        @Override
+        public void invokeLater(Runnable task) {
+            task.run();
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    };
+
+    private final Connector connector;
+
+    StreamPublisher(Connector connector) {
+        this.connector = connector;
+    }
+
+    /**
+     * @param subscription subscription to deliver the items to
+     * @return listener receiving the messages of the stream for the subscription
+     */
+    abstract PacedStreamListener listenerFor(StreamSubscription<T> subscription);
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        StreamSubscription<T> subscription = new StreamSubscription<T>(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.start(connector, listenerFor(subscription));
+    }
+
+    /**
+     * @param connector opens the connection of each subscription
+     * @return publisher of the statuses of the stream
+     */
+    static StreamPublisher<Status> ofStatuses(Connector connector) {
+        return new StreamPublisher<Status>(connector) {
+            @Override
+            PacedStreamListener listenerFor(StreamSubscription<Status> subscription) {
+                return new StatusPacedListener(subscription);
+            }
+        };
+    }
+
+    /**
+     * @param connector opens the connection of each subscription
+     * @return publisher of the raw JSON messages of the stream
+     */
+    static StreamPublisher<String> ofRawMessages(Connector connector) {
+        return new StreamPublisher<String>(connector) {
+            @Override
+            PacedStreamListener listenerFor(StreamSubscription<String> subscription) {
+                return new RawPacedListener(subscription);
+            }
+        };
+    }
+
+    interface Connector {
+        /**
+         * Opens the connection of a subscription.
+         *
+         * @param listener listener pacing the reads
+         * @return the consumer, closed when the subscription is cancelled
+         */
+        TwitterStreamImpl.TwitterStreamConsumer connect(PacedStreamListener listener);
+    }
+
+    static final class StreamSubscription<T> implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final Object lock = new Object();
+        private long demand = 0;
+        private boolean cancelled = false;
+        private Exception error = null;
+        private TwitterStreamImpl.TwitterStreamConsumer consumer;
+
+        StreamSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void start(Connector connector, PacedStreamListener listener) {
+            synchronized (lock) {
+                if (cancelled) {
+                    return;
+                }
+            }
+            TwitterStreamImpl.TwitterStreamConsumer consumer = connector.connect(listener);
+            boolean cancelled;
+            synchronized (lock) {
+                this.consumer = consumer;
+                cancelled = this.cancelled;
+            }
+            if (cancelled) {
+                consumer.close();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            synchronized (lock) {
+                if (n <= 0) {
+                    // rule 3.9 of the Reactive Streams specification
+                    error = new IllegalArgumentException("non-positive request: " + n);
+                } else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+                lock.notifyAll();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            TwitterStreamImpl.TwitterStreamConsumer consumer;
+            synchronized (lock) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                consumer = this.consumer;
+                lock.notifyAll();
+            }
+            if (consumer != null) {
+                consumer.close();
+            }
+        }
+
+        boolean awaitDemand() throws InterruptedException {
+            synchronized (lock) {
+                while (demand == 0 && !cancelled && error == null) {
+                    lock.wait();
+                }
+                return !cancelled && error == null;
+            }
+        }
+
+        void emit(T item) {
+            synchronized (lock) {
+                if (cancelled || demand == 0) {
+                    return;
+                }
+                if (demand != Long.MAX_VALUE) {
+                    demand--;
+                }
+            }
+            try {
+                subscriber.onNext(item);
+            } catch (RuntimeException e) {
+                // rule 2.13: the subscriber is considered cancelled
+                logger.warn("Subscriber threw an exception from onNext. Cancelling the subscription: ", e.toString());
+                cancel();
+            }
+        }
+
+        void terminate(Exception cause) {
+            Exception error;
+            synchronized (lock) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                error = this.error != null ? this.error : cause;
+            }
+            if (error != null) {
+                subscriber.onError(error);
+            } else {
+                subscriber.onComplete();
+            }
+        }
+    }
+
+    private static final class StatusPacedListener extends StatusAdapter
+            implements PacedStreamListener, StreamEventInterest {
+        private final StreamSubscription<Status> subscription;
+
+        StatusPacedListener(StreamSubscription<Status> subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public Set<JSONObjectType.Type> interestedIn() {
+            return EnumSet.of(JSONObjectType.Type.STATUS);
+        }
+
+        @Override
+        public boolean awaitDemand() throws InterruptedException {
+            return subscription.awaitDemand();
+        }
+
+        @Override
+        public void onStatus(Status status) {
+            subscription.emit(status);
+        }
+
+        @Override
+        public void onException(Exception ex) {
+            // the consumer reconnects on its own. fatal exceptions are reported through onTerminate()
+            logger.debug("Exception on the stream: ", ex.toString());
+        }
+
+        @Override
+        public void onTerminate(Exception cause) {
+            subscription.terminate(cause);
+        }
+    }
+
+    private static final class RawPacedListener implements RawStreamListener, PacedStreamListener {
+        private final StreamSubscription<String> subscription;
+
+        RawPacedListener(StreamSubscription<String> subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public boolean awaitDemand() throws InterruptedException {
+            return subscription.awaitDemand();
+        }
+
+        @Override
+        public void onMessage(String rawString) {
+            if (rawString.length() > 0) {
+                subscription.emit(rawString);
+            }
+        }
+
+        @Override
+        public void onException(Exception ex) {
+            logger.debug("Exception on the stream: ", ex.toString());
+        }
+
+        @Override
+        public void onTerminate(Exception cause) {
+            subscription.terminate(cause);
+        }
+    }
+}
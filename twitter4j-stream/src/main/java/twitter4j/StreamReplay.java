@@ -0,0 +1,230 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationContext;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Replays a capture of the streaming API to status listeners, through the same parsing and dispatching as a live
+ * stream. Useful to backfill, to re-run listeners against past events, or to benchmark the listeners.<br>
+ * The capture is either a file of newline delimited JSON, gzipped or not, or a directory a journal has been written
+ * to with stream.journal.dir.<br>
+ * <pre>
+ * ReplayStatistics statistics = new StreamReplay(new File("sample.json.gz"))
+ *         .setSpeed(StreamReplay.REALTIME)
+ *         .addListener(listener)
+ *         .replay();
+ * </pre>
+ *
+ * @since Twitter4J 4.0.12
+ */
+public final class StreamReplay {
+    /**
+     * Replays messages at the pace they were received.
+     */
+    public static final double REALTIME = 1;
+    /**
+     * Replays messages as fast as the listeners consume them.
+     */
+    public static final double UNLIMITED = 0;
+
+    private static final int DEFAULT_CAPACITY = 10000;
+    private final Configuration conf;
+    private final File capture;
+    private double speed = UNLIMITED;
+    private final List<StreamListener> listeners = new ArrayList<StreamListener>();
+    private final List<RawStreamListener> rawStreamListeners = new ArrayList<RawStreamListener>();
+    private volatile ReplayStatusStream stream;
+    private volatile boolean stopped;
+
+    /**
+     * @param capture file of newline delimited JSON, or journal directory
+     */
+    public StreamReplay(File capture) {
+        this(ConfigurationContext.getInstance(), capture);
+    }
+
+    /**
+     * @param conf    configuration
+     * @param capture file of newline delimited JSON, or journal directory
+     */
+    public StreamReplay(Configuration conf, File capture) {
+        this.conf = conf;
+        this.capture = capture;
+    }
+
+    /**
+     * @param speed {@link #REALTIME}, a multiple of it, or {@link #UNLIMITED}
+     * @return this instance
+     */
+    public StreamReplay setSpeed(double speed) {
+        if (speed < 0) {
+            throw new IllegalArgumentException("speed must not be negative: " + speed);
+        }
+        this.speed = speed;
+        return this;
+    }
+
+    public StreamReplay addListener(StatusListener listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    public StreamReplay addRawStreamListener(RawStreamListener listener) {
+        rawStreamListeners.add(listener);
+        return this;
+    }
+
+    /**
+     * Replays the whole capture, returning once the listeners are done with the last message.
+     *
+     * @return statistics of the replay
+     * @throws TwitterException when failed to read the capture
+     */
+    public ReplayStatistics replay() throws TwitterException {
+        StreamListener[] listeners = this.listeners.toArray(new StreamListener[this.listeners.size()]);
+        RawStreamListener[] rawStreamListeners = this.rawStreamListeners.toArray(new RawStreamListener[this.rawStreamListeners.size()]);
+        Delivery delivery = new Delivery(new DispatcherFactory(conf).getInstance()
+                , conf.getStreamQueueCapacity() > 0 ? conf.getStreamQueueCapacity() : DEFAULT_CAPACITY);
+        ReplayStatusStream stream;
+        try {
+            stream = open(delivery);
+        } catch (IOException e) {
+            delivery.shutdown();
+            throw new TwitterException(e);
+        }
+        delivery.stream = stream;
+        this.stream = stream;
+        try {
+            while (!stopped) {
+                stream.next(listeners, rawStreamListeners);
+            }
+        } catch (TwitterException e) {
+            if (!stream.isEnded()) {
+                throw e;
+            }
+        } finally {
+            delivery.await();
+            stream.finish();
+            delivery.shutdown();
+            try {
+                stream.close();
+            } catch (IOException ignore) {
+            }
+        }
+        return stream;
+    }
+
+    private ReplayStatusStream open(Dispatcher dispatcher) throws IOException {
+        if (capture.isDirectory()) {
+            return new ReplayStatusStream(dispatcher, new StreamJournalReader(capture), conf, speed);
+        }
+        InputStream in = new BufferedInputStream(new FileInputStream(capture), 65536);
+        in.mark(2);
+        int magic = in.read() | in.read() << 8;
+        in.reset();
+        if (magic == GZIPInputStream.GZIP_MAGIC) {
+            in = new GZIPInputStream(in, 65536);
+        }
+        return new ReplayStatusStream(dispatcher, in, conf, speed);
+    }
+
+    /**
+     * @return statistics of the replay in progress, or null if it hasn't started
+     */
+    public ReplayStatistics getStatistics() {
+        return stream;
+    }
+
+    /**
+     * Stops the replay in progress, after the message being read.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Counts the messages delivered, and keeps the reader from getting too far ahead of the listeners.
+     */
+    private static final class Delivery implements Dispatcher {
+        private final Dispatcher dispatcher;
+        private final int capacity;
+        private ReplayStatusStream stream;
+        // guarded by this
+        private int pending;
+
+        Delivery(Dispatcher dispatcher, int capacity) {
+            this.dispatcher = dispatcher;
+            this.capacity = capacity;
+        }
+
+        @Override
+        public void invokeLater(final Runnable task) {
+            synchronized (this) {
+                while (pending >= capacity) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                pending++;
+            }
+            dispatcher.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } finally {
+                        stream.delivered();
+                        synchronized (Delivery.this) {
+                            pending--;
+                            Delivery.this.notifyAll();
+                        }
+                    }
+                }
+            });
+        }
+
+        synchronized void await() {
+            while (pending > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            dispatcher.shutdown();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * Receives the statuses matching the track terms of the filter query, or the rules set with
+ * {@link TwitterStream#setTrackRules(java.util.Map)}, along with the rules they match.<br>
+ * The streaming API matches track terms loosely, against user names or quoted statuses for example. Statuses are
+ * matched again here against their text, expanded URLs and hashtags only. Statuses matching no rule are not delivered
+ * to this listener.
+ *
+ * @see TrackMatcher
+ * @since Twitter4J 4.0.12
+ */
+public interface TrackMatchListener extends StreamListener {
+    /**
+     * @param status  status
+     * @param ruleIds ids of the rules the status matches: the track term itself for a track term. never empty
+     */
+    void onTrackMatch(Status status, String[] ruleIds);
+}
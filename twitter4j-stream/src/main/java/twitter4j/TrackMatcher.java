@@ -0,0 +1,355 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Matches statuses against track terms and local rules, in time linear to the length of the status whatever the
+ * number of rules.<br>
+ * As with the track predicate of the streaming API, a rule is a phrase of words separated by spaces, matching a status
+ * containing all of the words in any order, ignoring case. A word matches when it is neither preceded nor followed
+ * by a letter, a digit or an underscore: "java" matches "#java" and "Java." but not "javascript". Text is compared
+ * after NFKC normalization.<br>
+ * All the words of all the rules are compiled into a single Aho-Corasick automaton, run over the text, the expanded
+ * URLs and the hashtags of the status, and of the retweeted status if any.
+ *
+ * @see TrackMatchListener
+ * @since Twitter4J 4.0.12
+ */
+public final class TrackMatcher {
+    private static final String[] NO_RULES = new String[0];
+
+    // automaton. state 0 is the root
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] failure;
+    // words ending at each state, including the ones of the states down the failure links
+    private final int[][] outputs;
+
+    private final int[] wordLength;
+    private final int[][] rulesOfWord;
+    private final int[] ruleSize;
+    private final String[] ruleIds;
+
+    private final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>() {
+        @Override
+        protected Scratch initialValue() {
+            return new Scratch(wordLength.length, ruleIds.length);
+        }
+    };
+
+    /**
+     * Compiles the track terms of the query, with the rule id being the term itself, and the given rules.
+     *
+     * @param query query, or null
+     * @param rules phrases by rule id, or null. a rule replaces the track term with the same id
+     * @return the matcher
+     */
+    public static TrackMatcher compile(FilterQuery query, Map<String, String> rules) {
+        Map<String, String> phrases = new LinkedHashMap<String, String>();
+        String[] track = query != null ? query.getTrack() : null;
+        if (track != null) {
+            for (String terms : track) {
+                // the streaming API accepts comma separated terms as well
+                for (String term : terms.split(",")) {
+                    term = term.trim();
+                    if (term.length() > 0) {
+                        phrases.put(term, term);
+                    }
+                }
+            }
+        }
+        if (rules != null) {
+            phrases.putAll(rules);
+        }
+        return new TrackMatcher(phrases);
+    }
+
+    private TrackMatcher(Map<String, String> phrases) {
+        Map<String, Integer> words = new LinkedHashMap<String, Integer>();
+        List<String> ids = new ArrayList<String>();
+        List<int[]> wordsOfRule = new ArrayList<int[]>();
+        for (Map.Entry<String, String> rule : phrases.entrySet()) {
+            int[] ruleWords = new int[0];
+            for (String word : normalize(rule.getValue()).split("\\s+")) {
+                if (word.length() == 0) {
+                    continue;
+                }
+                Integer index = words.get(word);
+                if (index == null) {
+                    index = words.size();
+                    words.put(word, index);
+                }
+                if (!contains(ruleWords, index)) {
+                    ruleWords = Arrays.copyOf(ruleWords, ruleWords.length + 1);
+                    ruleWords[ruleWords.length - 1] = index;
+                }
+            }
+            if (ruleWords.length > 0) {
+                ids.add(rule.getKey());
+                wordsOfRule.add(ruleWords);
+            }
+        }
+        ruleIds = ids.toArray(new String[ids.size()]);
+        ruleSize = new int[ruleIds.length];
+        int[] ruleCount = new int[words.size()];
+        for (int[] ruleWords : wordsOfRule) {
+            for (int word : ruleWords) {
+                ruleCount[word]++;
+            }
+        }
+        rulesOfWord = new int[words.size()][];
+        for (int word = 0; word < rulesOfWord.length; word++) {
+            rulesOfWord[word] = new int[ruleCount[word]];
+            ruleCount[word] = 0;
+        }
+        for (int rule = 0; rule < ruleIds.length; rule++) {
+            int[] ruleWords = wordsOfRule.get(rule);
+            ruleSize[rule] = ruleWords.length;
+            for (int word : ruleWords) {
+                rulesOfWord[word][ruleCount[word]++] = rule;
+            }
+        }
+
+        // trie
+        List<TreeMap<Character, Integer>> edges = new ArrayList<TreeMap<Character, Integer>>();
+        List<int[]> ends = new ArrayList<int[]>();
+        edges.add(new TreeMap<Character, Integer>());
+        ends.add(new int[0]);
+        wordLength = new int[words.size()];
+        for (Map.Entry<String, Integer> word : words.entrySet()) {
+            String text = word.getKey();
+            wordLength[word.getValue()] = text.length();
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                Integer next = edges.get(state).get(text.charAt(i));
+                if (next == null) {
+                    next = edges.size();
+                    edges.get(state).put(text.charAt(i), next);
+                    edges.add(new TreeMap<Character, Integer>());
+                    ends.add(new int[0]);
+                }
+                state = next;
+            }
+            int[] end = ends.get(state);
+            end = Arrays.copyOf(end, end.length + 1);
+            end[end.length - 1] = word.getValue();
+            ends.set(state, end);
+        }
+        int states = edges.size();
+        labels = new char[states][];
+        targets = new int[states][];
+        for (int state = 0; state < states; state++) {
+            TreeMap<Character, Integer> edge = edges.get(state);
+            labels[state] = new char[edge.size()];
+            targets[state] = new int[edge.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> entry : edge.entrySet()) {
+                labels[state][i] = entry.getKey();
+                targets[state][i++] = entry.getValue();
+            }
+        }
+
+        // failure links, breadth first so that the failure state of a state is complete before the state
+        failure = new int[states];
+        outputs = new int[states][];
+        outputs[0] = ends.get(0);
+        ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+        for (int child : targets[0]) {
+            failure[child] = 0;
+            outputs[child] = ends.get(child);
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < labels[state].length; i++) {
+                int child = targets[state][i];
+                failure[child] = transition(failure[state], labels[state][i]);
+                int[] own = ends.get(child);
+                int[] inherited = outputs[failure[child]];
+                int[] output = Arrays.copyOf(own, own.length + inherited.length);
+                System.arraycopy(inherited, 0, output, own.length, inherited.length);
+                outputs[child] = output;
+                queue.add(child);
+            }
+        }
+    }
+
+    private static boolean contains(int[] array, int value) {
+        for (int element : array) {
+            if (element == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int transition(int state, char c) {
+        while (true) {
+            int i = Arrays.binarySearch(labels[state], c);
+            if (i >= 0) {
+                return targets[state][i];
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = failure[state];
+        }
+    }
+
+    static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isWordCharacter(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * @return number of rules
+     */
+    public int getRuleCount() {
+        return ruleIds.length;
+    }
+
+    /**
+     * @param status status
+     * @return ids of the rules the status matches, in the order they were compiled. empty if none
+     */
+    public String[] match(Status status) {
+        Scratch scratch = this.scratch.get();
+        scratch.begin();
+        scan(status, scratch);
+        if (status.getRetweetedStatus() != null) {
+            scan(status.getRetweetedStatus(), scratch);
+        }
+        return scratch.matchedRules(ruleIds);
+    }
+
+    /**
+     * @param text text
+     * @return ids of the rules the text matches, in the order they were compiled. empty if none
+     */
+    public String[] match(String text) {
+        Scratch scratch = this.scratch.get();
+        scratch.begin();
+        scan(text, scratch);
+        return scratch.matchedRules(ruleIds);
+    }
+
+    private void scan(Status status, Scratch scratch) {
+        scan(status.getText(), scratch);
+        URLEntity[] urls = status.getURLEntities();
+        if (urls != null) {
+            for (URLEntity url : urls) {
+                scan(url.getExpandedURL(), scratch);
+            }
+        }
+        HashtagEntity[] hashtags = status.getHashtagEntities();
+        if (hashtags != null) {
+            for (HashtagEntity hashtag : hashtags) {
+                scan(hashtag.getText(), scratch);
+            }
+        }
+    }
+
+    private void scan(String raw, Scratch scratch) {
+        if (raw == null || ruleIds.length == 0) {
+            return;
+        }
+        String text = normalize(raw);
+        int length = text.length();
+        int state = 0;
+        for (int i = 0; i < length; i++) {
+            state = transition(state, text.charAt(i));
+            for (int word : outputs[state]) {
+                int start = i - wordLength[word] + 1;
+                if ((start == 0 || !isWordCharacter(text.charAt(start - 1)))
+                        && (i + 1 == length || !isWordCharacter(text.charAt(i + 1)))) {
+                    scratch.hit(word, rulesOfWord[word], ruleSize);
+                }
+            }
+        }
+    }
+
+    /**
+     * Per thread state of a match, reset in constant time.
+     */
+    private static final class Scratch {
+        private final int[] wordStamp;
+        private final int[] ruleStamp;
+        private final int[] ruleHits;
+        private int[] matched = new int[8];
+        private int matchedCount;
+        private int stamp;
+
+        Scratch(int words, int rules) {
+            wordStamp = new int[words];
+            ruleStamp = new int[rules];
+            ruleHits = new int[rules];
+        }
+
+        void begin() {
+            matchedCount = 0;
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(wordStamp, 0);
+                Arrays.fill(ruleStamp, 0);
+                stamp = 1;
+            }
+        }
+
+        void hit(int word, int[] rules, int[] ruleSize) {
+            if (wordStamp[word] == stamp) {
+                return;
+            }
+            wordStamp[word] = stamp;
+            for (int rule : rules) {
+                if (ruleStamp[rule] != stamp) {
+                    ruleStamp[rule] = stamp;
+                    ruleHits[rule] = 0;
+                }
+                if (++ruleHits[rule] == ruleSize[rule]) {
+                    if (matchedCount == matched.length) {
+                        matched = Arrays.copyOf(matched, matchedCount * 2);
+                    }
+                    matched[matchedCount++] = rule;
+                }
+            }
+        }
+
+        String[] matchedRules(String[] ruleIds) {
+            if (matchedCount == 0) {
+                return NO_RULES;
+            }
+            Arrays.sort(matched, 0, matchedCount);
+            String[] ids = new String[matchedCount];
+            for (int i = 0; i < matchedCount; i++) {
+                ids[i] = ruleIds[matched[i]];
+            }
+            return ids;
+        }
+    }
+}
@@ -16,15 +16,21 @@
 package twitter4j;
 
 import twitter4j.auth.OAuthSupport;
+import twitter4j.util.concurrent.Flow;
 import twitter4j.util.function.Consumer;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * @author Yusuke Yamamoto - yusuke at mac.com
  * @since Twitter4J 2.2.0
  */
 public interface TwitterStream extends OAuthSupport, TwitterBase {
     /**
-     * Adds a ConnectionLifeCycleListener
+     * Adds a ConnectionLifeCycleListener<br>
+     * A listener also implementing {@link ReconnectListener} is told about each decision of the reconnect policy
+     * named by stream.reconnect.policyImpl.
      *
      * @param listener listener to be added
      * @since Twitter4J 2.1.7
@@ -51,6 +57,16 @@ public interface TwitterStream extends OAuthSupport, TwitterBase {
      */
     TwitterStream onException(Consumer<Exception> action);
 
+    /**
+     * Receives statuses in batches, flushed every stream.batch.size statuses or stream.batch.maxLatency milliseconds.
+     *
+     * @param action action when receiving a batch of statuses
+     * @return this instance
+     * @see StatusBatchListener
+     * @since Twitter4J 4.0.12
+     */
+    TwitterStream onStatusBatch(Consumer<List<Status>> action);
+
     /**
      * @param listener listener to remove
      * @since Twitter4J 4.0.0
@@ -158,7 +174,13 @@ public interface TwitterStream extends OAuthSupport, TwitterBase {
 
     /**
      * Start consuming public statuses that match one or more filter predicates. At least one predicate parameter, follow, locations, or track must be specified. Multiple parameters may be specified which allows most clients to use a single connection to the Streaming API. Placing long parameters in the URL may cause the request to be rejected for excessive URL length.<br>
-     * The default access level allows up to 200 track keywords, 400 follow userids and 10 1-degree location boxes. Increased access levels allow 80,000 follow userids ("shadow" role), 400,000 follow userids ("birddog" role), 10,000 track keywords ("restricted track" role),  200,000 track keywords ("partner track" role), and 200 10-degree location boxes ("locRestricted" role). Increased track access levels also pass a higher proportion of statuses before limiting the stream.
+     * The default access level allows up to 200 track keywords, 400 follow userids and 10 1-degree location boxes. Increased access levels allow 80,000 follow userids ("shadow" role), 400,000 follow userids ("birddog" role), 10,000 track keywords ("restricted track" role),  200,000 track keywords ("partner track" role), and 200 10-degree location boxes ("locRestricted" role). Increased track access levels also pass a higher proportion of statuses before limiting the stream.<br>
+     * When stream.sharding.enabled is set, the query is split across as many connections as needed to stay within
+     * stream.shard.maxFollow, stream.shard.maxTrack and stream.shard.maxLocations. Statuses matched by more than one
+     * connection are delivered once. Calling this method again with a changed query only reconnects the shards which changed.<br>
+     * When stream.filter.hotSwap is set, calling this method while a stream is running opens the new connection first
+     * and closes the running one only once the new one received its first message. Statuses received by both
+     * connections are delivered once.
      *
      * @param query Filter query
      * @see twitter4j.StatusStream
@@ -176,6 +198,89 @@ public interface TwitterStream extends OAuthSupport, TwitterBase {
      */
     void filter(final String... track);
 
+    /**
+     * Updates the filter predicates, coalescing updates requested in quick succession.<br>
+     * The first update of a burst is applied stream.filter.updateWindow milliseconds later with the latest query
+     * requested meanwhile, and no sooner than stream.filter.minReconnectInterval milliseconds after the previous
+     * reconnect, to stay clear of the connection rate limit. No reconnect happens when the resulting query is the one
+     * already running. Updates are applied with {@link #filter(FilterQuery)}, cleanUp() discards the update not applied yet.
+     *
+     * @param query Filter query
+     * @throws IllegalStateException when no listener is set
+     * @see #getFilterUpdateStatistics()
+     * @since Twitter4J 4.0.12
+     */
+    void updateFilter(FilterQuery query);
+
+    /**
+     * Returns counters of the updates requested with {@link #updateFilter(FilterQuery)}.
+     *
+     * @return statistics of the filter updates
+     * @since Twitter4J 4.0.12
+     */
+    FilterUpdateStatistics getFilterUpdateStatistics();
+
+    /**
+     * Sets rules matched on top of the track terms of the filter query. Statuses are delivered to the
+     * {@link TrackMatchListener}s along with the ids of the rules and track terms they match.<br>
+     * Rules take effect immediately, track terms once {@link #filter(FilterQuery)} is called.
+     *
+     * @param rules phrases by rule id, matched like track terms. a rule replaces the track term with the same id
+     * @return this instance
+     * @see TrackMatcher
+     * @since Twitter4J 4.0.12
+     */
+    TwitterStream setTrackRules(Map<String, String> rules);
+
+    /**
+     * Returns a publisher of the public statuses matching the filter predicates, with reads paced by the demand of
+     * the subscriber.<br>
+     * Each subscription opens a connection of its own, running alongside the other connections of this instance.
+     * Statuses are delivered on the stream consuming thread, which doesn't read the next message until the subscriber
+     * requests more: a slow subscriber leaves messages in the socket instead of in a queue. Connection errors are
+     * retried as usual, and the subscriber is only told about the errors closing the stream. cleanUp() completes the
+     * subscription.
+     *
+     * @param query Filter query
+     * @return publisher of the statuses
+     * @throws IllegalStateException when stream.flyweight is enabled, as subscribers may buffer the statuses
+     * @see #filter(FilterQuery)
+     * @since Twitter4J 4.0.12
+     */
+    Flow.Publisher<Status> filterPublisher(final FilterQuery query);
+
+    /**
+     * Returns a publisher of the raw JSON messages matching the filter predicates, with reads paced by the demand of
+     * the subscriber.<br>
+     * Every message is published, including deletion and limit notices. See {@link #filterPublisher(FilterQuery)}.
+     *
+     * @param query Filter query
+     * @return publisher of the raw JSON messages
+     * @since Twitter4J 4.0.12
+     */
+    Flow.Publisher<String> rawFilterPublisher(final FilterQuery query);
+
+    /**
+     * Returns a blocking iterator over the public statuses matching the filter predicates.<br>
+     * Up to stream.iterator.bufferSize statuses are read ahead of the caller; the stream consuming thread stops reading
+     * while the buffer is full, instead of queueing statuses in the dispatcher. The connection is closed by close().
+     * <pre>
+     * try (CloseableIterator&lt;Status&gt; it = twitterStream.filterIterator(query)) {
+     *     while (it.hasNext()) {
+     *         process(it.next());
+     *     }
+     * }
+     * </pre>
+     * hasNext() throws IllegalStateException if the stream is closed by an error.
+     *
+     * @param query Filter query
+     * @return iterator over the statuses
+     * @throws IllegalStateException when stream.flyweight is enabled, as buffered statuses can't be reused
+     * @see #filterPublisher(FilterQuery)
+     * @since Twitter4J 4.0.12
+     */
+    CloseableIterator<Status> filterIterator(final FilterQuery query);
+
     /**
      * shutdown internal stream consuming thread
      *
@@ -185,8 +290,63 @@ public interface TwitterStream extends OAuthSupport, TwitterBase {
 
     /**
      * Shuts down internal dispatcher thread shared by all TwitterStream instances.<br>
+     * When stream.dispatcher.group is set, the dispatcher of the group is shut down once all its streams are.<br>
      *
      * @since Twitter4J 2.1.9
      */
     void shutdown();
+
+    /**
+     * Returns counters of the queue holding events waiting for dispatch.<br>
+     * The queue is bounded only when stream.queue.capacity is set. See stream.queue.overflowPolicy for what happens when it is full.
+     *
+     * @return statistics of the dispatch queue, or null if stream.queue.capacity is not set
+     * @since Twitter4J 4.0.12
+     */
+    DispatchQueueStatistics getDispatchQueueStatistics();
+
+    /**
+     * Returns counters of the dispatcher group of this stream.<br>
+     * By default, events of all the TwitterStreams of the JVM are delivered by a single dispatcher. TwitterStreams
+     * configured with the same stream.dispatcher.group share a dispatcher of their own, with stream.dispatcher.threads
+     * threads, so that a high-volume stream can be kept from delaying latency sensitive ones. stream.queue.capacity
+     * still bounds the events each stream queues.
+     *
+     * @return statistics of the dispatcher group, or null if stream.dispatcher.group is not set or no connection has been made
+     * @since Twitter4J 4.0.12
+     */
+    DispatcherStatistics getDispatcherStatistics();
+
+    /**
+     * Returns per lane counters of the partitioned dispatcher.<br>
+     * When stream.partition.lanes is set, events are delivered on that many single threaded lanes chosen by user id,
+     * which keeps the events of a user in order while spreading users across threads.
+     *
+     * @return statistics of the lanes, or null if stream.partition.lanes is not set
+     * @since Twitter4J 4.0.12
+     */
+    PartitionStatistics getPartitionStatistics();
+
+    /**
+     * Returns counters of the status deduplication.<br>
+     * When stream.dedup.enabled is set, statuses already received in the last stream.dedup.window milliseconds are
+     * dropped before being parsed, for example the statuses received again after reconnecting or with count. Ids are
+     * remembered in stream.dedup.memory bytes, with a stream.dedup.falsePositiveRate chance of dropping a new status.
+     *
+     * @return statistics of the deduplication, or null if neither stream.dedup.enabled nor stream.sharding.enabled is set
+     * @since Twitter4J 4.0.12
+     */
+    DeduplicationStatistics getDeduplicationStatistics();
+
+    /**
+     * Returns the liveness of the connections of this stream: the one running, the one replacing it during a hot swap,
+     * or one per shard.<br>
+     * When stream.stall.timeout is set, a connection receiving no bytes for that many milliseconds is closed and
+     * reconnected. stream.stall.messageTimeout does the same for connections receiving nothing but keep-alives, and
+     * stream.stall.percentFull for connections whose stall warning reports the queue at least that full.
+     *
+     * @return health of the open connections
+     * @since Twitter4J 4.0.12
+     */
+    List<StreamHealth> getStreamHealth();
 }
@@ -17,12 +17,23 @@ package twitter4j;
 
 import twitter4j.auth.Authorization;
 import twitter4j.conf.Configuration;
+import twitter4j.util.concurrent.Flow;
 import twitter4j.util.function.Consumer;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static java.lang.String.format;
 import static twitter4j.HttpResponseCode.FORBIDDEN;
@@ -42,13 +53,72 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
 
     private final List<ConnectionLifeCycleListener> lifeCycleListeners = new ArrayList<ConnectionLifeCycleListener>(0);
     private TwitterStreamConsumer handler = null;
+    // connection replacing the handler once it receives its first message
+    private TwitterStreamConsumer pendingHandler = null;
 
     private final String stallWarningsGetParam;
     private final HttpParameter stallWarningsParam;
+    private final String delimitedGetParam;
+    private final transient BoundedStreamDispatcher boundedDispatcher;
+    private final transient PartitionedStreamDispatcher partitionedDispatcher;
+    private final transient OrderedPipelineDispatcher pipelineDispatcher;
+    private final transient StatusBatcher batcher;
+    private final transient FilterQuerySharder sharder;
+    private final transient StatusDeduplicator deduplicator;
+    private final transient StreamJournal journal;
+    private final transient AtomicReference<TrackMatcher> trackMatcher = new AtomicReference<TrackMatcher>();
+    private transient FilterQuery trackQuery;
+    private transient Map<String, String> trackRules;
+    private final transient FilterUpdateCoalescer filterUpdates;
+    private final transient ReconnectPolicy reconnectPolicy;
+    private transient ScheduledExecutorService stallWatchdog;
+    // dispatcher of the stream.dispatcher.group, used instead of the shared one
+    private transient StreamDispatcherGroup dispatcherGroup;
+    private final Map<FilterQuery, TwitterStreamConsumer> shardHandlers = new LinkedHashMap<FilterQuery, TwitterStreamConsumer>();
+    // connections of the publisher subscriptions, running alongside the handler
+    private final Set<TwitterStreamConsumer> publisherHandlers = new LinkedHashSet<TwitterStreamConsumer>();
 
     /*package*/
     TwitterStreamImpl(Configuration conf, Authorization auth) {
         super(conf, auth);
+        if (conf.isStreamSiteFairScheduling()) {
+            checkFairScheduling(conf);
+        }
+        if (conf.getStreamPartitionLanes() > 0) {
+            // lanes are bounded on their own with stream.partition.laneCapacity
+            if (conf.getStreamQueueCapacity() > 0 || conf.getStreamPipelineWindow() > 0) {
+                logger.warn("stream.queue.capacity and stream.pipeline.window are ignored as stream.partition.lanes is set");
+            }
+            partitionedDispatcher = new PartitionedStreamDispatcher(conf);
+            pipelineDispatcher = null;
+            boundedDispatcher = null;
+        } else if (conf.getStreamPipelineWindow() > 0) {
+            // the reorder window bounds the number of events in flight
+            if (conf.getStreamQueueCapacity() > 0) {
+                logger.warn("stream.queue.capacity is ignored as stream.pipeline.window is set");
+            }
+            partitionedDispatcher = null;
+            pipelineDispatcher = new OrderedPipelineDispatcher(null, conf);
+            boundedDispatcher = null;
+        } else {
+            partitionedDispatcher = null;
+            pipelineDispatcher = null;
+            boundedDispatcher = conf.getStreamQueueCapacity() > 0 ? new BoundedStreamDispatcher(null, conf) : null;
+        }
+        batcher = new StatusBatcher(conf);
+        sharder = conf.isStreamShardingEnabled() ? new FilterQuerySharder(conf.getStreamShardMaxFollow()
+                , conf.getStreamShardMaxTrack(), conf.getStreamShardMaxLocations()) : null;
+        // shards matching the same status, and connections overlapping during a hot swap need deduplication
+        deduplicator = conf.isStreamDedupEnabled() || conf.isStreamShardingEnabled() || conf.isStreamFilterHotSwap()
+                ? new StatusDeduplicator(conf) : null;
+        journal = conf.getStreamJournalDir() != null ? new StreamJournal(conf) : null;
+        filterUpdates = new FilterUpdateCoalescer(conf, new FilterUpdateCoalescer.Target() {
+            @Override
+            public void filter(FilterQuery query) {
+                TwitterStreamImpl.this.filter(query);
+            }
+        });
+        reconnectPolicy = newReconnectPolicy(conf);
         http = HttpClientFactory.getInstance(new StreamingReadTimeoutConfiguration(conf));
         // turning off keepalive connection explicitly because Streaming API doesn't need keepalive connection.
         // and this will reduce the shutdown latency of streaming api connection
@@ -57,8 +127,28 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
 
         stallWarningsGetParam = "stall_warnings=" + (conf.isStallWarningsEnabled() ? "true" : "false");
         stallWarningsParam = new HttpParameter("stall_warnings", conf.isStallWarningsEnabled());
+        delimitedGetParam = conf.isStreamLengthDelimited() ? "&delimited=length" : "";
     }
     
+    private static ReconnectPolicy newReconnectPolicy(Configuration conf) {
+        try {
+            return (ReconnectPolicy) Class.forName(conf.getStreamReconnectPolicyImpl())
+                    .getConstructor(Configuration.class).newInstance(conf);
+        } catch (InstantiationException e) {
+            throw new AssertionError(e);
+        } catch (IllegalAccessException e) {
+            throw new AssertionError(e);
+        } catch (ClassNotFoundException e) {
+            throw new AssertionError(e);
+        } catch (ClassCastException e) {
+            throw new AssertionError(e);
+        } catch (NoSuchMethodException e) {
+            throw new AssertionError(e);
+        } catch (InvocationTargetException e) {
+            throw new AssertionError(e);
+        }
+    }
+
     /* Streaming API */
 
     @Override
@@ -119,8 +209,8 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
         ensureAuthorizationEnabled();
         try {
             return new StatusStreamImpl(getDispatcher(), http.post(conf.getStreamBaseURL() + relativeUrl
-                    , new HttpParameter[]{new HttpParameter("count", String.valueOf(count))
-                    , stallWarningsParam}, auth, null), conf);
+                    , withDelimited(new HttpParameter("count", String.valueOf(count))
+                    , stallWarningsParam), auth, null), conf);
         } catch (IOException e) {
             throw new TwitterException(e);
         }
@@ -151,7 +241,7 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
         ensureAuthorizationEnabled();
         try {
             return new StatusStreamImpl(getDispatcher(), http.post(conf.getStreamBaseURL() + "statuses/retweet.json"
-                    , new HttpParameter[]{stallWarningsParam}, auth, null), conf);
+                    , withDelimited(stallWarningsParam), auth, null), conf);
         } catch (IOException e) {
             throw new TwitterException(e);
         }
@@ -194,7 +284,7 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
         ensureAuthorizationEnabled();
         try {
             return new StatusStreamImpl(getDispatcher(), http.get(conf.getStreamBaseURL() + "statuses/sample.json?"
-                    + stallWarningsGetParam, null, auth, null), conf);
+                    + stallWarningsGetParam + delimitedGetParam, null, auth, null), conf);
         } catch (IOException e) {
             throw new TwitterException(e);
         }
@@ -215,7 +305,7 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
         ensureAuthorizationEnabled();
         try {
             return new StatusStreamImpl(getDispatcher(), http.get(conf.getStreamBaseURL() + "statuses/sample.json?"
-                    + stallWarningsGetParam + "&language=" + language, null, auth, null), conf);
+                    + stallWarningsGetParam + delimitedGetParam + "&language=" + language, null, auth, null), conf);
         } catch (IOException e) {
             throw new TwitterException(e);
         }
@@ -262,7 +352,7 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
                 params.add(new HttpParameter("track", StringUtil.join(track)));
             }
             return new UserStreamImpl(getDispatcher(), http.post(conf.getUserStreamBaseURL() + "user.json"
-                    , params.toArray(new HttpParameter[params.size()])
+                    , withDelimited(params.toArray(new HttpParameter[params.size()]))
                     , auth, null), conf);
         } catch (IOException e) {
             throw new TwitterException(e);
@@ -273,7 +363,7 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
     public StreamController site(final boolean withFollowings, final long[] follow) {
         ensureOAuthEnabled();
         ensureSiteStreamsListenerIsSet();
-        final StreamController cs = new StreamController(http, auth);
+        final StreamController cs = new StreamController(http, auth, conf);
         startHandler(new TwitterStreamConsumer(Mode.site) {
             @Override
             public StatusStream getStream() throws TwitterException {
@@ -287,7 +377,87 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
         return cs;
     }
 
+    /**
+     * With stream.site.fairScheduling the dispatcher only receives the drain tasks of SiteStreamDemultiplexer, which
+     * don't carry the event they deliver. Dispatchers looking at the events can't work on them.
+     *
+     * @param conf configuration
+     * @throws IllegalArgumentException when a dispatcher mode relying on the events is configured as well
+     */
+    private static void checkFairScheduling(Configuration conf) {
+        if (conf.getStreamPartitionLanes() > 0) {
+            throw new IllegalArgumentException("stream.site.fairScheduling can't be used with stream.partition.lanes as events can't be partitioned by user.");
+        }
+        if (conf.getStreamPipelineWindow() > 0) {
+            throw new IllegalArgumentException("stream.site.fairScheduling can't be used with stream.pipeline.window as events can't be prepared ahead.");
+        }
+        if (conf.getStreamQueueCapacity() > 0
+                && BoundedStreamDispatcher.OverflowPolicy.of(conf.getStreamQueueOverflowPolicy()) != BoundedStreamDispatcher.OverflowPolicy.BLOCK) {
+            // a dropped drain task would leave an event behind in the per user queues
+            throw new IllegalArgumentException("stream.site.fairScheduling can only be used with stream.queue.overflowPolicy=block.");
+        }
+    }
+
     private Dispatcher getDispatcher() {
+        if (partitionedDispatcher != null) {
+            return partitionedDispatcher;
+        }
+        Dispatcher shared = conf.getStreamDispatcherGroup() != null ? getDispatcherGroup() : getSharedDispatcher();
+        if (pipelineDispatcher != null) {
+            if (pipelineDispatcher.getDelegate() != shared) {
+                pipelineDispatcher.setDelegate(shared);
+            }
+            return pipelineDispatcher;
+        }
+        if (boundedDispatcher == null) {
+            return shared;
+        }
+        if (boundedDispatcher.getDelegate() != shared) {
+            // first connection, or the shared dispatcher has been shut down and instantiated again
+            boundedDispatcher.setDelegate(shared);
+        }
+        return boundedDispatcher;
+    }
+
+    @Override
+    public PartitionStatistics getPartitionStatistics() {
+        return partitionedDispatcher;
+    }
+
+    @Override
+    public DeduplicationStatistics getDeduplicationStatistics() {
+        return deduplicator;
+    }
+
+    private synchronized StreamDispatcherGroup getDispatcherGroup() {
+        if (dispatcherGroup == null) {
+            dispatcherGroup = StreamDispatcherGroup.join(conf);
+        }
+        return dispatcherGroup;
+    }
+
+    @Override
+    public synchronized DispatcherStatistics getDispatcherStatistics() {
+        return dispatcherGroup;
+    }
+
+    @Override
+    public synchronized TwitterStream setTrackRules(Map<String, String> rules) {
+        trackRules = rules != null ? new LinkedHashMap<String, String>(rules) : null;
+        compileTrackMatcher();
+        return this;
+    }
+
+    private void compileTrackMatcher() {
+        if (trackQuery == null && trackRules == null) {
+            return;
+        }
+        TrackMatcher matcher = TrackMatcher.compile(trackQuery, trackRules);
+        trackMatcher.set(matcher);
+        logger.debug("Compiled track rules: ", String.valueOf(matcher.getRuleCount()));
+    }
+
+    private Dispatcher getSharedDispatcher() {
         if (null == TwitterStreamImpl.dispatcher) {
             synchronized (TwitterStreamImpl.class) {
                 if (null == TwitterStreamImpl.dispatcher) {
@@ -303,13 +473,26 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
 
     private static transient volatile Dispatcher dispatcher;
 
+    /**
+     * @param params request parameters
+     * @return the parameters, followed by delimited=length when stream.lengthDelimited is set
+     */
+    private HttpParameter[] withDelimited(HttpParameter... params) {
+        if (!conf.isStreamLengthDelimited()) {
+            return params;
+        }
+        HttpParameter[] withDelimited = new HttpParameter[params.length + 1];
+        System.arraycopy(params, 0, withDelimited, 0, params.length);
+        withDelimited[params.length] = new HttpParameter("delimited", "length");
+        return withDelimited;
+    }
+
     InputStream getSiteStream(boolean withFollowings, long[] follow) throws TwitterException {
         ensureOAuthEnabled();
         return http.post(conf.getSiteStreamBaseURL() + "site.json",
-                new HttpParameter[]{
-                        new HttpParameter("with", withFollowings ? "followings" : "user")
+                withDelimited(new HttpParameter("with", withFollowings ? "followings" : "user")
                         , new HttpParameter("follow", StringUtil.join(follow))
-                        , stallWarningsParam}, auth, null
+                        , stallWarningsParam), auth, null
         ).asStream();
     }
 
@@ -317,12 +500,125 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
     public void filter(final FilterQuery query) {
         ensureAuthorizationEnabled();
         ensureStatusStreamListenerIsSet();
-        startHandler(new TwitterStreamConsumer(Mode.status) {
+        filterUpdates.applied(query);
+        synchronized (this) {
+            trackQuery = query;
+            compileTrackMatcher();
+        }
+        if (sharder != null) {
+            startShards(query);
+            return;
+        }
+        TwitterStreamConsumer consumer = new TwitterStreamConsumer(Mode.status) {
             @Override
             public StatusStream getStream() throws TwitterException {
                 return getFilterStream(query);
             }
+        };
+        if (conf.isStreamFilterHotSwap()) {
+            swapHandler(consumer);
+        } else {
+            startHandler(consumer);
+        }
+    }
+
+    /**
+     * Starts the given consumer next to the running one, which is closed once the new consumer received its first
+     * message. Statuses received by both during the overlap are delivered once.
+     *
+     * @param consumer consumer to replace the running one
+     */
+    synchronized void swapHandler(final TwitterStreamConsumer consumer) {
+        if (handler == null || handler.isClosed() || !shardHandlers.isEmpty()) {
+            startHandler(consumer);
+            return;
+        }
+        if (pendingHandler != null) {
+            // superseded before receiving anything
+            pendingHandler.close();
+            numberOfHandlers--;
+        }
+        startStallWatchdog();
+        pendingHandler = consumer;
+        consumer.onFirstMessage(new Runnable() {
+            @Override
+            public void run() {
+                completeSwap(consumer);
+            }
         });
+        consumer.start();
+        numberOfHandlers++;
+    }
+
+    private synchronized void completeSwap(TwitterStreamConsumer consumer) {
+        if (pendingHandler != consumer) {
+            // superseded or cleaned up
+            return;
+        }
+        pendingHandler = null;
+        TwitterStreamConsumer previous = handler;
+        handler = consumer;
+        if (previous != null) {
+            previous.close();
+            numberOfHandlers--;
+        }
+        logger.info("Swapped to the new filter connection.");
+    }
+
+    /**
+     * Splits the query into shards within the per connection limits and opens a connection per shard.<br>
+     * Connections of the shards which didn't change since the last call are kept.
+     *
+     * @param query Filter query
+     */
+    private synchronized void startShards(FilterQuery query) {
+        startStallWatchdog();
+        if (handler != null && shardHandlers.isEmpty()) {
+            // a non sharded connection is running
+            handler.close();
+            numberOfHandlers--;
+            handler = null;
+        }
+        Map<FilterQuery, TwitterStreamConsumer> running = new LinkedHashMap<FilterQuery, TwitterStreamConsumer>(shardHandlers);
+        shardHandlers.clear();
+        for (final FilterQuery shard : sharder.shard(query)) {
+            TwitterStreamConsumer consumer = running.remove(shard);
+            if (consumer == null) {
+                consumer = new TwitterStreamConsumer(Mode.status) {
+                    @Override
+                    StatusStream getStream() throws TwitterException {
+                        return getFilterStream(shard);
+                    }
+                };
+                consumer.start();
+                numberOfHandlers++;
+            }
+            shardHandlers.put(shard, consumer);
+        }
+        for (TwitterStreamConsumer stale : running.values()) {
+            stale.close();
+            numberOfHandlers--;
+        }
+        logger.info("Filtering on " + shardHandlers.size() + " connection(s).");
+    }
+
+    /**
+     * @return queries of the connections opened by a sharded filter
+     */
+    synchronized List<FilterQuery> getFilterShards() {
+        return new ArrayList<FilterQuery>(shardHandlers.keySet());
+    }
+
+    @Override
+    public void updateFilter(FilterQuery query) {
+        ensureAuthorizationEnabled();
+        ensureStatusStreamListenerIsSet();
+        filterUpdates.update(query);
+    }
+
+    @Override
+    public FilterUpdateStatistics getFilterUpdateStatistics() {
+        return filterUpdates;
     }
 
     @Override
@@ -330,6 +626,47 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
         filter(new FilterQuery().track(track));
     }
 
+    @Override
+    public Flow.Publisher<Status> filterPublisher(FilterQuery query) {
+        if (conf.isStreamFlyweight()) {
+            throw new IllegalStateException("stream.flyweight can't be used with publishers as subscribers may buffer statuses.");
+        }
+        ensureAuthorizationEnabled();
+        return StreamPublisher.ofStatuses(filterConnector(query));
+    }
+
+    @Override
+    public Flow.Publisher<String> rawFilterPublisher(FilterQuery query) {
+        ensureAuthorizationEnabled();
+        return StreamPublisher.ofRawMessages(filterConnector(query));
+    }
+
+    @Override
+    public CloseableIterator<Status> filterIterator(FilterQuery query) {
+        if (conf.isStreamFlyweight()) {
+            throw new IllegalStateException("stream.flyweight can't be used with iterators as statuses are buffered.");
+        }
+        StreamIterator<Status> iterator = new StreamIterator<Status>(conf.getStreamIteratorBufferSize());
+        filterPublisher(query).subscribe(iterator);
+        return iterator;
+    }
+
+    private StreamPublisher.Connector filterConnector(final FilterQuery query) {
+        return new StreamPublisher.Connector() {
+            @Override
+            public TwitterStreamConsumer connect(PacedStreamListener listener) {
+                TwitterStreamConsumer consumer = new TwitterStreamConsumer(Mode.status, listener) {
+                    @Override
+                    StatusStream getStream() throws TwitterException {
+                        return getFilterStream(query, StreamPublisher.CONSUMER_THREAD);
+                    }
+                };
+                startPublisherHandler(consumer);
+                return consumer;
+            }
+        };
+    }
+
     /**
      * Returns public statuses that match one or more filter predicates. At least one predicate parameter, follow, locations, or track must be specified. Multiple parameters may be specified which allows most clients to use a single connection to the Streaming API. Placing long parameters in the URL may cause the request to be rejected for excessive URL length.<br>
      * The default access level allows up to 200 track keywords, 400 follow userids and 10 1-degree location boxes. Increased access levels allow 80,000 follow userids ("shadow" role), 400,000 follow userids ("birddog" role), 10,000 track keywords ("restricted track" role),  200,000 track keywords ("partner track" role), and 200 10-degree location boxes ("locRestricted" role). Increased track access levels also pass a higher proportion of statuses before limiting the stream.
@@ -342,11 +679,15 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
      * @since Twitter4J 2.1.2
      */
     StatusStream getFilterStream(FilterQuery query) throws TwitterException {
+        return getFilterStream(query, getDispatcher());
+    }
+
+    private StatusStream getFilterStream(FilterQuery query, Dispatcher dispatcher) throws TwitterException {
         ensureAuthorizationEnabled();
         try {
-            return new StatusStreamImpl(getDispatcher(), http.post(conf.getStreamBaseURL()
+            return new StatusStreamImpl(dispatcher, http.post(conf.getStreamBaseURL()
                     + "statuses/filter.json"
-                    , query.asHttpParameterArray(stallWarningsParam), auth, null), conf);
+                    , withDelimited(query.asHttpParameterArray(stallWarningsParam)), auth, null), conf);
         } catch (IOException e) {
             throw new TwitterException(e);
         }
@@ -366,31 +707,98 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
     }
 
     private void ensureSiteStreamsListenerIsSet() {
-        if (getSiteStreamsListeners().length == 0 && getRawStreamListeners().length == 0) {
+        if (getSiteStreamsListeners().length == 0 && getRawStreamListeners().length == 0
+                && getRawBytesStreamListeners().length == 0) {
             throw new IllegalStateException("SiteStreamsListener is not set.");
         }
     }
 
     private static int numberOfHandlers = 0;
 
-    private synchronized void startHandler(TwitterStreamConsumer handler) {
-        cleanUp();
+    synchronized void startHandler(TwitterStreamConsumer handler) {
+        startStallWatchdog();
+        closeHandlers();
         this.handler = handler;
         this.handler.start();
         numberOfHandlers++;
     }
 
+    /**
+     * Starts the connection of a publisher subscription, leaving the other connections of this instance running.
+     *
+     * @param handler connection of the subscription
+     */
+    synchronized void startPublisherHandler(TwitterStreamConsumer handler) {
+        startStallWatchdog();
+        publisherHandlers.add(handler);
+        handler.start();
+        numberOfHandlers++;
+    }
+
+    private synchronized void publisherHandlerTerminated(TwitterStreamConsumer handler) {
+        if (publisherHandlers.remove(handler)) {
+            numberOfHandlers--;
+        }
+    }
+
     @Override
     public synchronized void cleanUp() {
+        filterUpdates.cancel();
+        closeHandlers();
+    }
+
+    private synchronized void closeHandlers() {
         if (handler != null) {
             handler.close();
             numberOfHandlers--;
+            handler = null;
+        }
+        if (pendingHandler != null) {
+            pendingHandler.close();
+            numberOfHandlers--;
+            pendingHandler = null;
+        }
+        if (!shardHandlers.isEmpty()) {
+            for (TwitterStreamConsumer shard : shardHandlers.values()) {
+                shard.close();
+                numberOfHandlers--;
+            }
+            shardHandlers.clear();
+            sharder.reset();
+        }
+        for (TwitterStreamConsumer publisherHandler : publisherHandlers) {
+            publisherHandler.close();
+            numberOfHandlers--;
         }
+        publisherHandlers.clear();
     }
 
     @Override
     public synchronized void shutdown() {
         cleanUp();
+        filterUpdates.shutdown();
+        if (stallWatchdog != null) {
+            stallWatchdog.shutdownNow();
+            stallWatchdog = null;
+        }
+        batcher.shutdown();
+        if (journal != null) {
+            journal.close();
+        }
+        if (boundedDispatcher != null) {
+            boundedDispatcher.shutdown();
+        }
+        if (partitionedDispatcher != null) {
+            partitionedDispatcher.shutdown();
+        }
+        if (pipelineDispatcher != null) {
+            pipelineDispatcher.shutdown();
+        }
+        if (dispatcherGroup != null) {
+            // the other streams of the group keep it
+            dispatcherGroup.leave();
+            dispatcherGroup = null;
+        }
         synchronized (TwitterStreamImpl.class) {
             if (0 == numberOfHandlers) {
                 if (dispatcher != null) {
@@ -401,6 +809,65 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
         }
     }
 
+    /**
+     * Starts checking the connections for stalls, if enabled.
+     */
+    private void startStallWatchdog() {
+        if (stallWatchdog != null) {
+            return;
+        }
+        long period = Long.MAX_VALUE;
+        for (int timeout : new int[]{conf.getStreamStallTimeout(), conf.getStreamStallMessageTimeout()}) {
+            if (timeout > 0) {
+                period = Math.min(period, timeout / 4);
+            }
+        }
+        if (period == Long.MAX_VALUE && conf.getStreamStallPercentFull() <= 0) {
+            return;
+        }
+        // stall warnings are checked at least once a second
+        period = Math.max(10, Math.min(1000, period));
+        stallWatchdog = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Twitter4J Stream Stall Watchdog");
+                thread.setDaemon(conf.isDaemonEnabled());
+                return thread;
+            }
+        });
+        stallWatchdog.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                long now = System.currentTimeMillis();
+                for (TwitterStreamConsumer consumer : getConsumers()) {
+                    consumer.checkStall(now);
+                }
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized List<TwitterStreamConsumer> getConsumers() {
+        List<TwitterStreamConsumer> consumers = new ArrayList<TwitterStreamConsumer>(shardHandlers.values());
+        if (handler != null && !handler.isClosed()) {
+            consumers.add(0, handler);
+        }
+        if (pendingHandler != null && !pendingHandler.isClosed()) {
+            consumers.add(pendingHandler);
+        }
+        consumers.addAll(publisherHandlers);
+        return consumers;
+    }
+
+    @Override
+    public List<StreamHealth> getStreamHealth() {
+        return new ArrayList<StreamHealth>(getConsumers());
+    }
+
+    @Override
+    public DispatchQueueStatistics getDispatchQueueStatistics() {
+        return boundedDispatcher;
+    }
+
     @Override
     public void addConnectionLifeCycleListener(ConnectionLifeCycleListener listener) {
         this.lifeCycleListeners.add(listener);
@@ -426,6 +893,24 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
         return this;
     }
 
+    @Override
+    public synchronized TwitterStream onStatusBatch(final Consumer<List<Status>> action) {
+        streamListeners.add(new StatusBatchListener() {
+            @Override
+            public void onStatusBatch(StatusBatch batch) {
+                if (batch.getStatuses().size() > 0) {
+                    action.accept(batch.getStatuses());
+                }
+            }
+
+            @Override
+            public void onException(Exception ex) {
+            }
+        });
+        updateListeners();
+        return this;
+    }
+
     @Override
     public synchronized TwitterStream onException(final Consumer<Exception> action) {
         streamListeners.add(new StatusAdapter() {
@@ -458,9 +943,16 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
     }
 
     private synchronized void updateListeners() {
+        batcher.setListeners(getStatusBatchListeners());
         if (handler != null) {
             handler.updateListeners();
         }
+        if (pendingHandler != null) {
+            pendingHandler.updateListeners();
+        }
+        for (TwitterStreamConsumer shard : shardHandlers.values()) {
+            shard.updateListeners();
+        }
     }
 
     private RawStreamListener[] getRawStreamListeners() {
@@ -473,6 +965,16 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
         return rawStreamListeners.toArray(new RawStreamListener[rawStreamListeners.size()]);
     }
 
+    private RawBytesStreamListener[] getRawBytesStreamListeners() {
+        ArrayList<RawBytesStreamListener> rawBytesStreamListeners = new ArrayList<RawBytesStreamListener>();
+        for (StreamListener streamListener : streamListeners) {
+            if (streamListener instanceof RawBytesStreamListener) {
+                rawBytesStreamListeners.add((RawBytesStreamListener) streamListener);
+            }
+        }
+        return rawBytesStreamListeners.toArray(new RawBytesStreamListener[rawBytesStreamListeners.size()]);
+    }
+
     private SiteStreamsListener[] getSiteStreamsListeners() {
         ArrayList<SiteStreamsListener> siteStreamsListeners = new ArrayList<SiteStreamsListener>();
         for (StreamListener streamListener : streamListeners) {
@@ -483,14 +985,24 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
         return siteStreamsListeners.toArray(new SiteStreamsListener[siteStreamsListeners.size()]);
     }
 
-    private StatusListener[] getStatusListeners() {
-        ArrayList<StatusListener> statusListeners = new ArrayList<StatusListener>();
+    private StatusBatchListener[] getStatusBatchListeners() {
+        ArrayList<StatusBatchListener> statusBatchListeners = new ArrayList<StatusBatchListener>();
         for (StreamListener streamListener : streamListeners) {
-            if (streamListener instanceof StatusListener) {
-                statusListeners.add((StatusListener) streamListener);
+            if (streamListener instanceof StatusBatchListener) {
+                statusBatchListeners.add((StatusBatchListener) streamListener);
             }
         }
-        return statusListeners.toArray(new StatusListener[statusListeners.size()]);
+        return statusBatchListeners.toArray(new StatusBatchListener[statusBatchListeners.size()]);
+    }
+
+    private StreamListener[] getStatusListeners() {
+        ArrayList<StreamListener> statusListeners = new ArrayList<StreamListener>();
+        for (StreamListener streamListener : streamListeners) {
+            if (streamListener instanceof StatusListener || streamListener instanceof TrackMatchListener) {
+                statusListeners.add(streamListener);
+            }
+        }
+        return statusListeners.toArray(new StreamListener[statusListeners.size()]);
     }
 
     /*
@@ -499,37 +1011,50 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
      When a HTTP error (> 200) is returned, back off exponentially.
      Perhaps start with a 10 second wait, double on each subsequent failure, and finally cap the wait at 240 seconds. Consider sending an alert to a human operator after multiple HTTP errors, as there is probably a client configuration issue that is unlikely to be resolved without human intervention. There's not much point in polling any faster in the face of HTTP error codes and your client is may run afoul of a rate limit.
      */
-    private static final int TCP_ERROR_INITIAL_WAIT = 250;
-    private static final int TCP_ERROR_WAIT_CAP = 16 * 1000;
-
-    private static final int HTTP_ERROR_INITIAL_WAIT = 10 * 1000;
-    private static final int HTTP_ERROR_WAIT_CAP = 240 * 1000;
-
-    private static final int NO_WAIT = 0;
-
     private static int count = 0;
 
     enum Mode {
         user, status, site
     }
 
-    abstract class TwitterStreamConsumer extends Thread {
-        private StatusStreamBase stream = null;
+    abstract class TwitterStreamConsumer extends Thread implements StreamHealth {
+        private volatile StatusStreamBase stream = null;
         private final String NAME;
         private volatile boolean closed = false;
         private StreamListener[] streamListeners;
         private RawStreamListener[] rawStreamListeners;
+        private RawBytesStreamListener[] rawBytesStreamListeners;
         private final Mode mode;
+        private final PacedStreamListener paced;
+        private volatile Runnable onFirstMessage;
+        private volatile long stallCount;
 
         TwitterStreamConsumer(Mode mode) {
+            this(mode, null);
+        }
+
+        /**
+         * @param mode  mode
+         * @param paced the only listener of the stream, pacing the reads, or null to read as fast as possible
+         *              and deliver to the listeners of this TwitterStream
+         */
+        TwitterStreamConsumer(Mode mode, PacedStreamListener paced) {
             super();
             this.mode = mode;
+            this.paced = paced;
             NAME = format("Twitter Stream consumer / %s [%s]", conf.getStreamThreadName(), ++count);
             updateListeners();
             setName(NAME + "[initializing]");
         }
 
         void updateListeners() {
+            if (paced != null) {
+                this.streamListeners = paced instanceof StatusListener ? new StreamListener[]{paced} : new StreamListener[0];
+                this.rawStreamListeners = paced instanceof RawStreamListener
+                        ? new RawStreamListener[]{(RawStreamListener) paced} : new RawStreamListener[0];
+                this.rawBytesStreamListeners = new RawBytesStreamListener[0];
+                return;
+            }
             switch (mode) {
                 case site:
                     this.streamListeners = getSiteStreamsListeners();
@@ -539,12 +1064,21 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
                     break;
             }
             this.rawStreamListeners = getRawStreamListeners();
+            this.rawBytesStreamListeners = getRawBytesStreamListeners();
+            StatusStreamBase stream = this.stream;
+            if (stream != null) {
+                stream.setRawBytesStreamListeners(rawBytesStreamListeners);
+            }
         }
 
         @Override
         public void run() {
-            int timeToSleep = NO_WAIT;
+            // consecutive failures, and the wait before the last attempt
+            int attempts = 0;
+            long timeToSleep = 0;
             boolean connected = false;
+            // exception which closed the stream
+            Exception cause = null;
             while (!closed) {
                 try {
                     if (!closed && null == stream) {
@@ -552,6 +1086,17 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
                         logger.info("Establishing connection.");
                         setStatus("[Establishing connection]");
                         stream = (StatusStreamBase) getStream();
+                        stream.setRawBytesStreamListeners(rawBytesStreamListeners);
+                        stream.setJournal(journal);
+                        stream.setTrackMatcher(trackMatcher);
+                        if (mode != Mode.site) {
+                            // shared by all the connections of this instance, to catch statuses received again after reconnecting
+                            stream.setDeduplicator(deduplicator);
+                        }
+                        if (mode != Mode.site && paced == null) {
+                            batcher.setDispatcher(getDispatcher());
+                            stream.setBatcher(batcher);
+                        }
                         connected = true;
                         logger.info("Connection established.");
                         for (ConnectionLifeCycleListener listener : lifeCycleListeners) {
@@ -562,12 +1107,22 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
                             }
                         }
                         // connection established successfully
-                        timeToSleep = NO_WAIT;
+                        attempts = 0;
+                        timeToSleep = 0;
                         logger.info("Receiving status stream.");
                         setStatus("[Receiving stream]");
                         while (!closed) {
                             try {
+                                if (paced != null && !paced.awaitDemand()) {
+                                    closed = true;
+                                    break;
+                                }
                                 stream.next(this.streamListeners, this.rawStreamListeners);
+                                Runnable onFirstMessage = this.onFirstMessage;
+                                if (onFirstMessage != null) {
+                                    this.onFirstMessage = null;
+                                    onFirstMessage.run();
+                                }
                             } catch (IllegalStateException ise) {
                                 logger.warn(ise.getMessage());
                                 break;
@@ -579,6 +1134,7 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
                                 if (!(e instanceof NullPointerException) && !"Inflater has been closed".equals(e.getMessage())) {
                                     logger.info(e.getMessage());
                                     stream.onException(e, this.streamListeners, this.rawStreamListeners);
+                                    cause = e;
                                     closed = true;
                                     break;
                                 }
@@ -588,21 +1144,25 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
                 } catch (TwitterException te) {
                     logger.info(te.getMessage());
                     if (!closed) {
-                        if (NO_WAIT == timeToSleep) {
+                        if (0 == attempts) {
                             if (te.getStatusCode() == FORBIDDEN) {
                                 logger.warn("This account is not in required role. ", te.getMessage());
+                                cause = te;
                                 closed = true;
                                 for (StreamListener statusListener : this.streamListeners) {
                                     statusListener.onException(te);
                                 }
+                                batcher.onException(te);
                                 break;
                             }
                             if (te.getStatusCode() == NOT_ACCEPTABLE) {
                                 logger.warn("Parameter not accepted with the role. ", te.getMessage());
+                                cause = te;
                                 closed = true;
                                 for (StreamListener statusListener : streamListeners) {
                                     statusListener.onException(te);
                                 }
+                                batcher.onException(te);
                                 break;
                             }
                             connected = false;
@@ -613,14 +1173,6 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
                                     logger.warn(e.getMessage());
                                 }
                             }
-                            if (te.getStatusCode() > 200) {
-                                timeToSleep = HTTP_ERROR_INITIAL_WAIT;
-                            } else if (0 == timeToSleep) {
-                                timeToSleep = TCP_ERROR_INITIAL_WAIT;
-                            }
-                        }
-                        if (te.getStatusCode() > 200 && timeToSleep < HTTP_ERROR_INITIAL_WAIT) {
-                            timeToSleep = HTTP_ERROR_INITIAL_WAIT;
                         }
                         if (connected) {
                             for (ConnectionLifeCycleListener listener : lifeCycleListeners) {
@@ -634,8 +1186,36 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
                         for (StreamListener statusListener : streamListeners) {
                             statusListener.onException(te);
                         }
+                        batcher.onException(te);
                         // there was a problem establishing the connection, or the connection closed by peer
                         if (!closed) {
+                            attempts++;
+                            timeToSleep = reconnectPolicy.nextWait(te.getStatusCode(), attempts, timeToSleep);
+                            if (timeToSleep < 0) {
+                                logger.warn("Giving up reconnecting after " + attempts + " attempt(s). ", te.getMessage());
+                                for (ConnectionLifeCycleListener listener : lifeCycleListeners) {
+                                    if (listener instanceof ReconnectListener) {
+                                        try {
+                                            ((ReconnectListener) listener).onGiveUp(te.getStatusCode(), attempts);
+                                        } catch (Exception e) {
+                                            logger.warn(e.getMessage());
+                                        }
+                                    }
+                                }
+                                cause = te;
+                                closed = true;
+                                stream = null;
+                                break;
+                            }
+                            for (ConnectionLifeCycleListener listener : lifeCycleListeners) {
+                                if (listener instanceof ReconnectListener) {
+                                    try {
+                                        ((ReconnectListener) listener).onReconnectScheduled(te.getStatusCode(), attempts, timeToSleep);
+                                    } catch (Exception e) {
+                                        logger.warn(e.getMessage());
+                                    }
+                                }
+                            }
                             // wait for a moment not to overload Twitter API
                             logger.info("Waiting for " + (timeToSleep) + " milliseconds");
                             setStatus("[Waiting for " + (timeToSleep) + " milliseconds]");
@@ -643,7 +1223,6 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
                                 Thread.sleep(timeToSleep);
                             } catch (InterruptedException ignore) {
                             }
-                            timeToSleep = Math.min(timeToSleep * 2, (te.getStatusCode() > 200) ? HTTP_ERROR_WAIT_CAP : TCP_ERROR_WAIT_CAP);
                         }
                         stream = null;
                         logger.debug(te.getMessage());
@@ -675,6 +1254,71 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
                     logger.warn(e.getMessage());
                 }
             }
+            if (paced != null) {
+                publisherHandlerTerminated(this);
+                paced.onTerminate(cause);
+            }
+        }
+
+        /**
+         * @param action action to run on this thread once the first message has been received
+         */
+        void onFirstMessage(Runnable action) {
+            this.onFirstMessage = action;
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * Closes the current connection to reconnect when it has stalled.
+         *
+         * @param now current time
+         */
+        void checkStall(long now) {
+            StatusStreamBase stream = this.stream;
+            if (closed || stream == null || stream.isAborted()) {
+                return;
+            }
+            String reason = null;
+            int percentFull = stream.getLastStallWarningPercentFull();
+            if (conf.getStreamStallTimeout() > 0 && now - stream.getLastReadTime() >= conf.getStreamStallTimeout()) {
+                reason = "No data received for " + (now - stream.getLastReadTime()) + " milliseconds.";
+            } else if (conf.getStreamStallMessageTimeout() > 0
+                    && now - stream.getLastMessageTime() >= conf.getStreamStallMessageTimeout()) {
+                reason = "No message received for " + (now - stream.getLastMessageTime()) + " milliseconds.";
+            } else if (conf.getStreamStallPercentFull() > 0 && percentFull >= conf.getStreamStallPercentFull()) {
+                reason = "Stall warning reported the queue " + percentFull + "% full.";
+            }
+            if (reason != null) {
+                logger.warn("Reconnecting stalled stream. ", reason);
+                stallCount++;
+                stream.abort(reason);
+            }
+        }
+
+        @Override
+        public long getSecondsSinceLastByte() {
+            StatusStreamBase stream = this.stream;
+            return stream == null ? -1 : (System.currentTimeMillis() - stream.getLastReadTime()) / 1000;
+        }
+
+        @Override
+        public long getSecondsSinceLastMessage() {
+            StatusStreamBase stream = this.stream;
+            return stream == null ? -1 : (System.currentTimeMillis() - stream.getLastMessageTime()) / 1000;
+        }
+
+        @Override
+        public int getLastStallWarningPercentFull() {
+            StatusStreamBase stream = this.stream;
+            return stream == null ? -1 : stream.getLastStallWarningPercentFull();
+        }
+
+        @Override
+        public long getStallCount() {
+            return stallCount;
         }
 
         public synchronized void close() {
@@ -39,6 +39,12 @@ final class UserStreamImpl extends StatusStreamImpl implements UserStream {
         handleNextElement(new StreamListener[]{listener}, EMPTY);
     }
 
+    @Override
+    boolean accepts(JSONObjectType.Type type, StreamListener listener) {
+        // plain StatusListeners don't receive user stream events
+        return super.accepts(type, listener) || listener instanceof UserStreamListener;
+    }
+
     @Override
     protected void onSender(JSONObject json, StreamListener[] listeners) throws TwitterException {
         for (StreamListener listener : listeners) {
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BoundedStreamDispatcherTest extends TestCase {
+    private final List<Runnable> pendingDrains = new ArrayList<Runnable>();
+    private final List<String> delivered = new ArrayList<String>();
+    private final Dispatcher recorder = new Dispatcher() {
+        @Override
+        public void invokeLater(Runnable task) {
+            pendingDrains.add(task);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    };
+    private StatusStreamBase stream;
+
+    public BoundedStreamDispatcherTest(String name) {
+        super(name);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        stream = new StatusStreamImpl(recorder, new ByteArrayInputStream(new byte[0]), new ConfigurationBuilder().build());
+    }
+
+    public void testEventName() throws Exception {
+        assertEquals("limit", BoundedStreamDispatcher.eventName("{\"limit\":{\"track\":1234}}"));
+        assertEquals("created_at", BoundedStreamDispatcher.eventName("{\"created_at\":\"Tue Apr 22 21:49:34 +0000 2008\",\"text\":\"a\"}"));
+        assertEquals("favorite", BoundedStreamDispatcher.eventName("{\"event\":\"favorite\",\"source\":{}}"));
+        assertNull(BoundedStreamDispatcher.eventName(""));
+    }
+
+    public void testDropNewest() throws Exception {
+        BoundedStreamDispatcher dispatcher = newDispatcher("dropNewest");
+        dispatcher.invokeLater(event("{\"text\":\"1\"}"));
+        dispatcher.invokeLater(event("{\"text\":\"2\"}"));
+        dispatcher.invokeLater(event("{\"text\":\"3\"}"));
+        assertEquals(2, dispatcher.getSize());
+        assertEquals(1, dispatcher.getDroppedNewestCount());
+        drain();
+        assertEquals("[{\"text\":\"1\"}, {\"text\":\"2\"}]", delivered.toString());
+    }
+
+    public void testDropOldest() throws Exception {
+        BoundedStreamDispatcher dispatcher = newDispatcher("dropOldest");
+        dispatcher.invokeLater(event("{\"text\":\"1\"}"));
+        dispatcher.invokeLater(event("{\"text\":\"2\"}"));
+        dispatcher.invokeLater(event("{\"text\":\"3\"}"));
+        assertEquals(1, dispatcher.getDroppedOldestCount());
+        assertEquals(3, dispatcher.getEnqueuedCount());
+        // the discarded event's drain is reused: no more drains than queued events
+        assertEquals(2, pendingDrains.size());
+        drain();
+        assertEquals("[{\"text\":\"2\"}, {\"text\":\"3\"}]", delivered.toString());
+    }
+
+    public void testDropByType() throws Exception {
+        BoundedStreamDispatcher dispatcher = newDispatcher("dropByType");
+        dispatcher.invokeLater(event("{\"limit\":{\"track\":1}}"));
+        dispatcher.invokeLater(event("{\"text\":\"1\"}"));
+        // full: droppable events are discarded on arrival
+        dispatcher.invokeLater(event("{\"scrub_geo\":{}}"));
+        assertEquals(1, dispatcher.getDroppedByTypeCount());
+        // full: a status replaces the queued limit notice
+        dispatcher.invokeLater(event("{\"text\":\"2\"}"));
+        assertEquals(2, dispatcher.getDroppedByTypeCount());
+        assertEquals(0, dispatcher.getBlockedCount());
+        drain();
+        assertEquals("[{\"text\":\"1\"}, {\"text\":\"2\"}]", delivered.toString());
+    }
+
+    public void testBlock() throws Exception {
+        final BoundedStreamDispatcher dispatcher = newDispatcher("block");
+        dispatcher.invokeLater(event("{\"text\":\"1\"}"));
+        dispatcher.invokeLater(event("{\"text\":\"2\"}"));
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                dispatcher.invokeLater(event("{\"text\":\"3\"}"));
+            }
+        };
+        reader.start();
+        reader.join(200);
+        assertTrue("reader should be waiting for room in the queue", reader.isAlive());
+        assertEquals(1, dispatcher.getBlockedCount());
+        synchronized (pendingDrains) {
+            pendingDrains.remove(0).run();
+        }
+        reader.join(1000);
+        assertFalse(reader.isAlive());
+        drain();
+        assertEquals("[{\"text\":\"1\"}, {\"text\":\"2\"}, {\"text\":\"3\"}]", delivered.toString());
+    }
+
+    private BoundedStreamDispatcher newDispatcher(String policy) {
+        Configuration conf = new ConfigurationBuilder()
+                .setStreamQueueCapacity(2)
+                .setStreamQueueOverflowPolicy(policy)
+                .build();
+        return new BoundedStreamDispatcher(new Dispatcher() {
+            @Override
+            public void invokeLater(Runnable task) {
+                synchronized (pendingDrains) {
+                    pendingDrains.add(task);
+                }
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        }, conf);
+    }
+
+    private void drain() {
+        while (true) {
+            Runnable drain;
+            synchronized (pendingDrains) {
+                if (pendingDrains.isEmpty()) {
+                    return;
+                }
+                drain = pendingDrains.remove(0);
+            }
+            drain.run();
+        }
+    }
+
+    private Runnable event(final String line) {
+        return stream.new StreamEvent(line) {
+            @Override
+            public void run() {
+                delivered.add(line);
+            }
+        };
+    }
+}
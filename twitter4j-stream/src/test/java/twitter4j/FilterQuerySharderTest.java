@@ -0,0 +1,164 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FilterQuerySharderTest extends TestCase {
+    public FilterQuerySharderTest(String name) {
+        super(name);
+    }
+
+    public void testSmallQueryIsNotSplit() throws Exception {
+        FilterQuery query = new FilterQuery().follow(1, 2).track("a", "b").language("en");
+        List<FilterQuery> shards = new FilterQuerySharder(5000, 400, 25).shard(query);
+        assertEquals(1, shards.size());
+        assertTrue(Arrays.equals(new long[]{1, 2}, shards.get(0).getFollow()));
+        assertTrue(Arrays.equals(new String[]{"a", "b"}, shards.get(0).getTrack()));
+        assertTrue(Arrays.equals(new String[]{"en"}, shards.get(0).getLanguage()));
+    }
+
+    public void testSplitsWithinLimits() throws Exception {
+        FilterQuerySharder sharder = new FilterQuerySharder(3, 2, 1);
+        FilterQuery query = new FilterQuery().follow(1, 2, 3, 4, 5, 6, 7).track("a", "b", "c")
+                .locations(new double[]{0, 0}, new double[]{1, 1}, new double[]{2, 2}, new double[]{3, 3});
+        List<FilterQuery> shards = sharder.shard(query);
+        // 7 ids need 3 shards
+        assertEquals(3, shards.size());
+        assertTrue(Arrays.equals(new long[]{1, 2, 3}, shards.get(0).getFollow()));
+        assertTrue(Arrays.equals(new long[]{7}, shards.get(2).getFollow()));
+        assertTrue(Arrays.equals(new String[]{"a", "b"}, shards.get(0).getTrack()));
+        assertTrue(Arrays.equals(new String[]{"c"}, shards.get(1).getTrack()));
+        assertNull(shards.get(2).getTrack());
+        // boxes are kept as pairs of points
+        assertEquals(2, shards.get(0).getLocations().length);
+        assertEquals(3d, shards.get(1).getLocations()[1][0]);
+    }
+
+    public void testRebalanceKeepsUnchangedShards() throws Exception {
+        FilterQuerySharder sharder = new FilterQuerySharder(3, 400, 25);
+        List<FilterQuery> before = sharder.shard(new FilterQuery().follow(1, 2, 3, 4, 5, 6, 7, 8, 9));
+        assertEquals(3, before.size());
+        // 5 removed, 10 added: only the second shard changes
+        List<FilterQuery> after = sharder.shard(new FilterQuery().follow(1, 2, 3, 4, 6, 7, 8, 9, 10));
+        assertEquals(3, after.size());
+        assertEquals(before.get(0), after.get(0));
+        assertFalse(before.get(1).equals(after.get(1)));
+        assertTrue(Arrays.equals(new long[]{4, 6, 10}, after.get(1).getFollow()));
+        assertEquals(before.get(2), after.get(2));
+
+        // shrinking below the capacity of the shards compacts them
+        List<FilterQuery> compacted = sharder.shard(new FilterQuery().follow(1, 6, 9));
+        assertEquals(1, compacted.size());
+        assertTrue(Arrays.equals(new long[]{1, 6, 9}, compacted.get(0).getFollow()));
+    }
+
+    public void testDeduplicatesAcrossShards() throws Exception {
+        String status = "{\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\",\"id\":%d,\"text\":\"a\""
+                + ",\"user\":{\"id\":1,\"screen_name\":\"a\",\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\"}}\r\n";
+        StatusDeduplicator deduplicator = new StatusDeduplicator(1024, 0.001, 60000);
+        final List<Long> received = new ArrayList<Long>();
+        StatusListener listener = new StatusAdapter() {
+            @Override
+            public void onStatus(Status status) {
+                received.add(status.getId());
+            }
+        };
+        Dispatcher synchronous = new Dispatcher() {
+            @Override
+            public void invokeLater(Runnable task) {
+                task.run();
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        };
+        StatusStreamImpl shard1 = new StatusStreamImpl(synchronous, new ByteArrayInputStream(
+                (String.format(status, 1) + String.format(status, 2)).getBytes("UTF-8")), new ConfigurationBuilder().build());
+        StatusStreamImpl shard2 = new StatusStreamImpl(synchronous, new ByteArrayInputStream(
+                (String.format(status, 2) + String.format(status, 3)).getBytes("UTF-8")), new ConfigurationBuilder().build());
+        shard1.setDeduplicator(deduplicator);
+        shard2.setDeduplicator(deduplicator);
+        shard1.next(listener);
+        shard2.next(listener);
+        shard1.next(listener);
+        shard2.next(listener);
+        assertEquals("[1, 2, 3]", received.toString());
+    }
+
+    public void testShardedFilterStream() throws Exception {
+        TwitterStreamImpl twitterStream = (TwitterStreamImpl) new TwitterStreamFactory(new ConfigurationBuilder()
+                .setStreamShardingEnabled(true).setStreamShardMaxTrack(2)
+                .setOAuthConsumerKey("key").setOAuthConsumerSecret("secret")
+                .setOAuthAccessToken("token").setOAuthAccessTokenSecret("secret")
+                .setStreamBaseURL("https://127.0.0.1:1/").build()).getInstance();
+        twitterStream.addListener(new StatusAdapter());
+        try {
+            twitterStream.filter(new FilterQuery().track("a", "b", "c"));
+            List<FilterQuery> shards = twitterStream.getFilterShards();
+            assertEquals(2, shards.size());
+            twitterStream.filter(new FilterQuery().track("a", "b", "d"));
+            List<FilterQuery> rebalanced = twitterStream.getFilterShards();
+            assertEquals(2, rebalanced.size());
+            assertEquals(shards.get(0), rebalanced.get(0));
+            assertTrue(Arrays.equals(new String[]{"d"}, rebalanced.get(1).getTrack()));
+        } finally {
+            twitterStream.cleanUp();
+        }
+        assertEquals(0, twitterStream.getFilterShards().size());
+    }
+
+    public void testCleanedUpHandlerIsNotClosedAgainWhenSharding() throws Exception {
+        final TwitterStreamImpl twitterStream = (TwitterStreamImpl) new TwitterStreamFactory(new ConfigurationBuilder()
+                .setStreamShardingEnabled(true).setStreamShardMaxTrack(2)
+                .setOAuthConsumerKey("key").setOAuthConsumerSecret("secret")
+                .setOAuthAccessToken("token").setOAuthAccessTokenSecret("secret")
+                .setStreamBaseURL("https://127.0.0.1:1/").build()).getInstance();
+        twitterStream.addListener(new StatusAdapter());
+        final AtomicInteger closed = new AtomicInteger();
+        try {
+            twitterStream.startHandler(twitterStream.new TwitterStreamConsumer(TwitterStreamImpl.Mode.status) {
+                @Override
+                StatusStream getStream() throws TwitterException {
+                    throw new TwitterException("not connected");
+                }
+
+                @Override
+                public synchronized void close() {
+                    closed.incrementAndGet();
+                    super.close();
+                }
+            });
+            twitterStream.cleanUp();
+            assertEquals(1, closed.get());
+            twitterStream.filter(new FilterQuery().track("a", "b", "c"));
+            assertEquals(2, twitterStream.getFilterShards().size());
+            assertEquals(1, closed.get());
+        } finally {
+            twitterStream.cleanUp();
+        }
+        assertEquals(1, closed.get());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FilterUpdateCoalescerTest extends TestCase {
+    private final List<FilterQuery> appliedQueries = new ArrayList<FilterQuery>();
+    private final List<Long> appliedAt = new ArrayList<Long>();
+    private FilterUpdateCoalescer coalescer;
+
+    public FilterUpdateCoalescerTest(String name) {
+        super(name);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        coalescer = new FilterUpdateCoalescer(new ConfigurationBuilder()
+                .setStreamFilterUpdateWindow(100)
+                .setStreamFilterMinReconnectInterval(500)
+                .build(), new FilterUpdateCoalescer.Target() {
+            @Override
+            public void filter(FilterQuery query) {
+                synchronized (appliedQueries) {
+                    appliedQueries.add(query);
+                    appliedAt.add(System.currentTimeMillis());
+                }
+                coalescer.applied(query);
+            }
+        });
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        coalescer.shutdown();
+        super.tearDown();
+    }
+
+    public void testBurstAppliesLatestQuery() throws Exception {
+        coalescer.update(new FilterQuery("a"));
+        coalescer.update(new FilterQuery("a", "b"));
+        coalescer.update(new FilterQuery("a", "b", "c"));
+        awaitApplied(1);
+        Thread.sleep(200);
+        assertEquals(1, appliedQueries.size());
+        assertEquals(new FilterQuery("a", "b", "c"), appliedQueries.get(0));
+        assertEquals(3, coalescer.getRequestedCount());
+        assertEquals(2, coalescer.getMergedCount());
+        assertEquals(1, coalescer.getAppliedCount());
+    }
+
+    public void testMinReconnectInterval() throws Exception {
+        coalescer.update(new FilterQuery("a"));
+        awaitApplied(1);
+        coalescer.update(new FilterQuery("b"));
+        awaitApplied(2);
+        assertTrue(appliedAt.get(1) - appliedAt.get(0) >= 450);
+        assertEquals(new FilterQuery("b"), appliedQueries.get(1));
+    }
+
+    public void testUnchangedQueryDoesNotReconnect() throws Exception {
+        coalescer.applied(new FilterQuery("a"));
+        coalescer.update(new FilterQuery("b"));
+        coalescer.update(new FilterQuery("a"));
+        Thread.sleep(800);
+        assertEquals(0, appliedQueries.size());
+        assertEquals(1, coalescer.getUnchangedCount());
+        assertEquals(1, coalescer.getMergedCount());
+    }
+
+    public void testQueryModifiedAfterUpdate() throws Exception {
+        String[] track = {"a"};
+        FilterQuery query = new FilterQuery().track(track);
+        coalescer.update(query);
+        awaitApplied(1);
+        // the same instance, modified in place and through its builder methods
+        track[0] = "b";
+        coalescer.update(query);
+        awaitApplied(2);
+        query.track("b", "c");
+        coalescer.update(query);
+        awaitApplied(3);
+        assertEquals(new FilterQuery("a"), appliedQueries.get(0));
+        assertEquals(new FilterQuery("b"), appliedQueries.get(1));
+        assertEquals(new FilterQuery("b", "c"), appliedQueries.get(2));
+        assertEquals(0, coalescer.getUnchangedCount());
+    }
+
+    public void testCancel() throws Exception {
+        coalescer.update(new FilterQuery("a"));
+        coalescer.cancel();
+        Thread.sleep(300);
+        assertEquals(0, appliedQueries.size());
+        assertEquals(0, coalescer.getAppliedCount());
+    }
+
+    private void awaitApplied(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            synchronized (appliedQueries) {
+                if (appliedQueries.size() >= count) {
+                    return;
+                }
+            }
+            Thread.sleep(10);
+        }
+        fail("expected " + count + " update(s) to be applied");
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures allocation per status with and without stream.flyweight.<br>
+ * usage: java twitter4j.FlyweightStatusBenchmark [messages] [status stream capture, one message per line]<br>
+ * Without a capture, the statuses of streamingapi-testcase.json are replayed.
+ */
+public class FlyweightStatusBenchmark {
+    public static void main(String[] args) throws Exception {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        InputStream is = args.length > 1 ? new FileInputStream(args[1])
+                : FlyweightStatusBenchmark.class.getResourceAsStream("/streamingapi-testcase.json");
+        List<String> capture = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(is, "UTF-8"));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith("{\"text\"") || line.startsWith("{\"created_at\"")) {
+                capture.add(line);
+            }
+        }
+        reader.close();
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < messages; i++) {
+            buf.append(capture.get(i % capture.size())).append("\r\n");
+        }
+        byte[] bytes = buf.toString().getBytes("UTF-8");
+        System.out.println("messages=" + messages + " capture=" + capture.size() + " statuses, " + bytes.length / messages + " bytes/message");
+        for (int round = 0; round < 3; round++) {
+            // first round warms up the JIT
+            boolean print = round > 0;
+            run(false, bytes, messages, print);
+            run(true, bytes, messages, print);
+        }
+    }
+
+    private static void run(boolean flyweight, byte[] bytes, int messages, boolean print) throws Exception {
+        StatusStreamImpl stream = new StatusStreamImpl(new Dispatcher() {
+            @Override
+            public void invokeLater(Runnable task) {
+                task.run();
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        }, new ByteArrayInputStream(bytes), new ConfigurationBuilder().setStreamFlyweight(flyweight).build());
+        final long[] checksum = new long[1];
+        StreamListener[] listeners = {new StatusAdapter() {
+            @Override
+            public void onStatus(Status status) {
+                checksum[0] += status.getId() + status.getUser().getId();
+            }
+        }};
+        System.gc();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long collectionsBefore = collections();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long begin = System.nanoTime();
+        for (int i = 0; i < messages; i++) {
+            stream.handleNextElement(listeners, StatusStreamImpl.EMPTY);
+        }
+        long elapsed = System.nanoTime() - begin;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        long collections = collections() - collectionsBefore;
+        if (print) {
+            System.out.println(String.format("flyweight=%-5s %,10d messages/sec %,8d bytes allocated/message %,4d collections checksum=%d"
+                    , flyweight, (long) (messages / (elapsed / 1000000000d)), allocated / messages, collections, checksum[0]));
+        }
+    }
+
+    private static long collections() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+}
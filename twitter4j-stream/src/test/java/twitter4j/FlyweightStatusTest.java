@@ -0,0 +1,101 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class FlyweightStatusTest extends TestCase {
+    private static final String FIRST = "{\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\",\"id\":1,\"text\":\"first\""
+            + ",\"lang\":\"en\",\"quoted_status_id\":10,\"withheld_in_countries\":[\"DE\"]"
+            + ",\"entities\":{\"hashtags\":[{\"text\":\"t4j\",\"indices\":[0,4]}]}"
+            + ",\"user\":{\"id\":100,\"screen_name\":\"alice\",\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\""
+            + ",\"withheld_in_countries\":[\"FR\"]}}";
+    private static final String SECOND = "{\"created_at\":\"Sun Dec 20 16:01:35 +0000 2009\",\"id\":2,\"text\":\"second\""
+            + ",\"user\":{\"id\":200,\"screen_name\":\"bob\",\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\"}}";
+
+    private final Dispatcher synchronous = new Dispatcher() {
+        @Override
+        public void invokeLater(Runnable task) {
+            task.run();
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    };
+
+    public FlyweightStatusTest(String name) {
+        super(name);
+    }
+
+    public void testReusesStatusAndUser() throws Exception {
+        List<Status> received = new ArrayList<Status>();
+        List<User> users = new ArrayList<User>();
+        List<String> texts = new ArrayList<String>();
+        consume(true, received, users, texts);
+        assertSame(received.get(0), received.get(1));
+        assertSame(users.get(0), users.get(1));
+        assertEquals("[first, second]", texts.toString());
+
+        // nothing is left over from the first status
+        Status status = received.get(1);
+        assertEquals(2L, status.getId());
+        assertNull(status.getLang());
+        assertEquals(-1L, status.getQuotedStatusId());
+        assertNull(status.getWithheldInCountries());
+        assertEquals(0, status.getHashtagEntities().length);
+        assertEquals(200L, status.getUser().getId());
+        assertEquals("bob", status.getUser().getScreenName());
+        assertNull(status.getUser().getWithheldInCountries());
+    }
+
+    public void testAllocatesByDefault() throws Exception {
+        List<Status> received = new ArrayList<Status>();
+        consume(false, received, new ArrayList<User>(), new ArrayList<String>());
+        assertNotSame(received.get(0), received.get(1));
+        assertEquals("first", received.get(0).getText());
+        assertEquals("en", received.get(0).getLang());
+        assertEquals("second", received.get(1).getText());
+    }
+
+    private void consume(boolean flyweight, final List<Status> received, final List<User> users
+            , final List<String> texts) throws Exception {
+        StatusStreamImpl stream = new StatusStreamImpl(synchronous
+                , new ByteArrayInputStream((FIRST + "\r\n" + SECOND + "\r\n").getBytes("UTF-8"))
+                , new ConfigurationBuilder().setStreamFlyweight(flyweight).build());
+        StatusListener listener = new StatusAdapter() {
+            @Override
+            public void onStatus(Status status) {
+                received.add(status);
+                users.add(status.getUser());
+                texts.add(status.getText());
+            }
+
+            @Override
+            public void onException(Exception ex) {
+                fail(ex.toString());
+            }
+        };
+        stream.next(listener);
+        stream.next(listener);
+    }
+}
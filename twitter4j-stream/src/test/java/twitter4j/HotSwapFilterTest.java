@@ -0,0 +1,144 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class HotSwapFilterTest extends TestCase {
+    private static final String STATUS = "{\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\",\"id\":%d,\"text\":\"a\""
+            + ",\"user\":{\"id\":1,\"screen_name\":\"a\",\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\"}}";
+
+    private final List<Long> received = Collections.synchronizedList(new ArrayList<Long>());
+    private final CountDownLatch first = new CountDownLatch(1);
+    private TwitterStreamImpl twitterStream;
+
+    public HotSwapFilterTest(String name) {
+        super(name);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        twitterStream = (TwitterStreamImpl) new TwitterStreamFactory(new ConfigurationBuilder()
+                .setStreamFilterHotSwap(true).build()).getInstance();
+        twitterStream.addListener(new StatusAdapter() {
+            @Override
+            public void onStatus(Status status) {
+                received.add(status.getId());
+                first.countDown();
+            }
+        });
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        twitterStream.cleanUp();
+        super.tearDown();
+    }
+
+    public void testOldConnectionClosedAfterFirstMessage() throws Exception {
+        TwitterStreamImpl.TwitterStreamConsumer running = consumer(1L);
+        twitterStream.startHandler(running);
+        assertTrue(first.await(5, TimeUnit.SECONDS));
+
+        TwitterStreamImpl.TwitterStreamConsumer silent = consumer();
+        twitterStream.swapHandler(silent);
+        Thread.sleep(200);
+        // nothing received on the new connection yet: the running one is kept
+        assertFalse(running.isClosed());
+
+        TwitterStreamImpl.TwitterStreamConsumer replacing = consumer(1L, 2L);
+        twitterStream.swapHandler(replacing);
+        running.join(5000);
+        assertFalse(running.isAlive());
+        // superseded before receiving anything
+        assertTrue(silent.isClosed());
+        assertFalse(replacing.isClosed());
+        awaitReceived(2);
+        // status 1 was received on both connections
+        assertEquals("[1, 2]", received.toString());
+    }
+
+    public void testStartsDirectlyWithoutRunningConnection() throws Exception {
+        TwitterStreamImpl.TwitterStreamConsumer consumer = consumer(1L);
+        twitterStream.swapHandler(consumer);
+        assertTrue(first.await(5, TimeUnit.SECONDS));
+        assertFalse(consumer.isClosed());
+    }
+
+    private void awaitReceived(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (received.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * @param ids statuses delivered by the connection, which then stays open without further messages
+     */
+    private TwitterStreamImpl.TwitterStreamConsumer consumer(final long... ids) {
+        return twitterStream.new TwitterStreamConsumer(TwitterStreamImpl.Mode.status) {
+            @Override
+            StatusStream getStream() throws TwitterException {
+                StringBuilder lines = new StringBuilder();
+                for (long id : ids) {
+                    lines.append(String.format(STATUS, id)).append("\r\n");
+                }
+                try {
+                    InputStream is = new SequenceInputStream(new ByteArrayInputStream(lines.toString().getBytes("UTF-8"))
+                            , new OpenInputStream());
+                    return new StatusStreamImpl(StreamPublisher.CONSUMER_THREAD, is, twitterStream.getConfiguration());
+                } catch (IOException e) {
+                    throw new TwitterException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Blocks reading until closed, like an idle connection.
+     */
+    private static final class OpenInputStream extends InputStream {
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public int read() throws IOException {
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return -1;
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+}
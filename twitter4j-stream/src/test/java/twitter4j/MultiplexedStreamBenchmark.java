@@ -0,0 +1,154 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares a thread per connection with StreamMultiplexer on many simulated local streams.<br>
+ * usage: java twitter4j.MultiplexedStreamBenchmark [streams] [messages per stream] [selector threads]<br>
+ * Each stream is a loopback socket. A single writer sends a status to every stream in turn, and the time until all of
+ * them are delivered to the listener is measured along with the number of live threads and the heap in use.
+ */
+public class MultiplexedStreamBenchmark {
+    private static final String STATUS = "{\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\",\"id\":%d,\"text\":\"a\""
+            + ",\"user\":{\"id\":1,\"screen_name\":\"a\",\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\"}}\r\n";
+
+    public static void main(String[] args) throws Exception {
+        int streams = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int messages = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int selectorThreads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        Configuration conf = new ConfigurationBuilder().setStreamMultiplexerSelectorThreads(selectorThreads).build();
+        System.out.println("streams=" + streams + " messages/stream=" + messages + " selectorThreads=" + selectorThreads);
+        for (int round = 0; round < 3; round++) {
+            // first round warms up the JIT
+            boolean print = round > 0;
+            run(false, conf, streams, messages, print);
+            run(true, conf, streams, messages, print);
+        }
+    }
+
+    private static void run(boolean multiplexed, Configuration conf, int streams, int messages, boolean print) throws Exception {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.socket().bind(new InetSocketAddress("127.0.0.1", 0));
+        List<SocketChannel> clients = new ArrayList<SocketChannel>(streams);
+        List<SocketChannel> peers = new ArrayList<SocketChannel>(streams);
+        for (int i = 0; i < streams; i++) {
+            clients.add(SocketChannel.open(server.socket().getLocalSocketAddress()));
+            peers.add(server.accept());
+        }
+        final AtomicLong delivered = new AtomicLong();
+        StatusListener listener = new StatusAdapter() {
+            @Override
+            public void onStatus(Status status) {
+                delivered.incrementAndGet();
+            }
+        };
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        StreamMultiplexer multiplexer = null;
+        Dispatcher dispatcher = null;
+        final List<Thread> readers = new ArrayList<Thread>();
+        if (multiplexed) {
+            multiplexer = new StreamMultiplexer(conf);
+            for (SocketChannel client : clients) {
+                multiplexer.register(client, listener);
+            }
+            for (SocketChannel peer : peers) {
+                write(peer, "HTTP/1.1 200 OK\r\n\r\n");
+            }
+        } else {
+            // as TwitterStream does, with the response header consumed by the HTTP client
+            dispatcher = new DispatcherFactory(conf).getInstance();
+            final StreamListener[] listeners = {listener};
+            for (SocketChannel client : clients) {
+                final StatusStreamImpl stream = new StatusStreamImpl(dispatcher, client.socket().getInputStream(), conf);
+                Thread reader = new Thread() {
+                    @Override
+                    public void run() {
+                        try {
+                            while (true) {
+                                stream.next(listeners, StatusStreamImpl.EMPTY);
+                            }
+                        } catch (Exception closed) {
+                            // ends with the socket
+                        }
+                    }
+                };
+                reader.setDaemon(true);
+                reader.start();
+                readers.add(reader);
+            }
+        }
+        System.gc();
+        Thread.sleep(200);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int threadCount = threads.getThreadCount() - threadsBefore;
+        long heap = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+
+        long begin = System.nanoTime();
+        long id = 0;
+        for (int i = 0; i < messages; i++) {
+            for (SocketChannel peer : peers) {
+                write(peer, String.format(STATUS, ++id));
+            }
+        }
+        long expected = (long) streams * messages;
+        while (delivered.get() < expected) {
+            Thread.sleep(1);
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        if (multiplexer != null) {
+            multiplexer.shutdown();
+        }
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+        for (SocketChannel peer : peers) {
+            peer.close();
+        }
+        for (SocketChannel client : clients) {
+            client.close();
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        server.close();
+        if (print) {
+            System.out.println(String.format("multiplexed=%-5s %,10d messages/sec %,6d threads %,8d KB heap after connecting"
+                    , multiplexed, (long) (expected / (elapsed / 1000000000d)), threadCount, heap / 1024));
+        }
+    }
+
+    private static void write(SocketChannel channel, String content) throws Exception {
+        ByteBuffer bytes = ByteBuffer.wrap(content.getBytes("UTF-8"));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+}
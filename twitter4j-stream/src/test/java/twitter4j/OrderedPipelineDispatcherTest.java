@@ -0,0 +1,172 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OrderedPipelineDispatcherTest extends TestCase {
+    private ExecutorService executor;
+    private final Dispatcher pool = new Dispatcher() {
+        @Override
+        public void invokeLater(Runnable task) {
+            executor.execute(task);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    };
+
+    public OrderedPipelineDispatcherTest(String name) {
+        super(name);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        executor.shutdownNow();
+        super.tearDown();
+    }
+
+    public void testDeliversInSequence() throws Exception {
+        OrderedPipelineDispatcher dispatcher = newDispatcher(8);
+        StatusStreamBase stream = new StatusStreamImpl(dispatcher, new ByteArrayInputStream(new byte[0])
+                , new ConfigurationBuilder().build());
+        final List<Integer> delivered = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicInteger concurrentDeliveries = new AtomicInteger();
+        final AtomicInteger maxConcurrentDeliveries = new AtomicInteger();
+        final Random random = new Random(1);
+        int count = 500;
+        final CountDownLatch done = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            final int sequence = i;
+            final int prepareNanos = random.nextInt(200000);
+            dispatcher.invokeLater(stream.new StreamEvent(String.valueOf(i)) {
+                @Override
+                void prepare() {
+                    long until = System.nanoTime() + prepareNanos;
+                    while (System.nanoTime() < until) {
+                        Thread.yield();
+                    }
+                }
+
+                @Override
+                public void run() {
+                    int concurrent = concurrentDeliveries.incrementAndGet();
+                    if (concurrent > maxConcurrentDeliveries.get()) {
+                        maxConcurrentDeliveries.set(concurrent);
+                    }
+                    delivered.add(sequence);
+                    concurrentDeliveries.decrementAndGet();
+                    done.countDown();
+                }
+            });
+            assertTrue(dispatcher.getInFlight() <= 8);
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, (int) delivered.get(i));
+        }
+        assertEquals(1, maxConcurrentDeliveries.get());
+        assertEquals(0, dispatcher.getInFlight());
+    }
+
+    public void testStatusStream() throws Exception {
+        StringBuilder lines = new StringBuilder();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream("/streamingapi-testcase.json"), "UTF-8"));
+        List<String> testcase = new ArrayList<String>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            testcase.add(line);
+        }
+        reader.close();
+        int repeat = 50;
+        for (int i = 0; i < repeat; i++) {
+            for (String event : testcase) {
+                lines.append(event).append('\n');
+            }
+        }
+        OrderedPipelineDispatcher dispatcher = newDispatcher(16);
+        StatusStream stream = new StatusStreamImpl(dispatcher
+                , new ByteArrayInputStream(lines.toString().getBytes("UTF-8")), new ConfigurationBuilder().build());
+        RecordingListener listener = new RecordingListener();
+        for (int i = 0; i < repeat * testcase.size(); i++) {
+            stream.next(listener);
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(repeat * testcase.size(), listener.events.size());
+        for (int i = 0; i < listener.events.size(); i++) {
+            assertEquals(listener.events.get(i % testcase.size()), listener.events.get(i));
+        }
+        assertEquals("delete:6832057002", listener.events.get(0));
+        assertEquals("limit:121564", listener.events.get(3));
+    }
+
+    private OrderedPipelineDispatcher newDispatcher(int window) {
+        return new OrderedPipelineDispatcher(pool, new ConfigurationBuilder().setStreamPipelineWindow(window).build());
+    }
+
+    private static final class RecordingListener extends StatusAdapter {
+        private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public void onStatus(Status status) {
+            events.add("status:" + status.getText());
+        }
+
+        @Override
+        public void onDeletionNotice(StatusDeletionNotice statusDeletionNotice) {
+            events.add("delete:" + statusDeletionNotice.getStatusId());
+        }
+
+        @Override
+        public void onTrackLimitationNotice(int numberOfLimitedStatuses) {
+            events.add("limit:" + numberOfLimitedStatuses);
+        }
+
+        @Override
+        public void onScrubGeo(long userId, long upToStatusId) {
+            events.add("scrub_geo:" + userId);
+        }
+
+        @Override
+        public void onException(Exception ex) {
+            events.add("exception:" + ex);
+        }
+    }
+}
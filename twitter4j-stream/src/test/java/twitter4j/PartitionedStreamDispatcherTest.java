@@ -0,0 +1,144 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class PartitionedStreamDispatcherTest extends TestCase {
+    private StatusStreamBase stream;
+
+    public PartitionedStreamDispatcherTest(String name) {
+        super(name);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        stream = new StatusStreamImpl(null, new ByteArrayInputStream(new byte[0]), new ConfigurationBuilder().build());
+    }
+
+    public void testPartitionKey() throws Exception {
+        assertEquals(6253282L, PartitionedStreamDispatcher.partitionKey(
+                "{\"created_at\":\"Tue Apr 22 21:49:34 +0000 2008\",\"id\":1,\"text\":\"a \\\"quoted\\\" {text}\","
+                        + "\"entities\":{\"user_mentions\":[{\"id\":2}]},\"user\":{\"name\":\"x\",\"id\":6253282},"
+                        + "\"retweeted_status\":{\"user\":{\"id\":3}}}"));
+        // nested users don't matter
+        assertEquals(4L, PartitionedStreamDispatcher.partitionKey(
+                "{\"retweeted_status\":{\"user\":{\"id\":3}},\"user\":{\"id\":4}}"));
+        assertEquals(3L, PartitionedStreamDispatcher.partitionKey(
+                "{\"delete\":{\"status\":{\"id\":1234,\"id_str\":\"1234\",\"user_id\":3,\"user_id_str\":\"3\"}}}"));
+        assertEquals(14090452L, PartitionedStreamDispatcher.partitionKey(
+                "{\"scrub_geo\":{\"user_id\":14090452,\"user_id_str\":\"14090452\",\"up_to_status_id\":23260136625}}"));
+        assertEquals(5L, PartitionedStreamDispatcher.partitionKey(
+                "{\"event\":\"favorite\",\"source\":{\"id\":5},\"target\":{\"id\":6}}"));
+        assertEquals(7L, PartitionedStreamDispatcher.partitionKey(
+                "{\"for_user\":\"7\",\"message\":{\"user\":{\"id\":8}}}"));
+        assertEquals(5L, PartitionedStreamDispatcher.partitionKey(
+                "{\"target\":{\"id\":6},\"source\":{\"id\":5},\"event\":\"follow\"}"));
+        // the client of a status
+        assertEquals(-1L, PartitionedStreamDispatcher.partitionKey("{\"text\":\"a\",\"source\":\"web\"}"));
+        assertEquals(-1L, PartitionedStreamDispatcher.partitionKey("{\"limit\":{\"track\":1234}}"));
+        assertEquals(-1L, PartitionedStreamDispatcher.partitionKey("{\"user\":"));
+        assertEquals(-1L, PartitionedStreamDispatcher.partitionKey(""));
+    }
+
+    public void testPartitionKeyOfCapturedStatuses() throws Exception {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                PartitionedStreamDispatcherTest.class.getResourceAsStream("/streamingapi-testcase.json"), "UTF-8"));
+        int statuses = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            JSONObject json = new JSONObject(line);
+            if (json.has("user")) {
+                // "source" comes first, as a string
+                assertTrue(line.indexOf("\"source\"") < line.indexOf("\"user\""));
+                assertEquals(json.getJSONObject("user").getLong("id"), PartitionedStreamDispatcher.partitionKey(line));
+                statuses++;
+            }
+        }
+        reader.close();
+        assertEquals(3, statuses);
+    }
+
+    public void testLaneOf() throws Exception {
+        assertEquals(0, PartitionedStreamDispatcher.laneOf(-1, 4));
+        int[] counts = new int[4];
+        for (long id = 1000; id < 5000; id++) {
+            counts[PartitionedStreamDispatcher.laneOf(id, 4)]++;
+        }
+        for (int count : counts) {
+            assertTrue("lanes should be evenly used: " + count, count > 800);
+        }
+    }
+
+    public void testPerUserOrder() throws Exception {
+        PartitionedStreamDispatcher dispatcher = new PartitionedStreamDispatcher(new ConfigurationBuilder()
+                .setStreamPartitionLanes(4)
+                .setStreamPartitionLaneCapacity(8)
+                .setDaemonEnabled(true)
+                .build());
+        int users = 16;
+        int perUser = 200;
+        final Map<Long, List<Integer>> received = new HashMap<Long, List<Integer>>();
+        final CountDownLatch done = new CountDownLatch(users * perUser);
+        for (int i = 0; i < perUser; i++) {
+            for (long user = 0; user < users; user++) {
+                final long userId = user;
+                final int sequence = i;
+                dispatcher.invokeLater(stream.new StreamEvent("{\"user\":{\"id\":" + user + "}}") {
+                    @Override
+                    public void run() {
+                        synchronized (received) {
+                            List<Integer> list = received.get(userId);
+                            if (list == null) {
+                                list = new ArrayList<Integer>();
+                                received.put(userId, list);
+                            }
+                            list.add(sequence);
+                        }
+                        done.countDown();
+                    }
+                });
+            }
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (List<Integer> list : received.values()) {
+            for (int i = 0; i < perUser; i++) {
+                assertEquals(i, (int) list.get(i));
+            }
+        }
+        dispatcher.shutdown();
+        long total = 0;
+        for (int lane = 0; lane < dispatcher.getLaneCount(); lane++) {
+            total += dispatcher.getDispatchedCount(lane);
+            assertTrue(dispatcher.getMaxQueueDepth(lane) <= 8);
+        }
+        assertEquals(users * perUser, total);
+        assertEquals(0, dispatcher.getQueueDepth(0));
+    }
+}
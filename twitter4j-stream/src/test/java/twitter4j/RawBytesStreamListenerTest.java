@@ -0,0 +1,123 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RawBytesStreamListenerTest extends TestCase {
+    private int dispatched = 0;
+    private final Dispatcher counter = new Dispatcher() {
+        @Override
+        public void invokeLater(Runnable task) {
+            dispatched++;
+            task.run();
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    };
+
+    public RawBytesStreamListenerTest(String name) {
+        super(name);
+    }
+
+    public void testPassThrough() throws Exception {
+        final List<String> received = new ArrayList<String>();
+        final Map<ByteBuffer, Boolean> views = new IdentityHashMap<ByteBuffer, Boolean>();
+        StatusStreamBase stream = new StatusStreamImpl(counter
+                , getClass().getResourceAsStream("/streamingapi-testcase.json"), new ConfigurationBuilder().build());
+        stream.setRawBytesStreamListeners(new RawBytesStreamListener[]{new RawBytesStreamListener() {
+            @Override
+            public void onMessage(ByteBuffer message) {
+                assertTrue(message.isReadOnly());
+                views.put(message, Boolean.TRUE);
+                byte[] bytes = new byte[message.remaining()];
+                message.get(bytes);
+                try {
+                    received.add(new String(bytes, "UTF-8"));
+                } catch (UnsupportedEncodingException e) {
+                    throw new AssertionError(e);
+                }
+            }
+
+            @Override
+            public void onException(Exception ex) {
+                fail(ex.getMessage());
+            }
+        }});
+        List<String> expected = readLines();
+        for (int i = 0; i < expected.size(); i++) {
+            stream.next(new StreamListener[0], new RawStreamListener[0]);
+        }
+        assertEquals(expected, received);
+        // neither decoded nor dispatched
+        assertEquals(0, dispatched);
+        // the view is reused across messages
+        assertEquals(1, views.size());
+    }
+
+    public void testAlongWithStatusListener() throws Exception {
+        final List<Integer> sizes = new ArrayList<Integer>();
+        final List<Status> statuses = new ArrayList<Status>();
+        StatusStreamBase stream = new StatusStreamImpl(counter
+                , getClass().getResourceAsStream("/streamingapi-testcase.json"), new ConfigurationBuilder().build());
+        stream.setRawBytesStreamListeners(new RawBytesStreamListener[]{new RawBytesStreamListener() {
+            @Override
+            public void onMessage(ByteBuffer message) {
+                sizes.add(message.remaining());
+            }
+
+            @Override
+            public void onException(Exception ex) {
+            }
+        }});
+        StatusListener listener = new StatusAdapter() {
+            @Override
+            public void onStatus(Status status) {
+                statuses.add(status);
+            }
+        };
+        stream.next(listener);
+        stream.next(listener);
+        assertEquals(2, sizes.size());
+        assertEquals(2, dispatched);
+        assertEquals("aaa minha irma ta enchendo aki querendo entra --'", statuses.get(0).getText());
+    }
+
+    private List<String> readLines() throws Exception {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream("/streamingapi-testcase.json"), "UTF-8"));
+        List<String> lines = new ArrayList<String>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        reader.close();
+        return lines;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class ReconnectPolicyTest extends TestCase {
+    public ReconnectPolicyTest(String name) {
+        super(name);
+    }
+
+    public void testFirstWaits() throws Exception {
+        DecorrelatedJitterReconnectPolicy policy = new DecorrelatedJitterReconnectPolicy(new ConfigurationBuilder().build());
+        assertEquals(250, policy.nextWait(-1, 1, 0));
+        assertEquals(10 * 1000, policy.nextWait(503, 1, 0));
+        assertEquals(60 * 1000, policy.nextWait(420, 1, 0));
+        assertEquals(60 * 1000, policy.nextWait(429, 1, 0));
+    }
+
+    public void testDecorrelatedJitter() throws Exception {
+        DecorrelatedJitterReconnectPolicy policy = new DecorrelatedJitterReconnectPolicy(new ConfigurationBuilder().build()
+                , new Random(1));
+        long wait = 0;
+        boolean varied = false;
+        for (int attempt = 1; attempt <= 20; attempt++) {
+            long next = policy.nextWait(503, attempt, wait);
+            assertTrue(next >= 10 * 1000);
+            assertTrue(next <= Math.max(10 * 1000, wait * 3));
+            assertTrue(next <= 240 * 1000);
+            varied |= attempt > 1 && next != Math.min(wait * 2, 240 * 1000);
+            wait = next;
+        }
+        assertTrue(varied);
+        // capped, including after a longer wait for another kind of failure
+        assertTrue(policy.nextWait(-1, 21, 960 * 1000) <= 16 * 1000);
+        assertTrue(policy.nextWait(420, 21, 960 * 1000) <= 960 * 1000);
+    }
+
+    public void testMaxAttemptsWithinWindow() throws Exception {
+        DecorrelatedJitterReconnectPolicy policy = new DecorrelatedJitterReconnectPolicy(new ConfigurationBuilder()
+                .setStreamReconnectMaxAttempts(2)
+                .setStreamReconnectAttemptWindow(60 * 1000)
+                .build());
+        long now = 1000000;
+        assertEquals(250, policy.nextWait(-1, 1, 0, now));
+        assertEquals(250, policy.nextWait(-1, 1, 0, now));
+        // the third reconnect waits for the first one to leave the window
+        assertEquals(60 * 1000 + 250, policy.nextWait(-1, 1, 0, now));
+        // later failures are not delayed once the window moved on
+        assertEquals(250, policy.nextWait(-1, 1, 0, now + 10 * 60 * 1000));
+    }
+
+    public void testGiveUp() throws Exception {
+        Configuration conf = new ConfigurationBuilder()
+                .setStreamReconnectPolicyImpl(GiveUpAfterTwoAttempts.class.getName())
+                .build();
+        TwitterStreamImpl twitterStream = (TwitterStreamImpl) new TwitterStreamFactory(conf).getInstance();
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        final List<Exception> exceptions = Collections.synchronizedList(new ArrayList<Exception>());
+        twitterStream.addListener(new StatusAdapter() {
+            @Override
+            public void onException(Exception ex) {
+                exceptions.add(ex);
+            }
+        });
+        twitterStream.addConnectionLifeCycleListener(new RecordingListener(events));
+        TwitterStreamImpl.TwitterStreamConsumer consumer = twitterStream.new TwitterStreamConsumer(TwitterStreamImpl.Mode.status) {
+            @Override
+            StatusStream getStream() throws TwitterException {
+                throw new TwitterException("connection refused");
+            }
+        };
+        consumer.start();
+        consumer.join(5000);
+        assertFalse(consumer.isAlive());
+        assertEquals("[disconnect, scheduled -1 1 0, scheduled -1 2 0, giveUp -1 3, cleanUp]", events.toString());
+        assertEquals(3, exceptions.size());
+    }
+
+    public static final class GiveUpAfterTwoAttempts implements ReconnectPolicy {
+        public GiveUpAfterTwoAttempts(Configuration conf) {
+        }
+
+        @Override
+        public long nextWait(int statusCode, int attempt, long previousWait) {
+            return attempt > 2 ? GIVE_UP : 0;
+        }
+    }
+
+    private static final class RecordingListener implements ConnectionLifeCycleListener, ReconnectListener {
+        private final List<String> events;
+
+        RecordingListener(List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void onConnect() {
+            events.add("connect");
+        }
+
+        @Override
+        public void onDisconnect() {
+            events.add("disconnect");
+        }
+
+        @Override
+        public void onCleanUp() {
+            events.add("cleanUp");
+        }
+
+        @Override
+        public void onReconnectScheduled(int statusCode, int attempt, long wait) {
+            events.add("scheduled " + statusCode + " " + attempt + " " + wait);
+        }
+
+        @Override
+        public void onGiveUp(int statusCode, int attempt) {
+            events.add("giveUp " + statusCode + " " + attempt);
+        }
+    }
+}
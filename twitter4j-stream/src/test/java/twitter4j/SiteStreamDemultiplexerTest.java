@@ -0,0 +1,234 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SiteStreamDemultiplexerTest extends TestCase {
+    public SiteStreamDemultiplexerTest(String name) {
+        super(name);
+    }
+
+    public void testUsersAreServedRoundRobin() throws Exception {
+        QueueDispatcher dispatcher = new QueueDispatcher();
+        SiteStreamDemultiplexer demultiplexer = new SiteStreamDemultiplexer(dispatcher);
+        List<String> delivered = new ArrayList<String>();
+        for (int i = 0; i < 5; i++) {
+            demultiplexer.submit(1, new Record(delivered, "1-" + i));
+        }
+        demultiplexer.submit(2, new Record(delivered, "2-0"));
+        demultiplexer.submit(3, new Record(delivered, "3-0"));
+        assertEquals(3, demultiplexer.getPendingUsers());
+        dispatcher.runAll();
+        // the busy user doesn't keep the others waiting, and its own events stay in order
+        assertEquals("[1-0, 2-0, 3-0, 1-1, 1-2, 1-3, 1-4]", delivered.toString());
+        assertEquals(0, demultiplexer.getPendingUsers());
+    }
+
+    public void testEventsOfAUserAreNeverConcurrent() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        SiteStreamDemultiplexer demultiplexer = new SiteStreamDemultiplexer(new Dispatcher() {
+            @Override
+            public void invokeLater(Runnable task) {
+                executor.execute(task);
+            }
+
+            @Override
+            public void shutdown() {
+                executor.shutdown();
+            }
+        });
+        final int users = 8;
+        final int events = 500;
+        final CountDownLatch done = new CountDownLatch(users * events);
+        final AtomicInteger[] running = new AtomicInteger[users];
+        final int[] lastSeen = new int[users];
+        final List<String> errors = Collections.synchronizedList(new ArrayList<String>());
+        for (int i = 0; i < users; i++) {
+            running[i] = new AtomicInteger();
+            lastSeen[i] = -1;
+        }
+        for (int seq = 0; seq < events; seq++) {
+            for (int user = 0; user < users; user++) {
+                final int u = user;
+                final int s = seq;
+                demultiplexer.submit(u, new Runnable() {
+                    @Override
+                    public void run() {
+                        if (running[u].incrementAndGet() != 1) {
+                            errors.add("concurrent delivery for " + u);
+                        }
+                        if (lastSeen[u] != s - 1) {
+                            errors.add("out of order for " + u + ": " + lastSeen[u] + " -> " + s);
+                        }
+                        lastSeen[u] = s;
+                        running[u].decrementAndGet();
+                        done.countDown();
+                    }
+                });
+            }
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(Collections.<String>emptyList(), errors);
+    }
+
+    public void testEventAwareDispatchersAreRejected() throws Exception {
+        ConfigurationBuilder[] rejected = {
+                new ConfigurationBuilder().setStreamPartitionLanes(4),
+                new ConfigurationBuilder().setStreamPipelineWindow(16),
+                new ConfigurationBuilder().setStreamQueueCapacity(16).setStreamQueueOverflowPolicy("dropByType"),
+                new ConfigurationBuilder().setStreamQueueCapacity(16).setStreamQueueOverflowPolicy("dropOldest")};
+        for (ConfigurationBuilder builder : rejected) {
+            try {
+                new TwitterStreamFactory(builder.setStreamSiteFairScheduling(true).build()).getInstance();
+                fail("fair scheduling accepted with an event aware dispatcher");
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+        TwitterStream twitterStream = new TwitterStreamFactory(new ConfigurationBuilder().setStreamSiteFairScheduling(true)
+                .setStreamQueueCapacity(16).setStreamQueueOverflowPolicy("block").build()).getInstance();
+        twitterStream.cleanUp();
+    }
+
+    public void testEnvelopeIsUnwrapped() throws Exception {
+        Configuration conf = new ConfigurationBuilder().setStreamSiteFairScheduling(true).build();
+        String stream = "{\"control\":{\"control_uri\":\"/1.1/site/c/01_225167_334389048B872A533002B34D73F8C29FD09EFC50\"}}\r\n"
+                + "{\"for_user\":6358482,\"message\":{\"friends\":[6377362,4933401]}}\r\n"
+                + "{\"for_user\":\"6358481\", \"message\" : {\"friends\":[42419133]} }\r\n"
+                + "{\"disconnect\":{\"code\":3,\"stream_name\":\"example\",\"reason\":\"control request\"}}\r\n";
+        QueueDispatcher dispatcher = new QueueDispatcher();
+        StreamController controller = new StreamController(conf);
+        SiteStreamsImpl siteStreams = new SiteStreamsImpl(dispatcher,
+                new ByteArrayInputStream(stream.getBytes("UTF-8")), conf, controller);
+        final List<String> received = new ArrayList<String>();
+        final List<String> raw = new ArrayList<String>();
+        StreamListener[] listeners = {new SiteStreamsAdapter() {
+            @Override
+            public void onFriendList(long forUser, long[] friendIds) {
+                received.add(forUser + ":" + friendIds.length);
+            }
+
+            @Override
+            public void onDisconnectionNotice(String line) {
+                received.add("disconnect");
+            }
+        }};
+        for (int i = 0; i < 4; i++) {
+            siteStreams.next(listeners, new RawStreamListener[0]);
+        }
+        assertTrue(controller.getControlURI(), controller.getControlURI().endsWith("/site/c/01_225167_334389048B872A533002B34D73F8C29FD09EFC50"));
+        dispatcher.runAll();
+        assertEquals("[6358482:2, 6358481:1, disconnect]", received.toString());
+
+        // raw stream listeners still receive the envelope
+        siteStreams = new SiteStreamsImpl(dispatcher,
+                new ByteArrayInputStream(stream.getBytes("UTF-8")), conf, controller);
+        received.clear();
+        RawStreamListener[] rawStreamListeners = {new RawStreamListener() {
+            @Override
+            public void onMessage(String rawString) {
+                raw.add(rawString);
+            }
+
+            @Override
+            public void onException(Exception ex) {
+            }
+        }};
+        for (int i = 0; i < 4; i++) {
+            siteStreams.next(listeners, rawStreamListeners);
+        }
+        dispatcher.runAll();
+        assertEquals("[6358482:2, 6358481:1, disconnect]", received.toString());
+        assertEquals(3, raw.size());
+        assertEquals("{\"for_user\":6358482,\"message\":{\"friends\":[6377362,4933401]}}", raw.get(0));
+    }
+
+    public void testControlURIWithOnlyRawBytesListeners() throws Exception {
+        Configuration conf = new ConfigurationBuilder().build();
+        String stream = "{\"control\":{\"control_uri\":\"/1.1/site/c/01_225167_334389048B872A533002B34D73F8C29FD09EFC50\"}}\r\n"
+                + "{\"for_user\":6358482,\"message\":{\"friends\":[6377362,4933401]}}\r\n";
+        StreamController controller = new StreamController(conf);
+        SiteStreamsImpl siteStreams = new SiteStreamsImpl(new QueueDispatcher(),
+                new ByteArrayInputStream(stream.getBytes("UTF-8")), conf, controller);
+        final AtomicInteger bytes = new AtomicInteger();
+        siteStreams.setRawBytesStreamListeners(new RawBytesStreamListener[]{new RawBytesStreamListener() {
+            @Override
+            public void onMessage(ByteBuffer message) {
+                bytes.incrementAndGet();
+            }
+
+            @Override
+            public void onException(Exception ex) {
+            }
+        }});
+        for (int i = 0; i < 2; i++) {
+            siteStreams.next(new StreamListener[0], new RawStreamListener[0]);
+        }
+        assertEquals(2, bytes.get());
+        assertNotNull(controller.getControlURI());
+        assertTrue(controller.getControlURI(), controller.getControlURI().endsWith("/site/c/01_225167_334389048B872A533002B34D73F8C29FD09EFC50"));
+    }
+
+    private static final class Record implements Runnable {
+        private final List<String> delivered;
+        private final String name;
+
+        Record(List<String> delivered, String name) {
+            this.delivered = delivered;
+            this.name = name;
+        }
+
+        @Override
+        public void run() {
+            delivered.add(name);
+        }
+    }
+
+    private static final class QueueDispatcher implements Dispatcher {
+        private final LinkedList<Runnable> tasks = new LinkedList<Runnable>();
+
+        @Override
+        public void invokeLater(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.removeFirst().run();
+            }
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StallDetectionTest extends TestCase {
+    private static final String STATUS = "{\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\",\"id\":1,\"text\":\"a\""
+            + ",\"user\":{\"id\":1,\"screen_name\":\"a\",\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\"}}";
+    private static final String STALL_WARNING = "{\"warning\":{\"code\":\"FALLING_BEHIND\""
+            + ",\"message\":\"Your connection is falling behind.\",\"percent_full\":60}}";
+
+    private final List<Exception> exceptions = Collections.synchronizedList(new ArrayList<Exception>());
+    private final AtomicInteger connections = new AtomicInteger();
+    private TwitterStreamImpl twitterStream;
+
+    public StallDetectionTest(String name) {
+        super(name);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (twitterStream != null) {
+            twitterStream.shutdown();
+        }
+        super.tearDown();
+    }
+
+    public void testReconnectsWhenNoBytesReceived() throws Exception {
+        TwitterStreamImpl.TwitterStreamConsumer consumer = start(new ConfigurationBuilder().setStreamStallTimeout(200), STATUS);
+        awaitConnections(2);
+        assertTrue(consumer.getStallCount() >= 1);
+        assertTrue(exceptions.get(0).getMessage(), exceptions.get(0).getMessage().contains("No data received"));
+    }
+
+    public void testKeepAlivesAreNotMessages() throws Exception {
+        ConfigurationBuilder cb = new ConfigurationBuilder().setStreamStallMessageTimeout(200);
+        TwitterStreamImpl.TwitterStreamConsumer consumer = start(cb, "", "", "");
+        awaitConnections(2);
+        assertTrue(consumer.getStallCount() >= 1);
+        assertTrue(exceptions.get(0).getMessage(), exceptions.get(0).getMessage().contains("No message received"));
+    }
+
+    public void testReconnectsOnStallWarning() throws Exception {
+        TwitterStreamImpl.TwitterStreamConsumer consumer = start(new ConfigurationBuilder().setStreamStallPercentFull(50)
+                , STALL_WARNING);
+        awaitConnections(2);
+        assertTrue(consumer.getStallCount() >= 1);
+        assertTrue(exceptions.get(0).getMessage(), exceptions.get(0).getMessage().contains("60% full"));
+    }
+
+    public void testHealth() throws Exception {
+        TwitterStreamImpl.TwitterStreamConsumer consumer = start(new ConfigurationBuilder(), STALL_WARNING);
+        awaitConnections(1);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (consumer.getLastStallWarningPercentFull() == -1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(60, consumer.getLastStallWarningPercentFull());
+        List<StreamHealth> health = twitterStream.getStreamHealth();
+        assertEquals(1, health.size());
+        assertSame(consumer, health.get(0));
+        assertEquals(0, health.get(0).getSecondsSinceLastMessage());
+        assertEquals(0, health.get(0).getStallCount());
+    }
+
+    /**
+     * @param lines messages of each connection, which then stays open without further bytes
+     */
+    private TwitterStreamImpl.TwitterStreamConsumer start(ConfigurationBuilder cb, final String... lines) {
+        twitterStream = (TwitterStreamImpl) new TwitterStreamFactory(cb.build()).getInstance();
+        twitterStream.addListener(new StatusAdapter() {
+            @Override
+            public void onException(Exception ex) {
+                exceptions.add(ex);
+            }
+        });
+        TwitterStreamImpl.TwitterStreamConsumer consumer = twitterStream.new TwitterStreamConsumer(TwitterStreamImpl.Mode.status) {
+            @Override
+            StatusStream getStream() throws TwitterException {
+                connections.incrementAndGet();
+                StringBuilder capture = new StringBuilder();
+                for (String line : lines) {
+                    capture.append(line).append("\r\n");
+                }
+                try {
+                    InputStream is = new SequenceInputStream(new ByteArrayInputStream(capture.toString().getBytes("UTF-8"))
+                            , new OpenInputStream());
+                    return new StatusStreamImpl(StreamPublisher.CONSUMER_THREAD, is, twitterStream.getConfiguration());
+                } catch (IOException e) {
+                    throw new TwitterException(e);
+                }
+            }
+        };
+        twitterStream.startHandler(consumer);
+        return consumer;
+    }
+
+    private void awaitConnections(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (connections.get() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(connections.get() >= count);
+    }
+
+    /**
+     * Blocks reading until closed, like an idle connection.
+     */
+    private static final class OpenInputStream extends InputStream {
+        private final Object lock = new Object();
+        private boolean closed;
+
+        @Override
+        public int read() throws IOException {
+            synchronized (lock) {
+                while (!closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public void close() {
+            synchronized (lock) {
+                closed = true;
+                lock.notifyAll();
+            }
+        }
+    }
+}
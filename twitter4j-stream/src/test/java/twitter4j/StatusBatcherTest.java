@@ -0,0 +1,148 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class StatusBatcherTest extends TestCase {
+    private final List<Runnable> dispatched = new ArrayList<Runnable>();
+    private final Dispatcher synchronous = new Dispatcher() {
+        @Override
+        public void invokeLater(Runnable task) {
+            dispatched.add(task);
+            task.run();
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    };
+    private final List<StatusBatch> batches = new ArrayList<StatusBatch>();
+    private final List<Exception> exceptions = new ArrayList<Exception>();
+    private final StatusBatchListener listener = new StatusBatchListener() {
+        @Override
+        public void onStatusBatch(StatusBatch batch) {
+            batches.add(batch);
+        }
+
+        @Override
+        public void onException(Exception ex) {
+            exceptions.add(ex);
+        }
+    };
+
+    public StatusBatcherTest(String name) {
+        super(name);
+    }
+
+    public void testFlushBySize() throws Exception {
+        StatusBatcher batcher = new StatusBatcher(new ConfigurationBuilder()
+                .setStreamBatchSize(3)
+                .setStreamBatchMaxLatency(0)
+                .build());
+        batcher.setListeners(new StatusBatchListener[]{listener});
+        batcher.setDispatcher(synchronous);
+        InputStream is = getClass().getResourceAsStream("/streamingapi-testcase.json");
+        StatusStreamBase stream = new StatusStreamImpl(synchronous, is, new ConfigurationBuilder().build());
+        stream.setBatcher(batcher);
+        for (int i = 0; i < 6; i++) {
+            stream.next(new StreamListener[0], new RawStreamListener[0]);
+        }
+        // scrub_geo is not batched and didn't fill the second batch
+        assertEquals(1, dispatched.size());
+        batcher.flush();
+        // a task per batch, none per line
+        assertEquals(2, dispatched.size());
+        assertEquals(2, batches.size());
+
+        StatusBatch first = batches.get(0);
+        assertEquals(3, first.size());
+        assertEquals(6832057002L, first.getDeletionNotices().get(0).getStatusId());
+        assertEquals("aaa minha irma ta enchendo aki querendo entra --'", first.getStatuses().get(0).getText());
+        assertEquals(2, first.getStatuses().size());
+
+        StatusBatch second = batches.get(1);
+        assertEquals(2, second.size());
+        assertEquals(121564, (int) second.getTrackLimitationNotices().get(0));
+        assertEquals("ngantuk banget nguap mulu", second.getStatuses().get(0).getText());
+        assertTrue(exceptions.isEmpty());
+    }
+
+    public void testFlushByLatency() throws Exception {
+        StatusBatcher batcher = new StatusBatcher(new ConfigurationBuilder()
+                .setStreamBatchSize(100)
+                .setStreamBatchMaxLatency(50)
+                .build());
+        final CountDownLatch delivered = new CountDownLatch(1);
+        batcher.setListeners(new StatusBatchListener[]{new StatusBatchListener() {
+            @Override
+            public void onStatusBatch(StatusBatch batch) {
+                batches.add(batch);
+                delivered.countDown();
+            }
+
+            @Override
+            public void onException(Exception ex) {
+                exceptions.add(ex);
+            }
+        }});
+        batcher.setDispatcher(synchronous);
+        batcher.add("{\"limit\":{\"track\":1}}");
+        batcher.add("{\"limit\":{\"track\":2}}");
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals("[1, 2]", batches.get(0).getTrackLimitationNotices().toString());
+        batcher.shutdown();
+    }
+
+    public void testUnbatchedMessagesDontCount() throws Exception {
+        StatusBatcher batcher = new StatusBatcher(new ConfigurationBuilder()
+                .setStreamBatchSize(2)
+                .setStreamBatchMaxLatency(0)
+                .build());
+        batcher.setListeners(new StatusBatchListener[]{listener});
+        batcher.setDispatcher(synchronous);
+        batcher.add("{\"limit\":{\"track\":1}}");
+        batcher.add("{\"friends\":[1,2]}");
+        batcher.add("{\"event\":\"favorite\",\"source\":{\"id\":1},\"target\":{\"id\":2}}");
+        batcher.add("{\"warning\":{\"code\":\"FALLING_BEHIND\",\"percent_full\":60}}");
+        assertTrue(dispatched.isEmpty());
+        batcher.add("{\"limit\":{\"track\":2}}");
+        assertEquals(1, dispatched.size());
+        assertEquals("[1, 2]", batches.get(0).getTrackLimitationNotices().toString());
+    }
+
+    public void testMalformedLine() throws Exception {
+        StatusBatcher batcher = new StatusBatcher(new ConfigurationBuilder()
+                .setStreamBatchSize(2)
+                .setStreamBatchMaxLatency(0)
+                .build());
+        batcher.setListeners(new StatusBatchListener[]{listener});
+        batcher.setDispatcher(synchronous);
+        batcher.add("{\"limit\":");
+        batcher.add("{\"limit\":{\"track\":2}}");
+        assertEquals(1, exceptions.size());
+        assertEquals(1, batches.size());
+        assertEquals(1, batches.get(0).size());
+    }
+}
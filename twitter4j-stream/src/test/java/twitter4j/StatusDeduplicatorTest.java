@@ -0,0 +1,140 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StatusDeduplicatorTest extends TestCase {
+    public StatusDeduplicatorTest(String name) {
+        super(name);
+    }
+
+    public void testRemembersWithinWindow() throws Exception {
+        StatusDeduplicator deduplicator = new StatusDeduplicator(1024 * 1024, 0.0001, 60000);
+        for (long id = 1; id <= 10000; id++) {
+            assertFalse(deduplicator.isDuplicate(id, 0));
+        }
+        // ids move to the previous generation after half the window, and are still remembered
+        for (long id = 1; id <= 10000; id++) {
+            assertTrue(deduplicator.isDuplicate(id, 30000));
+        }
+        assertEquals(1, deduplicator.getRotationCount());
+        assertEquals(20000, deduplicator.getCheckedCount());
+        assertEquals(10000, deduplicator.getDuplicateCount());
+    }
+
+    public void testForgetsAfterWindow() throws Exception {
+        StatusDeduplicator deduplicator = new StatusDeduplicator(1024, 0.001, 60000);
+        assertFalse(deduplicator.isDuplicate(42L, 0));
+        assertTrue(deduplicator.isDuplicate(42L, 29999));
+        assertFalse(deduplicator.isDuplicate(1L, 30000));
+        assertFalse(deduplicator.isDuplicate(2L, 60000));
+        // two rotations without seeing 42 again
+        assertFalse(deduplicator.isDuplicate(42L, 60000));
+    }
+
+    public void testFalsePositiveRateWithinBudget() throws Exception {
+        double rate = 0.01;
+        StatusDeduplicator deduplicator = new StatusDeduplicator(64 * 1024, rate, Long.MAX_VALUE);
+        int capacity = deduplicator.getCapacity();
+        assertTrue(capacity > 1000);
+        for (long id = 0; id < capacity; id++) {
+            deduplicator.isDuplicate(id * 7919, 0);
+        }
+        assertEquals(0, deduplicator.getRotationCount());
+        int falsePositives = 0;
+        int probes = 100000;
+        for (long id = 0; id < probes; id++) {
+            // ids which have never been seen
+            if (deduplicator.isDuplicate(-1 - id, 0)) {
+                falsePositives++;
+            }
+        }
+        // the generation was full, so it rotated early to keep the rate
+        assertTrue(deduplicator.getRotationCount() > 0);
+        assertTrue("false positives: " + falsePositives, falsePositives < probes * rate * 2);
+    }
+
+    public void testIdsCopiedFromPreviousGenerationCount() throws Exception {
+        StatusDeduplicator deduplicator = new StatusDeduplicator(64 * 1024, 0.01, Long.MAX_VALUE);
+        int capacity = deduplicator.getCapacity();
+        long filled = 0;
+        while (deduplicator.getRotationCount() == 0) {
+            deduplicator.isDuplicate(filled++, 0);
+        }
+        // the ids of the full generation are found in the previous one, and copied to the current one
+        assertTrue(deduplicator.isDuplicate(0, 0));
+        for (long id = 1; id < filled - 1; id++) {
+            deduplicator.isDuplicate(id, 0);
+        }
+        // the current generation is about full and rotates again well before taking capacity new ids
+        for (long id = -1; id >= -capacity / 10; id--) {
+            deduplicator.isDuplicate(id, 0);
+        }
+        assertEquals(2, deduplicator.getRotationCount());
+    }
+
+    public void testDropsDuplicatesAcrossReconnects() throws Exception {
+        String status = "{\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\",\"id\":%d,\"text\":\"a\""
+                + ",\"user\":{\"id\":1,\"screen_name\":\"a\",\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\"}}\r\n";
+        StatusDeduplicator deduplicator = new StatusDeduplicator(new ConfigurationBuilder().setStreamDedupEnabled(true).build());
+        final List<Long> received = new ArrayList<Long>();
+        StatusListener listener = new StatusAdapter() {
+            @Override
+            public void onStatus(Status status) {
+                received.add(status.getId());
+            }
+        };
+        Dispatcher synchronous = new Dispatcher() {
+            @Override
+            public void invokeLater(Runnable task) {
+                task.run();
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        };
+        // the second connection backfills the last two statuses of the first one
+        String[] connections = {String.format(status, 1) + String.format(status, 2) + String.format(status, 3)
+                , String.format(status, 2) + String.format(status, 3) + String.format(status, 4)};
+        for (String connection : connections) {
+            StatusStreamImpl stream = new StatusStreamImpl(synchronous, new ByteArrayInputStream(connection.getBytes("UTF-8"))
+                    , new ConfigurationBuilder().build());
+            stream.setDeduplicator(deduplicator);
+            for (int i = 0; i < 3; i++) {
+                stream.next(listener);
+            }
+        }
+        assertEquals("[1, 2, 3, 4]", received.toString());
+        assertEquals(2, deduplicator.getDuplicateCount());
+    }
+
+    public void testStatistics() throws Exception {
+        assertNull(new TwitterStreamFactory(new ConfigurationBuilder().build()).getInstance().getDeduplicationStatistics());
+        DeduplicationStatistics statistics = new TwitterStreamFactory(new ConfigurationBuilder()
+                .setStreamDedupEnabled(true).setStreamDedupFalsePositiveRate(0.001).build()).getInstance()
+                .getDeduplicationStatistics();
+        assertEquals(0.001, statistics.getFalsePositiveRate());
+        assertEquals(0, statistics.getCheckedCount());
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class StreamDispatcherGroupTest extends TestCase {
+    public StreamDispatcherGroupTest(String name) {
+        super(name);
+    }
+
+    public void testMembersShareTheGroup() throws Exception {
+        Configuration a = new ConfigurationBuilder().setStreamDispatcherGroup("a").setStreamDispatcherThreads(2).build();
+        StreamDispatcherGroup first = StreamDispatcherGroup.join(a);
+        StreamDispatcherGroup second = StreamDispatcherGroup.join(a);
+        StreamDispatcherGroup other = StreamDispatcherGroup.join(new ConfigurationBuilder().setStreamDispatcherGroup("b").build());
+        try {
+            assertSame(first, second);
+            assertNotSame(first, other);
+            assertEquals(2, first.getMemberCount());
+            assertEquals(2, first.getThreadCount());
+
+            first.leave();
+            // still used by the other member
+            final CountDownLatch ran = new CountDownLatch(1);
+            final String[] threadName = new String[1];
+            second.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    threadName[0] = Thread.currentThread().getName();
+                    ran.countDown();
+                }
+            });
+            assertTrue(ran.await(5, TimeUnit.SECONDS));
+            assertTrue(threadName[0], threadName[0].startsWith("Twitter4J Stream Dispatcher a["));
+            assertEquals(1, second.getDispatchedCount());
+        } finally {
+            second.leave();
+            other.leave();
+        }
+        // the last member left: a new group is created
+        StreamDispatcherGroup again = StreamDispatcherGroup.join(a);
+        assertNotSame(first, again);
+        again.leave();
+    }
+
+    public void testGroupsAreIsolated() throws Exception {
+        StreamDispatcherGroup noisy = StreamDispatcherGroup.join(new ConfigurationBuilder()
+                .setStreamDispatcherGroup("noisy").setStreamDispatcherThreads(1).build());
+        StreamDispatcherGroup quiet = StreamDispatcherGroup.join(new ConfigurationBuilder()
+                .setStreamDispatcherGroup("quiet").setStreamDispatcherThreads(1).build());
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 10; i++) {
+                noisy.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            release.await();
+                        } catch (InterruptedException ignore) {
+                        }
+                    }
+                });
+            }
+            final CountDownLatch delivered = new CountDownLatch(1);
+            quiet.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    delivered.countDown();
+                }
+            });
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+            assertEquals(9, noisy.getQueueSize());
+            assertEquals(1, quiet.getDispatchedCount());
+            assertTrue(quiet.getMaxWaitNanos() < TimeUnit.SECONDS.toNanos(1));
+        } finally {
+            release.countDown();
+            noisy.leave();
+            quiet.leave();
+        }
+        assertEquals(10, noisy.getDispatchedCount());
+    }
+
+    public void testTwitterStreamJoinsItsGroup() throws Exception {
+        final TwitterStreamImpl twitterStream = (TwitterStreamImpl) new TwitterStreamFactory(new ConfigurationBuilder()
+                .setStreamDispatcherGroup("user streams").build()).getInstance();
+        twitterStream.addListener(new StatusAdapter());
+        assertNull(twitterStream.getDispatcherStatistics());
+        TwitterStreamImpl.TwitterStreamConsumer consumer = twitterStream.new TwitterStreamConsumer(TwitterStreamImpl.Mode.status) {
+            @Override
+            StatusStream getStream() throws TwitterException {
+                try {
+                    return new StatusStreamImpl(StreamPublisher.CONSUMER_THREAD, new ByteArrayInputStream(new byte[0])
+                            , twitterStream.getConfiguration());
+                } catch (IOException e) {
+                    throw new TwitterException(e);
+                }
+            }
+        };
+        twitterStream.startHandler(consumer);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (twitterStream.getDispatcherStatistics() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        DispatcherStatistics statistics = twitterStream.getDispatcherStatistics();
+        assertEquals("user streams", statistics.getGroup());
+        assertEquals(1, statistics.getMemberCount());
+        twitterStream.shutdown();
+        assertNull(twitterStream.getDispatcherStatistics());
+        assertEquals(0, statistics.getMemberCount());
+    }
+}
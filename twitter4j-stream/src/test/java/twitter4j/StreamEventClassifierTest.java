@@ -0,0 +1,96 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+
+public class StreamEventClassifierTest extends TestCase {
+
+    public StreamEventClassifierTest(String name) {
+        super(name);
+    }
+
+    public void testSameAsDetermine() throws Exception {
+        String[] lines = {
+                "{\"text\":\"a\",\"user\":{\"id\":1,\"sender\":\"x\"}}",
+                "{\"delete\":{\"status\":{\"id\":1234,\"user_id\":3}}}",
+                "{\"scrub_geo\":{\"user_id\":14090452,\"up_to_status_id\":23260136625}}",
+                "{\"limit\":{\"track\":1234}}",
+                "{\"warning\":{\"code\":\"FALLING_BEHIND\",\"message\":\"m\",\"percent_full\":60}}",
+                "{\"friends\":[1,2,3]}",
+                "{\"disconnect\":{\"code\":3,\"reason\":\"r\"}}",
+                "{\"direct_message\":{\"id\":1,\"text\":\"dm\"}}",
+                "{\"id\":1,\"text\":\"dm\",\"sender\":{\"id\":2}}",
+                "{\"event\":\"favorite\",\"source\":{},\"target\":{}}",
+                "{\"target\":{},\"event\":\"list_member_added\"}",
+                "{\"event\":\"quoted_tweet\"}",
+                "{\"event\":\"something_new\"}",
+                "{\"random\":\"meaningless\"}",
+                "{}",
+                " { \"text\" : null , \"limit\" : {\"track\":1} } ",
+                "{\"text\":\"\\\"limit\\\": {\",\"in_reply_to_status_id\":null}",
+                "{\"retweeted_status\":{\"text\":\"rt\"},\"event\":null}",
+        };
+        for (String line : lines) {
+            assertEquals(line, JSONObjectType.determine(new JSONObject(line)), StreamEventClassifier.classify(line));
+        }
+        for (String resource : new String[]{"/streamingapi-testcase.json", "/streamingapi-event-testcase.json"}) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    getClass().getResourceAsStream(resource), "UTF-8"));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                assertEquals(line, JSONObjectType.determine(new JSONObject(line)), StreamEventClassifier.classify(line));
+            }
+            reader.close();
+        }
+    }
+
+    public void testUnclassifiable() throws Exception {
+        assertNull(StreamEventClassifier.classify(""));
+        assertNull(StreamEventClassifier.classify("[1,2]"));
+        assertNull(StreamEventClassifier.classify("{\"text\":\"unterminated"));
+        assertNull(StreamEventClassifier.classify("{\"event\":1}"));
+    }
+
+    public void testSkipsEventsNobodyListensTo() throws Exception {
+        final int[] received = new int[1];
+        StatusStreamBase stream = new StatusStreamImpl(new Dispatcher() {
+            @Override
+            public void invokeLater(Runnable task) {
+                task.run();
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        }, getClass().getResourceAsStream("/streamingapi-event-testcase.json"), new ConfigurationBuilder().build());
+        StatusListener listener = new StatusAdapter() {
+            @Override
+            public void onException(Exception ex) {
+                received[0]++;
+            }
+        };
+        assertFalse(stream.isInterested(JSONObjectType.Type.FAVORITE, new StreamListener[]{listener}));
+        assertTrue(stream.isInterested(JSONObjectType.Type.STATUS, new StreamListener[]{listener}));
+        stream.next(listener);
+        assertEquals(0, received[0]);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Measures what declaring listener interest saves on a user stream.<br>
+ * A listener handling favorites only is run over the capture twice: as a plain UserStreamAdapter, then declaring
+ * its interest with StreamEventInterest.<br>
+ * usage: java twitter4j.StreamEventInterestBenchmark [messages] [user stream capture, one message per line]<br>
+ * Without a capture, a mix of 60% statuses, 20% favorites, 10% follows and 10% deletes/limits is built from the test resources.
+ */
+public class StreamEventInterestBenchmark {
+    public static void main(String[] args) throws Exception {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        List<String> capture = args.length > 1 ? read(new FileInputStream(args[1])) : syntheticCapture();
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < messages; i++) {
+            buf.append(capture.get(i % capture.size())).append("\r\n");
+        }
+        byte[] bytes = buf.toString().getBytes("UTF-8");
+        System.out.println("messages=" + messages + " capture=" + capture.size() + " lines, " + bytes.length / messages + " bytes/message");
+        for (int round = 0; round < 3; round++) {
+            // first round warms up the JIT
+            boolean print = round > 0;
+            run("UserStreamAdapter", new FavoriteCounter(), bytes, messages, print);
+            run("StreamEventInterest", new InterestedFavoriteCounter(), bytes, messages, print);
+        }
+    }
+
+    private static void run(String name, FavoriteCounter listener, byte[] bytes, int messages, boolean print)
+            throws Exception {
+        Configuration conf = new ConfigurationBuilder().build();
+        UserStreamImpl stream = new UserStreamImpl(new Dispatcher() {
+            @Override
+            public void invokeLater(Runnable task) {
+                task.run();
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        }, new ByteArrayInputStream(bytes), conf);
+        StreamListener[] listeners = {listener};
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long begin = System.nanoTime();
+        for (int i = 0; i < messages; i++) {
+            stream.handleNextElement(listeners, StatusStreamImpl.EMPTY);
+        }
+        long elapsed = System.nanoTime() - begin;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        if (print) {
+            System.out.println(String.format("%-20s %,10d messages/sec %,8d bytes allocated/message favorites=%d"
+                    , name, (long) (messages / (elapsed / 1000000000d)), allocated / messages, listener.favorites));
+        }
+    }
+
+    private static List<String> syntheticCapture() throws Exception {
+        List<String> statuses = new ArrayList<String>();
+        List<String> others = new ArrayList<String>();
+        for (String line : read(StreamEventInterestBenchmark.class.getResourceAsStream("/streamingapi-testcase.json"))) {
+            if (line.startsWith("{\"text\"")) {
+                statuses.add(line);
+            } else {
+                others.add(line);
+            }
+        }
+        String follow = read(StreamEventInterestBenchmark.class.getResourceAsStream("/streamingapi-event-testcase.json")).get(0);
+        String favorite = follow.replace("\"event\":\"follow\"", "\"event\":\"favorite\",\"target_object\":" + statuses.get(0));
+        List<String> capture = new ArrayList<String>();
+        for (int i = 0; i < 10; i++) {
+            if (i < 6) {
+                capture.add(statuses.get(i % statuses.size()));
+            } else if (i < 8) {
+                capture.add(favorite);
+            } else if (i < 9) {
+                capture.add(follow);
+            } else {
+                capture.add(others.get(i % others.size()));
+            }
+        }
+        return capture;
+    }
+
+    private static List<String> read(InputStream is) throws Exception {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(is, "UTF-8"));
+        List<String> lines = new ArrayList<String>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.length() > 0) {
+                lines.add(line);
+            }
+        }
+        reader.close();
+        return lines;
+    }
+
+    private static class FavoriteCounter extends UserStreamAdapter {
+        int favorites;
+
+        @Override
+        public void onFavorite(User source, User target, Status favoritedStatus) {
+            favorites++;
+        }
+    }
+
+    private static final class InterestedFavoriteCounter extends FavoriteCounter implements StreamEventInterest {
+        @Override
+        public Set<JSONObjectType.Type> interestedIn() {
+            return EnumSet.of(JSONObjectType.Type.FAVORITE);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+
+public class StreamEventInterestTest extends TestCase {
+    private final Dispatcher synchronous = new Dispatcher() {
+        @Override
+        public void invokeLater(Runnable task) {
+            task.run();
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    };
+
+    public StreamEventInterestTest(String name) {
+        super(name);
+    }
+
+    public void testDeclaredInterest() throws Exception {
+        CountingListener followsOnly = new CountingListener(EnumSet.of(JSONObjectType.Type.FOLLOW));
+        CountingListener everything = new CountingListener(null);
+        UserStreamImpl stream = new UserStreamImpl(synchronous, capture(), new ConfigurationBuilder().build());
+        StreamListener[] listeners = {followsOnly, everything};
+        for (int i = 0; i < 4; i++) {
+            stream.handleNextElement(listeners, StatusStreamImpl.EMPTY);
+        }
+        assertEquals(1, followsOnly.follows);
+        assertEquals(0, followsOnly.statuses);
+        assertEquals(1, everything.follows);
+        assertEquals(2, everything.statuses);
+        assertEquals(1, everything.deletions);
+    }
+
+    public void testSkipsParsing() throws Exception {
+        UserStreamImpl stream = new UserStreamImpl(synchronous, capture(), new ConfigurationBuilder().build());
+        StreamListener[] listeners = {new CountingListener(EnumSet.of(JSONObjectType.Type.FAVORITE))};
+        assertFalse(stream.isInterested(JSONObjectType.Type.STATUS, listeners));
+        assertFalse(stream.isInterested(JSONObjectType.Type.FOLLOW, listeners));
+        assertTrue(stream.isInterested(JSONObjectType.Type.FAVORITE, listeners));
+        // unknown events are still parsed to be logged
+        assertTrue(stream.isInterested(JSONObjectType.Type.UNKNOWN, listeners));
+        // the per type listeners are computed once per listener set
+        StreamListener[] targets = stream.listenersFor(JSONObjectType.Type.FAVORITE, listeners);
+        assertSame(targets, stream.listenersFor(JSONObjectType.Type.FAVORITE, new StreamListener[]{listeners[0]}));
+    }
+
+    private ByteArrayInputStream capture() throws IOException {
+        String status = "{\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\",\"id\":6832057003,\"text\":\"a\""
+                + ",\"user\":{\"id\":1,\"screen_name\":\"a\",\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\"}}";
+        String user = "{\"id\":2,\"screen_name\":\"b\",\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\"}";
+        String lines = status + "\r\n"
+                + "{\"event\":\"follow\",\"source\":" + user + ",\"target\":" + user
+                + ",\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\"}\r\n"
+                + "{\"delete\":{\"status\":{\"id\":6832057002,\"user_id\":18378841}}}\r\n"
+                + status + "\r\n";
+        return new ByteArrayInputStream(lines.getBytes("UTF-8"));
+    }
+
+    private static final class CountingListener extends UserStreamAdapter implements StreamEventInterest {
+        private final Set<JSONObjectType.Type> interest;
+        private int statuses;
+        private int follows;
+        private int deletions;
+
+        CountingListener(Set<JSONObjectType.Type> interest) {
+            this.interest = interest;
+        }
+
+        @Override
+        public Set<JSONObjectType.Type> interestedIn() {
+            return interest != null ? interest : EnumSet.allOf(JSONObjectType.Type.class);
+        }
+
+        @Override
+        public void onStatus(Status status) {
+            statuses++;
+        }
+
+        @Override
+        public void onDeletionNotice(StatusDeletionNotice statusDeletionNotice) {
+            deletions++;
+        }
+
+        @Override
+        public void onFollow(User source, User followedUser) {
+            follows++;
+        }
+
+        @Override
+        public void onException(Exception ex) {
+            fail(ex.toString());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StreamFramerTest extends TestCase {
+
+    public StreamFramerTest(String name) {
+        super(name);
+    }
+
+    public void testNewlineDelimited() throws Exception {
+        String stream = "{\"text\":\"a\"}\r\n\r\n{\"text\":\"あいう\"}\n{\"text\":\"last\"}";
+        assertEquals("[{\"text\":\"a\"}, , {\"text\":\"あいう\"}, {\"text\":\"last\"}]"
+                , readAll(new StreamFramer(trickle(stream), 64, false)).toString());
+    }
+
+    public void testBufferGrowsForLongMessages() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append(i % 10);
+        }
+        String message = "{\"text\":\"" + text + "\"}";
+        List<String> messages = readAll(new StreamFramer(new ByteArrayInputStream(
+                (message + "\r\n" + message + "\r\n").getBytes("UTF-8")), 16, false));
+        assertEquals(2, messages.size());
+        assertEquals(message, messages.get(0));
+        assertEquals(message, messages.get(1));
+    }
+
+    public void testLengthDelimited() throws Exception {
+        String first = "{\"text\":\"あ\"}\r\n";
+        String second = "{\"limit\":{\"track\":1}}\r\n";
+        String stream = "\r\n" + first.getBytes("UTF-8").length + "\r\n" + first
+                + second.getBytes("UTF-8").length + "\r\n" + second + "\r\n";
+        assertEquals("[, {\"text\":\"あ\"}, {\"limit\":{\"track\":1}}, ]"
+                , readAll(new StreamFramer(trickle(stream), 64, true)).toString());
+    }
+
+    public void testMalformedLength() throws Exception {
+        StreamFramer framer = new StreamFramer(new ByteArrayInputStream("{\"text\":1}\r\n".getBytes("UTF-8")), 64, true);
+        try {
+            framer.next();
+            fail("expecting IOException");
+        } catch (IOException expected) {
+        }
+    }
+
+    public void testTruncatedMessage() throws Exception {
+        StreamFramer framer = new StreamFramer(new ByteArrayInputStream("100\r\n{\"text\":1}".getBytes("UTF-8")), 64, true);
+        try {
+            framer.next();
+            fail("expecting IOException");
+        } catch (IOException expected) {
+        }
+    }
+
+    public void testScanBytes() throws Exception {
+        StreamFramer framer = new StreamFramer(new ByteArrayInputStream(
+                "{\"text\":\"あ\\\"\",\"user\":{\"name\":\"い\",\"id\":42}}\n".getBytes("UTF-8")), 64, false);
+        ByteSlice message = framer.next();
+        assertEquals(42L, PartitionedStreamDispatcher.partitionKey(message));
+        assertEquals(message.toString(), new String(message.toByteArray(), "UTF-8"));
+        assertEquals(message.length(), message.asReadOnlyByteBuffer().remaining());
+        assertNull(framer.next());
+    }
+
+    public void testNonBlocking() throws Exception {
+        String stream = "{\"text\":\"a\"}\r\n\r\n{\"text\":\"あいう\"}\n";
+        StreamFramer framer = new StreamFramer(new ByteArrayInputStream(new byte[0]), 16, false);
+        List<String> messages = new ArrayList<String>();
+        // one byte at a time, as small non-blocking reads would
+        for (byte b : stream.getBytes("UTF-8")) {
+            framer.append(ByteBuffer.wrap(new byte[]{b}));
+            ByteSlice message;
+            while ((message = framer.nextBuffered()) != null) {
+                messages.add(message.toString());
+            }
+        }
+        assertEquals("[{\"text\":\"a\"}, , {\"text\":\"あいう\"}]", messages.toString());
+    }
+
+    public void testNonBlockingLengthDelimited() throws Exception {
+        String first = "{\"text\":\"あ\"}\r\n";
+        StreamFramer framer = new StreamFramer(new ByteArrayInputStream(new byte[0]), 16, true);
+        framer.append(ByteBuffer.wrap((first.getBytes("UTF-8").length + "\r\n{\"te").getBytes("UTF-8")));
+        assertNull(framer.nextBuffered());
+        assertNull(framer.nextBuffered());
+        byte[] rest = first.substring(4).getBytes("UTF-8");
+        framer.append(ByteBuffer.wrap(rest));
+        assertEquals("{\"text\":\"あ\"}", framer.nextBuffered().toString());
+        assertNull(framer.nextBuffered());
+    }
+
+    private static List<String> readAll(StreamFramer framer) throws IOException {
+        List<String> messages = new ArrayList<String>();
+        ByteSlice message;
+        while ((message = framer.next()) != null) {
+            messages.add(message.toString());
+        }
+        return messages;
+    }
+
+    /**
+     * @return stream returning at most 3 bytes per read, to split messages and multi-byte characters across reads
+     */
+    private static InputStream trickle(String content) throws IOException {
+        return new ByteArrayInputStream(content.getBytes("UTF-8")) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(3, len));
+            }
+        };
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+public class StreamIteratorTest extends TestCase {
+    private static final String STATUS = "{\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\",\"id\":%d,\"text\":\"a\""
+            + ",\"user\":{\"id\":1,\"screen_name\":\"a\",\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\"}}";
+
+    private TwitterStreamImpl twitterStream;
+    private TwitterStreamImpl.TwitterStreamConsumer consumer;
+
+    public StreamIteratorTest(String name) {
+        super(name);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        twitterStream = (TwitterStreamImpl) new TwitterStreamFactory(new ConfigurationBuilder().build()).getInstance();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (consumer != null) {
+            consumer.close();
+        }
+        super.tearDown();
+    }
+
+    public void testReadsAheadUpToBufferSize() throws Exception {
+        final StreamIterator<Status> iterator = new StreamIterator<Status>(2);
+        StreamPublisher.ofStatuses(connector(capture(5))).subscribe(iterator);
+        awaitWaiting();
+        // 2 statuses buffered, the consumer waits for room before reading the third one
+        assertTrue(iterator.hasNext());
+        assertEquals(1L, iterator.next().getId());
+        assertEquals(2L, iterator.next().getId());
+        assertEquals(3L, iterator.next().getId());
+        assertEquals(4L, iterator.next().getId());
+        assertEquals(5L, iterator.next().getId());
+
+        // hasNext() blocks at the end of the capture, as the consumer reconnects. close() from another thread
+        new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ignore) {
+                }
+                iterator.close();
+            }
+        }.start();
+        assertFalse(iterator.hasNext());
+        consumer.join(5000);
+        assertFalse(consumer.isAlive());
+    }
+
+    public void testError() throws Exception {
+        StreamIterator<Status> iterator = new StreamIterator<Status>(2);
+        StreamPublisher.ofStatuses(connector(null)).subscribe(iterator);
+        try {
+            iterator.hasNext();
+            fail("expecting IllegalStateException");
+        } catch (IllegalStateException expected) {
+            assertEquals(403, ((TwitterException) expected.getCause()).getStatusCode());
+        }
+        iterator.close();
+        assertFalse(iterator.hasNext());
+    }
+
+    public void testFlyweightNotSupported() throws Exception {
+        TwitterStream flyweight = new TwitterStreamFactory(new ConfigurationBuilder().setStreamFlyweight(true).build())
+                .getInstance();
+        try {
+            flyweight.filterIterator(new FilterQuery().track("twitter4j"));
+            fail("expecting IllegalStateException");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    private ByteArrayInputStream capture(int statuses) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 1; i <= statuses; i++) {
+            lines.append(String.format(STATUS, i)).append("\r\n");
+        }
+        return new ByteArrayInputStream(lines.toString().getBytes("UTF-8"));
+    }
+
+    /**
+     * @param capture messages of the stream, or null to fail connecting with 403
+     */
+    private StreamPublisher.Connector connector(final ByteArrayInputStream capture) {
+        return new StreamPublisher.Connector() {
+            @Override
+            public TwitterStreamImpl.TwitterStreamConsumer connect(PacedStreamListener listener) {
+                consumer = twitterStream.new TwitterStreamConsumer(TwitterStreamImpl.Mode.status, listener) {
+                    @Override
+                    StatusStream getStream() throws TwitterException {
+                        if (capture == null) {
+                            throw new TwitterException("forbidden", null, 403);
+                        }
+                        try {
+                            return new StatusStreamImpl(StreamPublisher.CONSUMER_THREAD, capture
+                                    , new ConfigurationBuilder().build());
+                        } catch (IOException e) {
+                            throw new TwitterException(e);
+                        }
+                    }
+                };
+                consumer.start();
+                return consumer;
+            }
+        };
+    }
+
+    private void awaitWaiting() throws InterruptedException {
+        for (int i = 0; i < 100 && consumer.getState() != Thread.State.WAITING; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(Thread.State.WAITING, consumer.getState());
+    }
+}
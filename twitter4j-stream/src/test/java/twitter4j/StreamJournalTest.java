@@ -0,0 +1,140 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.File;
+
+public class StreamJournalTest extends TestCase {
+    public StreamJournalTest(String name) {
+        super(name);
+    }
+
+    private File dir;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        dir = File.createTempFile("journal", "");
+        assertTrue(dir.delete());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+        super.tearDown();
+    }
+
+    private StreamJournal journal() {
+        Configuration conf = new ConfigurationBuilder().setStreamJournalDir(dir.getAbsolutePath())
+                .setStreamJournalSegmentSize(256).setStreamJournalIndexInterval(3).build();
+        return new StreamJournal(conf);
+    }
+
+    private static ByteSlice slice(String message) throws Exception {
+        byte[] bytes = ("padding" + message).getBytes("UTF-8");
+        return new ByteSlice(bytes, 7, bytes.length - 7);
+    }
+
+    private static String status(int i) {
+        return "{\"id\":" + (1000 + i) + ",\"text\":\"message " + i + "\"}";
+    }
+
+    private void write(StreamJournal journal) throws Exception {
+        for (int i = 0; i < 50; i++) {
+            journal.append(slice(status(i)), 10000 + i * 10);
+            if (i % 7 == 0) {
+                journal.append(slice("{\"limit\":{\"track\":" + i + "}}"), 10000 + i * 10);
+            }
+        }
+    }
+
+    public void testMessagesAreReadBack() throws Exception {
+        StreamJournal journal = journal();
+        write(journal);
+        journal.close();
+        assertEquals(58, journal.getAppendedCount());
+        // appended after close
+        journal.append(slice(status(99)), 99999);
+
+        File[] segments = StreamJournal.segments(dir);
+        assertTrue(segments.length > 1);
+        for (File segment : segments) {
+            assertTrue(StreamJournal.indexFileOf(segment).exists());
+        }
+        StreamJournalReader reader = new StreamJournalReader(dir);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(status(i), reader.next().toString());
+            assertEquals(10000 + i * 10, reader.getReceivedAt());
+            if (i % 7 == 0) {
+                assertEquals("{\"limit\":{\"track\":" + i + "}}", reader.next().toString());
+            }
+        }
+        assertNull(reader.next());
+    }
+
+    public void testSeek() throws Exception {
+        StreamJournal journal = journal();
+        write(journal);
+        journal.close();
+
+        StreamJournalReader reader = new StreamJournalReader(dir);
+        reader.seekTime(10000 + 25 * 10);
+        assertEquals(status(25), reader.next().toString());
+        reader.seekTime(10000 + 33 * 10 - 5);
+        assertEquals(status(33), reader.next().toString());
+        reader.seekStatusId(1040);
+        assertEquals(status(40), reader.next().toString());
+        reader.seekStatusId(0);
+        assertEquals(status(0), reader.next().toString());
+        reader.seekTime(Long.MAX_VALUE);
+        assertNull(reader.next());
+    }
+
+    public void testSegmentsBeingWrittenAreReadable() throws Exception {
+        StreamJournal previousRun = journal();
+        previousRun.append(slice(status(0)), 1);
+        previousRun.close();
+        StreamJournal journal = journal();
+        write(journal);
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            large.append("large message ");
+        }
+        journal.append(slice("{\"id\":2000,\"text\":\"" + large + "\"}"), 20000);
+        // not closed: the last segment has no index yet
+
+        StreamJournalReader reader = new StreamJournalReader(dir);
+        assertEquals(status(0), reader.next().toString());
+        assertEquals(1, reader.getReceivedAt());
+        reader.seekStatusId(1049);
+        assertEquals(status(49), reader.next().toString());
+        assertEquals("{\"limit\":{\"track\":49}}", reader.next().toString());
+        assertEquals("{\"id\":2000,\"text\":\"" + large + "\"}", reader.next().toString());
+        assertNull(reader.next());
+        journal.close();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class StreamMembershipManagerTest extends TestCase {
+    public StreamMembershipManagerTest(String name) {
+        super(name);
+    }
+
+    public void testOperationsAreBatched() throws Exception {
+        Configuration conf = new ConfigurationBuilder().setStreamControlBatchSize(3)
+                .setStreamControlMaxConcurrentRequests(1).build();
+        RecordingControl control = new RecordingControl();
+        StreamMembershipManager manager = new StreamMembershipManager(conf, control);
+        // keeps the only request in flight while queueing the rest
+        manager.add(100);
+        assertTrue(control.started.await(5, TimeUnit.SECONDS));
+        manager.add(1, 2, 3, 4, 5);
+        manager.remove(3);
+        manager.add(5, 6, 7);
+        manager.remove(8);
+        assertEquals(7, manager.getPendingCount());
+        assertEquals(1, manager.getInFlightCount());
+        assertTrue(manager.getLag() >= 0);
+        control.release.countDown();
+
+        assertTrue(manager.await(5000));
+        assertEquals("[add [100], add [1, 2, 4], add [5, 6, 7], remove [8]]", control.requests.toString());
+        assertEquals(11, manager.getQueuedCount());
+        assertEquals(1, manager.getMergedCount());
+        assertEquals(2, manager.getCancelledCount());
+        assertEquals(8, manager.getSentCount());
+        assertEquals(4, manager.getRequestCount());
+        assertEquals(0, manager.getPendingCount());
+        assertEquals(0, manager.getInFlightCount());
+        assertEquals(0, manager.getLag());
+    }
+
+    public void testOperationsForAUserStayInOrder() throws Exception {
+        Configuration conf = new ConfigurationBuilder().setStreamControlBatchSize(10)
+                .setStreamControlMaxConcurrentRequests(4).build();
+        RecordingControl control = new RecordingControl();
+        StreamMembershipManager manager = new StreamMembershipManager(conf, control);
+        manager.add(1);
+        assertTrue(control.started.await(5, TimeUnit.SECONDS));
+        // the addition is in flight already: nothing to cancel
+        manager.remove(1);
+        manager.add(2);
+        for (int i = 0; i < 500 && control.requests.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        // user 2 doesn't wait, the removal of user 1 does
+        assertEquals("[add [2]]", control.requests.toString());
+        assertEquals(1, manager.getPendingCount());
+        control.release.countDown();
+        assertTrue(manager.await(5000));
+        assertEquals(0, manager.getCancelledCount());
+        assertEquals("[add [2], add [1], remove [1]]", control.requests.toString());
+    }
+
+    public void testLatestOperationWinsOverOneInFlight() throws Exception {
+        Configuration conf = new ConfigurationBuilder().setStreamControlBatchSize(10)
+                .setStreamControlMaxConcurrentRequests(1).build();
+        RecordingControl control = new RecordingControl();
+        StreamMembershipManager manager = new StreamMembershipManager(conf, control);
+        manager.add(1);
+        assertTrue(control.started.await(5, TimeUnit.SECONDS));
+        // cancelling the pending pair would leave user 1 added
+        manager.add(1);
+        manager.remove(1);
+        assertEquals(1, manager.getPendingCount());
+        control.release.countDown();
+        assertTrue(manager.await(5000));
+        assertEquals("[add [1], remove [1]]", control.requests.toString());
+        assertEquals(1, manager.getCancelledCount());
+    }
+
+    public void testFailuresAreCounted() throws Exception {
+        Configuration conf = new ConfigurationBuilder().setStreamControlBatchSize(2).build();
+        StreamMembershipManager manager = new StreamMembershipManager(conf, new StreamMembershipManager.Control() {
+            @Override
+            public void addUsers(long[] userIds) throws TwitterException {
+                throw new TwitterException("control stream unavailable");
+            }
+
+            @Override
+            public void removeUsers(long[] userIds) {
+            }
+        });
+        manager.add(1, 2, 3);
+        manager.remove(4);
+        assertTrue(manager.await(5000));
+        assertEquals(3, manager.getFailedCount());
+        assertEquals(1, manager.getSentCount());
+    }
+
+    private static final class RecordingControl implements StreamMembershipManager.Control {
+        final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void addUsers(long[] userIds) throws TwitterException {
+            record("add", userIds);
+        }
+
+        @Override
+        public void removeUsers(long[] userIds) throws TwitterException {
+            record("remove", userIds);
+        }
+
+        private void record(String operation, long[] userIds) throws TwitterException {
+            boolean first = started.getCount() > 0;
+            started.countDown();
+            if (first) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new TwitterException(e);
+                }
+            }
+            requests.add(operation + " " + Arrays.toString(userIds));
+        }
+    }
+}
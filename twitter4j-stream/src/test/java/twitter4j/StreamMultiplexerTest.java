@@ -0,0 +1,182 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class StreamMultiplexerTest extends TestCase {
+    private static final String STATUS = "{\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\",\"id\":%d,\"text\":\"a\""
+            + ",\"user\":{\"id\":1,\"screen_name\":\"a\",\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\"}}";
+    private static final String CHUNKED = "HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nTRANSFER-ENCODING: chunked\r\n\r\n";
+
+    private final List<Long> received = Collections.synchronizedList(new ArrayList<Long>());
+    private final List<Exception> exceptions = Collections.synchronizedList(new ArrayList<Exception>());
+    private final StatusListener listener = new StatusAdapter() {
+        @Override
+        public void onStatus(Status status) {
+            received.add(status.getId());
+        }
+
+        @Override
+        public void onException(Exception ex) {
+            exceptions.add(ex);
+        }
+    };
+    private StreamMultiplexer multiplexer;
+
+    public StreamMultiplexerTest(String name) {
+        super(name);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        multiplexer = new StreamMultiplexer(new ConfigurationBuilder().setStreamMultiplexerSelectorThreads(2).build());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        multiplexer.shutdown();
+        super.tearDown();
+    }
+
+    public void testChunkedResponse() throws Exception {
+        Pipe pipe = Pipe.open();
+        multiplexer.register(pipe.source(), listener);
+        String body = String.format(STATUS, 1) + "\r\n\r\n" + String.format(STATUS, 2) + "\r\n";
+        // chunks end in the middle of messages, the second one with an extension
+        int split = body.length() / 3;
+        write(pipe, CHUNKED + Integer.toHexString(split) + "\r\n" + body.substring(0, split) + "\r\n");
+        write(pipe, Integer.toHexString(body.length() - split) + ";ext=1\r\n" + body.substring(split) + "\r\n");
+        awaitReceived(2);
+        assertEquals("[1, 2]", received.toString());
+
+        write(pipe, "0\r\n\r\n");
+        awaitExceptions(1);
+        assertEquals("the response has ended", exceptions.get(0).getCause().getMessage());
+    }
+
+    public void testErrorStatus() throws Exception {
+        Pipe pipe = Pipe.open();
+        MultiplexedStream stream = multiplexer.register(pipe.source(), listener);
+        write(pipe, "HTTP/1.1 420 Enhance Your Calm\r\n\r\n");
+        awaitExceptions(1);
+        assertEquals(420, ((TwitterException) exceptions.get(0)).getStatusCode());
+        assertTrue(stream.isClosed());
+    }
+
+    public void testPlainBodyAndEndOfStream() throws Exception {
+        Pipe pipe = Pipe.open();
+        MultiplexedStream stream = multiplexer.register(pipe.source(), listener);
+        write(pipe, "HTTP/1.1 200 OK\r\n\r\n" + String.format(STATUS, 1) + "\r\n");
+        awaitReceived(1);
+        assertEquals(0, stream.getSecondsSinceLastMessage());
+        pipe.sink().close();
+        awaitExceptions(1);
+        assertTrue(stream.isClosed());
+    }
+
+    public void testManyStreams() throws Exception {
+        List<Pipe> pipes = new ArrayList<Pipe>();
+        for (int i = 0; i < 50; i++) {
+            Pipe pipe = Pipe.open();
+            pipes.add(pipe);
+            multiplexer.register(pipe.source(), listener);
+        }
+        for (int i = 0; i < pipes.size(); i++) {
+            write(pipes.get(i), "HTTP/1.1 200 OK\r\n\r\n" + String.format(STATUS, i) + "\r\n");
+        }
+        awaitReceived(50);
+        assertEquals(50, received.size());
+        assertEquals(0, exceptions.size());
+    }
+
+    public void testUserStreamEvents() throws Exception {
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        Pipe pipe = Pipe.open();
+        multiplexer.register(pipe.source(), listener, new UserStreamAdapter() {
+            @Override
+            public void onFriendList(long[] friendIds) {
+                events.add("friends:" + friendIds.length);
+            }
+
+            @Override
+            public void onFollow(User source, User followedUser) {
+                events.add("follow:" + source.getId() + ">" + followedUser.getId());
+            }
+
+            @Override
+            public void onStatus(Status status) {
+                events.add("status:" + status.getId());
+            }
+        });
+        String user = "{\"id\":%d,\"screen_name\":\"a\",\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\"}";
+        write(pipe, "HTTP/1.1 200 OK\r\n\r\n{\"friends\":[1,2,3]}\r\n"
+                + "{\"event\":\"follow\",\"source\":" + String.format(user, 1) + ",\"target\":" + String.format(user, 2)
+                + ",\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\"}\r\n" + String.format(STATUS, 1) + "\r\n");
+        awaitReceived(1);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (events.size() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("[friends:3, follow:1>2, status:1]", events.toString());
+        // the plain StatusListener only receives the status
+        assertEquals("[1]", received.toString());
+        assertEquals(0, exceptions.size());
+    }
+
+    public void testClose() throws Exception {
+        Pipe pipe = Pipe.open();
+        MultiplexedStream stream = multiplexer.register(pipe.source(), listener);
+        stream.close();
+        assertTrue(stream.isClosed());
+        assertFalse(pipe.source().isOpen());
+        Thread.sleep(100);
+        // closing is not an error
+        assertEquals(0, exceptions.size());
+    }
+
+    private static void write(Pipe pipe, String content) throws Exception {
+        ByteBuffer bytes = ByteBuffer.wrap(content.getBytes("UTF-8"));
+        while (bytes.hasRemaining()) {
+            pipe.sink().write(bytes);
+        }
+    }
+
+    private void awaitReceived(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (received.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Collections.sort(received);
+    }
+
+    private void awaitExceptions(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (exceptions.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(exceptions.size() >= count);
+    }
+}
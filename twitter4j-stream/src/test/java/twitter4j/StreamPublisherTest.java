@@ -0,0 +1,258 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationBuilder;
+import twitter4j.util.concurrent.Flow;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class StreamPublisherTest extends TestCase {
+    private static final String STATUS = "{\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\",\"id\":%d,\"text\":\"a\""
+            + ",\"user\":{\"id\":1,\"screen_name\":\"a\",\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\"}}";
+    private static final String DELETE = "{\"delete\":{\"status\":{\"id\":6832057002,\"user_id\":18378841}}}";
+
+    private TwitterStreamImpl twitterStream;
+    private TwitterStreamImpl.TwitterStreamConsumer consumer;
+
+    public StreamPublisherTest(String name) {
+        super(name);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        twitterStream = (TwitterStreamImpl) new TwitterStreamFactory(new ConfigurationBuilder().build()).getInstance();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (consumer != null) {
+            consumer.close();
+        }
+        super.tearDown();
+    }
+
+    public void testDemandPacesReads() throws Exception {
+        RecordingSubscriber<Status> subscriber = new RecordingSubscriber<Status>();
+        StreamPublisher.ofStatuses(connector(capture())).subscribe(subscriber);
+        subscriber.subscription.request(2);
+        subscriber.awaitItems(2);
+        awaitWaiting();
+        // the consumer waits for demand instead of reading ahead
+        assertEquals(2, subscriber.items.size());
+        assertEquals(1L, subscriber.items.get(0).getId());
+        assertEquals(2L, subscriber.items.get(1).getId());
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.awaitItems(4);
+        // the deletion notice is skipped without consuming demand
+        assertEquals(4L, subscriber.items.get(3).getId());
+        // closing the stream completes the subscription
+        consumer.close();
+        assertTrue(subscriber.terminated.await(5, TimeUnit.SECONDS));
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    public void testFatalError() throws Exception {
+        RecordingSubscriber<Status> subscriber = new RecordingSubscriber<Status>();
+        StreamPublisher.ofStatuses(connector(null)).subscribe(subscriber);
+        subscriber.subscription.request(1);
+        assertTrue(subscriber.terminated.await(5, TimeUnit.SECONDS));
+        assertTrue(subscriber.error instanceof TwitterException);
+        assertEquals(403, ((TwitterException) subscriber.error).getStatusCode());
+        assertFalse(subscriber.completed);
+    }
+
+    public void testRawMessagesAndCancel() throws Exception {
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>();
+        StreamPublisher.ofRawMessages(connector(capture())).subscribe(subscriber);
+        subscriber.subscription.request(3);
+        subscriber.awaitItems(3);
+        assertEquals(DELETE, subscriber.items.get(2));
+        subscriber.subscription.cancel();
+        consumer.join(5000);
+        assertFalse(consumer.isAlive());
+        assertEquals(3, subscriber.items.size());
+        // no signal after cancel
+        assertEquals(1, subscriber.terminated.getCount());
+    }
+
+    public void testNonPositiveRequest() throws Exception {
+        RecordingSubscriber<Status> subscriber = new RecordingSubscriber<Status>();
+        StreamPublisher.ofStatuses(connector(capture())).subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.terminated.await(5, TimeUnit.SECONDS));
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertEquals(0, subscriber.items.size());
+    }
+
+    public void testFlyweightNotSupported() throws Exception {
+        TwitterStream flyweight = new TwitterStreamFactory(new ConfigurationBuilder().setStreamFlyweight(true).build())
+                .getInstance();
+        try {
+            flyweight.filterPublisher(new FilterQuery().track("twitter4j"));
+            fail("expecting IllegalStateException");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    public void testSubscriptionsRunAlongsideOtherConnections() throws Exception {
+        TwitterStreamImpl.TwitterStreamConsumer running = unreachable(null);
+        twitterStream.startHandler(running);
+        final CountDownLatch terminated = new CountDownLatch(2);
+        PacedStreamListener listener = new PacedStreamListener() {
+            @Override
+            public boolean awaitDemand() {
+                return true;
+            }
+
+            @Override
+            public void onTerminate(Exception cause) {
+                terminated.countDown();
+            }
+
+            @Override
+            public void onException(Exception ex) {
+            }
+        };
+        TwitterStreamImpl.TwitterStreamConsumer first = unreachable(listener);
+        TwitterStreamImpl.TwitterStreamConsumer second = unreachable(listener);
+        twitterStream.startPublisherHandler(first);
+        twitterStream.startPublisherHandler(second);
+        assertFalse(running.isClosed());
+        assertFalse(first.isClosed());
+        assertEquals(3, twitterStream.getStreamHealth().size());
+
+        // a cancelled subscription leaves the other connections running
+        second.close();
+        second.join(5000);
+        assertFalse(second.isAlive());
+        assertEquals(2, twitterStream.getStreamHealth().size());
+        assertFalse(running.isClosed());
+        assertFalse(first.isClosed());
+
+        twitterStream.cleanUp();
+        assertTrue(running.isClosed());
+        assertTrue(first.isClosed());
+        assertTrue(terminated.await(5, TimeUnit.SECONDS));
+        assertEquals(0, twitterStream.getStreamHealth().size());
+    }
+
+    /**
+     * @param listener listener of the subscription, or null for a connection of the instance
+     * @return a connection retrying until closed
+     */
+    private TwitterStreamImpl.TwitterStreamConsumer unreachable(PacedStreamListener listener) {
+        return twitterStream.new TwitterStreamConsumer(TwitterStreamImpl.Mode.status, listener) {
+            @Override
+            StatusStream getStream() throws TwitterException {
+                throw new TwitterException("not connected");
+            }
+        };
+    }
+
+    private ByteArrayInputStream capture() throws IOException {
+        String lines = String.format(STATUS, 1) + "\r\n" + String.format(STATUS, 2) + "\r\n" + DELETE + "\r\n"
+                + String.format(STATUS, 3) + "\r\n" + String.format(STATUS, 4) + "\r\n";
+        return new ByteArrayInputStream(lines.getBytes("UTF-8"));
+    }
+
+    /**
+     * @param capture messages of the stream, or null to fail connecting with 403
+     */
+    private StreamPublisher.Connector connector(final ByteArrayInputStream capture) {
+        return new StreamPublisher.Connector() {
+            @Override
+            public TwitterStreamImpl.TwitterStreamConsumer connect(PacedStreamListener listener) {
+                consumer = twitterStream.new TwitterStreamConsumer(TwitterStreamImpl.Mode.status, listener) {
+                    @Override
+                    StatusStream getStream() throws TwitterException {
+                        if (capture == null) {
+                            throw new TwitterException("forbidden", null, 403);
+                        }
+                        try {
+                            return new StatusStreamImpl(StreamPublisher.CONSUMER_THREAD, capture
+                                    , new ConfigurationBuilder().build());
+                        } catch (IOException e) {
+                            throw new TwitterException(e);
+                        }
+                    }
+                };
+                consumer.start();
+                return consumer;
+            }
+        };
+    }
+
+    private void awaitWaiting() throws InterruptedException {
+        for (int i = 0; i < 100 && consumer.getState() != Thread.State.WAITING; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(Thread.State.WAITING, consumer.getState());
+    }
+
+    private static final class RecordingSubscriber<T> implements Flow.Subscriber<T> {
+        private final List<T> items = new ArrayList<T>();
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+        private volatile Throwable error;
+        private volatile boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(T item) {
+            synchronized (items) {
+                items.add(item);
+                items.notifyAll();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            terminated.countDown();
+        }
+
+        void awaitItems(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            synchronized (items) {
+                while (items.size() < count && System.currentTimeMillis() < deadline) {
+                    items.wait(100);
+                }
+                assertEquals(count, items.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Measures the throughput of the stream parsing and dispatching path by replaying a capture as fast as possible.<br>
+ * usage: java twitter4j.StreamReplayBenchmark [capture file or journal directory]<br>
+ * Without a capture, 500,000 statuses of streamingapi-testcase.json are written to a temporary gzipped file.
+ */
+public class StreamReplayBenchmark {
+    public static void main(String[] args) throws Exception {
+        File capture = args.length > 0 ? new File(args[0]) : sampleCapture(500000);
+        for (int round = 0; round < 3; round++) {
+            // first round warms up the JIT
+            final long[] checksum = new long[1];
+            ReplayStatistics statistics = new StreamReplay(new ConfigurationBuilder().build(), capture)
+                    .setSpeed(StreamReplay.UNLIMITED)
+                    .addListener(new StatusAdapter() {
+                        @Override
+                        public void onStatus(Status status) {
+                            checksum[0] += status.getId();
+                        }
+                    }).replay();
+            if (round > 0) {
+                System.out.println(String.format("%,d messages in %,d ms: %,.0f messages/sec %,.1f MB/sec checksum=%d"
+                        , statistics.getDeliveredCount(), statistics.getElapsedTime()
+                        , statistics.getMessagesPerSecond(), statistics.getMegabytesPerSecond(), checksum[0]));
+            }
+        }
+    }
+
+    private static File sampleCapture(int messages) throws Exception {
+        InputStream is = StreamReplayBenchmark.class.getResourceAsStream("/streamingapi-testcase.json");
+        List<String> statuses = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(is, "UTF-8"));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith("{\"text\"") || line.startsWith("{\"created_at\"")) {
+                statuses.add(line);
+            }
+        }
+        reader.close();
+        File file = File.createTempFile("replay", ".json.gz");
+        file.deleteOnExit();
+        OutputStream out = new GZIPOutputStream(new FileOutputStream(file), 65536);
+        for (int i = 0; i < messages; i++) {
+            out.write((statuses.get(i % statuses.size()) + "\r\n").getBytes("UTF-8"));
+        }
+        out.close();
+        return file;
+    }
+}
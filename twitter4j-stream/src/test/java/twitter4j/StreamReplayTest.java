@@ -0,0 +1,129 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+public class StreamReplayTest extends TestCase {
+    public StreamReplayTest(String name) {
+        super(name);
+    }
+
+    private static String status(int i, long timestamp) {
+        return "{\"created_at\":\"Thu Jan 02 00:00:00 +0000 2014\",\"id\":" + (1000 + i)
+                + ",\"text\":\"message " + i + "\",\"user\":{\"id\":" + i + ",\"screen_name\":\"u" + i + "\"}"
+                + ",\"timestamp_ms\":\"" + timestamp + "\"}";
+    }
+
+    private static File write(boolean gzip, long interval, int messages) throws Exception {
+        File file = File.createTempFile("replay", gzip ? ".json.gz" : ".json");
+        file.deleteOnExit();
+        OutputStream out = new FileOutputStream(file);
+        if (gzip) {
+            out = new GZIPOutputStream(out);
+        }
+        for (int i = 0; i < messages; i++) {
+            out.write((status(i, 1388620800000L + i * interval) + "\r\n").getBytes("UTF-8"));
+            if (i % 10 == 0) {
+                // keep-alive
+                out.write("\r\n".getBytes("UTF-8"));
+            }
+        }
+        out.close();
+        return file;
+    }
+
+    private static final class Counter extends StatusAdapter {
+        final AtomicLong statuses = new AtomicLong();
+        final AtomicLong idSum = new AtomicLong();
+
+        @Override
+        public void onStatus(Status status) {
+            statuses.incrementAndGet();
+            idSum.addAndGet(status.getId());
+        }
+    }
+
+    public void testGzippedCaptureIsReplayed() throws Exception {
+        Counter counter = new Counter();
+        StreamReplay replay = new StreamReplay(new ConfigurationBuilder().build(), write(true, 1000, 100))
+                .addListener(counter);
+        assertNull(replay.getStatistics());
+        ReplayStatistics statistics = replay.setSpeed(StreamReplay.UNLIMITED).replay();
+        assertEquals(100, counter.statuses.get());
+        assertEquals(100 * 1000 + 99 * 100 / 2, counter.idSum.get());
+        assertEquals(100, statistics.getMessageCount());
+        assertEquals(100, statistics.getDeliveredCount());
+        assertTrue(statistics.getByteCount() > 100 * 100);
+        // a hundred seconds worth of messages, delivered right away
+        assertTrue(statistics.getElapsedTime() < 10000);
+    }
+
+    public void testReplayIsPaced() throws Exception {
+        File capture = write(false, 100, 5);
+        Counter counter = new Counter();
+        ReplayStatistics statistics = new StreamReplay(new ConfigurationBuilder().build(), capture)
+                .addListener(counter).setSpeed(2).replay();
+        assertEquals(5, counter.statuses.get());
+        // 400ms of messages at twice the speed
+        assertTrue(String.valueOf(statistics.getElapsedTime()), statistics.getElapsedTime() >= 190);
+    }
+
+    public void testJournalIsReplayed() throws Exception {
+        File dir = File.createTempFile("journal", "");
+        assertTrue(dir.delete());
+        Configuration conf = new ConfigurationBuilder().setStreamJournalDir(dir.getAbsolutePath())
+                .setStreamJournalSegmentSize(1024).build();
+        StreamJournal journal = new StreamJournal(conf);
+        for (int i = 0; i < 20; i++) {
+            byte[] message = status(i, 0).getBytes("UTF-8");
+            journal.append(new ByteSlice(message, 0, message.length), 1000 + i);
+        }
+        journal.close();
+        try {
+            Counter counter = new Counter();
+            final AtomicLong raw = new AtomicLong();
+            ReplayStatistics statistics = new StreamReplay(conf, dir).addListener(counter)
+                    .addRawStreamListener(new RawStreamListener() {
+                        @Override
+                        public void onMessage(String rawString) {
+                            raw.incrementAndGet();
+                        }
+
+                        @Override
+                        public void onException(Exception ex) {
+                        }
+                    }).setSpeed(StreamReplay.REALTIME).replay();
+            assertEquals(20, counter.statuses.get());
+            assertEquals(20, raw.get());
+            assertEquals(20, statistics.getDeliveredCount());
+        } finally {
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+            dir.delete();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TrackMatcherTest extends TestCase {
+    public TrackMatcherTest(String name) {
+        super(name);
+    }
+
+    private static String match(TrackMatcher matcher, String text) {
+        return Arrays.toString(matcher.match(text));
+    }
+
+    public void testTrackTerms() throws Exception {
+        TrackMatcher matcher = TrackMatcher.compile(new FilterQuery().track("java", "twitter api", "foo, bar"), null);
+        assertEquals(4, matcher.getRuleCount());
+        assertEquals("[java]", match(matcher, "I love Java."));
+        assertEquals("[java]", match(matcher, "#java"));
+        assertEquals("[java]", match(matcher, "ＪＡＶＡ"));
+        assertEquals("[]", match(matcher, "javascript and rejava"));
+        // all the words, in any order
+        assertEquals("[twitter api]", match(matcher, "The API of @Twitter"));
+        assertEquals("[]", match(matcher, "twitter"));
+        assertEquals("[java, bar]", match(matcher, "bar java"));
+        assertEquals("[]", match(matcher, ""));
+    }
+
+    public void testOverlappingWords() throws Exception {
+        Map<String, String> rules = new LinkedHashMap<String, String>();
+        rules.put("1", "he");
+        rules.put("2", "she");
+        rules.put("3", "hers");
+        rules.put("4", "his");
+        rules.put("5", "she sells");
+        TrackMatcher matcher = TrackMatcher.compile(null, rules);
+        assertEquals("[2, 3, 4]", match(matcher, "ushers? she, hers, his"));
+        assertEquals("[1, 2, 5]", match(matcher, "sells: she said he"));
+    }
+
+    public void testRulesReplaceTrackTerms() throws Exception {
+        Map<String, String> rules = new HashMap<String, String>();
+        rules.put("java", "kotlin");
+        TrackMatcher matcher = TrackMatcher.compile(new FilterQuery().track("java"), rules);
+        assertEquals("[]", match(matcher, "java"));
+        assertEquals("[java]", match(matcher, "kotlin"));
+    }
+
+    public void testManyRules() throws Exception {
+        Map<String, String> rules = new LinkedHashMap<String, String>();
+        for (int i = 0; i < 5000; i++) {
+            rules.put("rule" + i, "word" + i);
+        }
+        TrackMatcher matcher = TrackMatcher.compile(null, rules);
+        assertEquals("[rule42, rule4999]", match(matcher, "word4999 word42 word50000 word"));
+    }
+
+    public void testStatusEntities() throws Exception {
+        Status status = new StatusJSONImpl(new JSONObject("{\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\",\"id\":1"
+                + ",\"text\":\"read this https://t.co/abc\""
+                + ",\"entities\":{\"urls\":[{\"url\":\"https://t.co/abc\",\"expanded_url\":\"https://www.example.com/news\""
+                + ",\"display_url\":\"example.com/news\",\"indices\":[10,26]}]"
+                + ",\"hashtags\":[{\"text\":\"Breaking\",\"indices\":[0,0]}]}"
+                + ",\"user\":{\"id\":1,\"screen_name\":\"java\"}}"));
+        Map<String, String> rules = new LinkedHashMap<String, String>();
+        rules.put("url", "example com");
+        rules.put("hashtag", "breaking news");
+        rules.put("user", "java");
+        TrackMatcher matcher = TrackMatcher.compile(null, rules);
+        // user names aren't matched
+        assertEquals("[url, hashtag]", Arrays.toString(matcher.match(status)));
+    }
+
+    public void testTrackMatchListener() throws Exception {
+        String stream = "{\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\",\"id\":1,\"text\":\"java\",\"user\":{\"id\":1}}\r\n"
+                + "{\"limit\":{\"track\":10}}\r\n"
+                + "{\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\",\"id\":2,\"text\":\"scala\",\"user\":{\"id\":1}}\r\n";
+        StatusStreamImpl statusStream = new StatusStreamImpl(new Dispatcher() {
+            @Override
+            public void invokeLater(Runnable task) {
+                task.run();
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        }, new ByteArrayInputStream(stream.getBytes("UTF-8")), new ConfigurationBuilder().build());
+        statusStream.setTrackMatcher(new AtomicReference<TrackMatcher>(
+                TrackMatcher.compile(new FilterQuery().track("java"), null)));
+        final List<String> matches = new ArrayList<String>();
+        final List<Long> statuses = new ArrayList<Long>();
+        StreamListener[] listeners = {new TrackMatchListener() {
+            @Override
+            public void onTrackMatch(Status status, String[] ruleIds) {
+                matches.add(status.getId() + Arrays.toString(ruleIds));
+            }
+
+            @Override
+            public void onException(Exception ex) {
+                fail(ex.getMessage());
+            }
+        }, new StatusAdapter() {
+            @Override
+            public void onStatus(Status status) {
+                statuses.add(status.getId());
+            }
+        }};
+        for (int i = 0; i < 3; i++) {
+            statusStream.next(listeners, StatusStreamImpl.EMPTY);
+        }
+        assertEquals("[1[java]]", matches.toString());
+        assertEquals("[1, 2]", statuses.toString());
+    }
+}